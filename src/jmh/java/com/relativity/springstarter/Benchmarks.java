@@ -0,0 +1,77 @@
+package com.relativity.springstarter;
+
+import com.relativity.springstarter.starter.persistence.user.entity.User;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Helpers shared by the benchmarks.
+ *
+ * @author avakhobov
+ */
+public final class Benchmarks {
+
+    private Benchmarks() {
+        super();
+    }
+
+    /**
+     * Start the application, without web server, against an embedded database.
+     *
+     * @param properties additional application properties, as {@code key=value}.
+     *
+     * @return the started application context.
+     */
+    public static ConfigurableApplicationContext start(final String... properties) {
+        return new SpringApplicationBuilder(Application.class).web(WebApplicationType.NONE)
+                .properties("spring.main.banner-mode=off", "logging.level.root=WARN")
+                .properties(properties).run();
+    }
+
+    /**
+     * Start the application, with its web server listening on a random port, against an embedded
+     * database.
+     *
+     * @param properties additional application properties, as {@code key=value}.
+     *
+     * @return the started application context.
+     */
+    public static ServletWebServerApplicationContext startWebServer(final String... properties) {
+        return startWebServer(Application.class, properties);
+    }
+
+    /**
+     * Start the application, with its web server listening on a random port, against an embedded
+     * database.
+     *
+     * @param source an additional configuration or controller class.
+     * @param properties additional application properties, as {@code key=value}.
+     *
+     * @return the started application context.
+     */
+    public static ServletWebServerApplicationContext startWebServer(final Class<?> source,
+            final String... properties) {
+        return (ServletWebServerApplicationContext) new SpringApplicationBuilder(Application.class,
+                source).web(WebApplicationType.SERVLET)
+                .properties("spring.main.banner-mode=off", "logging.level.root=WARN",
+                        "server.port=0")
+                .properties(properties).run();
+    }
+
+    /**
+     * Create a new, not persisted, {@link User}.
+     *
+     * @param username the user username, also used to derive the other mandatory properties.
+     *
+     * @return the new {@link User}.
+     */
+    public static User newUser(final String username) {
+        final User user = new User(username, username + "@example.org");
+        user.setFirstname("First " + username);
+        user.setLastname("Last " + username);
+        return user;
+    }
+}
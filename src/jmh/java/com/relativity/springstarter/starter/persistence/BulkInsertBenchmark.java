@@ -0,0 +1,95 @@
+package com.relativity.springstarter.starter.persistence;
+
+import com.relativity.springstarter.Benchmarks;
+import com.relativity.springstarter.starter.persistence.user.dao.UserRepository;
+import com.relativity.springstarter.starter.persistence.user.entity.User;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the rows inserted per second by {@link GenericRepository#add(AbstractGenericEntity)} and
+ * {@link GenericRepository#addAll(Iterable, int)} against an embedded database.
+ *
+ * @author avakhobov
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class BulkInsertBenchmark {
+
+    /**
+     * The number of users inserted per benchmark invocation.
+     */
+    private static final int ROWS = 2000;
+
+    /**
+     * The {@link GenericRepository#addAll(Iterable, int)} chunk size.
+     */
+    @Param({ "100", "500", "2000" })
+    private int chunkSize;
+
+    private ConfigurableApplicationContext context;
+
+    private UserRepository repository;
+
+    private JdbcTemplate jdbc;
+
+    private List<User> users;
+
+    private long sequence = 0;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = Benchmarks.start();
+        repository = context.getBean(UserRepository.class);
+        jdbc = context.getBean(JdbcTemplate.class);
+    }
+
+    @Setup(Level.Invocation)
+    public void prepareUsers() {
+        users = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            users.add(Benchmarks.newUser("user" + sequence++));
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void deleteUsers() {
+        jdbc.update("DELETE FROM users");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void add() {
+        for (final User user : users) {
+            repository.add(user);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void addAll() {
+        repository.addAll(users, chunkSize);
+    }
+}
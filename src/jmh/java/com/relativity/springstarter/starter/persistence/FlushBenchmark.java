@@ -0,0 +1,94 @@
+package com.relativity.springstarter.starter.persistence;
+
+import com.relativity.springstarter.Benchmarks;
+import com.relativity.springstarter.starter.persistence.user.dao.UserRepository;
+import com.relativity.springstarter.starter.persistence.user.entity.User;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * Measures the cost of flushing a persistence context holding many loaded users of which one was
+ * modified, which is dominated by the dirty checking of the loaded users.
+ *
+ * <p>
+ * Run it against builds with and without the Hibernate bytecode enhancement of {@code build.gradle}
+ * to compare the inline dirty tracking with the snapshot comparison.
+ * </p>
+ *
+ * @author avakhobov
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FlushBenchmark {
+
+    /**
+     * The number of users loaded in the persistence context.
+     */
+    @Param({ "1000", "10000" })
+    private int loaded;
+
+    private ConfigurableApplicationContext context;
+
+    private EntityManagerFactory entityManagerFactory;
+
+    private EntityManager entityManager;
+
+    private List<User> users;
+
+    private int sequence = 0;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = Benchmarks.start();
+
+        final List<User> created = new ArrayList<>(loaded);
+        for (int i = 0; i < loaded; i++) {
+            created.add(Benchmarks.newUser("user" + i));
+        }
+        context.getBean(UserRepository.class).addAll(created);
+
+        entityManagerFactory = context.getBean(EntityManagerFactory.class);
+    }
+
+    @Setup(Level.Invocation)
+    public void loadUsers() {
+        entityManager = entityManagerFactory.createEntityManager();
+        entityManager.getTransaction().begin();
+        users = entityManager.createQuery("FROM User", User.class).getResultList();
+    }
+
+    @TearDown(Level.Invocation)
+    public void rollback() {
+        entityManager.getTransaction().rollback();
+        entityManager.close();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void flushOneModified() {
+        users.get(sequence++ % users.size()).setFirstname("First " + sequence);
+        entityManager.flush();
+    }
+}
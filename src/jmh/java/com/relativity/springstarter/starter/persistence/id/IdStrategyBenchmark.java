@@ -0,0 +1,85 @@
+package com.relativity.springstarter.starter.persistence.id;
+
+import com.relativity.springstarter.Benchmarks;
+import com.relativity.springstarter.starter.persistence.user.dao.UserRepository;
+import com.relativity.springstarter.starter.persistence.user.entity.User;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compares the {@link IdStrategy random and time-ordered} identifiers: generation throughput under
+ * contention, and insert throughput into a growing table on an embedded database.
+ *
+ * @author avakhobov
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class IdStrategyBenchmark {
+
+    /**
+     * The number of users inserted per benchmark invocation.
+     */
+    private static final int ROWS = 1000;
+
+    /**
+     * The identifier strategy.
+     */
+    @Param({ "random", "time-ordered" })
+    private String strategy;
+
+    private IdGenerator generator;
+
+    private ConfigurableApplicationContext context;
+
+    private UserRepository repository;
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        generator = IdStrategy.fromName(strategy).getGenerator();
+        context = Benchmarks.start(IdGenerationConfiguration.STRATEGY_PROPERTY + "=" + strategy);
+        repository = context.getBean(UserRepository.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public UUID generate() {
+        return generator.generate();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void insert() {
+        final List<User> users = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            users.add(Benchmarks.newUser("user" + sequence.incrementAndGet()));
+        }
+
+        repository.addAll(users);
+    }
+}
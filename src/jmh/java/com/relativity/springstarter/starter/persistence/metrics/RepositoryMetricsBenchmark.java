@@ -0,0 +1,115 @@
+package com.relativity.springstarter.starter.persistence.metrics;
+
+import com.relativity.springstarter.Benchmarks;
+import com.relativity.springstarter.starter.persistence.user.dao.UserRepository;
+import com.relativity.springstarter.starter.persistence.user.entity.User;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Measures the overhead of the repository metrics: the {@link RepositoryMetricsInterceptor} alone,
+ * around a proxy doing nothing, and a {@link UserRepository#findById(Object)} lookup with and
+ * without the metrics, statements counting and slow queries detection included.
+ *
+ * @author avakhobov
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RepositoryMetricsBenchmark {
+
+    /**
+     * The number of users in the repository.
+     */
+    private static final int USERS = 1000;
+
+    /**
+     * Whether the repository metrics are enabled.
+     */
+    @Param({ "true", "false" })
+    private boolean enabled;
+
+    private ConfigurableApplicationContext context;
+
+    private UserRepository repository;
+
+    private UUID[] userIds;
+
+    private Supplier<String> plain;
+
+    private Supplier<String> timed;
+
+    private int sequence;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = Benchmarks.start(RepositoryMetricsConfiguration.ENABLED_PROPERTY + "=" + enabled);
+        repository = context.getBean(UserRepository.class);
+
+        final List<User> created = new ArrayList<>(USERS);
+        for (int i = 0; i < USERS; i++) {
+            created.add(Benchmarks.newUser("user" + i));
+        }
+        repository.addAll(created);
+        userIds = created.stream().map(User::getId).toArray(UUID[]::new);
+
+        final Supplier<String> target = () -> "value";
+        plain = proxy(target, false);
+        timed = proxy(target, true);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public String plainProxy() {
+        return plain.get();
+    }
+
+    @Benchmark
+    public String timedProxy() {
+        return timed.get();
+    }
+
+    @Benchmark
+    public Optional<User> findById() {
+        sequence = (sequence + 1) % USERS;
+        return repository.findById(userIds[sequence]);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Supplier<String> proxy(final Supplier<String> target, final boolean timed) {
+        final ProxyFactory factory = new ProxyFactory(target);
+        factory.addInterface(Supplier.class);
+        factory.addAdvice((MethodInterceptor) MethodInvocation::proceed);
+        if (timed) {
+            factory.addAdvice(0, new RepositoryMetricsInterceptor(new SimpleMeterRegistry(),
+                    Supplier.class, new double[] { 0.5, 0.95, 0.99 }, false));
+        }
+        return (Supplier<String>) factory.getProxy();
+    }
+}
@@ -0,0 +1,131 @@
+package com.relativity.springstarter.starter.persistence.user.dao;
+
+import com.relativity.springstarter.Benchmarks;
+import com.relativity.springstarter.starter.persistence.async.AsyncUserRepository;
+import com.relativity.springstarter.starter.persistence.user.entity.User;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the {@link UserRepository} multi-key lookups with a lookup per key, against an embedded
+ * database.
+ *
+ * <p>
+ * A tenth of the looked up keys are missing, the others are picked at random among the users.
+ * </p>
+ *
+ * @author avakhobov
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class UserBatchLookupBenchmark {
+
+    /**
+     * The number of users in the repository.
+     */
+    @Param({ "10000" })
+    private int users;
+
+    /**
+     * The number of looked up keys.
+     */
+    @Param({ "100", "2500" })
+    private int keys;
+
+    private ConfigurableApplicationContext context;
+
+    private UserRepository repository;
+
+    private AsyncUserRepository asyncRepository;
+
+    private List<UUID> userIds;
+
+    private List<String> usernames;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = Benchmarks.start();
+        repository = context.getBean(UserRepository.class);
+        asyncRepository = context.getBean(AsyncUserRepository.class);
+
+        final List<User> created = new ArrayList<>(users);
+        for (int i = 0; i < users; i++) {
+            created.add(Benchmarks.newUser("user" + i));
+        }
+        repository.addAll(created);
+
+        final Random random = new Random(42);
+        userIds = new ArrayList<>(keys);
+        usernames = new ArrayList<>(keys);
+        for (int i = 0; i < keys; i++) {
+            if (i % 10 == 0) {
+                userIds.add(UUID.randomUUID());
+                usernames.add("missing" + i);
+            } else {
+                final User user = created.get(random.nextInt(users));
+                userIds.add(user.getId());
+                usernames.add(user.getUsername().toUpperCase(Locale.ROOT));
+            }
+        }
+        userIds = Collections.unmodifiableList(userIds);
+        usernames = Collections.unmodifiableList(usernames);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Optional<User>> findByIdPerKey() {
+        final List<Optional<User>> found = new ArrayList<>(keys);
+        for (final UUID userId : userIds) {
+            found.add(repository.findById(userId));
+        }
+        return found;
+    }
+
+    @Benchmark
+    public List<Optional<User>> findEachById() {
+        return repository.findEachById(userIds);
+    }
+
+    @Benchmark
+    public List<Optional<User>> findEachByIdAsync() {
+        return asyncRepository.findEachById(userIds).join();
+    }
+
+    @Benchmark
+    public List<User> findByUsernameIgnoreCasePerKey() {
+        final List<User> found = new ArrayList<>(keys);
+        for (final String username : usernames) {
+            found.add(repository.findByUsernameIgnoreCase(username));
+        }
+        return found;
+    }
+
+    @Benchmark
+    public List<Optional<User>> findEachByUsernameIgnoreCase() {
+        return repository.findEachByUsernameIgnoreCase(usernames);
+    }
+}
@@ -0,0 +1,138 @@
+package com.relativity.springstarter.starter.persistence.user.dao;
+
+import com.relativity.springstarter.Benchmarks;
+import com.relativity.springstarter.starter.persistence.AbstractGenericEntity;
+import com.relativity.springstarter.starter.persistence.KeysetCursor;
+import com.relativity.springstarter.starter.persistence.KeysetPageRequest;
+import com.relativity.springstarter.starter.persistence.user.entity.User;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures the {@link UserRepository} lookups, inserts and paging against an embedded database.
+ *
+ * <p>
+ * The pages are read from the middle of the users, by offset and by keyset, to compare both
+ * paging strategies away from the first page.
+ * </p>
+ *
+ * @author avakhobov
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class UserRepositoryBenchmark {
+
+    /**
+     * The number of users in the repository.
+     */
+    @Param({ "10000" })
+    private int users;
+
+    /**
+     * The number of users of a page.
+     */
+    @Param({ "50" })
+    private int size;
+
+    private ConfigurableApplicationContext context;
+
+    private UserRepository repository;
+
+    private UUID[] userIds;
+
+    private String[] usernames;
+
+    private Pageable middlePage;
+
+    private String middleToken;
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = Benchmarks.start();
+        repository = context.getBean(UserRepository.class);
+
+        final List<User> created = new ArrayList<>(users);
+        for (int i = 0; i < users; i++) {
+            created.add(Benchmarks.newUser("user" + i));
+        }
+        repository.addAll(created);
+
+        userIds = new UUID[users];
+        usernames = new String[users];
+        for (int i = 0; i < users; i++) {
+            userIds[i] = created.get(i).getId();
+            usernames[i] = created.get(i).getUsername().toUpperCase(Locale.ROOT);
+        }
+
+        final int middle = users / 2;
+        middlePage = PageRequest.of(middle / size, size, Sort.by(
+                AbstractGenericEntity.CREATED_AT_FIELD, AbstractGenericEntity.ID_PROPERTY));
+        middleToken = KeysetCursor.of(repository.findAll(PageRequest.of(middle / size - 1, size,
+                middlePage.getSort())).getContent().get(size - 1)).encode();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Optional<User> findById() {
+        return repository.findById(userIds[next()]);
+    }
+
+    @Benchmark
+    public User findByUsernameIgnoreCase() {
+        return repository.findByUsernameIgnoreCase(usernames[next()]);
+    }
+
+    @Benchmark
+    public boolean exists() {
+        return repository.exists(userIds[next()]);
+    }
+
+    @Benchmark
+    public User add() {
+        final User user = Benchmarks.newUser("added" + sequence.incrementAndGet());
+        repository.add(user);
+        return user;
+    }
+
+    @Benchmark
+    public List<User> offsetPage() {
+        return repository.findAll(middlePage).getContent();
+    }
+
+    @Benchmark
+    public List<User> keysetPage() {
+        return repository.findAll(KeysetPageRequest.of(size, middleToken)).getContent();
+    }
+
+    private int next() {
+        return (int) (sequence.getAndIncrement() % users);
+    }
+}
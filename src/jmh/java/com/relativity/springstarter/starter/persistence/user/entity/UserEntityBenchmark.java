@@ -0,0 +1,107 @@
+package com.relativity.springstarter.starter.persistence.user.entity;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.relativity.springstarter.Benchmarks;
+import com.relativity.springstarter.starter.persistence.id.IdGenerators;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the in-memory hot paths of the {@link User} entities, without database: the
+ * {@code equals}, {@code hashCode} and {@code toString} methods, the copy constructor, the
+ * {@code update} merging and the Jackson serialization.
+ *
+ * @author avakhobov
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class UserEntityBenchmark {
+
+    private User user;
+
+    private User same;
+
+    private User other;
+
+    private User changes;
+
+    private ObjectMapper mapper;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        final User owner = persisted(Benchmarks.newUser("owner"));
+
+        user = persisted(Benchmarks.newUser("user"));
+        user.setOwner(owner);
+        user.setCreatedBy(owner);
+        user.setPassword("hash");
+
+        same = new User(user);
+        other = persisted(Benchmarks.newUser("other"));
+
+        changes = Benchmarks.newUser("renamed");
+        changes.setOwner(other);
+        changes.setPassword("other hash");
+
+        // Configured with the Spring Boot defaults, without starting the application
+        mapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build();
+    }
+
+    @Benchmark
+    public boolean equalsSame() {
+        return user.equals(same);
+    }
+
+    @Benchmark
+    public boolean equalsOther() {
+        return user.equals(other);
+    }
+
+    @Benchmark
+    public int hashCodeUser() {
+        return user.hashCode();
+    }
+
+    @Benchmark
+    public String toStringUser() {
+        return user.toString();
+    }
+
+    @Benchmark
+    public User copy() {
+        return new User(user);
+    }
+
+    @Benchmark
+    public User update() {
+        final User updated = new User(user);
+        updated.update(changes);
+        return updated;
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        return mapper.writeValueAsBytes(user);
+    }
+
+    private static User persisted(final User user) {
+        user.setId(IdGenerators.generate(User.class));
+        user.setCreatedAt(new Date());
+        return user;
+    }
+}
@@ -0,0 +1,89 @@
+package com.relativity.springstarter.starter.persistence.user.search;
+
+import com.relativity.springstarter.Benchmarks;
+import com.relativity.springstarter.starter.persistence.user.dao.UserRepository;
+import com.relativity.springstarter.starter.persistence.user.entity.User;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the {@link SqlUserSearchEngine} and the {@link NGramUserSearchEngine} against an
+ * embedded database.
+ *
+ * @author avakhobov
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class UserSearchBenchmark {
+
+    /**
+     * The number of users in the repository.
+     */
+    @Param({ "10000", "100000" })
+    private int users;
+
+    /**
+     * The searched term.
+     */
+    @Param({ "ser4242", "@example" })
+    private String term;
+
+    /**
+     * The maximum number of results.
+     */
+    @Param({ "20" })
+    private int limit;
+
+    private ConfigurableApplicationContext context;
+
+    private UserSearchEngine sql;
+
+    private UserSearchEngine ngram;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = Benchmarks.start(
+                UserSearchConfiguration.ENGINE_PROPERTY + "=" + UserSearchConfiguration.ENGINE_NGRAM);
+
+        final UserRepository repository = context.getBean(UserRepository.class);
+        final List<User> batch = new ArrayList<>(users);
+        for (int i = 0; i < users; i++) {
+            batch.add(Benchmarks.newUser("user" + i));
+        }
+        repository.addAll(batch);
+
+        sql = new SqlUserSearchEngine(repository);
+        ngram = context.getBean(UserSearchEngine.class);
+        ((NGramUserSearchEngine) ngram).rebuild();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<User> sql() {
+        return sql.findAllContainingUsernameOrEmailIgnoreCase(term, term, limit);
+    }
+
+    @Benchmark
+    public List<User> ngram() {
+        return ngram.findAllContainingUsernameOrEmailIgnoreCase(term, term, limit);
+    }
+}
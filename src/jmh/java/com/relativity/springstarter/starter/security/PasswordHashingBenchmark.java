@@ -0,0 +1,110 @@
+package com.relativity.springstarter.starter.security;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the {@link PasswordHasher} latency by cost, to pick the cost of a target latency.
+ *
+ * <p>
+ * Running the {@link #main(String[]) main method} measures the hashing latency of each cost and
+ * prints the highest cost hashing within the {@code target} system property, in milliseconds,
+ * {@value #DEFAULT_TARGET} unless specified otherwise. It should run on the production hardware.
+ * </p>
+ *
+ * @author avakhobov
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class PasswordHashingBenchmark {
+
+    /**
+     * The default target latency, in milliseconds.
+     */
+    public static final String DEFAULT_TARGET = "250";
+
+    /**
+     * The base two logarithm of the bcrypt rounds.
+     */
+    @Param({ "8", "9", "10", "11", "12", "13", "14" })
+    private int cost;
+
+    private PasswordHasher hasher;
+
+    private String hash;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        hasher = new PasswordHasher(cost, 1, 0);
+        hash = hasher.hash(password());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        hasher.shutdown();
+    }
+
+    @Benchmark
+    public String hash() {
+        return hasher.hash(password());
+    }
+
+    @Benchmark
+    public boolean verify() {
+        return hasher.verify(hash, password()).isMatched();
+    }
+
+    /**
+     * Print the highest cost hashing within the target latency.
+     *
+     * @param args the arguments, ignored.
+     *
+     * @throws RunnerException if the benchmark fails.
+     */
+    public static void main(final String[] args) throws RunnerException {
+        final double target = Double.parseDouble(System.getProperty("target", DEFAULT_TARGET));
+
+        final Collection<RunResult> results = new Runner(new OptionsBuilder()
+                .include(PasswordHashingBenchmark.class.getName() + ".hash$").forks(1)
+                .warmupIterations(2).warmupTime(TimeValue.seconds(1)).measurementIterations(3)
+                .measurementTime(TimeValue.seconds(2)).build()).run();
+
+        int picked = 0;
+        for (final RunResult result : results) {
+            final int resultCost = Integer.parseInt(result.getParams().getParam("cost"));
+            final double latency = result.getPrimaryResult().getScore();
+            System.out.printf("cost %2d: %8.2f ms%n", resultCost, latency);
+            if (latency <= target && resultCost > picked) {
+                picked = resultCost;
+            }
+        }
+
+        if (picked == 0) {
+            System.out.printf("No cost hashes within %.0f ms%n", target);
+        } else {
+            System.out.printf("starter.security.password.cost=%d hashes within %.0f ms%n", picked,
+                    target);
+        }
+    }
+
+    private static char[] password() {
+        return "correct horse battery staple".toCharArray();
+    }
+}
@@ -0,0 +1,178 @@
+package com.relativity.springstarter.starter.web.server;
+
+import com.relativity.springstarter.Benchmarks;
+import com.relativity.springstarter.starter.concurrent.ThreadKind;
+import com.relativity.springstarter.starter.concurrent.VirtualThreads;
+import com.relativity.springstarter.starter.persistence.user.dao.UserRepository;
+import com.relativity.springstarter.starter.persistence.user.entity.User;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.core.env.Environment;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load test of the web requests handled on platform or virtual threads (see
+ * {@link ThreadKind}), reporting the throughput and the latency percentiles, p99 included.
+ *
+ * <p>
+ * Each request looks a user up in a transaction and holds its connection for the simulated query
+ * latency, as the requests dominated by JDBC waits do. The latency is simulated outside the JDBC
+ * driver because the embedded H2 database runs the queries on the calling thread. The connection
+ * pool is larger than the Tomcat thread pool, so the platform threads mode is bounded by the Tomcat
+ * threads and the virtual threads mode by the connection pool.
+ * </p>
+ *
+ * <p>
+ * The virtual threads mode requires a JDK providing virtual threads, run it with
+ * {@code -PruntimeJavaVersion=21}.
+ * </p>
+ *
+ * @author avakhobov
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(128)
+public class RequestExecutionBenchmark {
+
+    /**
+     * The number of users in the repository.
+     */
+    private static final int USERS = 1000;
+
+    /**
+     * The kind of threads handling the requests.
+     */
+    @Param({ "PLATFORM", "VIRTUAL" })
+    private ThreadKind threads;
+
+    /**
+     * The simulated query latency, in milliseconds.
+     */
+    @Param({ "10" })
+    private long latency;
+
+    /**
+     * The Tomcat thread pool size, used by the platform threads mode only.
+     */
+    @Param({ "32" })
+    private int tomcatThreads;
+
+    /**
+     * The connection pool size.
+     */
+    @Param({ "64" })
+    private int poolSize;
+
+    private ServletWebServerApplicationContext context;
+
+    private HttpClient client;
+
+    private String baseUri;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        if (threads == ThreadKind.VIRTUAL && !VirtualThreads.isAvailable()) {
+            throw new IllegalStateException("Virtual threads are not available on this JDK");
+        }
+
+        context = Benchmarks.startWebServer(LoadController.class,
+                "starter.web.request.threads=" + threads,
+                "server.tomcat.threads.max=" + tomcatThreads,
+                "spring.datasource.hikari.maximum-pool-size=" + poolSize,
+                "spring.datasource.hikari.minimum-idle=" + poolSize,
+                "benchmark.latency=" + latency);
+
+        final List<User> users = new ArrayList<>(USERS);
+        for (int i = 0; i < USERS; i++) {
+            users.add(Benchmarks.newUser("user" + i));
+        }
+        context.getBean(UserRepository.class).addAll(users);
+
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        baseUri = "http://localhost:" + context.getWebServer().getPort() + "/benchmark/users/";
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int findUser() throws IOException, InterruptedException {
+        final URI uri = URI.create(baseUri + "user" + ThreadLocalRandom.current().nextInt(USERS));
+        final HttpRequest request = HttpRequest.newBuilder(uri).build();
+
+        final HttpResponse<Void> response = client.send(request,
+                HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Unexpected response status " + response.statusCode());
+        }
+
+        return response.statusCode();
+    }
+
+    /**
+     * Looks users up with a simulated query latency, registered explicitly rather than scanned so
+     * the other applications do not pick it up.
+     */
+    @ResponseBody
+    @RequestMapping("/benchmark/users")
+    public static class LoadController {
+
+        private final UserRepository repository;
+
+        private final TransactionTemplate transactionTemplate;
+
+        private final long latency;
+
+        public LoadController(final UserRepository repository,
+                final PlatformTransactionManager transactionManager,
+                final Environment environment) {
+            this.repository = repository;
+            this.transactionTemplate = new TransactionTemplate(transactionManager);
+            this.transactionTemplate.setReadOnly(true);
+            this.latency = environment.getRequiredProperty("benchmark.latency", Long.class);
+        }
+
+        @GetMapping("/{username}")
+        public ResponseEntity<String> find(@PathVariable final String username) {
+            return transactionTemplate.execute(status -> {
+                final boolean found = repository.findByUsernameIgnoreCase(username) != null;
+                try {
+                    Thread.sleep(latency);
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return found ? ResponseEntity.ok(username) : ResponseEntity.notFound().build();
+            });
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.relativity.springstarter.starter.web.user;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.relativity.springstarter.Benchmarks;
+import com.relativity.springstarter.starter.persistence.KeysetPageRequest;
+import com.relativity.springstarter.starter.persistence.user.dao.UserRepository;
+import com.relativity.springstarter.starter.persistence.user.entity.User;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the latency of the {@link UserController} endpoints over HTTP against an embedded
+ * database, and compares the JSON writing of a page of {@link User} entities with the one of the
+ * equivalent {@link UserPageRepresentation}.
+ *
+ * @author avakhobov
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class UserApiBenchmark {
+
+    /**
+     * The number of users in the repository.
+     */
+    private static final int USERS = 10_000;
+
+    /**
+     * The number of users of a page.
+     */
+    @Param({ "100" })
+    private int size;
+
+    private ServletWebServerApplicationContext context;
+
+    private HttpClient client;
+
+    private String baseUri;
+
+    private UUID userId;
+
+    private String eTag;
+
+    private ObjectMapper mapper;
+
+    private List<User> entities;
+
+    private UserPageRepresentation representation;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, InterruptedException {
+        context = Benchmarks.startWebServer();
+
+        final UserRepository repository = context.getBean(UserRepository.class);
+        final List<User> users = new ArrayList<>(USERS);
+        for (int i = 0; i < USERS; i++) {
+            users.add(Benchmarks.newUser("user" + i));
+        }
+        repository.addAll(users);
+        userId = users.get(USERS / 2).getId();
+
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        baseUri = "http://localhost:" + context.getWebServer().getPort() + "/api/users";
+        eTag = send(HttpRequest.newBuilder(URI.create(baseUri + "/" + userId)))
+                .headers().firstValue("ETag").orElseThrow();
+
+        mapper = context.getBean(ObjectMapper.class);
+        entities = repository.findAll(KeysetPageRequest.first(size)).getContent();
+        representation = new UserPageRepresentation(
+                repository.findAllViews(KeysetPageRequest.first(size)).getContent(), null, null,
+                UserField.ALL);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int getUser() throws IOException, InterruptedException {
+        return send(HttpRequest.newBuilder(URI.create(baseUri + "/" + userId))).statusCode();
+    }
+
+    @Benchmark
+    public int getUserNotModified() throws IOException, InterruptedException {
+        return send(HttpRequest.newBuilder(URI.create(baseUri + "/" + userId))
+                .header("If-None-Match", eTag)).statusCode();
+    }
+
+    @Benchmark
+    public int listPage() throws IOException, InterruptedException {
+        return send(HttpRequest.newBuilder(URI.create(baseUri + "?size=" + size))).statusCode();
+    }
+
+    @Benchmark
+    public int listPageGzip() throws IOException, InterruptedException {
+        return send(HttpRequest.newBuilder(URI.create(baseUri + "?size=" + size))
+                .header("Accept-Encoding", "gzip")).statusCode();
+    }
+
+    @Benchmark
+    public int listPageSelectedFields() throws IOException, InterruptedException {
+        return send(HttpRequest
+                .newBuilder(URI.create(baseUri + "?size=" + size + "&fields=id,username")))
+                .statusCode();
+    }
+
+    @Benchmark
+    public byte[] writeEntities() throws IOException {
+        return mapper.writeValueAsBytes(entities);
+    }
+
+    @Benchmark
+    public byte[] writeRepresentation() throws IOException {
+        return mapper.writeValueAsBytes(representation);
+    }
+
+    private HttpResponse<byte[]> send(final HttpRequest.Builder request)
+            throws IOException, InterruptedException {
+        final HttpResponse<byte[]> response = client.send(request.build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200 && response.statusCode() != 304) {
+            throw new IllegalStateException("Unexpected response status " + response.statusCode());
+        }
+
+        return response;
+    }
+}
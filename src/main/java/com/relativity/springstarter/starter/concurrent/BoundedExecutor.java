@@ -0,0 +1,218 @@
+package com.relativity.springstarter.starter.concurrent;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Executor running at most {@code concurrency} tasks at once, with at most {@code queueCapacity}
+ * further tasks waiting to run.
+ *
+ * <p>
+ * Further tasks are rejected with a {@link RejectedExecutionException} so callers can shed load
+ * instead of piling up behind a saturated resource. Tasks run either on a fixed pool of
+ * {@code concurrency} daemon platform threads, idle ones stopping after a minute, or on a virtual
+ * thread each (see {@link ThreadKind}), the number of running virtual threads being limited by a
+ * semaphore.
+ * </p>
+ *
+ * @author avakhobov
+ */
+public class BoundedExecutor {
+
+    /**
+     * The name of the executor, prefixing the names of its platform threads.
+     */
+    private final String name;
+
+    /**
+     * The executor running the tasks.
+     */
+    private final ExecutorService executor;
+
+    /**
+     * The running tasks permits, {@code null} when the executor threads already bound them.
+     */
+    private final Semaphore running;
+
+    /**
+     * The maximum number of tasks running at once.
+     */
+    private final int concurrency;
+
+    /**
+     * The maximum number of tasks running or waiting to run.
+     */
+    private final int capacity;
+
+    /**
+     * The number of tasks running or waiting to run.
+     */
+    private final AtomicInteger pending = new AtomicInteger();
+
+    /**
+     * Create a {@link BoundedExecutor}.
+     *
+     * @param name the name of the executor, prefixing the names of its platform threads.
+     * @param threads the kind of threads running the tasks.
+     * @param concurrency the maximum number of tasks running at once.
+     * @param queueCapacity the maximum number of tasks waiting to run.
+     *
+     * @throws IllegalArgumentException if {@code concurrency} is less than one or
+     *         {@code queueCapacity} is negative.
+     * @throws IllegalStateException if virtual threads are requested and the JDK does not provide
+     *         them.
+     */
+    public BoundedExecutor(final String name, final ThreadKind threads, final int concurrency,
+            final int queueCapacity) {
+        super();
+        if (concurrency < 1) {
+            throw new IllegalArgumentException("Concurrency must not be less than one");
+        } else if (queueCapacity < 0) {
+            throw new IllegalArgumentException("Queue capacity must not be negative");
+        }
+
+        final ExecutorService virtualExecutor = VirtualThreads.newVirtualThreadPerTaskExecutor(threads)
+                .orElse(null);
+
+        this.name = name;
+        this.concurrency = concurrency;
+        this.capacity = concurrency + queueCapacity;
+        if (virtualExecutor != null) {
+            this.executor = virtualExecutor;
+            this.running = new Semaphore(concurrency);
+        } else {
+            final ThreadPoolExecutor pool = new ThreadPoolExecutor(concurrency, concurrency, 60,
+                    TimeUnit.SECONDS, new LinkedBlockingQueue<>(), new DaemonThreadFactory(name));
+            pool.allowCoreThreadTimeOut(true);
+            this.executor = pool;
+            this.running = null;
+        }
+    }
+
+    /**
+     * Run a task asynchronously.
+     *
+     * @param <V> the task result type.
+     * @param task the task to run.
+     *
+     * @return the task result, completed exceptionally with the task failure, or with a
+     *         {@link RejectedExecutionException} if too many tasks are pending.
+     */
+    public <V> CompletableFuture<V> submit(final Supplier<? extends V> task) {
+        if (pending.incrementAndGet() > capacity) {
+            pending.decrementAndGet();
+            return CompletableFuture.failedFuture(new RejectedExecutionException(
+                    "Too many pending " + name + " tasks, limit is " + capacity));
+        }
+
+        final CompletableFuture<V> result = new CompletableFuture<>();
+        try {
+            executor.execute(() -> run(task, result));
+        } catch (final RejectedExecutionException e) {
+            pending.decrementAndGet();
+            result.completeExceptionally(e);
+        }
+
+        return result;
+    }
+
+    /**
+     * Tests if the tasks run on virtual threads.
+     *
+     * @return {@code true} if the tasks run on virtual threads, {@code false} otherwise.
+     */
+    public boolean isVirtual() {
+        return running != null;
+    }
+
+    /**
+     * Get the {@link #concurrency}.
+     *
+     * @return the {@link #concurrency}.
+     */
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    /**
+     * Get the number of tasks running or waiting to run.
+     *
+     * @return the number of pending tasks.
+     */
+    public int getPending() {
+        return pending.get();
+    }
+
+    /**
+     * Stop accepting tasks, the pending tasks still run.
+     */
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private <V> void run(final Supplier<? extends V> task, final CompletableFuture<V> result) {
+        V value = null;
+        Throwable failure = null;
+
+        try {
+            if (running != null) {
+                running.acquire();
+            }
+            try {
+                value = task.get();
+            } finally {
+                if (running != null) {
+                    running.release();
+                }
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failure = e;
+        } catch (final Throwable e) {
+            failure = e;
+        } finally {
+            pending.decrementAndGet();
+        }
+
+        if (failure == null) {
+            result.complete(value);
+        } else {
+            result.completeExceptionally(failure);
+        }
+    }
+
+    /**
+     * Creates the named daemon platform threads.
+     */
+    private static final class DaemonThreadFactory implements ThreadFactory {
+
+        /**
+         * The prefix of the thread names.
+         */
+        private final String prefix;
+
+        /**
+         * The number of created threads.
+         */
+        private final AtomicInteger created = new AtomicInteger();
+
+        DaemonThreadFactory(final String prefix) {
+            this.prefix = prefix;
+        }
+
+        @Override
+        public Thread newThread(final Runnable task) {
+            final Thread thread = new Thread(task, prefix + "-" + created.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
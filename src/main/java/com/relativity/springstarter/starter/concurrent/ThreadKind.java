@@ -0,0 +1,25 @@
+package com.relativity.springstarter.starter.concurrent;
+
+/**
+ * The kinds of threads running the tasks of an executor, such as the web requests or the
+ * asynchronous repository calls.
+ *
+ * @author avakhobov
+ */
+public enum ThreadKind {
+
+    /**
+     * A bounded pool of platform threads.
+     */
+    PLATFORM,
+
+    /**
+     * A virtual thread per task, requires a JDK providing virtual threads.
+     */
+    VIRTUAL,
+
+    /**
+     * Virtual threads when the JDK provides them, platform threads otherwise.
+     */
+    AUTO
+}
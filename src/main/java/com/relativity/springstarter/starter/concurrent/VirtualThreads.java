@@ -0,0 +1,105 @@
+package com.relativity.springstarter.starter.concurrent;
+
+import java.lang.reflect.Method;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Access to the virtual threads of the JDK running the application.
+ *
+ * <p>
+ * The application is compiled for Java 11, so the virtual threads API is looked up reflectively and
+ * reported unavailable on the JDKs not providing it (or providing it as a disabled preview).
+ * </p>
+ *
+ * @author avakhobov
+ */
+public final class VirtualThreads {
+
+    /**
+     * The {@code Thread.isVirtual()} method, {@code null} if the JDK does not provide it.
+     */
+    private static final Method IS_VIRTUAL = findIsVirtual();
+
+    private VirtualThreads() {
+        super();
+    }
+
+    /**
+     * Tests if the JDK provides virtual threads.
+     *
+     * @return {@code true} if the JDK provides virtual threads, {@code false} otherwise.
+     */
+    public static boolean isAvailable() {
+        return newVirtualThreadPerTaskExecutor().map(executor -> {
+            executor.shutdown();
+            return true;
+        }).orElse(false);
+    }
+
+    /**
+     * Create an executor starting a new virtual thread for each task.
+     *
+     * @return the executor, empty if the JDK does not provide virtual threads.
+     */
+    public static Optional<ExecutorService> newVirtualThreadPerTaskExecutor() {
+        try {
+            return Optional.of((ExecutorService) Executors.class
+                    .getMethod("newVirtualThreadPerTaskExecutor").invoke(null));
+        } catch (final ReflectiveOperationException | UnsupportedOperationException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Create the executor starting a new virtual thread for each task of a kind of threads.
+     *
+     * @param kind the kind of threads.
+     *
+     * @return the executor, empty if platform threads are requested, or if any threads are and the
+     *         JDK does not provide virtual threads.
+     *
+     * @throws IllegalStateException if virtual threads are requested and the JDK does not provide
+     *         them.
+     */
+    public static Optional<ExecutorService> newVirtualThreadPerTaskExecutor(final ThreadKind kind) {
+        if (kind == ThreadKind.PLATFORM) {
+            return Optional.empty();
+        }
+
+        final Optional<ExecutorService> executor = newVirtualThreadPerTaskExecutor();
+        if (kind == ThreadKind.VIRTUAL && executor.isEmpty()) {
+            throw new IllegalStateException("Virtual threads are not available on this JDK");
+        }
+
+        return executor;
+    }
+
+    /**
+     * Tests if a thread is a virtual thread.
+     *
+     * @param thread the tested thread.
+     *
+     * @return {@code true} if the thread is a virtual thread, {@code false} otherwise.
+     */
+    public static boolean isVirtual(final Thread thread) {
+        if (IS_VIRTUAL == null) {
+            return false;
+        }
+
+        try {
+            return (Boolean) IS_VIRTUAL.invoke(thread);
+        } catch (final ReflectiveOperationException e) {
+            return false;
+        }
+    }
+
+    private static Method findIsVirtual() {
+        try {
+            return Thread.class.getMethod("isVirtual");
+        } catch (final NoSuchMethodException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,6 @@
+/**
+ * Concurrency helpers shared by the starter application layers.
+ *
+ * @author avakhobov
+ */
+package com.relativity.springstarter.starter.concurrent;
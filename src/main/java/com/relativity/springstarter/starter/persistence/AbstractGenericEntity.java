@@ -3,6 +3,8 @@ package com.relativity.springstarter.starter.persistence;
 import com.fasterxml.jackson.annotation.JsonIdentityInfo;
 import com.fasterxml.jackson.annotation.JsonIdentityReference;
 import com.fasterxml.jackson.annotation.ObjectIdGenerators;
+import com.relativity.springstarter.starter.persistence.id.EntityIdGenerator;
+import com.relativity.springstarter.starter.persistence.id.IdGenerators;
 import com.relativity.springstarter.starter.persistence.user.entity.User;
 
 import org.apache.commons.lang.builder.ReflectionToStringBuilder;
@@ -15,6 +17,7 @@ import java.util.Objects;
 import java.util.UUID;
 
 import javax.persistence.Column;
+import javax.persistence.EntityListeners;
 import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.Id;
@@ -23,6 +26,7 @@ import javax.persistence.ManyToOne;
 import javax.persistence.MappedSuperclass;
 import javax.persistence.PrePersist;
 import javax.persistence.PreUpdate;
+import javax.persistence.Version;
 
 /**
  * An abstract for generic entities.
@@ -40,6 +44,7 @@ import javax.persistence.PreUpdate;
  * @author madmath03
  */
 @JsonIdentityInfo(generator = ObjectIdGenerators.PropertyGenerator.class, property = "id")
+@EntityListeners(AuditorEntityListener.class)
 @MappedSuperclass
 public abstract class AbstractGenericEntity {
 
@@ -63,6 +68,13 @@ public abstract class AbstractGenericEntity {
      */
     public static final String CREATED_AT_PROPERTY = "created_at";
 
+    /**
+     * Entity <em>created at</em> field.
+     *
+     * @see AbstractGenericEntity#createdAt
+     */
+    public static final String CREATED_AT_FIELD = "createdAt";
+
     /**
      * Entity <em>created by</em> property.
      */
@@ -80,6 +92,13 @@ public abstract class AbstractGenericEntity {
      */
     public static final String MODIFIED_AT_PROPERTY = "modified_at";
 
+    /**
+     * Entity <em>modified at</em> field.
+     *
+     * @see AbstractGenericEntity#modifiedAt
+     */
+    public static final String MODIFIED_AT_FIELD = "modifiedAt";
+
     /**
      * Entity <em>modified by</em> property.
      */
@@ -105,12 +124,28 @@ public abstract class AbstractGenericEntity {
      */
     public static final String OWNER_FIELD = "owner";
 
+    /**
+     * Entity <em>version</em> property.
+     */
+    public static final String VERSION_PROPERTY = "version";
+
+    /**
+     * Entity <em>version</em> field.
+     *
+     * @see AbstractGenericEntity#version
+     */
+    public static final String VERSION_FIELD = "version";
+
     /**
      * The Universally Unique Identifier (primary key) of this record.
+     *
+     * <p>
+     * Generated by the {@link IdGenerators} of the entity class, time-ordered by default.
+     * </p>
      */
     @Id
-    @GeneratedValue(generator = "uuid2")
-    @GenericGenerator(name = "uuid2", strategy = "uuid2")
+    @GeneratedValue(generator = EntityIdGenerator.NAME)
+    @GenericGenerator(name = EntityIdGenerator.NAME, strategy = EntityIdGenerator.STRATEGY)
     @Column(name = ID_PROPERTY, length = ID_MAX_LENGTH, nullable = false, updatable = false)
     private UUID id;
 
@@ -126,7 +161,7 @@ public abstract class AbstractGenericEntity {
      * Foreign key (relation) to whom created the record.
      *
      * <p>
-     * TODO Use CreatedBy annotation and AuditorAware
+     * Set to the current auditor when inserted, see {@link AuditorEntityListener}.
      * </p>
      */
     @JsonIdentityReference(alwaysAsId = true)
@@ -146,7 +181,7 @@ public abstract class AbstractGenericEntity {
      * Foreign key (relation) to whom last modified the record.
      *
      * <p>
-     * TODO Use LastModifiedBy annotation and AuditorAware
+     * Set to the current auditor when updated, see {@link AuditorEntityListener}.
      * </p>
      */
     @JsonIdentityReference(alwaysAsId = true)
@@ -162,6 +197,17 @@ public abstract class AbstractGenericEntity {
     @JoinColumn(name = OWNER_PROPERTY, nullable = true)
     private User owner = null;
 
+    /**
+     * The optimistic locking version of this record, incremented on each update.
+     *
+     * <p>
+     * The bulk updates must increment it too, so a version always identifies the state of a record.
+     * </p>
+     */
+    @Version
+    @Column(name = VERSION_PROPERTY, nullable = false)
+    private long version;
+
     /**
      * Create a {@link AbstractGenericEntity}.
      *
@@ -186,6 +232,7 @@ public abstract class AbstractGenericEntity {
         this.modifiedAt = other.getModifiedAt();
         this.modifiedBy = other.getModifiedBy();
         this.owner = other.getOwner();
+        this.version = other.getVersion();
     }
 
     /**
@@ -296,6 +343,24 @@ public abstract class AbstractGenericEntity {
         this.owner = owner;
     }
 
+    /**
+     * Get the {@link #version}.
+     *
+     * @return the {@link #version}.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Set the {@link #version}.
+     *
+     * @param version the {@link #version} to set.
+     */
+    public void setVersion(final long version) {
+        this.version = version;
+    }
+
     /**
      * Update the entity with the properties of another entity.
      *
@@ -348,7 +413,7 @@ public abstract class AbstractGenericEntity {
     @PrePersist
     protected void preInsert() {
         if (this.id == null) {
-            this.id = UUID.randomUUID();
+            this.id = IdGenerators.generate(getClass());
         }
         if (this.createdAt == null) {
             this.createdAt = new Date();
@@ -0,0 +1,81 @@
+package com.relativity.springstarter.starter.persistence;
+
+import com.relativity.springstarter.starter.persistence.user.entity.User;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.domain.AuditorAware;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PrePersist;
+import javax.persistence.PreUpdate;
+
+/**
+ * {@link AbstractGenericEntity} listener setting the <em>created by</em> and <em>modified by</em>
+ * users to the {@link AuditorAware} current auditor.
+ *
+ * <p>
+ * The current auditor is referenced by identifier, without loading it. This listener does nothing
+ * when no {@link AuditorAware} is configured or when it has no current auditor, leaving the users
+ * set by the application.
+ * </p>
+ *
+ * @author avakhobov
+ */
+public class AuditorEntityListener {
+
+    /**
+     * The current auditor provider.
+     */
+    private final ObjectProvider<AuditorAware<UUID>> auditor;
+
+    /**
+     * The shared entity manager provider, referencing the current auditor.
+     */
+    private final ObjectProvider<EntityManager> entityManager;
+
+    /**
+     * Create a {@link AuditorEntityListener}.
+     *
+     * @param auditor the current auditor provider.
+     * @param entityManager the shared entity manager provider.
+     */
+    public AuditorEntityListener(final ObjectProvider<AuditorAware<UUID>> auditor,
+            final ObjectProvider<EntityManager> entityManager) {
+        super();
+        this.auditor = auditor;
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * Set the creator of an entity about to be inserted.
+     *
+     * @param entity the inserted entity.
+     */
+    @PrePersist
+    public void onCreate(final AbstractGenericEntity entity) {
+        currentAuditor().ifPresent(entity::setCreatedBy);
+    }
+
+    /**
+     * Set the last modifier of an entity about to be updated.
+     *
+     * @param entity the updated entity.
+     */
+    @PreUpdate
+    public void onUpdate(final AbstractGenericEntity entity) {
+        currentAuditor().ifPresent(entity::setModifiedBy);
+    }
+
+    private Optional<User> currentAuditor() {
+        final AuditorAware<UUID> current = auditor.getIfAvailable();
+        if (current == null) {
+            return Optional.empty();
+        }
+
+        return current.getCurrentAuditor()
+                .map(userId -> entityManager.getObject().getReference(User.class, userId));
+    }
+}
@@ -0,0 +1,589 @@
+package com.relativity.springstarter.starter.persistence;
+
+import com.relativity.springstarter.starter.persistence.user.entity.User;
+
+import org.hibernate.Hibernate;
+import org.hibernate.annotations.QueryHints;
+import org.hibernate.engine.spi.EntityEntry;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.event.internal.PostDeleteEventListenerStandardImpl;
+import org.hibernate.event.spi.EventEngine;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.jpa.event.spi.CallbackRegistry;
+import org.hibernate.jpa.event.spi.CallbackType;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.data.jpa.repository.support.JpaEntityInformation;
+import org.springframework.data.jpa.repository.support.SimpleJpaRepository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.metamodel.EntityType;
+
+/**
+ * Base implementation of the {@link GenericRepository} interface.
+ *
+ * <p>
+ * Provides the repository methods that cannot be derived from their name, such as keyset paging.
+ * </p>
+ *
+ * @param <T> Entity class.
+ *
+ * @author avakhobov
+ */
+@Transactional(readOnly = true)
+public class BaseGenericRepository<T extends AbstractGenericEntity> extends SimpleJpaRepository<T, UUID> {
+
+    /**
+     * The JDBC fetch size used when streaming entities.
+     */
+    public static final int STREAM_FETCH_SIZE = 500;
+
+    /**
+     * The default number of entities inserted between two flushes by {@link #addAll(Iterable)}.
+     */
+    public static final int ADD_ALL_CHUNK_SIZE = 500;
+
+    /**
+     * The entity fields referencing a {@link User}.
+     */
+    private static final List<String> REFERENCES = Arrays.asList(AbstractGenericEntity.CREATED_BY_FIELD,
+            AbstractGenericEntity.MODIFIED_BY_FIELD, AbstractGenericEntity.OWNER_FIELD);
+
+    /**
+     * The assignment incrementing the version of the entities changed by a bulk update.
+     */
+    private static final String VERSION_INCREMENT = "e." + AbstractGenericEntity.VERSION_FIELD
+            + " = e." + AbstractGenericEntity.VERSION_FIELD + " + 1";
+
+    /**
+     * The entity manager.
+     */
+    private final EntityManager entityManager;
+
+    /**
+     * Create a {@link BaseGenericRepository}.
+     *
+     * @param entityInformation the entity metadata.
+     * @param entityManager the entity manager.
+     */
+    public BaseGenericRepository(final JpaEntityInformation<T, ?> entityInformation,
+            final EntityManager entityManager) {
+        super(entityInformation, entityManager);
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * Add entities to the repository in chunks of {@link #ADD_ALL_CHUNK_SIZE}.
+     *
+     * @param entities the entities to add.
+     *
+     * @see GenericRepository#addAll(Iterable)
+     */
+    @Transactional
+    public void addAll(final Iterable<? extends T> entities) {
+        addAll(entities, ADD_ALL_CHUNK_SIZE);
+    }
+
+    /**
+     * Add entities to the repository in chunks.
+     *
+     * @param entities the entities to add.
+     * @param chunkSize the number of entities inserted between two flushes.
+     *
+     * @see GenericRepository#addAll(Iterable, int)
+     */
+    @Transactional
+    public void addAll(final Iterable<? extends T> entities, final int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Chunk size must not be less than one");
+        }
+
+        int pending = 0;
+        for (final T entity : entities) {
+            if (entity.getId() == null) {
+                entityManager.persist(entity);
+            } else {
+                entityManager.merge(entity);
+            }
+
+            if (++pending == chunkSize) {
+                entityManager.flush();
+                entityManager.clear();
+                pending = 0;
+            }
+        }
+
+        if (pending > 0) {
+            entityManager.flush();
+            entityManager.clear();
+        }
+    }
+
+    /**
+     * Returns a {@link KeysetPage} of entities.
+     *
+     * @param request keyset paging conditions.
+     *
+     * @return a page of entities.
+     *
+     * @see GenericRepository#findAll(KeysetPageRequest)
+     */
+    public KeysetPage<T> findAll(final KeysetPageRequest request) {
+        return findPage(request, false, null);
+    }
+
+    /**
+     * Returns a {@link KeysetPage} of entities owned by user.
+     *
+     * @param request keyset paging conditions.
+     * @param owner the entities owner.
+     *
+     * @return a page of entities.
+     *
+     * @see GenericRepository#findAllByOwner(KeysetPageRequest, User)
+     */
+    public KeysetPage<T> findAllByOwner(final KeysetPageRequest request, final User owner) {
+        return findPage(request, true, owner);
+    }
+
+    /**
+     * Stream all entities.
+     *
+     * @return the stream of all entities.
+     *
+     * @see GenericRepository#streamAll()
+     */
+    @Transactional(propagation = Propagation.MANDATORY, readOnly = true)
+    public Stream<T> streamAll() {
+        return stream(false, null);
+    }
+
+    /**
+     * Stream all entities owned by user.
+     *
+     * @param owner the entities owner.
+     *
+     * @return the stream of all entities owned by user.
+     *
+     * @see GenericRepository#streamAllByOwner(User)
+     */
+    @Transactional(propagation = Propagation.MANDATORY, readOnly = true)
+    public Stream<T> streamAllByOwner(final User owner) {
+        return stream(true, owner);
+    }
+
+    /**
+     * Perform an action for each entity.
+     *
+     * @param action the action to perform on each entity.
+     *
+     * @see GenericRepository#forEachEntity(Consumer)
+     */
+    public void forEachEntity(final Consumer<? super T> action) {
+        try (Stream<T> entities = stream(false, null)) {
+            entities.forEach(action);
+        }
+    }
+
+    /**
+     * Perform an action for each entity owned by user.
+     *
+     * @param owner the entities owner.
+     * @param action the action to perform on each entity.
+     *
+     * @see GenericRepository#forEachEntityByOwner(User, Consumer)
+     */
+    public void forEachEntityByOwner(final User owner, final Consumer<? super T> action) {
+        try (Stream<T> entities = stream(true, owner)) {
+            entities.forEach(action);
+        }
+    }
+
+    /**
+     * Delete an entity.
+     *
+     * <p>
+     * When deleting a {@link User}, the <em>created by</em>, <em>modified by</em> and <em>owner</em>
+     * references to it are first set to {@code null} with one {@code UPDATE} statement per reference
+     * and entity type, without loading the referencing entities. The persistence context is flushed
+     * beforehand and the managed entities referencing the user are detached, as they still hold the
+     * released references. A managed user stays managed and is removed without being loaded again.
+     * </p>
+     *
+     * @param entity the entity to delete.
+     */
+    @Override
+    @Transactional
+    public void delete(final T entity) {
+        if (!(entity instanceof User) || entity.getId() == null) {
+            super.delete(entity);
+            return;
+        }
+
+        if (entityManager.contains(entity)) {
+            releaseReferences(Collections.singleton(entity.getId()), entity);
+            entityManager.remove(entity);
+            return;
+        }
+
+        releaseReferences(Collections.singleton(entity.getId()), null);
+
+        final T managed = entityManager.find(getDomainClass(), entity.getId());
+        if (managed != null) {
+            entityManager.remove(managed);
+        }
+    }
+
+    /**
+     * Delete an entity by its identifier.
+     *
+     * <p>
+     * A {@link User} is loaded once, before its references are released, so nothing is released
+     * when there is no such user, and then removed without being loaded again.
+     * </p>
+     *
+     * @param entityId the identifier of the entity to delete.
+     *
+     * @throws EmptyResultDataAccessException if no entity has the identifier.
+     *
+     * @see #delete(AbstractGenericEntity)
+     */
+    @Override
+    @Transactional
+    public void deleteById(final UUID entityId) {
+        if (!User.class.isAssignableFrom(getDomainClass()) || entityId == null) {
+            super.deleteById(entityId);
+            return;
+        }
+
+        final T managed = entityManager.find(getDomainClass(), entityId);
+        if (managed == null) {
+            throw new EmptyResultDataAccessException(String.format(
+                    "No %s entity with id %s exists!", getDomainClass(), entityId), 1);
+        }
+        delete(managed);
+    }
+
+    /**
+     * Delete entities.
+     *
+     * @param entities the entities to delete.
+     *
+     * @see #delete(AbstractGenericEntity)
+     */
+    @Override
+    @Transactional
+    public void deleteAll(final Iterable<? extends T> entities) {
+        final List<UUID> userIds = new ArrayList<>();
+        for (final T entity : entities) {
+            if (entity instanceof User && entity.getId() != null) {
+                userIds.add(entity.getId());
+            } else {
+                super.delete(entity);
+            }
+        }
+
+        for (final List<UUID> chunk : Chunks.distinct(userIds, Chunks.IN_CLAUSE_SIZE)) {
+            releaseReferences(chunk, null);
+        }
+        for (final UUID userId : userIds) {
+            final T managed = entityManager.find(getDomainClass(), userId);
+            if (managed != null) {
+                entityManager.remove(managed);
+            }
+        }
+    }
+
+    /**
+     * Delete all entities.
+     *
+     * <p>
+     * When deleting users, all the references to users are first set to {@code null} with one
+     * {@code UPDATE} statement per entity type. The users are then deleted with a single
+     * {@code DELETE} statement, unless post delete event listeners or remove callbacks need each of
+     * them to be loaded and removed.
+     * </p>
+     *
+     * @see #delete(AbstractGenericEntity)
+     */
+    @Override
+    @Transactional
+    public void deleteAll() {
+        if (!User.class.isAssignableFrom(getDomainClass())) {
+            super.deleteAll();
+            return;
+        }
+
+        releaseReferences(null, null);
+        if (hasDeleteListeners()) {
+            for (final T entity : findAll()) {
+                entityManager.remove(entity);
+            }
+        } else {
+            entityManager.createQuery("DELETE FROM "
+                    + entityManager.getMetamodel().entity(getDomainClass()).getName()).executeUpdate();
+        }
+    }
+
+    /**
+     * Delete an entity only if owned by given owner.
+     *
+     * <p>
+     * The owned entity is loaded once and passed to {@link #delete(AbstractGenericEntity)}, which
+     * removes it without loading it again.
+     * </p>
+     *
+     * @param entityId the entity identifier of the entity to delete.
+     * @param owner the entity owner.
+     *
+     * @return the number of deleted entities.
+     *
+     * @see GenericRepository#deleteByIdAndOwner(UUID, User)
+     * @see #delete(AbstractGenericEntity)
+     */
+    @Transactional
+    public Integer deleteByIdAndOwner(final UUID entityId, final User owner) {
+        final CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        final CriteriaQuery<T> query = builder.createQuery(getDomainClass());
+        final Root<T> root = query.from(getDomainClass());
+
+        query.select(root).where(builder.equal(root.get(AbstractGenericEntity.ID_PROPERTY), entityId),
+                ownerPredicate(builder, root, owner));
+
+        final List<T> entities = entityManager.createQuery(query).getResultList();
+        for (final T entity : entities) {
+            delete(entity);
+        }
+
+        return entities.size();
+    }
+
+    /**
+     * Set to {@code null} the references to users from all the entity types.
+     *
+     * @param userIds the identifiers of the referenced users, {@code null} for all the users.
+     * @param retained the entity kept managed although referencing the users, {@code null} if none.
+     */
+    private void releaseReferences(final Collection<UUID> userIds, final Object retained) {
+        entityManager.flush();
+
+        for (final EntityType<?> type : entityManager.getMetamodel().getEntities()) {
+            // Subclass entities are updated through their root entity
+            if (!AbstractGenericEntity.class.isAssignableFrom(type.getJavaType())
+                    || type.getSupertype() instanceof EntityType) {
+                continue;
+            }
+
+            if (userIds == null) {
+                entityManager.createQuery("UPDATE " + type.getName() + " AS e SET e."
+                        + AbstractGenericEntity.CREATED_BY_FIELD + " = NULL, e."
+                        + AbstractGenericEntity.MODIFIED_BY_FIELD + " = NULL, e."
+                        + AbstractGenericEntity.OWNER_FIELD + " = NULL, e."
+                        + AbstractGenericEntity.MODIFIED_AT_FIELD + " = CURRENT_TIMESTAMP, "
+                        + VERSION_INCREMENT + " WHERE e." + AbstractGenericEntity.CREATED_BY_FIELD
+                        + " IS NOT NULL OR e." + AbstractGenericEntity.MODIFIED_BY_FIELD
+                        + " IS NOT NULL OR e." + AbstractGenericEntity.OWNER_FIELD + " IS NOT NULL")
+                        .executeUpdate();
+            } else {
+                for (final String reference : REFERENCES) {
+                    // The retained entity is about to be deleted, its version must stay current
+                    final Query update = entityManager.createQuery("UPDATE " + type.getName()
+                            + " AS e SET e." + reference + " = NULL, e."
+                            + AbstractGenericEntity.MODIFIED_AT_FIELD + " = CURRENT_TIMESTAMP, "
+                            + VERSION_INCREMENT + " WHERE e." + reference + ".id IN :userIds"
+                            + (retained == null ? "" : " AND e.id NOT IN :userIds"));
+                    update.setParameter("userIds", userIds).executeUpdate();
+                }
+            }
+        }
+
+        // Managed entities still hold the released references, and all the users are deleted
+        final Set<UUID> released = userIds == null ? null : new HashSet<>(userIds);
+        for (final Map.Entry<Object, EntityEntry> entry : entityManager.unwrap(SessionImplementor.class)
+                .getPersistenceContextInternal().reentrantSafeEntityEntries()) {
+            final Object managed = entry.getKey();
+            if (managed != retained && (released == null && managed instanceof User
+                    || references(managed, released))) {
+                entityManager.detach(managed);
+            }
+        }
+    }
+
+    /**
+     * Tests if an entity references released users.
+     *
+     * @param entity the managed entity.
+     * @param released the identifiers of the released users, {@code null} for all the users.
+     */
+    private static boolean references(final Object entity, final Set<UUID> released) {
+        // An uninitialized entity reads the released references when initialized
+        if (!(entity instanceof AbstractGenericEntity) || !Hibernate.isInitialized(entity)) {
+            return false;
+        }
+
+        final AbstractGenericEntity referencing = (AbstractGenericEntity) entity;
+        return isReleased(referencing.getCreatedBy(), released)
+                || isReleased(referencing.getModifiedBy(), released)
+                || isReleased(referencing.getOwner(), released);
+    }
+
+    private static boolean isReleased(final User user, final Set<UUID> released) {
+        // The identifier of an uninitialized proxy is read without initializing it
+        return user != null && (released == null || released.contains(user.getId()));
+    }
+
+    /**
+     * Tests if deleting an entity notifies post delete event listeners or remove callbacks, the
+     * standard listener only running the callbacks.
+     */
+    private boolean hasDeleteListeners() {
+        final EventEngine eventEngine = entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactoryImplementor.class).getEventEngine();
+
+        // Only visits the listeners, without firing any event
+        final AtomicBoolean custom = new AtomicBoolean();
+        eventEngine.getListenerRegistry().getEventListenerGroup(EventType.POST_DELETE)
+                .fireEventOnEachListener(custom, (final PostDeleteEventListener listener,
+                        final AtomicBoolean found) -> {
+                    if (!(listener instanceof PostDeleteEventListenerStandardImpl)) {
+                        found.set(true);
+                    }
+                });
+        if (custom.get()) {
+            return true;
+        }
+
+        final CallbackRegistry callbacks = eventEngine.getCallbackRegistry();
+        return callbacks.hasRegisteredCallbacks(getDomainClass(), CallbackType.PRE_REMOVE)
+                || callbacks.hasRegisteredCallbacks(getDomainClass(), CallbackType.POST_REMOVE);
+    }
+
+    private Stream<T> stream(final boolean ownerScoped, final User owner) {
+        final CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        final CriteriaQuery<T> query = builder.createQuery(getDomainClass());
+        final Root<T> root = query.from(getDomainClass());
+
+        query.select(root);
+        if (ownerScoped) {
+            query.where(ownerPredicate(builder, root, owner));
+        }
+
+        final Stream<T> results = entityManager.createQuery(query)
+                .setHint(QueryHints.FETCH_SIZE, STREAM_FETCH_SIZE)
+                .setHint(QueryHints.READ_ONLY, true)
+                .getResultStream();
+
+        return StreamSupport.stream(new DetachingSpliterator(results.spliterator()), false)
+                .onClose(results::close);
+    }
+
+    private KeysetPage<T> findPage(final KeysetPageRequest request, final boolean ownerScoped,
+            final User owner) {
+        final KeysetCursor cursor = request.getToken() == null ? null
+                : KeysetCursor.decode(request.getToken());
+
+        final CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        final CriteriaQuery<T> query = builder.createQuery(getDomainClass());
+        final Root<T> root = query.from(getDomainClass());
+        final Path<Date> createdAt = root.get(AbstractGenericEntity.CREATED_AT_FIELD);
+        final Path<UUID> id = root.get(AbstractGenericEntity.ID_PROPERTY);
+
+        final List<Predicate> predicates = new ArrayList<>();
+        if (ownerScoped) {
+            predicates.add(ownerPredicate(builder, root, owner));
+        }
+        if (cursor != null) {
+            // Leading range on the first key column so the (created_at, id) index can be scanned
+            predicates.add(builder.greaterThanOrEqualTo(createdAt, cursor.getCreatedAt()));
+            predicates.add(builder.or(builder.greaterThan(createdAt, cursor.getCreatedAt()),
+                    builder.greaterThan(id, cursor.getId())));
+        }
+
+        query.select(root).where(predicates.toArray(new Predicate[0])).orderBy(builder.asc(createdAt),
+                builder.asc(id));
+
+        // Fetch one more entity than requested to know if there is a next page
+        final List<T> content = entityManager.createQuery(query)
+                .setMaxResults(request.getSize() + 1).getResultList();
+
+        String nextToken = null;
+        if (content.size() > request.getSize()) {
+            content.remove(content.size() - 1);
+            nextToken = KeysetCursor.of(content.get(content.size() - 1)).encode();
+        }
+
+        final Long total = request.isCountTotal() ? countPage(ownerScoped, owner) : null;
+
+        return new KeysetPage<>(content, nextToken, total);
+    }
+
+    private Long countPage(final boolean ownerScoped, final User owner) {
+        final CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        final CriteriaQuery<Long> query = builder.createQuery(Long.class);
+        final Root<T> root = query.from(getDomainClass());
+
+        query.select(builder.count(root));
+        if (ownerScoped) {
+            query.where(ownerPredicate(builder, root, owner));
+        }
+
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    private static Predicate ownerPredicate(final CriteriaBuilder builder,
+            final Root<? extends AbstractGenericEntity> root, final User owner) {
+        final Path<User> path = root.get(AbstractGenericEntity.OWNER_FIELD);
+
+        return owner == null ? builder.isNull(path) : builder.equal(path, owner);
+    }
+
+    /**
+     * Spliterator detaching each entity from the persistence context once it has been consumed.
+     */
+    private final class DetachingSpliterator extends Spliterators.AbstractSpliterator<T> {
+
+        /**
+         * The streamed query results.
+         */
+        private final Spliterator<T> results;
+
+        DetachingSpliterator(final Spliterator<T> results) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            this.results = results;
+        }
+
+        @Override
+        public boolean tryAdvance(final Consumer<? super T> action) {
+            return results.tryAdvance(entity -> {
+                action.accept(entity);
+                entityManager.detach(entity);
+            });
+        }
+    }
+}
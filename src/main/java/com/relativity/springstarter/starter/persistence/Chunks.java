@@ -0,0 +1,103 @@
+package com.relativity.springstarter.starter.persistence;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Helpers to split large collections of keys into chunks, for instance to keep {@code IN} clauses
+ * within the limits of the database.
+ *
+ * @author avakhobov
+ */
+public final class Chunks {
+
+    /**
+     * The default maximum number of values in an {@code IN} clause.
+     */
+    public static final int IN_CLAUSE_SIZE = 1000;
+
+    private Chunks() {
+        super();
+    }
+
+    /**
+     * Split the distinct values of a collection into chunks.
+     *
+     * @param <E> the values type.
+     *
+     * @param values the values to split, iteration order is preserved.
+     * @param size the maximum number of values in a chunk.
+     *
+     * @return the chunks of distinct values, an empty list if {@code values} is empty.
+     *
+     * @throws IllegalArgumentException if {@code size} is less than one.
+     * @throws NullPointerException if {@code values} is {@code null}.
+     */
+    public static <E> List<List<E>> distinct(final Collection<? extends E> values, final int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Chunk size must not be less than one");
+        }
+
+        if (values.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        final List<E> distinct = new ArrayList<>(new LinkedHashSet<>(values));
+        final List<List<E>> chunks = new ArrayList<>((distinct.size() + size - 1) / size);
+
+        for (int from = 0; from < distinct.size(); from += size) {
+            chunks.add(distinct.subList(from, Math.min(from + size, distinct.size())));
+        }
+
+        return chunks;
+    }
+
+    /**
+     * Look up values by key, with one query per chunk of distinct keys, and return them in the order
+     * of the keys.
+     *
+     * @param <K> the keys type.
+     * @param <V> the values type.
+     *
+     * @param keys the keys to look up, {@code null} keys are never found.
+     * @param size the maximum number of keys in a chunk.
+     * @param query the query of the values of a chunk of keys, in any order.
+     * @param key the function giving the key of a found value.
+     *
+     * @return the value of each key, in the order of the keys, empty if not found.
+     *
+     * @throws IllegalArgumentException if {@code size} is less than one.
+     * @throws NullPointerException if {@code keys} is {@code null}.
+     */
+    public static <K, V> List<Optional<V>> lookup(final List<? extends K> keys, final int size,
+            final Function<? super List<K>, ? extends Iterable<? extends V>> query,
+            final Function<? super V, ? extends K> key) {
+        final List<K> present = new ArrayList<>(keys.size());
+        for (final K value : keys) {
+            if (value != null) {
+                present.add(value);
+            }
+        }
+
+        final Map<K, V> found = new HashMap<>();
+        for (final List<K> chunk : distinct(present, size)) {
+            for (final V value : query.apply(chunk)) {
+                found.put(key.apply(value), value);
+            }
+        }
+
+        final List<Optional<V>> values = new ArrayList<>(keys.size());
+        for (final K value : keys) {
+            values.add(Optional.ofNullable(found.get(value)));
+        }
+
+        return values;
+    }
+}
@@ -3,6 +3,7 @@ package com.relativity.springstarter.starter.persistence;
 import com.relativity.springstarter.starter.persistence.user.entity.User;
 
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
@@ -13,6 +14,8 @@ import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * Generic Repository interface.
@@ -51,6 +54,24 @@ public interface GenericRepository<T extends AbstractGenericEntity> extends JpaR
     @Transactional(readOnly = true)
     Page<T> findAll(Pageable pageable);
 
+    /**
+     * Returns a {@link KeysetPage} of entities ordered by creation date and identifier.
+     *
+     * <p>
+     * Unlike {@link #findAll(Pageable)}, pages are located by seeking after the last entity of the
+     * previous page rather than by offset, so any page costs about the same as the first one. The
+     * total number of entities is only counted when {@link KeysetPageRequest#withTotal() requested}.
+     * </p>
+     *
+     * @param request keyset paging conditions.
+     *
+     * @return a page of entities.
+     *
+     * @throws InvalidDataAccessApiUsageException if the request continuation token is invalid.
+     */
+    @Transactional(readOnly = true)
+    KeysetPage<T> findAll(final KeysetPageRequest request);
+
     /**
      * Find all entities from the repository owned by user.
      *
@@ -84,6 +105,81 @@ public interface GenericRepository<T extends AbstractGenericEntity> extends JpaR
     @Transactional(readOnly = true)
     Page<T> findAllByOwner(Pageable pageable, final User owner);
 
+    /**
+     * Returns a {@link KeysetPage} of entities owned by user ordered by creation date and identifier.
+     *
+     * @param request keyset paging conditions.
+     * @param owner the entities owner.
+     *
+     * @return a page of entities.
+     *
+     * @throws InvalidDataAccessApiUsageException if the request continuation token is invalid.
+     *
+     * @see #findAll(KeysetPageRequest)
+     */
+    @Transactional(readOnly = true)
+    KeysetPage<T> findAllByOwner(final KeysetPageRequest request, final User owner);
+
+    /**
+     * Stream all entities from the repository.
+     *
+     * <p>
+     * Unlike {@link #findAll()}, entities are fetched from the database in chunks of
+     * {@link BaseGenericRepository#STREAM_FETCH_SIZE} rows, loaded read-only and detached from the
+     * persistence context once consumed, so memory usage does not grow with the number of entities.
+     * Lazy relationships of a consumed entity can no longer be initialized.
+     * </p>
+     *
+     * <p>
+     * Must be called within a transaction and the stream must be closed once consumed.
+     * </p>
+     *
+     * @return the stream of all the entities available through the repository.
+     *
+     * @throws org.springframework.transaction.IllegalTransactionStateException if there is no
+     *         surrounding transaction.
+     */
+    Stream<T> streamAll();
+
+    /**
+     * Stream all entities from the repository owned by user.
+     *
+     * @param owner the entities owner.
+     *
+     * @return the stream of all the entities owned by user available through the repository.
+     *
+     * @throws org.springframework.transaction.IllegalTransactionStateException if there is no
+     *         surrounding transaction.
+     *
+     * @see #streamAll()
+     */
+    Stream<T> streamAllByOwner(final User owner);
+
+    /**
+     * Perform an action for each entity from the repository.
+     *
+     * <p>
+     * Entities are streamed as described in {@link #streamAll()} within a read-only transaction.
+     * </p>
+     *
+     * @param action the action to perform on each entity.
+     */
+    @Transactional(readOnly = true)
+    void forEachEntity(final Consumer<? super T> action);
+
+    /**
+     * Perform an action for each entity from the repository owned by user.
+     *
+     * <p>
+     * Entities are streamed as described in {@link #streamAll()} within a read-only transaction.
+     * </p>
+     *
+     * @param owner the entities owner.
+     * @param action the action to perform on each entity.
+     */
+    @Transactional(readOnly = true)
+    void forEachEntityByOwner(final User owner, final Consumer<? super T> action);
+
     /**
      * Find an entity through its primary key.
      *
@@ -112,19 +208,63 @@ public interface GenericRepository<T extends AbstractGenericEntity> extends JpaR
      *
      * @throws DataIntegrityViolationException if any constraints failed during insert.
      */
+    @Transactional
     default void add(final T entity) {
         this.saveAndFlush(entity);
     }
 
+    /**
+     * Add entities to the repository in chunks of {@link BaseGenericRepository#ADD_ALL_CHUNK_SIZE}.
+     *
+     * @param entities the entities to add.
+     *
+     * @throws DataIntegrityViolationException if any constraints failed during insert.
+     *
+     * @see #addAll(Iterable, int)
+     */
+    @Transactional
+    void addAll(final Iterable<? extends T> entities);
+
+    /**
+     * Add entities to the repository in chunks.
+     *
+     * <p>
+     * Unlike {@link #add(AbstractGenericEntity)}, the persistence context is only flushed once per
+     * chunk, so the inserts of a chunk are sent as JDBC batches. The persistence context is cleared
+     * after each chunk to keep memory usage flat: the added entities, as well as any other entity
+     * managed by the surrounding transaction, are detached. Identifiers are assigned client-side, so
+     * no database round trip is needed to obtain them. Entities which already have an identifier are
+     * merged instead, at the cost of an additional select.
+     * </p>
+     *
+     * <p>
+     * All chunks are inserted within the same transaction.
+     * </p>
+     *
+     * @param entities the entities to add.
+     * @param chunkSize the number of entities inserted between two flushes.
+     *
+     * @throws DataIntegrityViolationException if any constraints failed during insert.
+     * @throws InvalidDataAccessApiUsageException if {@code chunkSize} is less than one.
+     */
+    @Transactional
+    void addAll(final Iterable<? extends T> entities, final int chunkSize);
+
     /**
      * Update an entity through the repository.
      *
+     * <p>
+     * The entity is loaded and modified within one transaction, so only the modified columns are
+     * written when the transaction commits.
+     * </p>
+     *
      * @param entity the reference entity used for the update.
      *
      * @return the updated entity, {@code null} if entity was not found in persistence layer.
      *
      * @throws NullPointerException if the {@code entity} is {@code null}.
      */
+    @Transactional
     default T update(final T entity) {
         T updateEntity = findById(entity.getId()).orElse(null);
 
@@ -153,6 +293,7 @@ public interface GenericRepository<T extends AbstractGenericEntity> extends JpaR
      *
      * @throws NullPointerException if the {@code entity} is {@code null}.
      */
+    @Transactional
     default T updateByOwner(final T entity, final User owner) {
         T updateEntity = findByIdAndOwner(entity.getId(), owner);
 
@@ -168,6 +309,11 @@ public interface GenericRepository<T extends AbstractGenericEntity> extends JpaR
     /**
      * Delete an entity through the repository.
      *
+     * <p>
+     * References to a deleted {@link User} are set to {@code null} with set-based updates, see
+     * {@link BaseGenericRepository#delete(AbstractGenericEntity)}.
+     * </p>
+     *
      * @param entityId the entity identifier of the entity to delete.
      *
      * @throws IllegalArgumentException in case UUID is {@code null}.
@@ -198,5 +344,7 @@ public interface GenericRepository<T extends AbstractGenericEntity> extends JpaR
      * @return {@code true} if entity with the given identifier exists, {@code false} otherwise.
      */
     @Transactional(readOnly = true)
-    boolean exists(final UUID entityId);
+    default boolean exists(final UUID entityId) {
+        return this.existsById(entityId);
+    }
 }
@@ -0,0 +1,41 @@
+package com.relativity.springstarter.starter.persistence;
+
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.jpa.boot.internal.EntityManagerFactoryBuilderImpl;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Helpers to register Hibernate {@link Integrator}s through the JPA properties, as several features
+ * share the single {@link IntegratorProvider} property.
+ *
+ * @author avakhobov
+ */
+public final class HibernateIntegrators {
+
+    private HibernateIntegrators() {
+        super();
+    }
+
+    /**
+     * Add an integrator to the ones already registered in the JPA properties.
+     *
+     * @param properties the JPA properties, for example from a
+     *        {@code HibernatePropertiesCustomizer}.
+     * @param integrator the integrator to add.
+     */
+    public static void add(final Map<String, Object> properties, final Integrator integrator) {
+        final List<Integrator> integrators = new ArrayList<>();
+        final Object registered = properties.get(EntityManagerFactoryBuilderImpl.INTEGRATOR_PROVIDER);
+        if (registered instanceof IntegratorProvider) {
+            integrators.addAll(((IntegratorProvider) registered).getIntegrators());
+        }
+        integrators.add(integrator);
+
+        properties.put(EntityManagerFactoryBuilderImpl.INTEGRATOR_PROVIDER,
+                (IntegratorProvider) () -> integrators);
+    }
+}
@@ -0,0 +1,133 @@
+package com.relativity.springstarter.starter.persistence;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.Base64;
+import java.util.Date;
+import java.util.UUID;
+
+/**
+ * The position of an entity in the keyset ordering, encoded as an opaque continuation token.
+ *
+ * <p>
+ * Public so the projection queries can page with the same tokens as the entity queries.
+ * </p>
+ *
+ * @author avakhobov
+ */
+public final class KeysetCursor {
+
+    /**
+     * The token format version.
+     */
+    private static final String VERSION = "1";
+
+    /**
+     * The token fields separator.
+     */
+    private static final String SEPARATOR = ":";
+
+    /**
+     * The creation date of the entity.
+     */
+    private final Timestamp createdAt;
+
+    /**
+     * The identifier of the entity.
+     */
+    private final UUID id;
+
+    private KeysetCursor(final Timestamp createdAt, final UUID id) {
+        this.createdAt = createdAt;
+        this.id = id;
+    }
+
+    /**
+     * Create the cursor positioned on an entity.
+     *
+     * @param entity the entity.
+     *
+     * @return the cursor positioned on the entity.
+     */
+    public static KeysetCursor of(final AbstractGenericEntity entity) {
+        return of(entity.getCreatedAt(), entity.getId());
+    }
+
+    /**
+     * Create the cursor positioned on an entity creation date and identifier.
+     *
+     * @param date the entity creation date.
+     * @param id the entity identifier.
+     *
+     * @return the cursor positioned on the entity.
+     */
+    public static KeysetCursor of(final Date date, final UUID id) {
+        final Timestamp timestamp;
+
+        if (date instanceof Timestamp) {
+            timestamp = (Timestamp) date;
+        } else {
+            timestamp = new Timestamp(date.getTime());
+        }
+
+        return new KeysetCursor(timestamp, id);
+    }
+
+    /**
+     * Decode a continuation token.
+     *
+     * @param token the continuation token.
+     *
+     * @return the decoded cursor.
+     *
+     * @throws IllegalArgumentException if the token is invalid.
+     */
+    public static KeysetCursor decode(final String token) {
+        try {
+            final String[] fields = new String(Base64.getUrlDecoder().decode(token),
+                    StandardCharsets.UTF_8).split(SEPARATOR);
+
+            if (fields.length != 4 || !VERSION.equals(fields[0])) {
+                throw new IllegalArgumentException("Invalid continuation token: " + token);
+            }
+
+            final Timestamp timestamp = new Timestamp(Long.parseLong(fields[1]));
+            timestamp.setNanos(Integer.parseInt(fields[2]));
+
+            return new KeysetCursor(timestamp, UUID.fromString(fields[3]));
+        } catch (final IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid continuation token: " + token, e);
+        }
+    }
+
+    /**
+     * Encode this cursor as a continuation token.
+     *
+     * @return the continuation token.
+     */
+    public String encode() {
+        final String value = VERSION + SEPARATOR + createdAt.getTime() + SEPARATOR
+                + createdAt.getNanos() + SEPARATOR + id;
+
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Get the {@link #createdAt}.
+     *
+     * @return the {@link #createdAt}.
+     */
+    public Timestamp getCreatedAt() {
+        return createdAt;
+    }
+
+    /**
+     * Get the {@link #id}.
+     *
+     * @return the {@link #id}.
+     */
+    public UUID getId() {
+        return id;
+    }
+}
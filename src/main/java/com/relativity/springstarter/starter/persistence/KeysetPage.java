@@ -0,0 +1,93 @@
+package com.relativity.springstarter.starter.persistence;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A page of entities obtained through keyset (cursor) paging.
+ *
+ * @param <T> Entity class.
+ *
+ * @see KeysetPageRequest
+ *
+ * @author avakhobov
+ */
+public final class KeysetPage<T> {
+
+    /**
+     * The page content.
+     */
+    private final List<T> content;
+
+    /**
+     * The continuation token of the next page, {@code null} if this is the last page.
+     */
+    private final String nextToken;
+
+    /**
+     * The total number of entities, {@code null} if it was not requested.
+     */
+    private final Long totalElements;
+
+    /**
+     * Create a {@link KeysetPage}.
+     *
+     * @param content the page content.
+     * @param nextToken the continuation token of the next page, {@code null} if this is the last
+     *        page.
+     * @param totalElements the total number of entities, {@code null} if it was not requested.
+     */
+    public KeysetPage(final List<T> content, final String nextToken, final Long totalElements) {
+        super();
+        this.content = Collections.unmodifiableList(content);
+        this.nextToken = nextToken;
+        this.totalElements = totalElements;
+    }
+
+    /**
+     * Get the {@link #content}.
+     *
+     * @return the {@link #content}.
+     */
+    public List<T> getContent() {
+        return content;
+    }
+
+    /**
+     * Get the {@link #nextToken}.
+     *
+     * @return the {@link #nextToken}.
+     */
+    public String getNextToken() {
+        return nextToken;
+    }
+
+    /**
+     * Tests if there is a page after this one.
+     *
+     * @return {@code true} if there is a next page, {@code false} otherwise.
+     */
+    public boolean hasNext() {
+        return nextToken != null;
+    }
+
+    /**
+     * Get the {@link #totalElements}.
+     *
+     * @return the {@link #totalElements}, {@code null} if it was not requested.
+     */
+    public Long getTotalElements() {
+        return totalElements;
+    }
+
+    /**
+     * Get a request for the page following this one.
+     *
+     * @param size the maximum number of entities in the next page.
+     *
+     * @return the next page request, {@code null} if this is the last page.
+     */
+    public KeysetPageRequest nextRequest(final int size) {
+        return hasNext() ? KeysetPageRequest.of(size, nextToken) : null;
+    }
+}
@@ -0,0 +1,109 @@
+package com.relativity.springstarter.starter.persistence;
+
+/**
+ * A keyset (cursor) paging request.
+ *
+ * <p>
+ * Pages are ordered by creation date and identifier. The first page is requested without a
+ * continuation token, the following ones with the {@link KeysetPage#getNextToken() token} returned
+ * with the previous page.
+ * </p>
+ *
+ * @see GenericRepository#findAll(KeysetPageRequest)
+ *
+ * @author avakhobov
+ */
+public final class KeysetPageRequest {
+
+    /**
+     * The maximum number of entities in a page.
+     */
+    private final int size;
+
+    /**
+     * The continuation token, {@code null} for the first page.
+     */
+    private final String token;
+
+    /**
+     * Whether the total number of entities must be counted.
+     */
+    private final boolean countTotal;
+
+    private KeysetPageRequest(final int size, final String token, final boolean countTotal) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Page size must not be less than one");
+        }
+
+        this.size = size;
+        this.token = token;
+        this.countTotal = countTotal;
+    }
+
+    /**
+     * Create a request for the first page.
+     *
+     * @param size the maximum number of entities in a page.
+     *
+     * @return the first page request.
+     *
+     * @throws IllegalArgumentException if {@code size} is less than one.
+     */
+    public static KeysetPageRequest first(final int size) {
+        return new KeysetPageRequest(size, null, false);
+    }
+
+    /**
+     * Create a request for the page following a continuation token.
+     *
+     * @param size the maximum number of entities in a page.
+     * @param token the continuation token, {@code null} for the first page.
+     *
+     * @return the page request.
+     *
+     * @throws IllegalArgumentException if {@code size} is less than one.
+     */
+    public static KeysetPageRequest of(final int size, final String token) {
+        return new KeysetPageRequest(size, token, false);
+    }
+
+    /**
+     * Create a copy of this request that also counts the total number of entities.
+     *
+     * <p>
+     * Counting runs an additional {@code count} query and should only be requested when needed.
+     * </p>
+     *
+     * @return the page request counting the total number of entities.
+     */
+    public KeysetPageRequest withTotal() {
+        return new KeysetPageRequest(size, token, true);
+    }
+
+    /**
+     * Get the {@link #size}.
+     *
+     * @return the {@link #size}.
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Get the {@link #token}.
+     *
+     * @return the {@link #token}.
+     */
+    public String getToken() {
+        return token;
+    }
+
+    /**
+     * Get the {@link #countTotal}.
+     *
+     * @return the {@link #countTotal}.
+     */
+    public boolean isCountTotal() {
+        return countTotal;
+    }
+}
@@ -0,0 +1,14 @@
+package com.relativity.springstarter.starter.persistence;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+/**
+ * The persistence layer configuration.
+ *
+ * @author avakhobov
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableJpaRepositories(repositoryBaseClass = BaseGenericRepository.class)
+public class PersistenceConfiguration {
+}
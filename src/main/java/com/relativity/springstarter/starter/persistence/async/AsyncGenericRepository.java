@@ -0,0 +1,297 @@
+package com.relativity.springstarter.starter.persistence.async;
+
+import com.relativity.springstarter.starter.persistence.AbstractGenericEntity;
+import com.relativity.springstarter.starter.persistence.GenericRepository;
+import com.relativity.springstarter.starter.persistence.KeysetPage;
+import com.relativity.springstarter.starter.persistence.KeysetPageRequest;
+import com.relativity.springstarter.starter.persistence.sharding.ShardContext;
+import com.relativity.springstarter.starter.persistence.sharding.ShardRouter;
+import com.relativity.springstarter.starter.persistence.user.entity.User;
+
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Asynchronous facade of a {@link GenericRepository}.
+ *
+ * <p>
+ * Each method runs the matching repository method on the {@link AsyncRepositoryExecutor} and
+ * returns its result as a {@link CompletableFuture}, so independent calls can run in parallel. Each
+ * call runs in its own transaction, as the repository method does when called outside of a
+ * transaction: a call never joins the transaction of the caller thread, use
+ * {@link #inTransaction(Function)} to run several repository methods in one transaction.
+ * </p>
+ *
+ * <p>
+ * The shard bound to the caller thread with {@link ShardContext}, if any, is bound to the calls.
+ * As a sharded transaction must be bound to a shard, use {@link #inTransaction(UUID, Function)} to
+ * run a transaction on the shard of an owner.
+ * </p>
+ *
+ * @param <T> Entity class.
+ * @param <R> Repository class.
+ *
+ * @author avakhobov
+ */
+public class AsyncGenericRepository<T extends AbstractGenericEntity, R extends GenericRepository<T>> {
+
+    /**
+     * The wrapped repository.
+     */
+    protected final R repository;
+
+    /**
+     * The executor running the calls.
+     */
+    private final AsyncRepositoryExecutor executor;
+
+    /**
+     * The template of the {@link #inTransaction(Function)} transactions.
+     */
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * The shard router, {@code null} if the persistence is not sharded.
+     */
+    private final ShardRouter shardRouter;
+
+    /**
+     * Create a {@link AsyncGenericRepository}.
+     *
+     * @param repository the wrapped repository.
+     * @param executor the executor running the calls.
+     * @param transactionTemplate the template of the {@link #inTransaction(Function)} transactions.
+     * @param shardRouter the shard router, {@code null} if the persistence is not sharded.
+     */
+    public AsyncGenericRepository(final R repository, final AsyncRepositoryExecutor executor,
+            final TransactionTemplate transactionTemplate, final ShardRouter shardRouter) {
+        super();
+        this.repository = repository;
+        this.executor = executor;
+        this.transactionTemplate = transactionTemplate;
+        this.shardRouter = shardRouter;
+    }
+
+    /**
+     * Run a function of the repository asynchronously.
+     *
+     * @param <V> the function result type.
+     * @param function the function to run.
+     *
+     * @return the function result.
+     *
+     * @see AsyncRepositoryExecutor#submit(java.util.function.Supplier)
+     */
+    public <V> CompletableFuture<V> supply(final Function<? super R, ? extends V> function) {
+        return submit(ShardContext.current(), () -> function.apply(repository));
+    }
+
+    /**
+     * Run an action on the repository asynchronously.
+     *
+     * @param action the action to run.
+     *
+     * @return the action completion.
+     */
+    public CompletableFuture<Void> run(final Consumer<? super R> action) {
+        return supply(r -> {
+            action.accept(r);
+            return null;
+        });
+    }
+
+    /**
+     * Run a function of the repository asynchronously within one transaction, rolled back if the
+     * function fails.
+     *
+     * <p>
+     * When the persistence is sharded, the transaction runs on the shard bound to the caller thread,
+     * and the repository methods fail if none is bound.
+     * </p>
+     *
+     * @param <V> the function result type.
+     * @param function the function to run.
+     *
+     * @return the function result.
+     */
+    public <V> CompletableFuture<V> inTransaction(final Function<? super R, ? extends V> function) {
+        return submit(ShardContext.current(),
+                () -> transactionTemplate.execute(status -> function.apply(repository)));
+    }
+
+    /**
+     * Run a function of the repository asynchronously within one transaction on the shard of an
+     * owner, rolled back if the function fails.
+     *
+     * @param <V> the function result type.
+     * @param ownerId the owner identifier, or the identifier of an entity without owner.
+     * @param function the function to run.
+     *
+     * @return the function result.
+     *
+     * @see ShardRouter#callInShardOf(UUID, Supplier)
+     */
+    public <V> CompletableFuture<V> inTransaction(final UUID ownerId,
+            final Function<? super R, ? extends V> function) {
+        return submit(shardRouter != null ? shardRouter.shardOf(ownerId) : ShardContext.current(),
+                () -> transactionTemplate.execute(status -> function.apply(repository)));
+    }
+
+    /**
+     * Find an entity through its primary key.
+     *
+     * @param entityId the entity identifier.
+     *
+     * @return the entity matching the identifier.
+     *
+     * @see GenericRepository#findById(Object)
+     */
+    public CompletableFuture<Optional<T>> findById(final UUID entityId) {
+        return supply(r -> r.findById(entityId));
+    }
+
+    /**
+     * Find entities through their primary keys.
+     *
+     * @param entityIds the entity identifiers.
+     *
+     * @return the entities matching the identifiers.
+     *
+     * @see GenericRepository#findAllById(Iterable)
+     */
+    public CompletableFuture<List<T>> findAllById(final Iterable<UUID> entityIds) {
+        return supply(r -> r.findAllById(entityIds));
+    }
+
+    /**
+     * Find an entity through its primary key and owner.
+     *
+     * @param entityId the entity identifier.
+     * @param owner the entity owner.
+     *
+     * @return the entity matching the identifier and owner, or {@code null} if none matches.
+     *
+     * @see GenericRepository#findByIdAndOwner(UUID, User)
+     */
+    public CompletableFuture<T> findByIdAndOwner(final UUID entityId, final User owner) {
+        return supply(r -> r.findByIdAndOwner(entityId, owner));
+    }
+
+    /**
+     * Returns a {@link KeysetPage} of entities.
+     *
+     * @param request keyset paging conditions.
+     *
+     * @return a page of entities.
+     *
+     * @see GenericRepository#findAll(KeysetPageRequest)
+     */
+    public CompletableFuture<KeysetPage<T>> findAll(final KeysetPageRequest request) {
+        return supply(r -> r.findAll(request));
+    }
+
+    /**
+     * Count the entities.
+     *
+     * @return the number of entities.
+     *
+     * @see GenericRepository#count()
+     */
+    public CompletableFuture<Long> count() {
+        return supply(GenericRepository::count);
+    }
+
+    /**
+     * Tests if an entity exists for the given primary key.
+     *
+     * @param entityId the unique identifier of the entity to check existence.
+     *
+     * @return {@code true} if the entity exists, {@code false} otherwise.
+     *
+     * @see GenericRepository#exists(UUID)
+     */
+    public CompletableFuture<Boolean> exists(final UUID entityId) {
+        return supply(r -> r.exists(entityId));
+    }
+
+    /**
+     * Add an entity.
+     *
+     * @param entity the entity to add.
+     *
+     * @return the addition completion.
+     *
+     * @see GenericRepository#add(AbstractGenericEntity)
+     */
+    public CompletableFuture<Void> add(final T entity) {
+        return run(r -> r.add(entity));
+    }
+
+    /**
+     * Update an entity.
+     *
+     * @param entity the reference entity used for the update.
+     *
+     * @return the updated entity, {@code null} if entity was not found.
+     *
+     * @see GenericRepository#update(AbstractGenericEntity)
+     */
+    public CompletableFuture<T> update(final T entity) {
+        return supply(r -> r.update(entity));
+    }
+
+    /**
+     * Update an entity only if owned by given owner.
+     *
+     * @param entity the reference entity used for the update.
+     * @param owner the entity owner.
+     *
+     * @return the updated entity, {@code null} if entity was not found.
+     *
+     * @see GenericRepository#updateByOwner(AbstractGenericEntity, User)
+     */
+    public CompletableFuture<T> updateByOwner(final T entity, final User owner) {
+        return supply(r -> r.updateByOwner(entity, owner));
+    }
+
+    /**
+     * Delete an entity.
+     *
+     * @param entityId the entity identifier of the entity to delete.
+     *
+     * @return the deletion completion.
+     *
+     * @see GenericRepository#deleteById(UUID)
+     */
+    public CompletableFuture<Void> deleteById(final UUID entityId) {
+        return run(r -> r.deleteById(entityId));
+    }
+
+    /**
+     * Delete an entity only if owned by given owner.
+     *
+     * @param entityId the entity identifier of the entity to delete.
+     * @param owner the entity owner.
+     *
+     * @return the number of deleted entities.
+     *
+     * @see GenericRepository#deleteByIdAndOwner(UUID, User)
+     */
+    public CompletableFuture<Integer> deleteByIdAndOwner(final UUID entityId, final User owner) {
+        return supply(r -> r.deleteByIdAndOwner(entityId, owner));
+    }
+
+    /**
+     * Submit a call to the executor, with a shard bound if any.
+     */
+    private <V> CompletableFuture<V> submit(final String shard, final Supplier<V> call) {
+        return executor.submit(shard != null ? () -> ShardContext.call(shard, call) : call);
+    }
+}
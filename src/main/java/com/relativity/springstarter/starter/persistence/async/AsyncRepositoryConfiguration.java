@@ -0,0 +1,50 @@
+package com.relativity.springstarter.starter.persistence.async;
+
+import com.relativity.springstarter.starter.persistence.sharding.ShardRouter;
+import com.relativity.springstarter.starter.persistence.user.dao.UserRepository;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * The asynchronous repositories configuration.
+ *
+ * @author avakhobov
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(AsyncRepositoryProperties.class)
+public class AsyncRepositoryConfiguration {
+
+    /**
+     * The connection pool maximum size property, defaulting the calls concurrency.
+     */
+    public static final String POOL_SIZE_PROPERTY = "spring.datasource.hikari.maximum-pool-size";
+
+    /**
+     * The default connection pool maximum size.
+     */
+    public static final int DEFAULT_POOL_SIZE = 10;
+
+    @Bean(destroyMethod = "shutdown")
+    public AsyncRepositoryExecutor asyncRepositoryExecutor(final AsyncRepositoryProperties properties,
+            final Environment environment) {
+        final int concurrency = properties.getConcurrency() != null ? properties.getConcurrency()
+                : environment.getProperty(POOL_SIZE_PROPERTY, Integer.class, DEFAULT_POOL_SIZE);
+
+        return new AsyncRepositoryExecutor(properties.getThreads(), concurrency,
+                properties.getQueueCapacity());
+    }
+
+    @Bean
+    public AsyncUserRepository asyncUserRepository(final UserRepository repository,
+            final AsyncRepositoryExecutor executor, final PlatformTransactionManager transactionManager,
+            final ObjectProvider<ShardRouter> shardRouter) {
+        return new AsyncUserRepository(repository, executor, new TransactionTemplate(transactionManager),
+                shardRouter.getIfAvailable());
+    }
+}
@@ -0,0 +1,44 @@
+package com.relativity.springstarter.starter.persistence.async;
+
+import com.relativity.springstarter.starter.concurrent.BoundedExecutor;
+import com.relativity.springstarter.starter.concurrent.ThreadKind;
+
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Bounded executor of the asynchronous repository calls.
+ *
+ * <p>
+ * At most {@code concurrency} calls run at once, which should not exceed the connection pool size
+ * so running calls do not wait for a connection. At most {@code queueCapacity} further calls wait
+ * to run, further calls are rejected with a {@link RejectedExecutionException} so callers can shed
+ * load instead of piling up behind a saturated connection pool.
+ * </p>
+ *
+ * <p>
+ * Calls run either on a fixed pool of {@code concurrency} platform threads, or on a virtual thread
+ * each when the JDK provides them (see {@link ThreadKind}), the number of running virtual threads
+ * being limited by a semaphore.
+ * </p>
+ *
+ * @author avakhobov
+ */
+public class AsyncRepositoryExecutor extends BoundedExecutor {
+
+    /**
+     * Create a {@link AsyncRepositoryExecutor}.
+     *
+     * @param threads the kind of threads running the calls.
+     * @param concurrency the maximum number of calls running at once.
+     * @param queueCapacity the maximum number of calls waiting to run.
+     *
+     * @throws IllegalArgumentException if {@code concurrency} is less than one or
+     *         {@code queueCapacity} is negative.
+     * @throws IllegalStateException if virtual threads are requested and the JDK does not provide
+     *         them.
+     */
+    public AsyncRepositoryExecutor(final ThreadKind threads, final int concurrency,
+            final int queueCapacity) {
+        super("repository-async", threads, concurrency, queueCapacity);
+    }
+}
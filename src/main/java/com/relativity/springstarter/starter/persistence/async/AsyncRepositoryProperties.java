@@ -0,0 +1,83 @@
+package com.relativity.springstarter.starter.persistence.async;
+
+import com.relativity.springstarter.starter.concurrent.ThreadKind;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * The {@link AsyncRepositoryExecutor} configuration properties.
+ *
+ * @author avakhobov
+ */
+@ConfigurationProperties(prefix = "starter.persistence.async")
+public class AsyncRepositoryProperties {
+
+    /**
+     * The kind of threads running the calls.
+     */
+    private ThreadKind threads = ThreadKind.AUTO;
+
+    /**
+     * The maximum number of calls running at once, defaults to the connection pool maximum size.
+     */
+    private Integer concurrency = null;
+
+    /**
+     * The maximum number of calls waiting to run, further calls are rejected.
+     */
+    private int queueCapacity = 1000;
+
+    /**
+     * Get the {@link #threads}.
+     *
+     * @return the {@link #threads}.
+     */
+    public ThreadKind getThreads() {
+        return threads;
+    }
+
+    /**
+     * Set the {@link #threads}.
+     *
+     * @param threads the {@link #threads} to set.
+     */
+    public void setThreads(final ThreadKind threads) {
+        this.threads = threads;
+    }
+
+    /**
+     * Get the {@link #concurrency}.
+     *
+     * @return the {@link #concurrency}.
+     */
+    public Integer getConcurrency() {
+        return concurrency;
+    }
+
+    /**
+     * Set the {@link #concurrency}.
+     *
+     * @param concurrency the {@link #concurrency} to set.
+     */
+    public void setConcurrency(final Integer concurrency) {
+        this.concurrency = concurrency;
+    }
+
+    /**
+     * Get the {@link #queueCapacity}.
+     *
+     * @return the {@link #queueCapacity}.
+     */
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    /**
+     * Set the {@link #queueCapacity}.
+     *
+     * @param queueCapacity the {@link #queueCapacity} to set.
+     */
+    public void setQueueCapacity(final int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+}
@@ -0,0 +1,213 @@
+package com.relativity.springstarter.starter.persistence.async;
+
+import com.relativity.springstarter.starter.persistence.Chunks;
+import com.relativity.springstarter.starter.persistence.sharding.ShardRouter;
+import com.relativity.springstarter.starter.persistence.user.dao.UserRepository;
+import com.relativity.springstarter.starter.persistence.user.entity.User;
+
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiFunction;
+
+/**
+ * Asynchronous facade of the {@link UserRepository}.
+ *
+ * @author avakhobov
+ *
+ * @see AsyncGenericRepository
+ */
+public class AsyncUserRepository extends AsyncGenericRepository<User, UserRepository> {
+
+    /**
+     * Create a {@link AsyncUserRepository}.
+     *
+     * @param repository the {@link User} repository.
+     * @param executor the executor running the calls.
+     * @param transactionTemplate the template of the {@link #inTransaction} transactions.
+     * @param shardRouter the shard router, {@code null} if the persistence is not sharded.
+     */
+    public AsyncUserRepository(final UserRepository repository,
+            final AsyncRepositoryExecutor executor, final TransactionTemplate transactionTemplate,
+            final ShardRouter shardRouter) {
+        super(repository, executor, transactionTemplate, shardRouter);
+    }
+
+    /**
+     * Find a {@link User} through its username while ignoring case.
+     *
+     * @param username the username to search.
+     *
+     * @return The {@link User} matching the username, {@code null} if none matches.
+     *
+     * @see UserRepository#findByUsernameIgnoreCase(String)
+     */
+    public CompletableFuture<User> findByUsernameIgnoreCase(final String username) {
+        return supply(r -> r.findByUsernameIgnoreCase(username));
+    }
+
+    /**
+     * Find a {@link User} through its email while ignoring case.
+     *
+     * @param email The email to search.
+     *
+     * @return The {@link User} matching the email, {@code null} if none matches.
+     *
+     * @see UserRepository#findByEmailIgnoreCase(String)
+     */
+    public CompletableFuture<User> findByEmailIgnoreCase(final String email) {
+        return supply(r -> r.findByEmailIgnoreCase(email));
+    }
+
+    /**
+     * Find a user account through its username or email while ignoring case.
+     *
+     * @param username The username to search.
+     * @param email The email to search.
+     *
+     * @return The {@link User} matching the username or email, {@code null} if none matches.
+     *
+     * @see UserRepository#findByUsernameOrEmailIgnoreCase(String, String)
+     */
+    public CompletableFuture<User> findByUsernameOrEmailIgnoreCase(final String username,
+            final String email) {
+        return supply(r -> r.findByUsernameOrEmailIgnoreCase(username, email));
+    }
+
+    /**
+     * Find the {@link User}s of several identifiers.
+     *
+     * <p>
+     * The identifiers are split in chunks of {@link Chunks#IN_CLAUSE_SIZE}, each chunk being looked
+     * up in parallel, in its own transaction. The result completes exceptionally if any chunk fails,
+     * or is rejected by the executor.
+     * </p>
+     *
+     * @param userIds the identifiers of the users.
+     *
+     * @return The {@link User} of each identifier, in the order of the identifiers, empty if none
+     *         found.
+     *
+     * @see UserRepository#findEachById(List)
+     */
+    public CompletableFuture<List<Optional<User>>> findEachById(final List<UUID> userIds) {
+        return findEach(userIds, UserRepository::findEachById);
+    }
+
+    /**
+     * Find the {@link User}s of several usernames while ignoring case, in parallel chunks as
+     * described in {@link #findEachById(List)}.
+     *
+     * @param usernames the usernames to search.
+     *
+     * @return The {@link User} of each username, in the order of the usernames, empty if none found.
+     *
+     * @see UserRepository#findEachByUsernameIgnoreCase(List)
+     */
+    public CompletableFuture<List<Optional<User>>> findEachByUsernameIgnoreCase(
+            final List<String> usernames) {
+        return findEach(usernames, UserRepository::findEachByUsernameIgnoreCase);
+    }
+
+    /**
+     * Find the {@link User}s of several emails while ignoring case, in parallel chunks as described
+     * in {@link #findEachById(List)}.
+     *
+     * @param emails the emails to search.
+     *
+     * @return The {@link User} of each email, in the order of the emails, empty if none found.
+     *
+     * @see UserRepository#findEachByEmailIgnoreCase(List)
+     */
+    public CompletableFuture<List<Optional<User>>> findEachByEmailIgnoreCase(
+            final List<String> emails) {
+        return findEach(emails, UserRepository::findEachByEmailIgnoreCase);
+    }
+
+    /**
+     * Tests if a {@link User} exists for the given primary key or the username or the email.
+     *
+     * @param userId The identifier of {@link User} to check existence.
+     * @param username The username of the {@link User} to check existence.
+     * @param email The email of the {@link User} to check existence.
+     *
+     * @return {@code true} if {@link User} exists, {@code false} otherwise.
+     *
+     * @see UserRepository#exists(UUID, String, String)
+     */
+    public CompletableFuture<Boolean> exists(final UUID userId, final String username,
+            final String email) {
+        return supply(r -> r.exists(userId, username, email));
+    }
+
+    /**
+     * Set the active status of user accounts.
+     *
+     * @param userIds the identifiers of the user accounts.
+     * @param enabled the active status to set.
+     *
+     * @return the number of updated user accounts.
+     *
+     * @see UserRepository#setEnabled(Collection, boolean)
+     */
+    public CompletableFuture<Integer> setEnabled(final Collection<UUID> userIds,
+            final boolean enabled) {
+        return supply(r -> r.setEnabled(userIds, enabled));
+    }
+
+    /**
+     * Set the verified status of user accounts.
+     *
+     * @param userIds the identifiers of the user accounts.
+     * @param verified the verified status to set.
+     *
+     * @return the number of updated user accounts.
+     *
+     * @see UserRepository#setVerified(Collection, boolean)
+     */
+    public CompletableFuture<Integer> setVerified(final Collection<UUID> userIds,
+            final boolean verified) {
+        return supply(r -> r.setVerified(userIds, verified));
+    }
+
+    /**
+     * Run a lookup of several keys, one call per chunk of distinct keys, and gather the users in the
+     * order of the keys.
+     */
+    private <K> CompletableFuture<List<Optional<User>>> findEach(final List<K> keys,
+            final BiFunction<UserRepository, List<K>, List<Optional<User>>> lookup) {
+        final List<List<K>> chunks = Chunks.distinct(keys, Chunks.IN_CLAUSE_SIZE);
+        if (chunks.size() <= 1) {
+            return supply(r -> lookup.apply(r, keys));
+        }
+
+        final List<CompletableFuture<List<Optional<User>>>> results = new ArrayList<>(chunks.size());
+        for (final List<K> chunk : chunks) {
+            results.add(supply(r -> lookup.apply(r, chunk)));
+        }
+
+        return CompletableFuture.allOf(results.toArray(new CompletableFuture<?>[0])).thenApply(done -> {
+            final Map<K, Optional<User>> found = new HashMap<>();
+            for (int i = 0; i < chunks.size(); i++) {
+                final List<K> chunk = chunks.get(i);
+                final List<Optional<User>> users = results.get(i).join();
+                for (int j = 0; j < chunk.size(); j++) {
+                    found.put(chunk.get(j), users.get(j));
+                }
+            }
+
+            final List<Optional<User>> users = new ArrayList<>(keys.size());
+            for (final K key : keys) {
+                users.add(found.get(key));
+            }
+            return users;
+        });
+    }
+}
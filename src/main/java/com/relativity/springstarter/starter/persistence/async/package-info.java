@@ -0,0 +1,6 @@
+/**
+ * Asynchronous facades of the repositories.
+ *
+ * @author avakhobov
+ */
+package com.relativity.springstarter.starter.persistence.async;
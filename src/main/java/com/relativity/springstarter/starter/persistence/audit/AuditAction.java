@@ -0,0 +1,24 @@
+package com.relativity.springstarter.starter.persistence.audit;
+
+/**
+ * The audited entity changes.
+ *
+ * @author avakhobov
+ */
+public enum AuditAction {
+
+    /**
+     * The entity was inserted.
+     */
+    CREATE,
+
+    /**
+     * The entity was updated.
+     */
+    UPDATE,
+
+    /**
+     * The entity was deleted.
+     */
+    DELETE;
+}
@@ -0,0 +1,82 @@
+package com.relativity.springstarter.starter.persistence.audit;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.Objects;
+
+/**
+ * The change of an entity field, its values rendered as text.
+ *
+ * @author avakhobov
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public final class AuditChange {
+
+    /**
+     * The value before the change, {@code null} if none or unknown.
+     */
+    private final String oldValue;
+
+    /**
+     * The value after the change, {@code null} if none.
+     */
+    private final String newValue;
+
+    /**
+     * Create a {@link AuditChange}.
+     *
+     * @param oldValue the value before the change, {@code null} if none or unknown.
+     * @param newValue the value after the change, {@code null} if none.
+     */
+    @JsonCreator
+    public AuditChange(@JsonProperty("old") final String oldValue,
+            @JsonProperty("new") final String newValue) {
+        super();
+        this.oldValue = oldValue;
+        this.newValue = newValue;
+    }
+
+    /**
+     * Get the {@link #oldValue}.
+     *
+     * @return the {@link #oldValue}.
+     */
+    @JsonProperty("old")
+    public String getOldValue() {
+        return oldValue;
+    }
+
+    /**
+     * Get the {@link #newValue}.
+     *
+     * @return the {@link #newValue}.
+     */
+    @JsonProperty("new")
+    public String getNewValue() {
+        return newValue;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(oldValue, newValue);
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (this == obj) {
+            return true;
+        } else if (!(obj instanceof AuditChange)) {
+            return false;
+        }
+
+        final AuditChange other = (AuditChange) obj;
+        return Objects.equals(oldValue, other.oldValue) && Objects.equals(newValue, other.newValue);
+    }
+
+    @Override
+    public String toString() {
+        return oldValue + " -> " + newValue;
+    }
+}
@@ -0,0 +1,55 @@
+package com.relativity.springstarter.starter.persistence.audit;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.util.Collections;
+import java.util.Map;
+
+import javax.persistence.AttributeConverter;
+import javax.persistence.Converter;
+
+/**
+ * Stores the {@link AuditEvent} changes as a JSON object of the changes by field name.
+ *
+ * @author avakhobov
+ */
+@Converter
+public class AuditChangesConverter implements AttributeConverter<Map<String, AuditChange>, String> {
+
+    /**
+     * The JSON mapper, without the application customizations so the stored format does not
+     * depend on them.
+     */
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    /**
+     * The stored changes type.
+     */
+    private static final TypeReference<Map<String, AuditChange>> CHANGES_TYPE =
+            new TypeReference<Map<String, AuditChange>>() {
+            };
+
+    @Override
+    public String convertToDatabaseColumn(final Map<String, AuditChange> changes) {
+        try {
+            return MAPPER.writeValueAsString(changes == null ? Collections.emptyMap() : changes);
+        } catch (final JsonProcessingException e) {
+            throw new IllegalArgumentException("Cannot write the audited changes", e);
+        }
+    }
+
+    @Override
+    public Map<String, AuditChange> convertToEntityAttribute(final String json) {
+        if (json == null || json.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        try {
+            return Collections.unmodifiableMap(MAPPER.readValue(json, CHANGES_TYPE));
+        } catch (final JsonProcessingException e) {
+            throw new IllegalArgumentException("Cannot read the audited changes", e);
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.relativity.springstarter.starter.persistence.audit;
+
+import com.relativity.springstarter.starter.persistence.HibernateIntegrators;
+import com.relativity.springstarter.starter.persistence.user.dao.UserRepository;
+
+import org.hibernate.boot.Metadata;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+
+import java.util.UUID;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+
+/**
+ * The audit trail configuration, enabled unless the {@value #ENABLED_PROPERTY} property is
+ * {@code false}.
+ *
+ * <p>
+ * The {@link AuditEventListener} is registered with Hibernate through an {@link Integrator}, and
+ * the users bulk updates audited by a {@link BulkUpdateAuditor} added to the {@link UserRepository}
+ * proxy. An {@link AuditorAware} bean, if any, gives the user who made the changes.
+ * </p>
+ *
+ * @author avakhobov
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(AuditProperties.class)
+@ConditionalOnProperty(name = AuditConfiguration.ENABLED_PROPERTY, havingValue = "true",
+        matchIfMissing = true)
+public class AuditConfiguration {
+
+    /**
+     * The audit trail activation property.
+     */
+    public static final String ENABLED_PROPERTY = "starter.persistence.audit.enabled";
+
+    @Bean
+    public AuditQueue auditQueue(final AuditProperties properties) {
+        return new AuditQueue(properties.getQueueCapacity());
+    }
+
+    @Bean
+    public AuditEventListener auditEventListener(final AuditQueue queue,
+            final AuditProperties properties, final ObjectProvider<AuditorAware<UUID>> auditor) {
+        return new AuditEventListener(queue, properties.getRedactedFields(), auditor);
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer auditEventListenerCustomizer(final AuditEventListener listener) {
+        return properties -> HibernateIntegrators.add(properties, new AuditIntegrator(listener));
+    }
+
+    @Bean
+    public static BulkUpdateAuditorPostProcessor bulkUpdateAuditorPostProcessor(
+            final ObjectProvider<AuditQueue> queue, final ObjectProvider<AuditEventListener> listener,
+            final ObjectProvider<EntityManagerFactory> entityManagerFactory) {
+        return new BulkUpdateAuditorPostProcessor(queue, listener, entityManagerFactory);
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "shutdown")
+    public AuditWriter auditWriter(final AuditQueue queue, final DataSource dataSource,
+            final AuditProperties properties) {
+        return new AuditWriter(queue, dataSource, properties.getBatchSize(),
+                properties.getFlushInterval(), properties.getFlushTimeout());
+    }
+
+    @Bean
+    public AuditTrail auditTrail(final AuditEventRepository repository, final AuditWriter writer,
+            final AuditProperties properties) {
+        return new AuditTrail(repository, writer, properties.getFlushTimeout());
+    }
+
+    /**
+     * Adds a {@link BulkUpdateAuditor} to the {@link UserRepository} proxy.
+     */
+    static class BulkUpdateAuditorPostProcessor implements BeanPostProcessor {
+
+        /**
+         * The queue of the events to write, resolved when the repository is created.
+         */
+        private final ObjectProvider<AuditQueue> queue;
+
+        /**
+         * The listener recording the events, resolved when the repository is created.
+         */
+        private final ObjectProvider<AuditEventListener> listener;
+
+        /**
+         * The entity manager factory, resolved on the first update.
+         */
+        private final ObjectProvider<EntityManagerFactory> entityManagerFactory;
+
+        BulkUpdateAuditorPostProcessor(final ObjectProvider<AuditQueue> queue,
+                final ObjectProvider<AuditEventListener> listener,
+                final ObjectProvider<EntityManagerFactory> entityManagerFactory) {
+            this.queue = queue;
+            this.listener = listener;
+            this.entityManagerFactory = entityManagerFactory;
+        }
+
+        @Override
+        public Object postProcessBeforeInitialization(final Object bean, final String beanName) {
+            if (bean instanceof RepositoryFactoryBeanSupport) {
+                ((RepositoryFactoryBeanSupport<?, ?, ?>) bean).addRepositoryFactoryCustomizer(
+                        factory -> factory.addRepositoryProxyPostProcessor((proxy, information) -> {
+                            if (UserRepository.class.isAssignableFrom(information.getRepositoryInterface())) {
+                                // After the transaction interceptor, within the transaction
+                                proxy.addAdvice(new BulkUpdateAuditor(queue.getObject(),
+                                        listener.getObject(), entityManagerFactory));
+                            }
+                        }));
+            }
+
+            return bean;
+        }
+    }
+
+    /**
+     * Appends the {@link AuditEventListener} to the Hibernate post insert, update and delete
+     * listeners.
+     */
+    static class AuditIntegrator implements Integrator {
+
+        /**
+         * The audit listener.
+         */
+        private final AuditEventListener listener;
+
+        AuditIntegrator(final AuditEventListener listener) {
+            this.listener = listener;
+        }
+
+        @Override
+        public void integrate(final Metadata metadata, final SessionFactoryImplementor sessionFactory,
+                final SessionFactoryServiceRegistry serviceRegistry) {
+            final EventListenerRegistry registry = serviceRegistry.getService(EventListenerRegistry.class);
+            registry.appendListeners(EventType.POST_INSERT, listener);
+            registry.appendListeners(EventType.POST_UPDATE, listener);
+            registry.appendListeners(EventType.POST_DELETE, listener);
+        }
+
+        @Override
+        public void disintegrate(final SessionFactoryImplementor sessionFactory,
+                final SessionFactoryServiceRegistry serviceRegistry) {
+            // Nothing to release
+        }
+    }
+}
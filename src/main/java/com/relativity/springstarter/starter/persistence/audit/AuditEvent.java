@@ -0,0 +1,188 @@
+package com.relativity.springstarter.starter.persistence.audit;
+
+import com.relativity.springstarter.starter.persistence.id.IdGenerators;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import javax.persistence.Column;
+import javax.persistence.Convert;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+
+/**
+ * An audited change of an entity.
+ *
+ * <p>
+ * The events are written by the {@link AuditWriter} with plain JDBC batches, the identifiers being
+ * stored as text so the statements do not depend on the database UUID type. An event may be
+ * written more than once, see {@link AuditWriter}, its identifier telling the copies apart from
+ * distinct changes.
+ * </p>
+ *
+ * @author avakhobov
+ */
+@Entity
+@Table(name = AuditEvent.TABLE, indexes = @Index(name = "audit_events_entity_id_occurred_at_idx",
+        columnList = "entity_id, occurred_at"))
+public class AuditEvent {
+
+    /**
+     * The audit events table.
+     */
+    public static final String TABLE = "audit_events";
+
+    /**
+     * The text length of an identifier.
+     */
+    private static final int ID_LENGTH = 36;
+
+    /**
+     * The event identifier.
+     */
+    @Id
+    @Column(name = "id", length = ID_LENGTH, nullable = false, updatable = false)
+    private String id;
+
+    /**
+     * The audited entity class name.
+     */
+    @Column(name = "entity_type", nullable = false, updatable = false)
+    private String entityType;
+
+    /**
+     * The audited entity identifier.
+     */
+    @Column(name = "entity_id", length = ID_LENGTH, nullable = false, updatable = false)
+    private String entityId;
+
+    /**
+     * The audited change.
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "action", length = 16, nullable = false, updatable = false)
+    private AuditAction action;
+
+    /**
+     * The changed fields, by field name.
+     */
+    @Convert(converter = AuditChangesConverter.class)
+    @Column(name = "changes", columnDefinition = "TEXT", nullable = false, updatable = false)
+    private Map<String, AuditChange> changes;
+
+    /**
+     * The identifier of the user who made the change, {@code null} if unknown.
+     */
+    @Column(name = "actor_id", length = ID_LENGTH, nullable = true, updatable = false)
+    private String actorId;
+
+    /**
+     * When the change was made.
+     */
+    @Column(name = "occurred_at", columnDefinition = "TIMESTAMP", nullable = false,
+            updatable = false)
+    private Date occurredAt;
+
+    /**
+     * Create a {@link AuditEvent}, for JPA.
+     */
+    protected AuditEvent() {
+        super();
+    }
+
+    /**
+     * Create a {@link AuditEvent} of a change made now.
+     *
+     * @param entityType the audited entity class.
+     * @param entityId the audited entity identifier.
+     * @param action the audited change.
+     * @param changes the changed fields, by field name.
+     * @param actorId the identifier of the user who made the change, {@code null} if unknown.
+     */
+    public AuditEvent(final Class<?> entityType, final UUID entityId, final AuditAction action,
+            final Map<String, AuditChange> changes, final UUID actorId) {
+        super();
+        this.id = IdGenerators.generate(AuditEvent.class).toString();
+        this.entityType = entityType.getName();
+        this.entityId = entityId.toString();
+        this.action = action;
+        this.changes = Collections.unmodifiableMap(new LinkedHashMap<>(changes));
+        this.actorId = actorId == null ? null : actorId.toString();
+        this.occurredAt = new Date();
+    }
+
+    /**
+     * Get the {@link #id}.
+     *
+     * @return the {@link #id}.
+     */
+    public UUID getId() {
+        return UUID.fromString(id);
+    }
+
+    /**
+     * Get the {@link #entityType}.
+     *
+     * @return the {@link #entityType}.
+     */
+    public String getEntityType() {
+        return entityType;
+    }
+
+    /**
+     * Get the {@link #entityId}.
+     *
+     * @return the {@link #entityId}.
+     */
+    public UUID getEntityId() {
+        return UUID.fromString(entityId);
+    }
+
+    /**
+     * Get the {@link #action}.
+     *
+     * @return the {@link #action}.
+     */
+    public AuditAction getAction() {
+        return action;
+    }
+
+    /**
+     * Get the {@link #changes}.
+     *
+     * @return the {@link #changes}.
+     */
+    public Map<String, AuditChange> getChanges() {
+        return changes;
+    }
+
+    /**
+     * Get the {@link #actorId}.
+     *
+     * @return the {@link #actorId}, {@code null} if unknown.
+     */
+    public UUID getActorId() {
+        return actorId == null ? null : UUID.fromString(actorId);
+    }
+
+    /**
+     * Get the {@link #occurredAt}.
+     *
+     * @return the {@link #occurredAt}.
+     */
+    public Date getOccurredAt() {
+        return occurredAt;
+    }
+
+    @Override
+    public String toString() {
+        return action + " " + entityType + " " + entityId + " " + changes;
+    }
+}
@@ -0,0 +1,284 @@
+package com.relativity.springstarter.starter.persistence.audit;
+
+import com.relativity.springstarter.starter.persistence.AbstractGenericEntity;
+
+import org.hibernate.bytecode.enhance.spi.LazyPropertyInitializer;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.proxy.HibernateProxy;
+import org.hibernate.type.Type;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Records an {@link AuditEvent} for every {@link AbstractGenericEntity} Hibernate inserts, updates
+ * or deletes, with the changed fields.
+ *
+ * <p>
+ * The events are captured when the statements are executed, a slot being reserved in the
+ * {@link AuditQueue} so a full queue fails the transaction, and queued once the transaction
+ * committed. The changes of a rolled back transaction are not audited. Collections and the version
+ * are left out of the changes, and so are the lazy fields that were not loaded, or recorded without
+ * their previous value when they were set without being loaded. Entities are recorded by identifier
+ * and the {@link #redactedFields} values are replaced by {@value #REDACTED}.
+ * </p>
+ *
+ * <p>
+ * The user who made the change is the {@link AuditorAware} current auditor when there is one,
+ * otherwise the entity {@code createdBy} or {@code modifiedBy} user, set by the application when
+ * there is no current auditor.
+ * </p>
+ *
+ * @author avakhobov
+ */
+public class AuditEventListener
+        implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+    /**
+     * The value recorded in place of the redacted fields values.
+     */
+    public static final String REDACTED = "[redacted]";
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The queue of the events to write.
+     */
+    private final transient AuditQueue queue;
+
+    /**
+     * The names of the fields whose values are not recorded.
+     */
+    private final Set<String> redactedFields;
+
+    /**
+     * The current auditor, if any.
+     */
+    private final transient ObjectProvider<AuditorAware<UUID>> auditor;
+
+    /**
+     * Create a {@link AuditEventListener}.
+     *
+     * @param queue the queue of the events to write.
+     * @param redactedFields the names of the fields whose values are not recorded.
+     * @param auditor the current auditor, if any.
+     */
+    public AuditEventListener(final AuditQueue queue, final Collection<String> redactedFields,
+            final ObjectProvider<AuditorAware<UUID>> auditor) {
+        super();
+        this.queue = queue;
+        this.redactedFields = new HashSet<>(redactedFields);
+        this.auditor = auditor;
+    }
+
+    @Override
+    public void onPostInsert(final PostInsertEvent event) {
+        if (event.getEntity() instanceof AbstractGenericEntity) {
+            final AbstractGenericEntity entity = (AbstractGenericEntity) event.getEntity();
+            record(entity, AuditAction.CREATE,
+                    changes(event.getPersister(), null, event.getState(), null),
+                    entity.getCreatedBy());
+        }
+    }
+
+    @Override
+    public void onPostUpdate(final PostUpdateEvent event) {
+        if (event.getEntity() instanceof AbstractGenericEntity) {
+            final AbstractGenericEntity entity = (AbstractGenericEntity) event.getEntity();
+            final Map<String, AuditChange> changes = changes(event.getPersister(),
+                    event.getOldState(), event.getState(), event.getDirtyProperties());
+            if (!changes.isEmpty()) {
+                record(entity, AuditAction.UPDATE, changes, entity.getModifiedBy());
+            }
+        }
+    }
+
+    @Override
+    public void onPostDelete(final PostDeleteEvent event) {
+        if (event.getEntity() instanceof AbstractGenericEntity) {
+            record((AbstractGenericEntity) event.getEntity(), AuditAction.DELETE,
+                    changes(event.getPersister(), event.getDeletedState(), null, null), null);
+        }
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(final EntityPersister persister) {
+        // The events are queued on commit by a transaction synchronization
+        return false;
+    }
+
+    /**
+     * Still abstract in Hibernate 5, deprecated as is the method it implements.
+     *
+     * @deprecated use {@link #requiresPostCommitHandling(EntityPersister)}.
+     */
+    @Override
+    @Deprecated
+    public boolean requiresPostCommitHanding(final EntityPersister persister) {
+        return requiresPostCommitHandling(persister);
+    }
+
+    /**
+     * Record the change of an entity, its slot being reserved in the queue.
+     *
+     * <p>
+     * Within a transaction synchronization the event is queued when the transaction commits, and
+     * its slot released if it rolls back, otherwise it is queued at once. The events of a suspended
+     * transaction are kept apart from the ones of the transactions started meanwhile.
+     * </p>
+     *
+     * @param event the event.
+     */
+    public void record(final AuditEvent event) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            queue.add(event);
+            return;
+        }
+
+        @SuppressWarnings("unchecked")
+        List<AuditEvent> events = (List<AuditEvent>) TransactionSynchronizationManager.getResource(this);
+        if (events == null) {
+            final List<AuditEvent> pending = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void suspend() {
+                    // An inner transaction records its events apart, queued when it commits
+                    TransactionSynchronizationManager.unbindResource(AuditEventListener.this);
+                }
+
+                @Override
+                public void resume() {
+                    TransactionSynchronizationManager.bindResource(AuditEventListener.this, pending);
+                }
+
+                @Override
+                public void afterCompletion(final int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(AuditEventListener.this);
+                    if (status == STATUS_COMMITTED) {
+                        pending.forEach(queue::add);
+                    } else {
+                        queue.release(pending.size());
+                    }
+                }
+            });
+            events = pending;
+        }
+        events.add(event);
+    }
+
+    /**
+     * Get the identifier of the user who made a change.
+     *
+     * @param user the user recorded by the entity, if any.
+     *
+     * @return the {@link AuditorAware} current auditor identifier, otherwise the {@code user}
+     *         identifier, {@code null} if unknown.
+     */
+    public UUID getActorId(final Object user) {
+        final AuditorAware<UUID> current = auditor.getIfAvailable();
+        final Optional<UUID> actorId = current == null ? Optional.empty() : current.getCurrentAuditor();
+
+        return actorId.orElseGet(() -> user == null ? null : UUID.fromString(render(user)));
+    }
+
+    private void record(final AbstractGenericEntity entity, final AuditAction action,
+            final Map<String, AuditChange> changes, final Object user) {
+        queue.reserve(1);
+        try {
+            record(new AuditEvent(entity.getClass(), entity.getId(), action, changes,
+                    getActorId(user)));
+        } catch (final RuntimeException e) {
+            queue.release(1);
+            throw e;
+        }
+    }
+
+    /**
+     * Get the changed fields of an entity.
+     *
+     * @param persister the entity persister.
+     * @param oldState the fields values before the change, {@code null} if created.
+     * @param state the fields values after the change, {@code null} if deleted.
+     * @param dirty the indexes of the changed fields, {@code null} to compare the values.
+     *
+     * @return the changes, by field name.
+     */
+    private Map<String, AuditChange> changes(final EntityPersister persister,
+            final Object[] oldState, final Object[] state, final int[] dirty) {
+        final String[] names = persister.getPropertyNames();
+        final Type[] types = persister.getPropertyTypes();
+        final Map<String, AuditChange> changes = new LinkedHashMap<>();
+
+        // The version only tells the changes apart, it is not a change itself
+        final int version = persister.isVersioned() ? persister.getVersionProperty() : -1;
+
+        for (int i = 0; i < names.length; i++) {
+            if (i == version || types[i].isCollectionType() || dirty != null && !contains(dirty, i)) {
+                continue;
+            }
+
+            final Object before = oldState == null ? null : oldState[i];
+            final Object after = state == null ? null : state[i];
+            if (after == LazyPropertyInitializer.UNFETCHED_PROPERTY
+                    || state == null && before == LazyPropertyInitializer.UNFETCHED_PROPERTY) {
+                continue;
+            }
+
+            final String oldValue = render(before);
+            final String newValue = render(after);
+            if (!Objects.equals(oldValue, newValue)) {
+                final boolean redacted = redactedFields.contains(names[i]);
+                changes.put(names[i], new AuditChange(redacted && oldValue != null ? REDACTED : oldValue,
+                        redacted && newValue != null ? REDACTED : newValue));
+            }
+        }
+
+        return changes;
+    }
+
+    private static boolean contains(final int[] indexes, final int index) {
+        for (final int i : indexes) {
+            if (i == index) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static String render(final Object value) {
+        if (value == null || value == LazyPropertyInitializer.UNFETCHED_PROPERTY) {
+            return null;
+        } else if (value instanceof HibernateProxy) {
+            return String.valueOf(((HibernateProxy) value).getHibernateLazyInitializer().getIdentifier());
+        } else if (value instanceof AbstractGenericEntity) {
+            return String.valueOf(((AbstractGenericEntity) value).getId());
+        } else if (value instanceof Date) {
+            // java.sql.Date does not support toInstant()
+            return Instant.ofEpochMilli(((Date) value).getTime()).toString();
+        }
+
+        return String.valueOf(value);
+    }
+}
@@ -0,0 +1,31 @@
+package com.relativity.springstarter.starter.persistence.audit;
+
+import org.springframework.data.repository.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * The written {@link AuditEvent}s, read only as they are written by the {@link AuditWriter}.
+ *
+ * @author avakhobov
+ */
+@Transactional(readOnly = true)
+public interface AuditEventRepository extends Repository<AuditEvent, String> {
+
+    /**
+     * Find the written events of an entity, in the order they occurred.
+     *
+     * @param entityId the entity identifier, as text.
+     *
+     * @return the events of the entity.
+     */
+    List<AuditEvent> findByEntityIdOrderByOccurredAtAscIdAsc(String entityId);
+
+    /**
+     * Count the written events.
+     *
+     * @return the number of events.
+     */
+    long count();
+}
@@ -0,0 +1,156 @@
+package com.relativity.springstarter.starter.persistence.audit;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The audit trail configuration properties.
+ *
+ * @author avakhobov
+ */
+@ConfigurationProperties(prefix = "starter.persistence.audit")
+public class AuditProperties {
+
+    /**
+     * Whether the entities changes are audited.
+     */
+    private boolean enabled = true;
+
+    /**
+     * The maximum number of events waiting to be written, further changes being rejected.
+     */
+    private int queueCapacity = 10000;
+
+    /**
+     * The maximum number of events written in a batch.
+     */
+    private int batchSize = 100;
+
+    /**
+     * The maximum delay before a queued event is written.
+     */
+    private Duration flushInterval = Duration.ofSeconds(1);
+
+    /**
+     * The maximum time waiting for the queued events to be written, by the queries and on
+     * shutdown.
+     */
+    private Duration flushTimeout = Duration.ofSeconds(10);
+
+    /**
+     * The names of the fields whose values are not recorded.
+     */
+    private List<String> redactedFields = new ArrayList<>(Arrays.asList("password"));
+
+    /**
+     * Get the {@link #enabled}.
+     *
+     * @return the {@link #enabled}.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Set the {@link #enabled}.
+     *
+     * @param enabled the {@link #enabled} to set.
+     */
+    public void setEnabled(final boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Get the {@link #queueCapacity}.
+     *
+     * @return the {@link #queueCapacity}.
+     */
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    /**
+     * Set the {@link #queueCapacity}.
+     *
+     * @param queueCapacity the {@link #queueCapacity} to set.
+     */
+    public void setQueueCapacity(final int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    /**
+     * Get the {@link #batchSize}.
+     *
+     * @return the {@link #batchSize}.
+     */
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Set the {@link #batchSize}.
+     *
+     * @param batchSize the {@link #batchSize} to set.
+     */
+    public void setBatchSize(final int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Get the {@link #flushInterval}.
+     *
+     * @return the {@link #flushInterval}.
+     */
+    public Duration getFlushInterval() {
+        return flushInterval;
+    }
+
+    /**
+     * Set the {@link #flushInterval}.
+     *
+     * @param flushInterval the {@link #flushInterval} to set.
+     */
+    public void setFlushInterval(final Duration flushInterval) {
+        this.flushInterval = flushInterval;
+    }
+
+    /**
+     * Get the {@link #flushTimeout}.
+     *
+     * @return the {@link #flushTimeout}.
+     */
+    public Duration getFlushTimeout() {
+        return flushTimeout;
+    }
+
+    /**
+     * Set the {@link #flushTimeout}.
+     *
+     * @param flushTimeout the {@link #flushTimeout} to set.
+     */
+    public void setFlushTimeout(final Duration flushTimeout) {
+        this.flushTimeout = flushTimeout;
+    }
+
+    /**
+     * Get the {@link #redactedFields}.
+     *
+     * @return the {@link #redactedFields}.
+     */
+    public List<String> getRedactedFields() {
+        return redactedFields;
+    }
+
+    /**
+     * Set the {@link #redactedFields}.
+     *
+     * @param redactedFields the {@link #redactedFields} to set.
+     */
+    public void setRedactedFields(final List<String> redactedFields) {
+        this.redactedFields = redactedFields;
+    }
+}
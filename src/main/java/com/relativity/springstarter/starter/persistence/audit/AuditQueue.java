@@ -0,0 +1,194 @@
+package com.relativity.springstarter.starter.persistence.audit;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Bounded lock-free queue of the {@link AuditEvent}s waiting to be written.
+ *
+ * <p>
+ * A slot is reserved for each event as soon as the change is made, before its transaction
+ * commits, and released once the event is written or its transaction rolled back. When all the
+ * slots are taken the change is rejected with a {@link RejectedExecutionException}, failing its
+ * transaction rather than committing a change the audit trail would miss. The events are queued
+ * once their transaction committed.
+ * </p>
+ *
+ * <p>
+ * The queue has a single consumer, the {@link AuditWriter}, woken up when a batch is ready.
+ * </p>
+ *
+ * @author avakhobov
+ */
+public class AuditQueue {
+
+    /**
+     * The queued events.
+     */
+    private final ConcurrentLinkedQueue<AuditEvent> events = new ConcurrentLinkedQueue<>();
+
+    /**
+     * The maximum number of reserved slots.
+     */
+    private final int capacity;
+
+    /**
+     * The number of reserved slots, for queued events or events of uncommitted transactions.
+     */
+    private final AtomicInteger reserved = new AtomicInteger();
+
+    /**
+     * The number of queued events, not yet taken by the consumer.
+     */
+    private final AtomicInteger size = new AtomicInteger();
+
+    /**
+     * The number of events queued since the creation of the queue.
+     */
+    private final AtomicLong queued = new AtomicLong();
+
+    /**
+     * The number of queued events waking up the consumer.
+     */
+    private volatile int batchSize = 1;
+
+    /**
+     * The consumer thread waiting for a batch, {@code null} if none.
+     */
+    private volatile Thread consumer = null;
+
+    /**
+     * Create a {@link AuditQueue}.
+     *
+     * @param capacity the maximum number of events queued or waiting for their transaction.
+     *
+     * @throws IllegalArgumentException if {@code capacity} is less than one.
+     */
+    public AuditQueue(final int capacity) {
+        super();
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must not be less than one");
+        }
+        this.capacity = capacity;
+    }
+
+    /**
+     * Reserve the slots of events.
+     *
+     * @param count the number of events.
+     *
+     * @throws RejectedExecutionException if there are not enough free slots.
+     */
+    public void reserve(final int count) {
+        if (reserved.addAndGet(count) > capacity) {
+            reserved.addAndGet(-count);
+            throw new RejectedExecutionException(
+                    "Too many pending audit events, limit is " + capacity);
+        }
+    }
+
+    /**
+     * Release the slots of events that will not be queued, or that were written.
+     *
+     * @param count the number of events.
+     */
+    public void release(final int count) {
+        reserved.addAndGet(-count);
+    }
+
+    /**
+     * Queue an event, its slot being reserved.
+     *
+     * @param event the event.
+     */
+    public void add(final AuditEvent event) {
+        events.add(event);
+        queued.incrementAndGet();
+
+        final Thread waiting = consumer;
+        if (size.incrementAndGet() >= batchSize && waiting != null) {
+            LockSupport.unpark(waiting);
+        }
+    }
+
+    /**
+     * Take queued events, their slots staying reserved until {@link #release(int) released}.
+     *
+     * @param batch the collection to add the events to.
+     * @param maximum the maximum number of events to take.
+     *
+     * @return the number of events taken.
+     */
+    public int drainTo(final Collection<? super AuditEvent> batch, final int maximum) {
+        int taken = 0;
+        AuditEvent event;
+        while (taken < maximum && (event = events.poll()) != null) {
+            batch.add(event);
+            taken++;
+        }
+        size.addAndGet(-taken);
+
+        return taken;
+    }
+
+    /**
+     * Wait, as the consumer, until a batch of events is queued.
+     *
+     * @param count the number of events of a batch.
+     * @param timeout the maximum waiting time.
+     * @param unit the {@code timeout} unit.
+     */
+    public void awaitBatch(final int count, final long timeout, final TimeUnit unit) {
+        batchSize = count;
+        consumer = Thread.currentThread();
+        try {
+            if (size.get() < count) {
+                LockSupport.parkNanos(this, unit.toNanos(timeout));
+            }
+        } finally {
+            consumer = null;
+        }
+    }
+
+    /**
+     * Get the number of reserved slots, for the queued events, the events being written and the
+     * events waiting for their transaction.
+     *
+     * @return the number of pending events.
+     */
+    public int getPending() {
+        return reserved.get();
+    }
+
+    /**
+     * Get the number of queued events, not yet taken by the consumer.
+     *
+     * @return the number of queued events.
+     */
+    public int size() {
+        return size.get();
+    }
+
+    /**
+     * Get the number of events queued since the creation of the queue.
+     *
+     * @return the number of queued events.
+     */
+    public long getQueued() {
+        return queued.get();
+    }
+
+    /**
+     * Get the {@link #capacity}.
+     *
+     * @return the {@link #capacity}.
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+}
@@ -0,0 +1,61 @@
+package com.relativity.springstarter.starter.persistence.audit;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * The audit trail of the entities.
+ *
+ * <p>
+ * The queries first wait for the events already queued to be written, up to {@link #flushTimeout},
+ * so they include the changes committed before the call.
+ * </p>
+ *
+ * @author avakhobov
+ */
+public class AuditTrail {
+
+    /**
+     * The written events.
+     */
+    private final AuditEventRepository repository;
+
+    /**
+     * The writer of the queued events.
+     */
+    private final AuditWriter writer;
+
+    /**
+     * The maximum time waiting for the queued events to be written.
+     */
+    private final Duration flushTimeout;
+
+    /**
+     * Create a {@link AuditTrail}.
+     *
+     * @param repository the written events.
+     * @param writer the writer of the queued events.
+     * @param flushTimeout the maximum time waiting for the queued events to be written.
+     */
+    public AuditTrail(final AuditEventRepository repository, final AuditWriter writer,
+            final Duration flushTimeout) {
+        super();
+        this.repository = repository;
+        this.writer = writer;
+        this.flushTimeout = flushTimeout;
+    }
+
+    /**
+     * Find the events of an entity, in the order they occurred.
+     *
+     * @param entityId the entity identifier.
+     *
+     * @return the events of the entity, possibly missing the latest ones if they could not be
+     *         written within the {@link #flushTimeout}.
+     */
+    public List<AuditEvent> findByEntityId(final UUID entityId) {
+        writer.flush(flushTimeout);
+        return repository.findByEntityIdOrderByOccurredAtAscIdAsc(entityId.toString());
+    }
+}
@@ -0,0 +1,368 @@
+package com.relativity.springstarter.starter.persistence.audit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import javax.sql.DataSource;
+
+/**
+ * Writes the queued {@link AuditEvent}s in batches, from a background thread.
+ *
+ * <p>
+ * A batch is written when {@link #batchSize} events are queued, or every {@link #flushInterval},
+ * with a single JDBC batch in its own transaction. A batch failing on a transient error, such as an
+ * unavailable database, is retried with an exponential backoff until it is written, keeping its
+ * slots in the {@link AuditQueue} so the changes are rejected once the queue is full. As a batch may
+ * have been committed although its commit failed, it is not retried when its first event is found
+ * in the database, and otherwise written again: every committed change is written at least once
+ * while the application runs.
+ * </p>
+ *
+ * <p>
+ * A batch failing on any other error is split and its events written one by one, so a single event
+ * the database rejects does not hold back the others. Such an event is logged to the
+ * {@value #DEAD_LETTER_LOGGER} log, from which it can be replayed, and its slot released.
+ * </p>
+ *
+ * <p>
+ * On {@link #shutdown()} the queued events are written, waiting up to {@link #flushTimeout}. The
+ * events still pending then, as well as the queued events of an application that crashed, are lost.
+ * </p>
+ *
+ * @author avakhobov
+ */
+public class AuditWriter {
+
+    /**
+     * The audit writer log.
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger(AuditWriter.class);
+
+    /**
+     * The name of the log of the events the database rejected.
+     */
+    public static final String DEAD_LETTER_LOGGER = "com.relativity.springstarter.starter.persistence."
+            + "audit.dead-letter";
+
+    /**
+     * The log of the events the database rejected.
+     */
+    private static final Logger DEAD_LETTERS = LoggerFactory.getLogger(DEAD_LETTER_LOGGER);
+
+    /**
+     * The events insert statement.
+     */
+    private static final String INSERT = "INSERT INTO " + AuditEvent.TABLE
+            + " (id, entity_type, entity_id, action, changes, actor_id, occurred_at)"
+            + " VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    /**
+     * The written event query.
+     */
+    private static final String EXISTS = "SELECT COUNT(*) FROM " + AuditEvent.TABLE + " WHERE id = ?";
+
+    /**
+     * The delay before the first retry of a failed batch.
+     */
+    private static final Duration MIN_BACKOFF = Duration.ofMillis(100);
+
+    /**
+     * The maximum delay between the retries of a failed batch.
+     */
+    private static final Duration MAX_BACKOFF = Duration.ofSeconds(30);
+
+    /**
+     * The events changes converter.
+     */
+    private static final AuditChangesConverter CHANGES = new AuditChangesConverter();
+
+    /**
+     * The queue of the events to write.
+     */
+    private final AuditQueue queue;
+
+    /**
+     * The JDBC operations on the audit database.
+     */
+    private final JdbcTemplate jdbc;
+
+    /**
+     * The transactions of the batches.
+     */
+    private final TransactionTemplate transaction;
+
+    /**
+     * The maximum number of events written in a batch.
+     */
+    private final int batchSize;
+
+    /**
+     * The maximum delay before a queued event is written.
+     */
+    private final Duration flushInterval;
+
+    /**
+     * The maximum time waiting for the events to be written on shutdown.
+     */
+    private final Duration flushTimeout;
+
+    /**
+     * The monitor of the {@link #written} events, notified after each batch.
+     */
+    private final Object monitor = new Object();
+
+    /**
+     * The number of events written or dead-lettered since the writer started.
+     */
+    private long written = 0;
+
+    /**
+     * The number of events the database rejected since the writer started.
+     */
+    private final AtomicLong deadLettered = new AtomicLong();
+
+    /**
+     * The number of written events requested by {@link #flush(Duration)}.
+     */
+    private final AtomicLong requested = new AtomicLong();
+
+    /**
+     * Whether the writer is running.
+     */
+    private volatile boolean running = false;
+
+    /**
+     * The writer thread, {@code null} until started.
+     */
+    private volatile Thread thread = null;
+
+    /**
+     * Create a {@link AuditWriter}.
+     *
+     * @param queue the queue of the events to write.
+     * @param dataSource the audit database.
+     * @param batchSize the maximum number of events written in a batch.
+     * @param flushInterval the maximum delay before a queued event is written.
+     * @param flushTimeout the maximum time waiting for the events to be written on shutdown.
+     */
+    public AuditWriter(final AuditQueue queue, final DataSource dataSource, final int batchSize,
+            final Duration flushInterval, final Duration flushTimeout) {
+        super();
+        this.queue = queue;
+        this.jdbc = new JdbcTemplate(dataSource);
+        this.transaction = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        this.batchSize = batchSize;
+        this.flushInterval = flushInterval;
+        this.flushTimeout = flushTimeout;
+    }
+
+    /**
+     * Start the writer thread.
+     */
+    public synchronized void start() {
+        if (thread == null) {
+            running = true;
+            thread = new Thread(this::run, "audit-writer");
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    /**
+     * Stop the writer thread once the queued events are written, waiting up to
+     * {@link #flushTimeout}.
+     */
+    public synchronized void shutdown() {
+        final Thread writer = thread;
+        if (writer == null) {
+            return;
+        }
+
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(flushTimeout.toMillis());
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (writer.isAlive()) {
+            LOGGER.error("{} audit events were not written on shutdown", queue.getPending());
+            writer.interrupt();
+        }
+        thread = null;
+    }
+
+    /**
+     * Write the events queued so far, and wait until they are written.
+     *
+     * @param timeout the maximum waiting time.
+     *
+     * @return {@code true} if the events were written, {@code false} if the waiting time elapsed
+     *         or the writer is not running.
+     */
+    public boolean flush(final Duration timeout) {
+        final Thread writer = thread;
+        if (writer == null) {
+            return false;
+        }
+
+        final long target = queue.getQueued();
+        requested.accumulateAndGet(target, Math::max);
+        LockSupport.unpark(writer);
+
+        final long deadline = System.nanoTime() + timeout.toNanos();
+        synchronized (monitor) {
+            long remaining;
+            while (written < target && (remaining = deadline - System.nanoTime()) > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.timedWait(monitor, remaining);
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+            return written >= target;
+        }
+    }
+
+    /**
+     * Get the {@link #written} events.
+     *
+     * @return the number of events written or dead-lettered since the writer started.
+     */
+    public long getWritten() {
+        synchronized (monitor) {
+            return written;
+        }
+    }
+
+    /**
+     * Get the {@link #deadLettered} events.
+     *
+     * @return the number of events the database rejected since the writer started.
+     */
+    public long getDeadLettered() {
+        return deadLettered.get();
+    }
+
+    private void run() {
+        try {
+            while (running) {
+                if (getWritten() >= requested.get()) {
+                    queue.awaitBatch(batchSize, flushInterval.toNanos(), TimeUnit.NANOSECONDS);
+                }
+                writeQueued();
+            }
+            writeQueued();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void writeQueued() throws InterruptedException {
+        final List<AuditEvent> batch = new ArrayList<>(batchSize);
+        while (queue.drainTo(batch, batchSize) > 0) {
+            writeWithRetry(batch);
+            queue.release(batch.size());
+            synchronized (monitor) {
+                written += batch.size();
+                monitor.notifyAll();
+            }
+            batch.clear();
+        }
+    }
+
+    private void writeWithRetry(final List<AuditEvent> batch) throws InterruptedException {
+        Duration backoff = MIN_BACKOFF;
+        while (true) {
+            try {
+                write(batch);
+                return;
+            } catch (final RuntimeException e) {
+                if (isWritten(batch)) {
+                    return;
+                } else if (!isTransient(e)) {
+                    if (batch.size() == 1) {
+                        deadLetter(batch.get(0), e);
+                    } else {
+                        for (final AuditEvent event : batch) {
+                            writeWithRetry(Collections.singletonList(event));
+                        }
+                    }
+                    return;
+                }
+                LOGGER.warn("Writing {} audit events failed, retrying in {} ms", batch.size(),
+                        backoff.toMillis(), e);
+            }
+
+            Thread.sleep(backoff.toMillis());
+            backoff = backoff.multipliedBy(2);
+            if (backoff.compareTo(MAX_BACKOFF) > 0) {
+                backoff = MAX_BACKOFF;
+            }
+        }
+    }
+
+    private void write(final List<AuditEvent> batch) {
+        transaction.executeWithoutResult(status -> jdbc.batchUpdate(INSERT, batch, batch.size(),
+                (statement, event) -> {
+                    statement.setString(1, event.getId().toString());
+                    statement.setString(2, event.getEntityType());
+                    statement.setString(3, event.getEntityId().toString());
+                    statement.setString(4, event.getAction().name());
+                    statement.setString(5, CHANGES.convertToDatabaseColumn(event.getChanges()));
+                    statement.setString(6, event.getActorId() == null ? null
+                            : event.getActorId().toString());
+                    statement.setTimestamp(7, new Timestamp(event.getOccurredAt().getTime()));
+                }));
+    }
+
+    private void deadLetter(final AuditEvent event, final RuntimeException e) {
+        deadLettered.incrementAndGet();
+
+        String changes;
+        try {
+            changes = CHANGES.convertToDatabaseColumn(event.getChanges());
+        } catch (final RuntimeException conversion) {
+            changes = String.valueOf(event.getChanges());
+        }
+        DEAD_LETTERS.error(
+                "id={} entity_type={} entity_id={} action={} changes={} actor_id={} occurred_at={}",
+                event.getId(), event.getEntityType(), event.getEntityId(), event.getAction(), changes,
+                event.getActorId(), event.getOccurredAt().toInstant(), e);
+    }
+
+    /**
+     * Tests if writing again may succeed, the database or the connection being unavailable.
+     */
+    private static boolean isTransient(final RuntimeException e) {
+        return e instanceof TransientDataAccessException || e instanceof RecoverableDataAccessException
+                || e instanceof DataAccessResourceFailureException || e instanceof TransactionException;
+    }
+
+    private boolean isWritten(final List<AuditEvent> batch) {
+        try {
+            final Integer count = jdbc.queryForObject(EXISTS, Integer.class,
+                    batch.get(0).getId().toString());
+            return count != null && count > 0;
+        } catch (final RuntimeException e) {
+            return false;
+        }
+    }
+}
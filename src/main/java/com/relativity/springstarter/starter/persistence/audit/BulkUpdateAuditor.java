@@ -0,0 +1,261 @@
+package com.relativity.springstarter.starter.persistence.audit;
+
+import com.relativity.springstarter.starter.persistence.AbstractGenericEntity;
+import com.relativity.springstarter.starter.persistence.BaseGenericRepository;
+import com.relativity.springstarter.starter.persistence.Chunks;
+import com.relativity.springstarter.starter.persistence.user.dao.UserRepository;
+import com.relativity.springstarter.starter.persistence.user.entity.User;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+
+import java.beans.Introspector;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.TypedQuery;
+import javax.persistence.metamodel.EntityType;
+
+/**
+ * Records an {@link AuditEvent} for every user updated by a {@link UserRepository}
+ * {@code updateEnabled} or {@code updateVerified} method, and for every entity whose references to
+ * a deleted user are released, whose {@code UPDATE} statements bypass the
+ * {@link AuditEventListener}.
+ *
+ * <p>
+ * The interceptor is added to the {@link UserRepository} proxy after the transaction interceptor,
+ * so the events are queued when the transaction commits. The slots of the events are reserved
+ * before the statements are executed, so a full {@link AuditQueue} rejects the change rather than
+ * leaving it unaudited, and released for the users that were not updated. When fewer users than
+ * targeted were updated, for example not owned or missing ones, the updated users are read back with
+ * one {@code SELECT} so only their events are recorded. The previous value of the field is not
+ * known.
+ * </p>
+ *
+ * <p>
+ * Before users are deleted by identifier or entity, the entities referencing them as
+ * {@code createdBy}, {@code modifiedBy} or {@code owner} are read with one {@code SELECT} per
+ * entity type, and an event recorded for each of them with the released references, see
+ * {@link BaseGenericRepository#delete(AbstractGenericEntity)}. Deleting all the users deletes all
+ * the referencing users as well, so no release is recorded.
+ * </p>
+ *
+ * @author avakhobov
+ */
+public class BulkUpdateAuditor implements MethodInterceptor {
+
+    /**
+     * The entity fields referencing a {@link User}, released when the user is deleted.
+     */
+    private static final List<String> REFERENCES = Arrays.asList(
+            AbstractGenericEntity.CREATED_BY_FIELD, AbstractGenericEntity.MODIFIED_BY_FIELD,
+            AbstractGenericEntity.OWNER_FIELD);
+
+    /**
+     * The queue of the events to write.
+     */
+    private final AuditQueue queue;
+
+    /**
+     * The listener recording the events.
+     */
+    private final AuditEventListener listener;
+
+    /**
+     * The entity manager factory, resolved on the first update.
+     */
+    private final ObjectProvider<EntityManagerFactory> entityManagerFactory;
+
+    /**
+     * Create a {@link BulkUpdateAuditor}.
+     *
+     * @param queue the queue of the events to write.
+     * @param listener the listener recording the events.
+     * @param entityManagerFactory the entity manager factory, resolved on the first update.
+     */
+    public BulkUpdateAuditor(final AuditQueue queue, final AuditEventListener listener,
+            final ObjectProvider<EntityManagerFactory> entityManagerFactory) {
+        super();
+        this.queue = queue;
+        this.listener = listener;
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    @Override
+    public Object invoke(final MethodInvocation invocation) throws Throwable {
+        final String method = invocation.getMethod().getName();
+        final Object[] args = invocation.getArguments();
+        if (method.startsWith("delete") && !method.contains("InBatch")) {
+            final Set<UUID> userIds = deletedIds(args);
+            return userIds.isEmpty() ? invocation.proceed() : auditReleases(invocation, userIds);
+        }
+        if (!(method.startsWith("updateEnabled") || method.startsWith("updateVerified"))
+                || args.length < 2 || !(args[0] instanceof Collection) || !(args[1] instanceof Boolean)) {
+            return invocation.proceed();
+        }
+
+        final Set<UUID> userIds = new LinkedHashSet<>();
+        for (final Object userId : (Collection<?>) args[0]) {
+            if (userId instanceof UUID) {
+                userIds.add((UUID) userId);
+            }
+        }
+
+        queue.reserve(userIds.size());
+        final int updated;
+        final Collection<UUID> updatedIds;
+        try {
+            updated = (Integer) invocation.proceed();
+            updatedIds = updated == 0 ? Collections.emptySet()
+                    : updated == userIds.size() ? userIds
+                            : updatedIds(userIds, args.length > 2, args.length > 2 ? args[2] : null);
+        } catch (final Throwable e) {
+            queue.release(userIds.size());
+            throw e;
+        }
+        queue.release(userIds.size() - updatedIds.size());
+
+        final String field = field(method);
+        final String value = args[1].toString();
+        final UUID actorId = listener.getActorId(null);
+        for (final UUID userId : updatedIds) {
+            listener.record(new AuditEvent(User.class, userId, AuditAction.UPDATE,
+                    Collections.singletonMap(field, new AuditChange(null, value)), actorId));
+        }
+
+        return updated;
+    }
+
+    private Object auditReleases(final MethodInvocation invocation, final Set<UUID> userIds)
+            throws Throwable {
+        final List<AuditEvent> events = releasedReferences(userIds);
+        queue.reserve(events.size());
+        final Object result;
+        try {
+            result = invocation.proceed();
+        } catch (final Throwable e) {
+            queue.release(events.size());
+            throw e;
+        }
+
+        if (Integer.valueOf(0).equals(result)) {
+            // Not owned, nothing deleted
+            queue.release(events.size());
+        } else {
+            events.forEach(listener::record);
+        }
+
+        return result;
+    }
+
+    /**
+     * Get the events of the entities referencing users, with the references to release.
+     */
+    private List<AuditEvent> releasedReferences(final Set<UUID> userIds) {
+        final EntityManager entityManager = entityManager();
+        final UUID actorId = listener.getActorId(null);
+        final List<AuditEvent> events = new ArrayList<>();
+
+        for (final EntityType<?> type : entityManager.getMetamodel().getEntities()) {
+            // Subclass entities are read through their root entity
+            if (!AbstractGenericEntity.class.isAssignableFrom(type.getJavaType())
+                    || type.getSupertype() instanceof EntityType) {
+                continue;
+            }
+
+            final String query = "SELECT e.id, e." + String.join(".id, e.", REFERENCES) + ".id FROM "
+                    + type.getName() + " AS e WHERE e." + String.join(".id IN :userIds OR e.", REFERENCES)
+                    + ".id IN :userIds";
+            final Map<UUID, Map<String, AuditChange>> changes = new LinkedHashMap<>();
+            for (final List<UUID> chunk : Chunks.distinct(userIds, Chunks.IN_CLAUSE_SIZE)) {
+                final List<Object[]> rows = entityManager.createQuery(query, Object[].class)
+                        .setParameter("userIds", chunk).getResultList();
+                for (final Object[] row : rows) {
+                    // The deleted users are not updated
+                    if (userIds.contains(row[0])) {
+                        continue;
+                    }
+                    for (int i = 0; i < REFERENCES.size(); i++) {
+                        if (row[i + 1] != null && userIds.contains(row[i + 1])) {
+                            changes.computeIfAbsent((UUID) row[0], id -> new LinkedHashMap<>())
+                                    .put(REFERENCES.get(i), new AuditChange(row[i + 1].toString(), null));
+                        }
+                    }
+                }
+            }
+
+            changes.forEach((entityId, entityChanges) -> events.add(new AuditEvent(type.getJavaType(),
+                    entityId, AuditAction.UPDATE, entityChanges, actorId)));
+        }
+
+        return events;
+    }
+
+    private List<UUID> updatedIds(final Set<UUID> userIds, final boolean ownerScoped,
+            final Object owner) {
+        final EntityManager entityManager = entityManager();
+        // A null owner scopes the update to the unowned users
+        final TypedQuery<UUID> query = entityManager.createQuery("SELECT u.id FROM User AS u"
+                + " WHERE u.id IN :ids" + (!ownerScoped ? "" : owner == null ? " AND u.owner IS NULL"
+                        : " AND u.owner = :owner"), UUID.class);
+        query.setParameter("ids", userIds);
+        if (owner != null) {
+            query.setParameter("owner", owner);
+        }
+
+        return query.getResultList();
+    }
+
+    private EntityManager entityManager() {
+        final EntityManager entityManager = EntityManagerFactoryUtils.getTransactionalEntityManager(
+                entityManagerFactory.getObject());
+        if (entityManager == null) {
+            throw new IllegalStateException("Bulk changes must be audited within a transaction");
+        }
+
+        return entityManager;
+    }
+
+    /**
+     * Get the identifiers of the users to delete, the identifier or entity or the iterable of
+     * identifiers or entities first argument.
+     */
+    private static Set<UUID> deletedIds(final Object[] args) {
+        final Set<UUID> userIds = new LinkedHashSet<>();
+        if (args.length == 0) {
+            return userIds;
+        }
+
+        final Iterable<?> values = args[0] instanceof Iterable ? (Iterable<?>) args[0]
+                : Collections.singleton(args[0]);
+        for (final Object value : values) {
+            if (value instanceof UUID) {
+                userIds.add((UUID) value);
+            } else if (value instanceof User && ((User) value).getId() != null) {
+                userIds.add(((User) value).getId());
+            }
+        }
+
+        return userIds;
+    }
+
+    /**
+     * Get the updated field of a method, {@code enabled} for {@code updateEnabledByOwner}.
+     */
+    private static String field(final String method) {
+        final String field = method.replaceFirst("^update", "").replaceFirst("ByOwner$", "");
+        return Introspector.decapitalize(field);
+    }
+}
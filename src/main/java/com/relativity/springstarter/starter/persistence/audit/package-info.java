@@ -0,0 +1,6 @@
+/**
+ * The entities audit trail, written behind the audited transactions.
+ *
+ * @author avakhobov
+ */
+package com.relativity.springstarter.starter.persistence.audit;
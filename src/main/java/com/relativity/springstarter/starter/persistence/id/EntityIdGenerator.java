@@ -0,0 +1,45 @@
+package com.relativity.springstarter.starter.persistence.id;
+
+import com.relativity.springstarter.starter.persistence.AbstractGenericEntity;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+
+import java.io.Serializable;
+
+/**
+ * Hibernate identifier generator delegating to the {@link IdGenerators} of the entity.
+ *
+ * <p>
+ * Keeps the identifier already assigned by the entity, if any.
+ * </p>
+ *
+ * @author avakhobov
+ */
+public class EntityIdGenerator implements IdentifierGenerator {
+
+    /**
+     * The generator name.
+     */
+    public static final String NAME = "entity-id";
+
+    /**
+     * The generator strategy, its class name.
+     */
+    public static final String STRATEGY =
+            "com.relativity.springstarter.starter.persistence.id.EntityIdGenerator";
+
+    @Override
+    public Serializable generate(final SharedSessionContractImplementor session, final Object object) {
+        Serializable id = null;
+
+        if (object instanceof AbstractGenericEntity) {
+            id = ((AbstractGenericEntity) object).getId();
+        }
+        if (id == null) {
+            id = IdGenerators.generate(object.getClass());
+        }
+
+        return id;
+    }
+}
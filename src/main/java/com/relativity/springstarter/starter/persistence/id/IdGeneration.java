@@ -0,0 +1,28 @@
+package com.relativity.springstarter.starter.persistence.id;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Selects the {@link IdStrategy} of an entity, overriding the {@link IdGenerators#getDefault()
+ * default} one.
+ *
+ * @author avakhobov
+ */
+@Documented
+@Inherited
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface IdGeneration {
+
+    /**
+     * The identifier strategy of the entity.
+     *
+     * @return the identifier strategy of the entity.
+     */
+    IdStrategy value();
+}
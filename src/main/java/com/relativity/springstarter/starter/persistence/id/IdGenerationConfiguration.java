@@ -0,0 +1,56 @@
+package com.relativity.springstarter.starter.persistence.id;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * The identifier generation configuration.
+ *
+ * <p>
+ * The default {@link IdStrategy} is selected with the {@value #STRATEGY_PROPERTY} property,
+ * {@code time-ordered} unless specified otherwise. It is applied before the entity manager factory
+ * is created.
+ * </p>
+ *
+ * @author avakhobov
+ */
+@Configuration(proxyBeanMethods = false)
+public class IdGenerationConfiguration {
+
+    /**
+     * The default identifier strategy property.
+     */
+    public static final String STRATEGY_PROPERTY = "starter.persistence.id.strategy";
+
+    /**
+     * The default identifier generator bean name.
+     */
+    public static final String DEFAULT_GENERATOR_BEAN = "defaultIdGenerator";
+
+    @Bean(DEFAULT_GENERATOR_BEAN)
+    public IdGenerator defaultIdGenerator(
+            @Value("${" + STRATEGY_PROPERTY + ":time-ordered}") final String strategy) {
+        final IdGenerator generator = IdStrategy.fromName(strategy).getGenerator();
+
+        IdGenerators.setDefault(generator);
+
+        return generator;
+    }
+
+    @Bean
+    public static EntityManagerFactoryDependsOnPostProcessor entityManagerFactoryDependsOnIdGenerator() {
+        return new EntityManagerFactoryDependsOnIdGenerator();
+    }
+
+    /**
+     * Makes the entity manager factory depend on the default identifier generator.
+     */
+    static class EntityManagerFactoryDependsOnIdGenerator extends EntityManagerFactoryDependsOnPostProcessor {
+
+        EntityManagerFactoryDependsOnIdGenerator() {
+            super(DEFAULT_GENERATOR_BEAN);
+        }
+    }
+}
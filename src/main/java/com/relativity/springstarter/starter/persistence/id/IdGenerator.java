@@ -0,0 +1,23 @@
+package com.relativity.springstarter.starter.persistence.id;
+
+import java.util.UUID;
+
+/**
+ * Generates the Universally Unique Identifiers used as entities primary key.
+ *
+ * <p>
+ * Implementations must be thread-safe.
+ * </p>
+ *
+ * @author avakhobov
+ */
+@FunctionalInterface
+public interface IdGenerator {
+
+    /**
+     * Generate a new identifier.
+     *
+     * @return a new identifier.
+     */
+    UUID generate();
+}
@@ -0,0 +1,73 @@
+package com.relativity.springstarter.starter.persistence.id;
+
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Resolves the {@link IdGenerator} of the entities.
+ *
+ * <p>
+ * Entities annotated with {@link IdGeneration} use the generator of their strategy, the others use
+ * the default generator. Identifier generation happens in the persistence provider and in entity
+ * callbacks, outside of the application context, hence the static registry.
+ * </p>
+ *
+ * @author avakhobov
+ */
+public final class IdGenerators {
+
+    /**
+     * The generator of the entities without {@link IdGeneration}.
+     */
+    private static volatile IdGenerator defaultGenerator = IdStrategy.TIME_ORDERED.getGenerator();
+
+    /**
+     * The generators selected with {@link IdGeneration}, by entity class.
+     */
+    private static final ConcurrentMap<Class<?>, Optional<IdGenerator>> ENTITY_GENERATORS =
+            new ConcurrentHashMap<>();
+
+    private IdGenerators() {
+        super();
+    }
+
+    /**
+     * Get the {@link #defaultGenerator}.
+     *
+     * @return the {@link #defaultGenerator}.
+     */
+    public static IdGenerator getDefault() {
+        return defaultGenerator;
+    }
+
+    /**
+     * Set the {@link #defaultGenerator}.
+     *
+     * @param generator the {@link #defaultGenerator} to set.
+     *
+     * @throws NullPointerException if {@code generator} is {@code null}.
+     */
+    public static void setDefault(final IdGenerator generator) {
+        defaultGenerator = Objects.requireNonNull(generator, "generator");
+    }
+
+    /**
+     * Generate a new identifier for an entity.
+     *
+     * @param entityClass the entity class.
+     *
+     * @return a new identifier.
+     */
+    public static UUID generate(final Class<?> entityClass) {
+        return ENTITY_GENERATORS.computeIfAbsent(entityClass, IdGenerators::annotatedGenerator)
+                .orElse(defaultGenerator).generate();
+    }
+
+    private static Optional<IdGenerator> annotatedGenerator(final Class<?> entityClass) {
+        return Optional.ofNullable(entityClass.getAnnotation(IdGeneration.class))
+                .map(annotation -> annotation.value().getGenerator());
+    }
+}
@@ -0,0 +1,60 @@
+package com.relativity.springstarter.starter.persistence.id;
+
+/**
+ * The built-in {@link IdGenerator} strategies.
+ *
+ * @author avakhobov
+ */
+public enum IdStrategy {
+
+    /**
+     * Random (version 4) identifiers.
+     *
+     * @see RandomIdGenerator
+     */
+    RANDOM(new RandomIdGenerator()),
+
+    /**
+     * Time-ordered (version 7) identifiers.
+     *
+     * @see TimeOrderedIdGenerator
+     */
+    TIME_ORDERED(new TimeOrderedIdGenerator());
+
+    /**
+     * The generator shared by all the entities using this strategy.
+     */
+    private final IdGenerator generator;
+
+    IdStrategy(final IdGenerator generator) {
+        this.generator = generator;
+    }
+
+    /**
+     * Get the {@link #generator}.
+     *
+     * @return the {@link #generator}.
+     */
+    public IdGenerator getGenerator() {
+        return generator;
+    }
+
+    /**
+     * Get a strategy from its name, ignoring case and accepting {@code -} instead of {@code _}.
+     *
+     * @param name the strategy name, such as {@code time-ordered}.
+     *
+     * @return the strategy.
+     *
+     * @throws IllegalArgumentException if no strategy matches the name.
+     */
+    public static IdStrategy fromName(final String name) {
+        for (final IdStrategy strategy : values()) {
+            if (strategy.name().equalsIgnoreCase(name.trim().replace('-', '_'))) {
+                return strategy;
+            }
+        }
+
+        throw new IllegalArgumentException("Unknown identifier strategy: " + name);
+    }
+}
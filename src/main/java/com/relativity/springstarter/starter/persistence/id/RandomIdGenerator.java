@@ -0,0 +1,21 @@
+package com.relativity.springstarter.starter.persistence.id;
+
+import java.util.UUID;
+
+/**
+ * {@link IdGenerator} of random (version 4) identifiers.
+ *
+ * <p>
+ * Random identifiers are spread over the whole primary key index, so each insert is likely to touch
+ * a different index page.
+ * </p>
+ *
+ * @author avakhobov
+ */
+public class RandomIdGenerator implements IdGenerator {
+
+    @Override
+    public UUID generate() {
+        return UUID.randomUUID();
+    }
+}
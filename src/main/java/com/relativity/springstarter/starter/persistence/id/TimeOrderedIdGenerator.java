@@ -0,0 +1,86 @@
+package com.relativity.springstarter.starter.persistence.id;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * {@link IdGenerator} of time-ordered (version 7) identifiers.
+ *
+ * <p>
+ * Identifiers start with a 48 bits Unix timestamp in milliseconds followed by a 12 bits counter, so
+ * successive identifiers are increasing and inserts append to the end of the primary key index. The
+ * remaining 62 bits are random. When more than 4096 identifiers are generated within the same
+ * millisecond, the counter overflows into the timestamp which then runs slightly ahead of the clock
+ * until the generation rate decreases.
+ * </p>
+ *
+ * <p>
+ * This generator is lock-free: the timestamp and counter are advanced with a single atomic update.
+ * The random bits are not meant to be unpredictable, identifiers must not be used as secrets.
+ * </p>
+ *
+ * @author avakhobov
+ */
+public class TimeOrderedIdGenerator implements IdGenerator {
+
+    /**
+     * The number of bits of the counter.
+     */
+    private static final int COUNTER_BITS = 12;
+
+    /**
+     * The version bits, in the most significant bits of the identifier.
+     */
+    private static final long VERSION = 0x7L << COUNTER_BITS;
+
+    /**
+     * The mask of the random bits, in the least significant bits of the identifier.
+     */
+    private static final long RANDOM_MASK = 0x3FFFFFFFFFFFFFFFL;
+
+    /**
+     * The variant bits, in the least significant bits of the identifier.
+     */
+    private static final long VARIANT = 0x8000000000000000L;
+
+    /**
+     * The last generated timestamp and counter.
+     */
+    private final AtomicLong state = new AtomicLong();
+
+    /**
+     * The clock, in milliseconds since the epoch.
+     */
+    private final LongSupplier clock;
+
+    /**
+     * Create a {@link TimeOrderedIdGenerator} using the system clock.
+     */
+    public TimeOrderedIdGenerator() {
+        this(System::currentTimeMillis);
+    }
+
+    /**
+     * Create a {@link TimeOrderedIdGenerator}.
+     *
+     * @param clock the clock, in milliseconds since the epoch.
+     */
+    TimeOrderedIdGenerator(final LongSupplier clock) {
+        super();
+        this.clock = clock;
+    }
+
+    @Override
+    public UUID generate() {
+        final long now = clock.getAsLong() << COUNTER_BITS;
+        final long next = state.updateAndGet(previous -> Math.max(now, previous + 1));
+
+        final long mostSigBits = (next >>> COUNTER_BITS) << 16 | VERSION
+                | next & ((1L << COUNTER_BITS) - 1);
+        final long leastSigBits = ThreadLocalRandom.current().nextLong() & RANDOM_MASK | VARIANT;
+
+        return new UUID(mostSigBits, leastSigBits);
+    }
+}
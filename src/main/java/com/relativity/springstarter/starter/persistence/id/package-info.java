@@ -0,0 +1,6 @@
+/**
+ * The entities identifier generation.
+ *
+ * @author avakhobov
+ */
+package com.relativity.springstarter.starter.persistence.id;
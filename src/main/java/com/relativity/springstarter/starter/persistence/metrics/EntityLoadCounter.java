@@ -0,0 +1,26 @@
+package com.relativity.springstarter.starter.persistence.metrics;
+
+import org.hibernate.EmptyInterceptor;
+import org.hibernate.type.Type;
+
+import java.io.Serializable;
+
+/**
+ * Hibernate interceptor counting the entities loaded in the {@link RequestStatistics}.
+ *
+ * @author avakhobov
+ */
+public class EntityLoadCounter extends EmptyInterceptor {
+
+    /**
+     * The {@code serialVersionUID}.
+     */
+    private static final long serialVersionUID = 2894130582710416738L;
+
+    @Override
+    public boolean onLoad(final Object entity, final Serializable id, final Object[] state,
+            final String[] propertyNames, final Type[] types) {
+        RequestStatistics.entityLoaded();
+        return false;
+    }
+}
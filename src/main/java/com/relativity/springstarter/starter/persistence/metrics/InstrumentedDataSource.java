@@ -0,0 +1,153 @@
+package com.relativity.springstarter.starter.persistence.metrics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+
+import javax.sql.DataSource;
+
+/**
+ * {@link DataSource} counting the executed statements in the {@link RequestStatistics} and logging
+ * the slow ones.
+ *
+ * <p>
+ * A statement taking at least the slow query threshold is logged at {@code WARN} level with its
+ * SQL and the shape of its bind parameters, their type rather than their value, so no personal
+ * data ends up in the logs.
+ * </p>
+ *
+ * @author avakhobov
+ */
+public class InstrumentedDataSource extends DelegatingDataSource {
+
+    /**
+     * The slow queries log.
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger(InstrumentedDataSource.class);
+
+    /**
+     * The minimum duration of the logged statements, in nanoseconds, {@link Long#MAX_VALUE} to log
+     * none.
+     */
+    private final long slowQueryThreshold;
+
+    /**
+     * Create a {@link InstrumentedDataSource}.
+     *
+     * @param target the instrumented data source.
+     * @param slowQueryThreshold the minimum duration of the logged statements, {@code null} to log
+     *        none.
+     */
+    public InstrumentedDataSource(final DataSource target, final Duration slowQueryThreshold) {
+        super(target);
+        this.slowQueryThreshold = slowQueryThreshold == null ? Long.MAX_VALUE
+                : slowQueryThreshold.toNanos();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return instrument(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(final String username, final String password)
+            throws SQLException {
+        return instrument(super.getConnection(username, password));
+    }
+
+    private Connection instrument(final Connection connection) {
+        return proxy(Connection.class, (proxy, method, args) -> {
+            final Object result = invoke(connection, method, args);
+
+            if (result instanceof CallableStatement) {
+                return instrument(CallableStatement.class, (Statement) result, sql(method, args));
+            } else if (result instanceof PreparedStatement) {
+                return instrument(PreparedStatement.class, (Statement) result, sql(method, args));
+            } else if (result instanceof Statement) {
+                return instrument(Statement.class, (Statement) result, null);
+            }
+
+            return result;
+        });
+    }
+
+    private <S extends Statement> S instrument(final Class<S> type, final Statement statement,
+            final String preparedSql) {
+        final Map<Integer, String> shapes = new TreeMap<>();
+
+        return proxy(type, (proxy, method, args) -> {
+            final String name = method.getName();
+            if (!name.startsWith("execute")) {
+                if (preparedSql != null && name.startsWith("set") && args != null
+                        && args.length >= 2 && args[0] instanceof Integer) {
+                    shapes.put((Integer) args[0], shape(name, args[1]));
+                } else if ("clearParameters".equals(name)) {
+                    shapes.clear();
+                }
+                return invoke(statement, method, args);
+            }
+
+            final String sql = preparedSql != null ? preparedSql : sql(method, args);
+            RequestStatistics.statementExecuted(sql);
+            final long start = System.nanoTime();
+            try {
+                return invoke(statement, method, args);
+            } finally {
+                final long elapsed = System.nanoTime() - start;
+                if (elapsed >= slowQueryThreshold) {
+                    LOGGER.warn("Slow query took {} ms: {} with parameters {}",
+                            elapsed / 1_000_000, sql, shapes.values());
+                }
+            }
+        });
+    }
+
+    private static String sql(final Method method, final Object[] args) {
+        return args != null && args.length > 0 && args[0] instanceof String ? (String) args[0]
+                : method.getName();
+    }
+
+    private static String shape(final String setter, final Object value) {
+        if ("setNull".equals(setter) || value == null) {
+            return "null";
+        }
+
+        return value.getClass().getSimpleName();
+    }
+
+    private static <T> T proxy(final Class<T> type, final InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type },
+                (proxy, method, args) -> {
+                    if ("equals".equals(method.getName()) && method.getParameterCount() == 1) {
+                        return proxy == args[0];
+                    } else if ("hashCode".equals(method.getName())
+                            && method.getParameterCount() == 0) {
+                        return System.identityHashCode(proxy);
+                    }
+
+                    return handler.invoke(proxy, method, args);
+                }));
+    }
+
+    private static Object invoke(final Object target, final Method method, final Object[] args)
+            throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (final InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+}
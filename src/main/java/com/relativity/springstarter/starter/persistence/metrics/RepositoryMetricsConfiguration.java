@@ -0,0 +1,142 @@
+package com.relativity.springstarter.starter.persistence.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+
+import javax.sql.DataSource;
+
+/**
+ * The repositories metrics configuration, enabled unless the {@value #ENABLED_PROPERTY} property
+ * is {@code false}.
+ *
+ * <p>
+ * Every repository method is timed by a {@link RepositoryMetricsInterceptor}, added first to the
+ * repository proxies so the timings include the transaction and the default methods are timed.
+ * Spring Boot's own repository timers are disabled in {@code application.properties}, as they
+ * leave the default methods out. The data source is wrapped in an {@link InstrumentedDataSource},
+ * and the entity loads counted by an {@link EntityLoadCounter}.
+ * </p>
+ *
+ * @author avakhobov
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(RepositoryMetricsProperties.class)
+@ConditionalOnProperty(name = RepositoryMetricsConfiguration.ENABLED_PROPERTY, havingValue = "true",
+        matchIfMissing = true)
+public class RepositoryMetricsConfiguration {
+
+    /**
+     * The repositories metrics activation property.
+     */
+    public static final String ENABLED_PROPERTY = "starter.persistence.metrics.enabled";
+
+    /**
+     * The instrumented data source bean name.
+     */
+    public static final String DATA_SOURCE_BEAN = "dataSource";
+
+    @Bean
+    public static RepositoryMetricsPostProcessor repositoryMetricsPostProcessor(
+            final ObjectProvider<MeterRegistry> registry,
+            final ObjectProvider<RepositoryMetricsProperties> properties) {
+        return new RepositoryMetricsPostProcessor(registry, properties);
+    }
+
+    @Bean
+    public static InstrumentedDataSourcePostProcessor instrumentedDataSourcePostProcessor(
+            final ObjectProvider<RepositoryMetricsProperties> properties) {
+        return new InstrumentedDataSourcePostProcessor(properties);
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer entityLoadCounterCustomizer() {
+        return properties -> properties.put(AvailableSettings.INTERCEPTOR, new EntityLoadCounter());
+    }
+
+    @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    public RequestStatisticsFilter requestStatisticsFilter(final MeterRegistry registry,
+            final RepositoryMetricsProperties properties) {
+        return new RequestStatisticsFilter(registry, percentiles(properties));
+    }
+
+    private static double[] percentiles(final RepositoryMetricsProperties properties) {
+        return properties.getPercentiles().stream().mapToDouble(Double::doubleValue).toArray();
+    }
+
+    /**
+     * Adds a {@link RepositoryMetricsInterceptor} to the repository proxies.
+     */
+    static class RepositoryMetricsPostProcessor implements BeanPostProcessor {
+
+        /**
+         * The registry of the timers, resolved when the repositories are created.
+         */
+        private final ObjectProvider<MeterRegistry> registry;
+
+        /**
+         * The metrics properties, resolved when the repositories are created.
+         */
+        private final ObjectProvider<RepositoryMetricsProperties> properties;
+
+        RepositoryMetricsPostProcessor(final ObjectProvider<MeterRegistry> registry,
+                final ObjectProvider<RepositoryMetricsProperties> properties) {
+            this.registry = registry;
+            this.properties = properties;
+        }
+
+        @Override
+        public Object postProcessBeforeInitialization(final Object bean, final String beanName) {
+            if (bean instanceof RepositoryFactoryBeanSupport) {
+                ((RepositoryFactoryBeanSupport<?, ?, ?>) bean).addRepositoryFactoryCustomizer(
+                        factory -> factory.addRepositoryProxyPostProcessor((proxy, information) -> {
+                            final RepositoryMetricsProperties metrics = properties.getObject();
+                            proxy.addAdvice(0, new RepositoryMetricsInterceptor(
+                                    registry.getObject(), information.getRepositoryInterface(),
+                                    percentiles(metrics), metrics.isPercentilesHistogram()));
+                        }));
+            }
+
+            return bean;
+        }
+    }
+
+    /**
+     * Wraps the {@value #DATA_SOURCE_BEAN} data source, the one the entity manager factory uses, in
+     * an {@link InstrumentedDataSource}, but not the data sources it is made of when routing to
+     * replicas.
+     */
+    static class InstrumentedDataSourcePostProcessor implements BeanPostProcessor {
+
+        /**
+         * The metrics properties, resolved when the data sources are created.
+         */
+        private final ObjectProvider<RepositoryMetricsProperties> properties;
+
+        InstrumentedDataSourcePostProcessor(
+                final ObjectProvider<RepositoryMetricsProperties> properties) {
+            this.properties = properties;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(final Object bean, final String beanName) {
+            if (DATA_SOURCE_BEAN.equals(beanName) && bean instanceof DataSource
+                    && !(bean instanceof InstrumentedDataSource)) {
+                return new InstrumentedDataSource((DataSource) bean,
+                        properties.getObject().getSlowQueryThreshold());
+            }
+
+            return bean;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.relativity.springstarter.starter.persistence.metrics;
+
+import io.micrometer.core.instrument.Clock;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times the methods of a repository, including its default methods, in the
+ * {@value #METRIC_NAME} timers tagged by repository, method and outcome.
+ *
+ * <p>
+ * The timers are resolved once per method, so timing a call only reads the clock twice and records
+ * the duration. Methods returning a stream are timed until the stream is returned, not consumed.
+ * </p>
+ *
+ * @author avakhobov
+ */
+public class RepositoryMetricsInterceptor implements MethodInterceptor {
+
+    /**
+     * The repository methods timers name.
+     */
+    public static final String METRIC_NAME = "starter.repository.invocations";
+
+    /**
+     * The outcome of the calls returning normally.
+     */
+    public static final String SUCCESS = "SUCCESS";
+
+    /**
+     * The outcome of the calls throwing an exception.
+     */
+    public static final String ERROR = "ERROR";
+
+    /**
+     * The registry of the timers.
+     */
+    private final MeterRegistry registry;
+
+    /**
+     * The timed repository name.
+     */
+    private final String repository;
+
+    /**
+     * The latency percentiles computed in the application.
+     */
+    private final double[] percentiles;
+
+    /**
+     * Whether the histogram buckets are published.
+     */
+    private final boolean percentilesHistogram;
+
+    /**
+     * The registry clock.
+     */
+    private final Clock clock;
+
+    /**
+     * The timers of the calls returning normally, by method.
+     */
+    private final ConcurrentMap<Method, Timer> successTimers = new ConcurrentHashMap<>();
+
+    /**
+     * The timers of the calls throwing an exception, by method, registered on the first failure.
+     */
+    private final ConcurrentMap<Method, Timer> errorTimers = new ConcurrentHashMap<>();
+
+    /**
+     * Create a {@link RepositoryMetricsInterceptor}.
+     *
+     * @param registry the registry of the timers.
+     * @param repositoryInterface the timed repository interface.
+     * @param percentiles the latency percentiles computed in the application.
+     * @param percentilesHistogram whether the histogram buckets are published.
+     */
+    public RepositoryMetricsInterceptor(final MeterRegistry registry,
+            final Class<?> repositoryInterface, final double[] percentiles,
+            final boolean percentilesHistogram) {
+        super();
+        this.registry = registry;
+        this.repository = repositoryInterface.getSimpleName();
+        this.percentiles = percentiles.clone();
+        this.percentilesHistogram = percentilesHistogram;
+        this.clock = registry.config().clock();
+    }
+
+    @Override
+    public Object invoke(final MethodInvocation invocation) throws Throwable {
+        final Method method = invocation.getMethod();
+        if (method.getDeclaringClass() == Object.class) {
+            return invocation.proceed();
+        }
+
+        final long start = clock.monotonicTime();
+        try {
+            final Object result = invocation.proceed();
+            successTimers.computeIfAbsent(method, key -> timer(key, SUCCESS))
+                    .record(clock.monotonicTime() - start, TimeUnit.NANOSECONDS);
+            return result;
+        } catch (final Throwable e) {
+            errorTimers.computeIfAbsent(method, key -> timer(key, ERROR))
+                    .record(clock.monotonicTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+    }
+
+    private Timer timer(final Method method, final String outcome) {
+        return Timer.builder(METRIC_NAME).description("The repository methods latency")
+                .tag("repository", repository).tag("method", method.getName())
+                .tag("outcome", outcome).publishPercentiles(percentiles)
+                .publishPercentileHistogram(percentilesHistogram).register(registry);
+    }
+}
@@ -0,0 +1,110 @@
+package com.relativity.springstarter.starter.persistence.metrics;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The repositories metrics configuration properties.
+ *
+ * @author avakhobov
+ */
+@ConfigurationProperties(prefix = "starter.persistence.metrics")
+public class RepositoryMetricsProperties {
+
+    /**
+     * Whether the repository methods are timed and the statements instrumented.
+     */
+    private boolean enabled = true;
+
+    /**
+     * The percentiles of the repository methods latency computed in the application.
+     */
+    private List<Double> percentiles = new ArrayList<>(Arrays.asList(0.5, 0.95, 0.99));
+
+    /**
+     * Whether the repository methods latency histogram buckets are published, for percentiles
+     * aggregated by the monitoring system.
+     */
+    private boolean percentilesHistogram = false;
+
+    /**
+     * The minimum duration of the logged statements, {@code null} to log none.
+     */
+    private Duration slowQueryThreshold = Duration.ofMillis(500);
+
+    /**
+     * Get the {@link #enabled}.
+     *
+     * @return the {@link #enabled}.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Set the {@link #enabled}.
+     *
+     * @param enabled the {@link #enabled} to set.
+     */
+    public void setEnabled(final boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Get the {@link #percentiles}.
+     *
+     * @return the {@link #percentiles}.
+     */
+    public List<Double> getPercentiles() {
+        return percentiles;
+    }
+
+    /**
+     * Set the {@link #percentiles}.
+     *
+     * @param percentiles the {@link #percentiles} to set.
+     */
+    public void setPercentiles(final List<Double> percentiles) {
+        this.percentiles = percentiles;
+    }
+
+    /**
+     * Get the {@link #percentilesHistogram}.
+     *
+     * @return the {@link #percentilesHistogram}.
+     */
+    public boolean isPercentilesHistogram() {
+        return percentilesHistogram;
+    }
+
+    /**
+     * Set the {@link #percentilesHistogram}.
+     *
+     * @param percentilesHistogram the {@link #percentilesHistogram} to set.
+     */
+    public void setPercentilesHistogram(final boolean percentilesHistogram) {
+        this.percentilesHistogram = percentilesHistogram;
+    }
+
+    /**
+     * Get the {@link #slowQueryThreshold}.
+     *
+     * @return the {@link #slowQueryThreshold}.
+     */
+    public Duration getSlowQueryThreshold() {
+        return slowQueryThreshold;
+    }
+
+    /**
+     * Set the {@link #slowQueryThreshold}.
+     *
+     * @param slowQueryThreshold the {@link #slowQueryThreshold} to set.
+     */
+    public void setSlowQueryThreshold(final Duration slowQueryThreshold) {
+        this.slowQueryThreshold = slowQueryThreshold;
+    }
+}
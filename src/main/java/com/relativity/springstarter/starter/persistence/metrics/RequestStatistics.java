@@ -0,0 +1,142 @@
+package com.relativity.springstarter.starter.persistence.metrics;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Counts the statements executed and the entities loaded by the current thread while it handles a
+ * request.
+ *
+ * <p>
+ * The counting is scoped to a web request by {@link RequestStatisticsFilter}. Outside of web
+ * requests, and on the threads the request hands work to, nothing is counted.
+ * </p>
+ *
+ * <p>
+ * Countings can be nested, the statements and entities being counted by every started counting
+ * of the thread, so a test can count the statements of the requests it performs.
+ * </p>
+ *
+ * @author avakhobov
+ */
+public final class RequestStatistics {
+
+    /**
+     * The statistics of the request handled by the current thread.
+     */
+    private static final ThreadLocal<RequestStatistics> CURRENT = new ThreadLocal<>();
+
+    /**
+     * The counting started before this one by the current thread, {@code null} if none.
+     */
+    private final RequestStatistics parent;
+
+    /**
+     * The SQL of the executed statements, {@code null} if not recorded.
+     */
+    private final List<String> executedStatements;
+
+    /**
+     * The number of statements executed.
+     */
+    private int statements = 0;
+
+    /**
+     * The number of entities loaded.
+     */
+    private int entities = 0;
+
+    private RequestStatistics(final RequestStatistics parent, final boolean recording) {
+        super();
+        this.parent = parent;
+        this.executedStatements = recording ? new ArrayList<>() : null;
+    }
+
+    /**
+     * Start counting for the current thread.
+     *
+     * @return the statistics of the current thread.
+     */
+    public static RequestStatistics start() {
+        return start(false);
+    }
+
+    /**
+     * Start counting for the current thread.
+     *
+     * @param recording whether the SQL of the executed statements is recorded.
+     *
+     * @return the statistics of the current thread.
+     */
+    public static RequestStatistics start(final boolean recording) {
+        final RequestStatistics statistics = new RequestStatistics(CURRENT.get(), recording);
+        CURRENT.set(statistics);
+        return statistics;
+    }
+
+    /**
+     * Stop the last counting started by the current thread.
+     */
+    public static void stop() {
+        final RequestStatistics statistics = CURRENT.get();
+        if (statistics == null || statistics.parent == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(statistics.parent);
+        }
+    }
+
+    /**
+     * Count a statement executed by the current thread.
+     *
+     * @param sql the SQL of the statement.
+     */
+    static void statementExecuted(final String sql) {
+        for (RequestStatistics statistics = CURRENT.get(); statistics != null;
+                statistics = statistics.parent) {
+            statistics.statements++;
+            if (statistics.executedStatements != null) {
+                statistics.executedStatements.add(sql);
+            }
+        }
+    }
+
+    /**
+     * Count an entity loaded by the current thread.
+     */
+    static void entityLoaded() {
+        for (RequestStatistics statistics = CURRENT.get(); statistics != null;
+                statistics = statistics.parent) {
+            statistics.entities++;
+        }
+    }
+
+    /**
+     * Get the {@link #statements}.
+     *
+     * @return the {@link #statements}.
+     */
+    public int getStatements() {
+        return statements;
+    }
+
+    /**
+     * Get the {@link #entities}.
+     *
+     * @return the {@link #entities}.
+     */
+    public int getEntities() {
+        return entities;
+    }
+
+    /**
+     * Get the {@link #executedStatements}.
+     *
+     * @return the {@link #executedStatements}, in execution order, empty if not recorded.
+     */
+    public List<String> getExecutedStatements() {
+        return executedStatements == null ? Collections.emptyList()
+                : Collections.unmodifiableList(executedStatements);
+    }
+}
@@ -0,0 +1,87 @@
+package com.relativity.springstarter.starter.persistence.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Scopes the {@link RequestStatistics} to a web request, and records the number of statements
+ * executed and entities loaded by each request in the {@value #STATEMENTS_METRIC_NAME} and
+ * {@value #ENTITIES_METRIC_NAME} distribution summaries.
+ *
+ * <p>
+ * The counts of each request are also logged at {@code DEBUG} level.
+ * </p>
+ *
+ * @author avakhobov
+ */
+public class RequestStatisticsFilter extends OncePerRequestFilter {
+
+    /**
+     * The statements per request distribution summary name.
+     */
+    public static final String STATEMENTS_METRIC_NAME = "starter.request.statements";
+
+    /**
+     * The entities per request distribution summary name.
+     */
+    public static final String ENTITIES_METRIC_NAME = "starter.request.entities";
+
+    /**
+     * The requests log.
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger(RequestStatisticsFilter.class);
+
+    /**
+     * The statements per request.
+     */
+    private final DistributionSummary statements;
+
+    /**
+     * The entities per request.
+     */
+    private final DistributionSummary entities;
+
+    /**
+     * Create a {@link RequestStatisticsFilter}.
+     *
+     * @param registry the registry of the distribution summaries.
+     * @param percentiles the percentiles computed in the application.
+     */
+    public RequestStatisticsFilter(final MeterRegistry registry, final double[] percentiles) {
+        super();
+        this.statements = DistributionSummary.builder(STATEMENTS_METRIC_NAME)
+                .description("The statements executed per request").publishPercentiles(percentiles)
+                .register(registry);
+        this.entities = DistributionSummary.builder(ENTITIES_METRIC_NAME)
+                .description("The entities loaded per request").publishPercentiles(percentiles)
+                .register(registry);
+    }
+
+    @Override
+    protected void doFilterInternal(final HttpServletRequest request,
+            final HttpServletResponse response, final FilterChain filterChain)
+            throws ServletException, IOException {
+        final RequestStatistics statistics = RequestStatistics.start();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            RequestStatistics.stop();
+
+            statements.record(statistics.getStatements());
+            entities.record(statistics.getEntities());
+            LOGGER.debug("{} {} executed {} statements and loaded {} entities", request.getMethod(),
+                    request.getRequestURI(), statistics.getStatements(), statistics.getEntities());
+        }
+    }
+}
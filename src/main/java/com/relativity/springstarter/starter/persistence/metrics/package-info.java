@@ -0,0 +1,7 @@
+/**
+ * The repositories latency metrics, the slow queries log and the per-request statement and entity
+ * counts.
+ *
+ * @author avakhobov
+ */
+package com.relativity.springstarter.starter.persistence.metrics;
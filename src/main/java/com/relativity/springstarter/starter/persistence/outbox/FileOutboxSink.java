@@ -0,0 +1,75 @@
+package com.relativity.springstarter.starter.persistence.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * An {@link OutboxSink} appending the events to a file, one JSON object per line, synced to the disk
+ * before the events are deleted from the outbox.
+ *
+ * @author avakhobov
+ */
+public class FileOutboxSink implements OutboxSink {
+
+    /**
+     * The JSON mapper, without the application customizations so the written format does not
+     * depend on them.
+     */
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    /**
+     * The file the events are appended to.
+     */
+    private final Path file;
+
+    /**
+     * Create a {@link FileOutboxSink}.
+     *
+     * @param file the file the events are appended to, created if missing.
+     */
+    public FileOutboxSink(final Path file) {
+        super();
+        this.file = file;
+    }
+
+    @Override
+    public synchronized void publish(final List<OutboxMessage> messages) throws IOException {
+        final StringBuilder lines = new StringBuilder();
+        for (final OutboxMessage message : messages) {
+            final ObjectNode line = MAPPER.createObjectNode();
+            line.put("id", message.getId());
+            line.put("aggregateType", message.getAggregateType());
+            line.put("aggregateId", message.getAggregateId().toString());
+            line.put("type", message.getType().name());
+            line.set("payload", MAPPER.readTree(message.getPayload()));
+            line.put("createdAt", message.getCreatedAt().toString());
+            lines.append(MAPPER.writeValueAsString(line)).append('\n');
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            final ByteBuffer buffer = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        }
+    }
+
+    /**
+     * Get the {@link #file}.
+     *
+     * @return the {@link #file}.
+     */
+    public Path getFile() {
+        return file;
+    }
+}
@@ -0,0 +1,62 @@
+package com.relativity.springstarter.starter.persistence.outbox;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * An {@link OutboxSink} keeping the published events in memory, and passing them to in-process
+ * consumers.
+ *
+ * @author avakhobov
+ */
+public class InMemoryOutboxSink implements OutboxSink {
+
+    /**
+     * The published events.
+     */
+    private final List<OutboxMessage> messages = new ArrayList<>();
+
+    /**
+     * The in-process consumers.
+     */
+    private final List<Consumer<? super OutboxMessage>> consumers = new ArrayList<>();
+
+    @Override
+    public void publish(final List<OutboxMessage> batch) {
+        final List<Consumer<? super OutboxMessage>> current;
+        synchronized (this) {
+            messages.addAll(batch);
+            current = new ArrayList<>(consumers);
+        }
+
+        for (final OutboxMessage message : batch) {
+            current.forEach(consumer -> consumer.accept(message));
+        }
+    }
+
+    /**
+     * Add a consumer of the events published from now on.
+     *
+     * @param consumer the consumer, called from the relay thread.
+     */
+    public synchronized void subscribe(final Consumer<? super OutboxMessage> consumer) {
+        consumers.add(consumer);
+    }
+
+    /**
+     * Get the {@link #messages}.
+     *
+     * @return a copy of the {@link #messages}, in the order they were published.
+     */
+    public synchronized List<OutboxMessage> getMessages() {
+        return new ArrayList<>(messages);
+    }
+
+    /**
+     * Forget the published events.
+     */
+    public synchronized void clear() {
+        messages.clear();
+    }
+}
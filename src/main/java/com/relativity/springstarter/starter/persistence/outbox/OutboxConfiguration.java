@@ -0,0 +1,114 @@
+package com.relativity.springstarter.starter.persistence.outbox;
+
+import com.relativity.springstarter.starter.persistence.GenericRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+
+/**
+ * The outbox configuration, enabled when the {@value #ENABLED_PROPERTY} property is {@code true}.
+ *
+ * <p>
+ * An {@link OutboxInterceptor} is added to the {@link GenericRepository} proxies, and the events
+ * relayed by an {@link OutboxRelay} unless the {@value #RELAY_PROPERTY} property is {@code false},
+ * for example on the application instances that should not publish. The sink is selected with the
+ * {@value #SINK_PROPERTY} property, {@code custom} expecting an {@link OutboxSink} bean.
+ * </p>
+ *
+ * @author avakhobov
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(OutboxProperties.class)
+@ConditionalOnProperty(name = OutboxConfiguration.ENABLED_PROPERTY, havingValue = "true")
+public class OutboxConfiguration {
+
+    /**
+     * The outbox activation property.
+     */
+    public static final String ENABLED_PROPERTY = "starter.persistence.outbox.enabled";
+
+    /**
+     * The relay activation property.
+     */
+    public static final String RELAY_PROPERTY = "starter.persistence.outbox.relay-enabled";
+
+    /**
+     * The sink selection property.
+     */
+    public static final String SINK_PROPERTY = "starter.persistence.outbox.sink";
+
+    @Bean
+    public static OutboxPostProcessor outboxPostProcessor(
+            final ObjectProvider<EntityManagerFactory> entityManagerFactory,
+            final ObjectProvider<OutboxRelay> relay) {
+        return new OutboxPostProcessor(entityManagerFactory, relay);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = SINK_PROPERTY, havingValue = "memory", matchIfMissing = true)
+    public InMemoryOutboxSink inMemoryOutboxSink() {
+        return new InMemoryOutboxSink();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = SINK_PROPERTY, havingValue = "file")
+    public FileOutboxSink fileOutboxSink(final OutboxProperties properties) {
+        return new FileOutboxSink(properties.getFile());
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "shutdown")
+    @ConditionalOnProperty(name = RELAY_PROPERTY, havingValue = "true", matchIfMissing = true)
+    public OutboxRelay outboxRelay(final DataSource dataSource, final OutboxSink sink,
+            final MeterRegistry registry, final OutboxProperties properties) {
+        return new OutboxRelay(dataSource, sink, registry, properties.getBatchSize(),
+                properties.getPollInterval());
+    }
+
+    /**
+     * Adds an {@link OutboxInterceptor} to the {@link GenericRepository} proxies.
+     */
+    static class OutboxPostProcessor implements BeanPostProcessor {
+
+        /**
+         * The entity manager factory, resolved on the first change.
+         */
+        private final ObjectProvider<EntityManagerFactory> entityManagerFactory;
+
+        /**
+         * The relay of the application instance, if any.
+         */
+        private final ObjectProvider<OutboxRelay> relay;
+
+        OutboxPostProcessor(final ObjectProvider<EntityManagerFactory> entityManagerFactory,
+                final ObjectProvider<OutboxRelay> relay) {
+            this.entityManagerFactory = entityManagerFactory;
+            this.relay = relay;
+        }
+
+        @Override
+        public Object postProcessBeforeInitialization(final Object bean, final String beanName) {
+            if (bean instanceof RepositoryFactoryBeanSupport) {
+                ((RepositoryFactoryBeanSupport<?, ?, ?>) bean).addRepositoryFactoryCustomizer(
+                        factory -> factory.addRepositoryProxyPostProcessor((proxy, information) -> {
+                            if (GenericRepository.class.isAssignableFrom(information.getRepositoryInterface())) {
+                                // After the transaction interceptor, within the transaction
+                                proxy.addAdvice(new OutboxInterceptor(information.getDomainType(),
+                                        entityManagerFactory, relay));
+                            }
+                        }));
+            }
+
+            return bean;
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.relativity.springstarter.starter.persistence.outbox;
+
+import java.util.Date;
+import java.util.UUID;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Table;
+
+/**
+ * An entity change waiting in the outbox, written in the transaction of the change and deleted
+ * once published by the {@link OutboxRelay}.
+ *
+ * <p>
+ * The identifiers come from a sequence whose values are allocated by blocks of
+ * {@value #ALLOCATION_SIZE}, so they follow the order of the changes made by an application instance
+ * but not across instances.
+ * </p>
+ *
+ * @author avakhobov
+ */
+@Entity
+@Table(name = OutboxEvent.TABLE)
+public class OutboxEvent {
+
+    /**
+     * The outbox table.
+     */
+    public static final String TABLE = "outbox_events";
+
+    /**
+     * The number of identifiers allocated at once.
+     */
+    public static final int ALLOCATION_SIZE = 50;
+
+    /**
+     * The event identifier, ordering the events.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_events_seq")
+    @SequenceGenerator(name = "outbox_events_seq", sequenceName = "outbox_events_seq",
+            allocationSize = ALLOCATION_SIZE)
+    @Column(name = "id", nullable = false, updatable = false)
+    private Long id;
+
+    /**
+     * The changed entity class name.
+     */
+    @Column(name = "aggregate_type", nullable = false, updatable = false)
+    private String aggregateType;
+
+    /**
+     * The changed entity identifier.
+     */
+    @Column(name = "aggregate_id", length = 36, nullable = false, updatable = false)
+    private String aggregateId;
+
+    /**
+     * The change.
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "event_type", length = 16, nullable = false, updatable = false)
+    private OutboxEventType type;
+
+    /**
+     * The JSON payload of the change.
+     */
+    @Column(name = "payload", columnDefinition = "TEXT", nullable = false, updatable = false)
+    private String payload;
+
+    /**
+     * When the change was made.
+     */
+    @Column(name = "created_at", columnDefinition = "TIMESTAMP", nullable = false,
+            updatable = false)
+    private Date createdAt;
+
+    /**
+     * Create a {@link OutboxEvent}, for JPA.
+     */
+    protected OutboxEvent() {
+        super();
+    }
+
+    /**
+     * Create a {@link OutboxEvent} of a change made now.
+     *
+     * @param aggregateType the changed entity class.
+     * @param aggregateId the changed entity identifier.
+     * @param type the change.
+     * @param payload the JSON payload of the change.
+     */
+    public OutboxEvent(final Class<?> aggregateType, final UUID aggregateId,
+            final OutboxEventType type, final String payload) {
+        super();
+        this.aggregateType = aggregateType.getName();
+        this.aggregateId = aggregateId.toString();
+        this.type = type;
+        this.payload = payload;
+        this.createdAt = new Date();
+    }
+
+    /**
+     * Get the {@link #id}.
+     *
+     * @return the {@link #id}, {@code null} until written.
+     */
+    public Long getId() {
+        return id;
+    }
+
+    /**
+     * Get the {@link #aggregateType}.
+     *
+     * @return the {@link #aggregateType}.
+     */
+    public String getAggregateType() {
+        return aggregateType;
+    }
+
+    /**
+     * Get the {@link #aggregateId}.
+     *
+     * @return the {@link #aggregateId}.
+     */
+    public UUID getAggregateId() {
+        return UUID.fromString(aggregateId);
+    }
+
+    /**
+     * Get the {@link #type}.
+     *
+     * @return the {@link #type}.
+     */
+    public OutboxEventType getType() {
+        return type;
+    }
+
+    /**
+     * Get the {@link #payload}.
+     *
+     * @return the {@link #payload}.
+     */
+    public String getPayload() {
+        return payload;
+    }
+
+    /**
+     * Get the {@link #createdAt}.
+     *
+     * @return the {@link #createdAt}.
+     */
+    public Date getCreatedAt() {
+        return createdAt;
+    }
+}
@@ -0,0 +1,29 @@
+package com.relativity.springstarter.starter.persistence.outbox;
+
+/**
+ * The kinds of entity changes published through the outbox.
+ *
+ * @author avakhobov
+ */
+public enum OutboxEventType {
+
+    /**
+     * An entity was added, the payload holding its fields.
+     */
+    CREATED,
+
+    /**
+     * An entity was updated, the payload holding its fields.
+     */
+    UPDATED,
+
+    /**
+     * The enabled status of a user was set, the payload holding the status.
+     */
+    ENABLED,
+
+    /**
+     * The verified status of a user was set, the payload holding the status.
+     */
+    VERIFIED
+}
@@ -0,0 +1,270 @@
+package com.relativity.springstarter.starter.persistence.outbox;
+
+import com.relativity.springstarter.starter.persistence.AbstractGenericEntity;
+import com.relativity.springstarter.starter.persistence.BaseGenericRepository;
+import com.relativity.springstarter.starter.persistence.user.entity.User;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.hibernate.proxy.HibernateProxy;
+import org.springframework.aop.ProxyMethodInvocation;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.TypedQuery;
+
+/**
+ * Writes an {@link OutboxEvent} for every entity added or updated through a repository, and every
+ * user whose enabled or verified status is set, in the transaction of the change.
+ *
+ * <p>
+ * The interceptor is added to the repository proxies after the transaction interceptor, so it runs
+ * within the transaction of the repository method, and the events are inserted with the changes
+ * when the persistence context is flushed. The relay of the application instance is woken up when
+ * the transaction commits.
+ * </p>
+ *
+ * <p>
+ * The status updates are set-based {@code UPDATE} statements: when fewer users than targeted were
+ * updated, for example not owned ones, the updated users are read back with one {@code SELECT} so
+ * only their events are written.
+ * </p>
+ *
+ * <p>
+ * The entities added by {@code addAll} are passed to the repository one chunk at a time, and the
+ * events of each chunk flushed and cleared after it, so they are batched like the entities. Only
+ * the {@code add*} and {@code update*} methods are covered: the {@code save*} methods of the
+ * repository do not write events.
+ * </p>
+ *
+ * @author avakhobov
+ */
+public class OutboxInterceptor implements MethodInterceptor {
+
+    /**
+     * The JSON mapper, without the application customizations so the payload format does not
+     * depend on them.
+     */
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    /**
+     * The entity class of the repository.
+     */
+    private final Class<?> domainType;
+
+    /**
+     * The entity manager factory, resolved on the first change.
+     */
+    private final ObjectProvider<EntityManagerFactory> entityManagerFactory;
+
+    /**
+     * The relay of the application instance, if any.
+     */
+    private final ObjectProvider<OutboxRelay> relay;
+
+    /**
+     * Create a {@link OutboxInterceptor}.
+     *
+     * @param domainType the entity class of the repository.
+     * @param entityManagerFactory the entity manager factory, resolved on the first change.
+     * @param relay the relay of the application instance, if any.
+     */
+    public OutboxInterceptor(final Class<?> domainType,
+            final ObjectProvider<EntityManagerFactory> entityManagerFactory,
+            final ObjectProvider<OutboxRelay> relay) {
+        super();
+        this.domainType = domainType;
+        this.entityManagerFactory = entityManagerFactory;
+        this.relay = relay;
+    }
+
+    @Override
+    public Object invoke(final MethodInvocation invocation) throws Throwable {
+        final String method = invocation.getMethod().getName();
+        final Object[] args = invocation.getArguments();
+        if ("addAll".equals(method) && args.length > 0 && args[0] instanceof Iterable
+                && invocation instanceof ProxyMethodInvocation) {
+            addAll((ProxyMethodInvocation) invocation, args);
+            return null;
+        }
+
+        final Object result = invocation.proceed();
+        if ("add".equals(method) && args.length == 1 && args[0] instanceof AbstractGenericEntity) {
+            write(OutboxEventType.CREATED, (AbstractGenericEntity) args[0]);
+        } else if (("update".equals(method) || "updateByOwner".equals(method))
+                && result instanceof AbstractGenericEntity) {
+            write(OutboxEventType.UPDATED, (AbstractGenericEntity) result);
+        } else if (method.startsWith("updateEnabled") && isStatusUpdate(args)) {
+            writeStatus(OutboxEventType.ENABLED, "enabled", args, (Integer) result);
+        } else if (method.startsWith("updateVerified") && isStatusUpdate(args)) {
+            writeStatus(OutboxEventType.VERIFIED, "verified", args, (Integer) result);
+        }
+
+        return result;
+    }
+
+    /**
+     * Add the entities chunk by chunk, and write and flush the events of each chunk after it, so
+     * the persistence context never holds more than one chunk of entities or events.
+     */
+    private void addAll(final ProxyMethodInvocation invocation, final Object[] args)
+            throws Throwable {
+        final int chunkSize = args.length > 1 && args[1] instanceof Integer ? (Integer) args[1]
+                : BaseGenericRepository.ADD_ALL_CHUNK_SIZE;
+        if (chunkSize < 1) {
+            // Rejected by the repository
+            invocation.proceed();
+            return;
+        }
+
+        final List<AbstractGenericEntity> chunk = new ArrayList<>(chunkSize);
+        for (final Object entity : (Iterable<?>) args[0]) {
+            chunk.add((AbstractGenericEntity) entity);
+            if (chunk.size() == chunkSize) {
+                addChunk(invocation, args, chunk);
+                chunk.clear();
+            }
+        }
+
+        if (!chunk.isEmpty()) {
+            addChunk(invocation, args, chunk);
+        }
+    }
+
+    private void addChunk(final ProxyMethodInvocation invocation, final Object[] args,
+            final List<AbstractGenericEntity> chunk) throws Throwable {
+        final Object[] arguments = args.clone();
+        arguments[0] = new ArrayList<>(chunk);
+        invocation.invocableClone(arguments).proceed();
+
+        for (final AbstractGenericEntity entity : chunk) {
+            write(OutboxEventType.CREATED, entity);
+        }
+
+        final EntityManager entityManager = entityManager();
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private void write(final OutboxEventType type, final AbstractGenericEntity entity) {
+        final ObjectNode payload = MAPPER.createObjectNode();
+        payload.put("id", entity.getId().toString());
+        if (entity instanceof User) {
+            final User user = (User) entity;
+            payload.put("username", user.getUsername());
+            payload.put("email", user.getEmail());
+            payload.put("firstname", user.getFirstname());
+            payload.put("lastname", user.getLastname());
+            payload.put("enabled", user.isEnabled());
+            payload.put("verified", user.isVerified());
+        }
+        payload.put("ownerId", id(entity.getOwner()));
+        payload.put("createdAt", instant(entity.getCreatedAt()));
+
+        write(new OutboxEvent(entity.getClass(), entity.getId(), type, json(payload)));
+    }
+
+    private void writeStatus(final OutboxEventType type, final String field, final Object[] args,
+            final int updated) {
+        if (updated == 0) {
+            return;
+        }
+
+        final Set<UUID> targeted = new LinkedHashSet<>();
+        for (final Object id : (Collection<?>) args[0]) {
+            targeted.add((UUID) id);
+        }
+        final Collection<UUID> ids = updated == targeted.size() ? targeted
+                : updatedIds(targeted, args.length > 2 ? args[2] : null);
+
+        for (final UUID id : ids) {
+            final ObjectNode payload = MAPPER.createObjectNode();
+            payload.put("id", id.toString());
+            payload.put(field, (Boolean) args[1]);
+            write(new OutboxEvent(domainType, id, type, json(payload)));
+        }
+    }
+
+    private List<UUID> updatedIds(final Set<UUID> targeted, final Object owner) {
+        final EntityManager entityManager = entityManager();
+        final String entity = entityManager.getMetamodel().entity(domainType).getName();
+        final TypedQuery<UUID> query = entityManager.createQuery("SELECT e.id FROM " + entity
+                + " AS e WHERE e.id IN :ids" + (owner == null ? "" : " AND e.owner = :owner"), UUID.class);
+        query.setParameter("ids", targeted);
+        if (owner != null) {
+            query.setParameter("owner", owner);
+        }
+
+        return query.getResultList();
+    }
+
+    private void write(final OutboxEvent event) {
+        entityManager().persist(event);
+
+        if (!TransactionSynchronizationManager.hasResource(this)) {
+            TransactionSynchronizationManager.bindResource(this, Boolean.TRUE);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(final int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(OutboxInterceptor.this);
+                    if (status == STATUS_COMMITTED) {
+                        relay.ifAvailable(OutboxRelay::wakeUp);
+                    }
+                }
+            });
+        }
+    }
+
+    private EntityManager entityManager() {
+        final EntityManager entityManager = EntityManagerFactoryUtils.getTransactionalEntityManager(
+                entityManagerFactory.getObject());
+        if (entityManager == null) {
+            throw new IllegalStateException("Outbox events must be written within a transaction");
+        }
+
+        return entityManager;
+    }
+
+    private static boolean isStatusUpdate(final Object[] args) {
+        return args.length > 1 && args[0] instanceof Collection && args[1] instanceof Boolean;
+    }
+
+    private static String id(final AbstractGenericEntity entity) {
+        if (entity == null) {
+            return null;
+        } else if (entity instanceof HibernateProxy) {
+            return String.valueOf(((HibernateProxy) entity).getHibernateLazyInitializer().getIdentifier());
+        }
+
+        return String.valueOf(entity.getId());
+    }
+
+    private static String instant(final Date date) {
+        return date == null ? null : Instant.ofEpochMilli(date.getTime()).toString();
+    }
+
+    private static String json(final ObjectNode payload) {
+        try {
+            return MAPPER.writeValueAsString(payload);
+        } catch (final JsonProcessingException e) {
+            throw new IllegalArgumentException("Cannot write the outbox event payload", e);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.relativity.springstarter.starter.persistence.outbox;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * An outbox event delivered to an {@link OutboxSink}.
+ *
+ * <p>
+ * A message may be delivered more than once, its {@link #id} telling the copies apart from
+ * distinct changes.
+ * </p>
+ *
+ * @author avakhobov
+ */
+public final class OutboxMessage {
+
+    /**
+     * The event identifier.
+     */
+    private final long id;
+
+    /**
+     * The changed entity class name.
+     */
+    private final String aggregateType;
+
+    /**
+     * The changed entity identifier.
+     */
+    private final UUID aggregateId;
+
+    /**
+     * The change.
+     */
+    private final OutboxEventType type;
+
+    /**
+     * The JSON payload of the change.
+     */
+    private final String payload;
+
+    /**
+     * When the change was made.
+     */
+    private final Instant createdAt;
+
+    /**
+     * Create a {@link OutboxMessage}.
+     *
+     * @param id the event identifier.
+     * @param aggregateType the changed entity class name.
+     * @param aggregateId the changed entity identifier.
+     * @param type the change.
+     * @param payload the JSON payload of the change.
+     * @param createdAt when the change was made.
+     */
+    public OutboxMessage(final long id, final String aggregateType, final UUID aggregateId,
+            final OutboxEventType type, final String payload, final Instant createdAt) {
+        this.id = id;
+        this.aggregateType = aggregateType;
+        this.aggregateId = aggregateId;
+        this.type = type;
+        this.payload = payload;
+        this.createdAt = createdAt;
+    }
+
+    /**
+     * Get the {@link #id}.
+     *
+     * @return the {@link #id}.
+     */
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * Get the {@link #aggregateType}.
+     *
+     * @return the {@link #aggregateType}.
+     */
+    public String getAggregateType() {
+        return aggregateType;
+    }
+
+    /**
+     * Get the {@link #aggregateId}.
+     *
+     * @return the {@link #aggregateId}.
+     */
+    public UUID getAggregateId() {
+        return aggregateId;
+    }
+
+    /**
+     * Get the {@link #type}.
+     *
+     * @return the {@link #type}.
+     */
+    public OutboxEventType getType() {
+        return type;
+    }
+
+    /**
+     * Get the {@link #payload}.
+     *
+     * @return the {@link #payload}.
+     */
+    public String getPayload() {
+        return payload;
+    }
+
+    /**
+     * Get the {@link #createdAt}.
+     *
+     * @return the {@link #createdAt}.
+     */
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    @Override
+    public String toString() {
+        return id + " " + type + " " + aggregateType + " " + aggregateId + " " + payload;
+    }
+}
@@ -0,0 +1,154 @@
+package com.relativity.springstarter.starter.persistence.outbox;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+
+/**
+ * The outbox configuration properties.
+ *
+ * @author avakhobov
+ */
+@ConfigurationProperties(prefix = "starter.persistence.outbox")
+public class OutboxProperties {
+
+    /**
+     * Whether the entities changes are written to the outbox.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Whether the application instance relays the outbox events to the sink.
+     */
+    private boolean relayEnabled = true;
+
+    /**
+     * The sink the events are published to.
+     */
+    private OutboxSinkType sink = OutboxSinkType.MEMORY;
+
+    /**
+     * The file of the {@link OutboxSinkType#FILE} sink.
+     */
+    private Path file = Paths.get("outbox.jsonl");
+
+    /**
+     * The maximum number of events published in a batch.
+     */
+    private int batchSize = 500;
+
+    /**
+     * The delay between two polls of an empty outbox.
+     */
+    private Duration pollInterval = Duration.ofSeconds(1);
+
+    /**
+     * Get the {@link #enabled}.
+     *
+     * @return the {@link #enabled}.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Set the {@link #enabled}.
+     *
+     * @param enabled the {@link #enabled} to set.
+     */
+    public void setEnabled(final boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Get the {@link #relayEnabled}.
+     *
+     * @return the {@link #relayEnabled}.
+     */
+    public boolean isRelayEnabled() {
+        return relayEnabled;
+    }
+
+    /**
+     * Set the {@link #relayEnabled}.
+     *
+     * @param relayEnabled the {@link #relayEnabled} to set.
+     */
+    public void setRelayEnabled(final boolean relayEnabled) {
+        this.relayEnabled = relayEnabled;
+    }
+
+    /**
+     * Get the {@link #sink}.
+     *
+     * @return the {@link #sink}.
+     */
+    public OutboxSinkType getSink() {
+        return sink;
+    }
+
+    /**
+     * Set the {@link #sink}.
+     *
+     * @param sink the {@link #sink} to set.
+     */
+    public void setSink(final OutboxSinkType sink) {
+        this.sink = sink;
+    }
+
+    /**
+     * Get the {@link #file}.
+     *
+     * @return the {@link #file}.
+     */
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Set the {@link #file}.
+     *
+     * @param file the {@link #file} to set.
+     */
+    public void setFile(final Path file) {
+        this.file = file;
+    }
+
+    /**
+     * Get the {@link #batchSize}.
+     *
+     * @return the {@link #batchSize}.
+     */
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Set the {@link #batchSize}.
+     *
+     * @param batchSize the {@link #batchSize} to set.
+     */
+    public void setBatchSize(final int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Get the {@link #pollInterval}.
+     *
+     * @return the {@link #pollInterval}.
+     */
+    public Duration getPollInterval() {
+        return pollInterval;
+    }
+
+    /**
+     * Set the {@link #pollInterval}.
+     *
+     * @param pollInterval the {@link #pollInterval} to set.
+     */
+    public void setPollInterval(final Duration pollInterval) {
+        this.pollInterval = pollInterval;
+    }
+}
@@ -0,0 +1,305 @@
+package com.relativity.springstarter.starter.persistence.outbox;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.DatabaseMetaData;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import javax.sql.DataSource;
+
+/**
+ * Publishes the {@link OutboxEvent}s to an {@link OutboxSink} in batches, from a background thread.
+ *
+ * <p>
+ * A batch of up to {@link #batchSize} events is claimed by locking the oldest rows with
+ * {@code SELECT ... FOR UPDATE SKIP LOCKED}, published in order, then deleted in the same
+ * transaction, so the relays of several application instances share the outbox without
+ * publishing an event twice. On the other databases than PostgreSQL, such as H2, the rows are
+ * locked with {@code FOR UPDATE} and the relays take turns. A batch is published again if
+ * the sink or the transaction fails, after an exponential backoff: the events are published at
+ * least once. The batches of distinct relays may be published concurrently, so the sink consumers
+ * should order the events of an entity by identifier.
+ * </p>
+ *
+ * <p>
+ * The relay publishes the batches as long as they are full, then polls the outbox every
+ * {@link #pollInterval} or when woken up by a committed change of the application instance. The
+ * published events are counted by the {@value #PUBLISHED_METRIC_NAME} counter, and their delay
+ * from the change to the publication timed by the {@value #LAG_METRIC_NAME} timer.
+ * </p>
+ *
+ * @author avakhobov
+ */
+public class OutboxRelay {
+
+    /**
+     * The published events counter name.
+     */
+    public static final String PUBLISHED_METRIC_NAME = "starter.outbox.published";
+
+    /**
+     * The publication lag timer name.
+     */
+    public static final String LAG_METRIC_NAME = "starter.outbox.lag";
+
+    /**
+     * The failed batches counter name.
+     */
+    public static final String FAILURES_METRIC_NAME = "starter.outbox.failures";
+
+    /**
+     * The product name of the database the events are claimed with {@code SKIP LOCKED} on.
+     */
+    private static final String SKIP_LOCKED_DATABASE = "PostgreSQL";
+
+    /**
+     * The relay log.
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger(OutboxRelay.class);
+
+    /**
+     * The delay before the first retry of a failed batch.
+     */
+    private static final Duration MIN_BACKOFF = Duration.ofMillis(100);
+
+    /**
+     * The maximum delay between the retries of a failed batch.
+     */
+    private static final Duration MAX_BACKOFF = Duration.ofSeconds(30);
+
+    /**
+     * The events deletion statement.
+     */
+    private static final String DELETE = "DELETE FROM " + OutboxEvent.TABLE + " WHERE id = ?";
+
+    /**
+     * The claimed events mapper.
+     */
+    private static final RowMapper<OutboxMessage> MAPPER = (row, number) -> new OutboxMessage(
+            row.getLong("id"), row.getString("aggregate_type"),
+            UUID.fromString(row.getString("aggregate_id")),
+            OutboxEventType.valueOf(row.getString("event_type")), row.getString("payload"),
+            row.getTimestamp("created_at").toInstant());
+
+    /**
+     * The outbox database.
+     */
+    private final DataSource dataSource;
+
+    /**
+     * The JDBC operations on the outbox database.
+     */
+    private final JdbcTemplate jdbc;
+
+    /**
+     * The transactions of the batches.
+     */
+    private final TransactionTemplate transaction;
+
+    /**
+     * The destination of the events.
+     */
+    private final OutboxSink sink;
+
+    /**
+     * The maximum number of events published in a batch.
+     */
+    private final int batchSize;
+
+    /**
+     * The delay between two polls of an empty outbox.
+     */
+    private final Duration pollInterval;
+
+    /**
+     * The published events counter.
+     */
+    private final Counter published;
+
+    /**
+     * The publication lag timer.
+     */
+    private final Timer lag;
+
+    /**
+     * The failed batches counter.
+     */
+    private final Counter failures;
+
+    /**
+     * The batch claiming query, resolved on the first batch.
+     */
+    private volatile String claim = null;
+
+    /**
+     * Whether the relay is running.
+     */
+    private volatile boolean running = false;
+
+    /**
+     * The relay thread, {@code null} until started.
+     */
+    private volatile Thread thread = null;
+
+    /**
+     * Create a {@link OutboxRelay}.
+     *
+     * @param dataSource the outbox database.
+     * @param sink the destination of the events.
+     * @param registry the registry of the relay metrics.
+     * @param batchSize the maximum number of events published in a batch.
+     * @param pollInterval the delay between two polls of an empty outbox.
+     */
+    public OutboxRelay(final DataSource dataSource, final OutboxSink sink,
+            final MeterRegistry registry, final int batchSize, final Duration pollInterval) {
+        super();
+        this.dataSource = dataSource;
+        this.jdbc = new JdbcTemplate(dataSource);
+        this.transaction = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        this.sink = sink;
+        this.batchSize = batchSize;
+        this.pollInterval = pollInterval;
+        this.published = Counter.builder(PUBLISHED_METRIC_NAME)
+                .description("The outbox events published").register(registry);
+        this.lag = Timer.builder(LAG_METRIC_NAME)
+                .description("The delay from the outbox event change to its publication")
+                .register(registry);
+        this.failures = Counter.builder(FAILURES_METRIC_NAME)
+                .description("The outbox batches that failed to publish").register(registry);
+    }
+
+    /**
+     * Start the relay thread.
+     */
+    public synchronized void start() {
+        if (thread == null) {
+            running = true;
+            thread = new Thread(this::run, "outbox-relay");
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    /**
+     * Stop the relay thread, once its current batch is published.
+     */
+    public synchronized void shutdown() {
+        final Thread relay = thread;
+        if (relay == null) {
+            return;
+        }
+
+        running = false;
+        LockSupport.unpark(relay);
+        try {
+            relay.join();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        thread = null;
+    }
+
+    /**
+     * Wake up the relay waiting for events, after a change was committed.
+     */
+    public void wakeUp() {
+        final Thread relay = thread;
+        if (relay != null) {
+            LockSupport.unpark(relay);
+        }
+    }
+
+    /**
+     * Claim, publish and delete a batch of events.
+     *
+     * @return the number of published events.
+     */
+    public int relay() {
+        if (claim == null) {
+            claim = claimQuery(databaseProductName(dataSource), batchSize);
+        }
+
+        final List<OutboxMessage> batch = transaction.execute(status -> {
+            final List<OutboxMessage> messages = jdbc.query(claim, MAPPER);
+            if (!messages.isEmpty()) {
+                try {
+                    sink.publish(messages);
+                } catch (final RuntimeException e) {
+                    throw e;
+                } catch (final Exception e) {
+                    throw new IllegalStateException("Cannot publish the outbox events", e);
+                }
+                jdbc.batchUpdate(DELETE, messages, messages.size(),
+                        (statement, message) -> statement.setLong(1, message.getId()));
+            }
+            return messages;
+        });
+
+        final Instant now = Instant.now();
+        for (final OutboxMessage message : batch) {
+            lag.record(Duration.between(message.getCreatedAt(), now));
+        }
+        published.increment(batch.size());
+
+        return batch.size();
+    }
+
+    private void run() {
+        Duration backoff = MIN_BACKOFF;
+        while (running) {
+            try {
+                if (relay() < batchSize) {
+                    LockSupport.parkNanos(this, pollInterval.toNanos());
+                }
+                backoff = MIN_BACKOFF;
+            } catch (final RuntimeException e) {
+                failures.increment();
+                LOGGER.warn("Publishing the outbox events failed, retrying in {} ms",
+                        backoff.toMillis(), e);
+                LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(backoff.toMillis()));
+                backoff = backoff.multipliedBy(2);
+                if (backoff.compareTo(MAX_BACKOFF) > 0) {
+                    backoff = MAX_BACKOFF;
+                }
+            }
+        }
+    }
+
+    /**
+     * Get the batch claiming query of a database.
+     *
+     * @param database the database product name.
+     * @param batchSize the maximum number of claimed events.
+     *
+     * @return the query, skipping the events claimed by other relays if the database supports it.
+     */
+    static String claimQuery(final String database, final int batchSize) {
+        return "SELECT id, aggregate_type, aggregate_id, event_type, payload, created_at FROM "
+                + OutboxEvent.TABLE + " ORDER BY id FETCH FIRST " + batchSize + " ROWS ONLY FOR UPDATE"
+                + (SKIP_LOCKED_DATABASE.equals(database) ? " SKIP LOCKED" : "");
+    }
+
+    private static String databaseProductName(final DataSource dataSource) {
+        try {
+            return JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+        } catch (final MetaDataAccessException e) {
+            throw new IllegalStateException("Cannot read the outbox database product", e);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.relativity.springstarter.starter.persistence.outbox;
+
+import java.util.List;
+
+/**
+ * The destination of the outbox events, for example a message broker.
+ *
+ * <p>
+ * The events are deleted from the outbox once {@link #publish(List)} returns, and published again
+ * if it throws an exception. A sink should deduplicate on the {@link OutboxMessage#getId()
+ * identifier} if its consumers cannot process an event twice.
+ * </p>
+ *
+ * @author avakhobov
+ */
+@FunctionalInterface
+public interface OutboxSink {
+
+    /**
+     * Publish a batch of events, in order.
+     *
+     * @param messages the events, by increasing identifier.
+     *
+     * @throws Exception if the events could not be published.
+     */
+    void publish(List<OutboxMessage> messages) throws Exception;
+}
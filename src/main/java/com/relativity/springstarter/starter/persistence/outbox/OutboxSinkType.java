@@ -0,0 +1,24 @@
+package com.relativity.springstarter.starter.persistence.outbox;
+
+/**
+ * The kinds of {@link OutboxSink} the outbox events are published to.
+ *
+ * @author avakhobov
+ */
+public enum OutboxSinkType {
+
+    /**
+     * An {@link InMemoryOutboxSink}, for tests and in-process consumers.
+     */
+    MEMORY,
+
+    /**
+     * A {@link FileOutboxSink}.
+     */
+    FILE,
+
+    /**
+     * The {@link OutboxSink} bean of the application.
+     */
+    CUSTOM
+}
@@ -0,0 +1,7 @@
+/**
+ * The transactional outbox of the entities changes, relayed in batches to an {@link
+ * com.relativity.springstarter.starter.persistence.outbox.OutboxSink}.
+ *
+ * @author avakhobov
+ */
+package com.relativity.springstarter.starter.persistence.outbox;
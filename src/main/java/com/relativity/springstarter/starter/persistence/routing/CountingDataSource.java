@@ -0,0 +1,76 @@
+package com.relativity.springstarter.starter.persistence.routing;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+/**
+ * {@link DataSource} counting its connections in use.
+ *
+ * @author avakhobov
+ */
+class CountingDataSource extends DelegatingDataSource {
+
+    /**
+     * The number of connections obtained and not closed yet.
+     */
+    private final AtomicInteger active = new AtomicInteger();
+
+    /**
+     * Create a {@link CountingDataSource}.
+     *
+     * @param target the counted data source.
+     */
+    CountingDataSource(final DataSource target) {
+        super(target);
+    }
+
+    /**
+     * Get the {@link #active}.
+     *
+     * @return the {@link #active}.
+     */
+    int getActive() {
+        return active.get();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return count(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(final String username, final String password)
+            throws SQLException {
+        return count(super.getConnection(username, password));
+    }
+
+    private Connection count(final Connection connection) {
+        active.incrementAndGet();
+        final AtomicBoolean closed = new AtomicBoolean();
+
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[] { Connection.class }, (proxy, method, args) -> {
+                    if ("equals".equals(method.getName())) {
+                        return proxy == args[0];
+                    } else if ("hashCode".equals(method.getName())) {
+                        return System.identityHashCode(proxy);
+                    } else if ("close".equals(method.getName()) && closed.compareAndSet(false, true)) {
+                        active.decrementAndGet();
+                    }
+
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (final InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+                });
+    }
+}
@@ -0,0 +1,54 @@
+package com.relativity.springstarter.starter.persistence.routing;
+
+import java.time.Duration;
+
+/**
+ * Tracks the last write committed by the current thread, so the reads following it can be pinned to
+ * the primary data source until the replicas caught up.
+ *
+ * <p>
+ * The tracking is scoped to a web request by {@link ReadYourWritesFilter}. Outside of web requests
+ * it only expires with the pinning window.
+ * </p>
+ *
+ * @author avakhobov
+ */
+public final class ReadYourWrites {
+
+    /**
+     * The {@link System#nanoTime()} of the last write committed by the current thread.
+     */
+    private static final ThreadLocal<Long> LAST_WRITE = new ThreadLocal<>();
+
+    private ReadYourWrites() {
+        super();
+    }
+
+    /**
+     * Record a write committed by the current thread.
+     */
+    public static void markWrite() {
+        LAST_WRITE.set(System.nanoTime());
+    }
+
+    /**
+     * Tests if the current thread committed a write within a time window.
+     *
+     * @param window the time window.
+     *
+     * @return {@code true} if reads must be pinned to the primary data source, {@code false}
+     *         otherwise.
+     */
+    public static boolean isPinned(final Duration window) {
+        final Long lastWrite = LAST_WRITE.get();
+
+        return lastWrite != null && System.nanoTime() - lastWrite < window.toNanos();
+    }
+
+    /**
+     * Forget the writes committed by the current thread.
+     */
+    public static void clear() {
+        LAST_WRITE.remove();
+    }
+}
@@ -0,0 +1,19 @@
+package com.relativity.springstarter.starter.persistence.routing;
+
+/**
+ * The strategies selecting the read replica serving a read-only transaction.
+ *
+ * @author avakhobov
+ */
+public enum ReplicaBalancing {
+
+    /**
+     * Select the replicas in turn.
+     */
+    ROUND_ROBIN,
+
+    /**
+     * Select the replica with the fewest connections in use, in turn among equally loaded replicas.
+     */
+    LEAST_LOADED
+}
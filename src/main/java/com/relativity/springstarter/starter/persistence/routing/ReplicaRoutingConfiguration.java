@@ -0,0 +1,90 @@
+package com.relativity.springstarter.starter.persistence.routing;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+/**
+ * The {@link ReplicaRoutingDataSource} configuration, replacing the auto-configured data source when
+ * the {@value #ENABLED_PROPERTY} property is {@code true}.
+ *
+ * <p>
+ * The primary and replica pools are configured by the {@value #HIKARI_PREFIX} properties, as the
+ * auto-configured data source would be, the replica pool names being suffixed by their index.
+ * </p>
+ *
+ * @author avakhobov
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties({ DataSourceProperties.class, ReplicaRoutingProperties.class })
+@ConditionalOnProperty(name = ReplicaRoutingConfiguration.ENABLED_PROPERTY, havingValue = "true")
+public class ReplicaRoutingConfiguration {
+
+    /**
+     * The routing activation property.
+     */
+    public static final String ENABLED_PROPERTY = "starter.persistence.routing.enabled";
+
+    /**
+     * The prefix of the Hikari pool properties.
+     */
+    public static final String HIKARI_PREFIX = "spring.datasource.hikari";
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(final DataSourceProperties primary,
+            final ReplicaRoutingProperties properties, final Environment environment) {
+        final Binder binder = Binder.get(environment);
+
+        final HikariDataSource primaryDataSource = primary.initializeDataSourceBuilder()
+                .type(HikariDataSource.class).build();
+        binder.bind(HIKARI_PREFIX, Bindable.ofInstance(primaryDataSource));
+
+        final List<DataSource> replicas = new ArrayList<>();
+        for (final ReplicaRoutingProperties.Replica replica : properties.getReplicas()) {
+            final HikariDataSource replicaDataSource = DataSourceBuilder.create()
+                    .type(HikariDataSource.class).build();
+            binder.bind(HIKARI_PREFIX, Bindable.ofInstance(replicaDataSource));
+            replicaDataSource.setJdbcUrl(replica.getUrl());
+            replicaDataSource.setUsername(StringUtils.hasText(replica.getUsername())
+                    ? replica.getUsername() : primary.determineUsername());
+            replicaDataSource.setPassword(replica.getPassword() != null ? replica.getPassword()
+                    : primary.determinePassword());
+            if (primaryDataSource.getPoolName() != null) {
+                replicaDataSource.setPoolName(primaryDataSource.getPoolName() + "-"
+                        + ReplicaRoutingDataSource.REPLICA_PREFIX + replicas.size());
+            }
+            replicas.add(replicaDataSource);
+        }
+
+        return new ReplicaRoutingDataSource(primaryDataSource, replicas, properties.getBalancing(),
+                properties.getReadYourWritesWindow());
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(final ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return replicaRoutingDataSource.lazy();
+    }
+
+    @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    public ReadYourWritesFilter readYourWritesFilter() {
+        return new ReadYourWritesFilter();
+    }
+}
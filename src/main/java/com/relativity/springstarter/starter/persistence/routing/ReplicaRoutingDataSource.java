@@ -0,0 +1,182 @@
+package com.relativity.springstarter.starter.persistence.routing;
+
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+/**
+ * {@link DataSource} routing the read-only transactions to read replicas and everything else to the
+ * primary data source.
+ *
+ * <p>
+ * The route is decided when the physical connection is obtained, so this data source must be
+ * wrapped in a {@link LazyConnectionDataSourceProxy} for the transaction read-only flag to be known
+ * at that time (see {@link #lazy()}). Once a read-write transaction commits, the read-only
+ * transactions of the same thread keep going to the primary data source for the read your writes
+ * window (see {@link ReadYourWrites}), so they do not miss the write on a lagging replica.
+ * </p>
+ *
+ * <p>
+ * This data source owns the primary and replica data sources and closes them with
+ * {@link #close()}.
+ * </p>
+ *
+ * @author avakhobov
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    /**
+     * The lookup key of the primary data source.
+     */
+    public static final String PRIMARY = "primary";
+
+    /**
+     * The lookup key prefix of the replica data sources.
+     */
+    public static final String REPLICA_PREFIX = "replica-";
+
+    /**
+     * The replica data sources, in lookup key order.
+     */
+    private final List<CountingDataSource> replicas = new ArrayList<>();
+
+    /**
+     * The replica selection strategy.
+     */
+    private final ReplicaBalancing balancing;
+
+    /**
+     * How long the reads are pinned to the primary data source after a write.
+     */
+    private final Duration readYourWritesWindow;
+
+    /**
+     * The next replica in turn.
+     */
+    private final AtomicInteger next = new AtomicInteger();
+
+    /**
+     * Create a {@link ReplicaRoutingDataSource}.
+     *
+     * @param primary the primary data source.
+     * @param replicas the replica data sources, the primary data source serves all the transactions
+     *        if empty.
+     * @param balancing the replica selection strategy.
+     * @param readYourWritesWindow how long the reads are pinned to the primary data source after a
+     *        write, {@link Duration#ZERO} to never pin reads.
+     */
+    public ReplicaRoutingDataSource(final DataSource primary, final List<DataSource> replicas,
+            final ReplicaBalancing balancing, final Duration readYourWritesWindow) {
+        super();
+        this.balancing = balancing;
+        this.readYourWritesWindow = readYourWritesWindow;
+
+        final Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (final DataSource replica : replicas) {
+            final CountingDataSource counting = new CountingDataSource(replica);
+            targets.put(REPLICA_PREFIX + this.replicas.size(), counting);
+            this.replicas.add(counting);
+        }
+
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    /**
+     * Wrap this data source so the physical connections are obtained on first use.
+     *
+     * @return the lazy connection data source.
+     */
+    public DataSource lazy() {
+        return new LazyConnectionDataSourceProxy(this);
+    }
+
+    /**
+     * Get the lookup key of the data source serving the current transaction.
+     *
+     * @return the lookup key of the data source serving the current transaction.
+     */
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (TransactionSynchronizationManager.isActualTransactionActive()
+                    && TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        ReadYourWrites.markWrite();
+                    }
+                });
+            }
+            return PRIMARY;
+        } else if (replicas.isEmpty() || ReadYourWrites.isPinned(readYourWritesWindow)) {
+            return PRIMARY;
+        }
+
+        return REPLICA_PREFIX + selectReplica();
+    }
+
+    /**
+     * Get the number of connections in use of each replica.
+     *
+     * @return the number of connections in use, in replica order.
+     */
+    public List<Integer> getReplicaActiveConnections() {
+        final List<Integer> active = new ArrayList<>(replicas.size());
+        for (final CountingDataSource replica : replicas) {
+            active.add(replica.getActive());
+        }
+
+        return Collections.unmodifiableList(active);
+    }
+
+    /**
+     * Close the primary and replica data sources.
+     *
+     * @throws Exception if a data source cannot be closed.
+     */
+    public void close() throws Exception {
+        for (final DataSource target : getResolvedDataSources().values()) {
+            final DataSource closed = target instanceof CountingDataSource
+                    ? ((CountingDataSource) target).getTargetDataSource()
+                    : target;
+
+            if (closed instanceof AutoCloseable) {
+                ((AutoCloseable) closed).close();
+            }
+        }
+    }
+
+    private int selectReplica() {
+        final int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+
+        if (balancing == ReplicaBalancing.ROUND_ROBIN) {
+            return start;
+        }
+
+        int selected = start;
+        for (int i = 1; i < replicas.size(); i++) {
+            final int candidate = (start + i) % replicas.size();
+
+            if (replicas.get(candidate).getActive() < replicas.get(selected).getActive()) {
+                selected = candidate;
+            }
+        }
+
+        return selected;
+    }
+}
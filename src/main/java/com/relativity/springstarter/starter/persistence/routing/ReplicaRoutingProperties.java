@@ -0,0 +1,188 @@
+package com.relativity.springstarter.starter.persistence.routing;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The {@link ReplicaRoutingDataSource} configuration properties.
+ *
+ * <p>
+ * The primary data source is configured through the usual {@code spring.datasource} properties.
+ * </p>
+ *
+ * @author avakhobov
+ */
+@ConfigurationProperties(prefix = "starter.persistence.routing")
+public class ReplicaRoutingProperties {
+
+    /**
+     * Whether read-only transactions are routed to the replicas.
+     */
+    private boolean enabled = false;
+
+    /**
+     * The read replicas.
+     */
+    private List<Replica> replicas = new ArrayList<>();
+
+    /**
+     * The replica selection strategy.
+     */
+    private ReplicaBalancing balancing = ReplicaBalancing.ROUND_ROBIN;
+
+    /**
+     * How long the reads of a request are pinned to the primary data source after a write, should
+     * exceed the usual replication lag.
+     */
+    private Duration readYourWritesWindow = Duration.ofSeconds(1);
+
+    /**
+     * Get the {@link #enabled}.
+     *
+     * @return the {@link #enabled}.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Set the {@link #enabled}.
+     *
+     * @param enabled the {@link #enabled} to set.
+     */
+    public void setEnabled(final boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Get the {@link #replicas}.
+     *
+     * @return the {@link #replicas}.
+     */
+    public List<Replica> getReplicas() {
+        return replicas;
+    }
+
+    /**
+     * Set the {@link #replicas}.
+     *
+     * @param replicas the {@link #replicas} to set.
+     */
+    public void setReplicas(final List<Replica> replicas) {
+        this.replicas = replicas;
+    }
+
+    /**
+     * Get the {@link #balancing}.
+     *
+     * @return the {@link #balancing}.
+     */
+    public ReplicaBalancing getBalancing() {
+        return balancing;
+    }
+
+    /**
+     * Set the {@link #balancing}.
+     *
+     * @param balancing the {@link #balancing} to set.
+     */
+    public void setBalancing(final ReplicaBalancing balancing) {
+        this.balancing = balancing;
+    }
+
+    /**
+     * Get the {@link #readYourWritesWindow}.
+     *
+     * @return the {@link #readYourWritesWindow}.
+     */
+    public Duration getReadYourWritesWindow() {
+        return readYourWritesWindow;
+    }
+
+    /**
+     * Set the {@link #readYourWritesWindow}.
+     *
+     * @param readYourWritesWindow the {@link #readYourWritesWindow} to set.
+     */
+    public void setReadYourWritesWindow(final Duration readYourWritesWindow) {
+        this.readYourWritesWindow = readYourWritesWindow;
+    }
+
+    /**
+     * The connection properties of a read replica.
+     */
+    public static class Replica {
+
+        /**
+         * The JDBC URL of the replica.
+         */
+        private String url;
+
+        /**
+         * The login username of the replica, defaults to the primary one.
+         */
+        private String username;
+
+        /**
+         * The login password of the replica, defaults to the primary one.
+         */
+        private String password;
+
+        /**
+         * Get the {@link #url}.
+         *
+         * @return the {@link #url}.
+         */
+        public String getUrl() {
+            return url;
+        }
+
+        /**
+         * Set the {@link #url}.
+         *
+         * @param url the {@link #url} to set.
+         */
+        public void setUrl(final String url) {
+            this.url = url;
+        }
+
+        /**
+         * Get the {@link #username}.
+         *
+         * @return the {@link #username}.
+         */
+        public String getUsername() {
+            return username;
+        }
+
+        /**
+         * Set the {@link #username}.
+         *
+         * @param username the {@link #username} to set.
+         */
+        public void setUsername(final String username) {
+            this.username = username;
+        }
+
+        /**
+         * Get the {@link #password}.
+         *
+         * @return the {@link #password}.
+         */
+        public String getPassword() {
+            return password;
+        }
+
+        /**
+         * Set the {@link #password}.
+         *
+         * @param password the {@link #password} to set.
+         */
+        public void setPassword(final String password) {
+            this.password = password;
+        }
+    }
+}
@@ -0,0 +1,6 @@
+/**
+ * Routing of the read-only transactions to read replicas.
+ *
+ * @author avakhobov
+ */
+package com.relativity.springstarter.starter.persistence.routing;
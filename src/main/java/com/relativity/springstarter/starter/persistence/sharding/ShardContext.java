@@ -0,0 +1,92 @@
+package com.relativity.springstarter.starter.persistence.sharding;
+
+import java.util.function.Supplier;
+
+/**
+ * The shard the database connections of the current thread are routed to.
+ *
+ * <p>
+ * The shard must be bound before the transaction starts, as the connection is obtained when it
+ * starts, and the transaction stays on that shard.
+ * </p>
+ *
+ * @author avakhobov
+ */
+public final class ShardContext {
+
+    /**
+     * The shard of the current thread, {@code null} if none.
+     */
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    private ShardContext() {
+        super();
+    }
+
+    /**
+     * Get the shard of the current thread.
+     *
+     * @return the shard name, {@code null} if none is bound.
+     */
+    public static String current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Run an action with a shard bound to the current thread, restoring the previous one afterwards.
+     *
+     * @param <V> the result type.
+     *
+     * @param shard the shard name.
+     * @param action the action.
+     *
+     * @return the action result.
+     */
+    public static <V> V call(final String shard, final Supplier<V> action) {
+        final String previous = bind(shard);
+        try {
+            return action.get();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    /**
+     * Run an action with a shard bound to the current thread, restoring the previous one afterwards.
+     *
+     * @param shard the shard name.
+     * @param action the action.
+     */
+    public static void run(final String shard, final Runnable action) {
+        call(shard, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * Bind a shard to the current thread.
+     *
+     * @param shard the shard name.
+     *
+     * @return the previously bound shard, to {@link #restore(String)} afterwards.
+     */
+    static String bind(final String shard) {
+        final String previous = CURRENT.get();
+        CURRENT.set(shard);
+        return previous;
+    }
+
+    /**
+     * Restore the shard bound before {@link #bind(String)}.
+     *
+     * @param previous the previously bound shard, {@code null} if none.
+     */
+    static void restore(final String previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+}
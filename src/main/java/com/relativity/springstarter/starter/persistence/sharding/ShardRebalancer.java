@@ -0,0 +1,355 @@
+package com.relativity.springstarter.starter.persistence.sharding;
+
+import com.relativity.springstarter.starter.persistence.AbstractGenericEntity;
+import com.relativity.springstarter.starter.persistence.Chunks;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.hibernate.persister.entity.EntityPersister;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.ByteBuffer;
+import java.sql.ResultSetMetaData;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+
+/**
+ * Moves the entities between the shards of a {@link ShardRoutingDataSource} when shards are added
+ * or removed, then switches the {@link ShardRouter} to the new {@link ShardRing}.
+ *
+ * <p>
+ * The entities are copied row by row with JDBC, so neither the entity listeners nor the audit trail
+ * see the move. For every shard, the entities whose owner now belongs to another shard are copied to
+ * it in one transaction, then deleted from their former shard in another. The references to a user
+ * of another owner, such as {@link AbstractGenericEntity#getCreatedBy()}, cannot cross the shards
+ * and are cleared. The rows already copied are skipped, so a failed rebalancing is completed by
+ * running it again. The writes must be stopped during the rebalancing, as they would be routed with
+ * the former ring until the switch.
+ * </p>
+ *
+ * @author avakhobov
+ */
+public class ShardRebalancer {
+
+    /**
+     * The logger.
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger(ShardRebalancer.class);
+
+    /**
+     * The router to switch.
+     */
+    private final ShardRouter router;
+
+    /**
+     * The shard data sources, by name.
+     */
+    private final Map<String, DataSource> shards;
+
+    /**
+     * The tables of the sharded entities.
+     */
+    private final List<ShardedTable> tables = new ArrayList<>();
+
+    /**
+     * Create a {@link ShardRebalancer}.
+     *
+     * @param router the router to switch.
+     * @param dataSource the data source of the shards.
+     * @param entityManagerFactory the entity manager factory, to find the tables of the entities.
+     */
+    public ShardRebalancer(final ShardRouter router, final ShardRoutingDataSource dataSource,
+            final EntityManagerFactory entityManagerFactory) {
+        super();
+        this.router = router;
+        this.shards = dataSource.getShards();
+
+        final Set<String> tableNames = new HashSet<>();
+        for (final EntityPersister persister : entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getMetamodel().entityPersisters().values()) {
+            if (AbstractGenericEntity.class.isAssignableFrom(persister.getMappedClass())
+                    && persister instanceof AbstractEntityPersister) {
+                final AbstractEntityPersister entity = (AbstractEntityPersister) persister;
+                if (tableNames.add(entity.getTableName())) {
+                    tables.add(new ShardedTable(entity));
+                }
+            }
+        }
+    }
+
+    /**
+     * Move the entities to the shards they belong to on a new ring, and route with it afterwards.
+     *
+     * @param shardNames the shards of the new ring, any of the configured shards.
+     *
+     * @return the number of moved entities.
+     *
+     * @throws IllegalArgumentException if a shard is not configured.
+     */
+    public int rebalance(final List<String> shardNames) {
+        for (final String shard : shardNames) {
+            if (!shards.containsKey(shard)) {
+                throw new IllegalArgumentException("Shard " + shard + " is not configured");
+            }
+        }
+
+        final ShardRing target = router.getRing().withShards(shardNames);
+        int moved = 0;
+        for (final ShardedTable table : tables) {
+            for (final String source : shards.keySet()) {
+                moved += move(table, source, target);
+            }
+        }
+
+        router.setRing(target);
+        LOGGER.info("Moved {} entities to rebalance the shards over {}", moved, target);
+        return moved;
+    }
+
+    /**
+     * Move the rows of a shard belonging to other shards on the target ring.
+     *
+     * @return the number of moved rows.
+     */
+    private int move(final ShardedTable table, final String source, final ShardRing target) {
+        final JdbcTemplate sourceJdbc = new JdbcTemplate(shards.get(source));
+        final Map<String, Map<UUID, Row>> moves = new LinkedHashMap<>();
+        final List<String> columns = new ArrayList<>();
+
+        sourceJdbc.query("SELECT * FROM " + table.name, resultSet -> {
+            final ResultSetMetaData metaData = resultSet.getMetaData();
+            if (columns.isEmpty()) {
+                for (int i = 1; i <= metaData.getColumnCount(); i++) {
+                    columns.add(metaData.getColumnLabel(i).toLowerCase(Locale.ROOT));
+                }
+            }
+
+            final Object[] values = new Object[columns.size()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = resultSet.getObject(i + 1);
+            }
+            final Row row = new Row(values, columns, table);
+            final String shard = target.shardOf(row.owner != null ? row.owner : row.id);
+            if (!shard.equals(source)) {
+                moves.computeIfAbsent(shard, key -> new LinkedHashMap<>()).put(row.id, row);
+            }
+        });
+
+        int moved = 0;
+        for (final Map.Entry<String, Map<UUID, Row>> move : moves.entrySet()) {
+            copy(table, columns, move.getKey(), move.getValue());
+            delete(table, sourceJdbc, source, move.getValue().values());
+            moved += move.getValue().size();
+        }
+
+        return moved;
+    }
+
+    /**
+     * Copy the rows to a shard, without their references first as they may refer to each other.
+     */
+    private void copy(final ShardedTable table, final List<String> columns, final String shard,
+            final Map<UUID, Row> rows) {
+        final DataSource dataSource = shards.get(shard);
+        final JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        final int[] references = { columns.indexOf(table.owner), columns.indexOf(table.createdBy),
+            columns.indexOf(table.modifiedBy) };
+
+        new TransactionTemplate(new DataSourceTransactionManager(dataSource)).executeWithoutResult(status -> {
+            final Set<UUID> copied = existing(table, jdbc, rows.values());
+            final List<Object[]> inserts = new ArrayList<>();
+            final List<Object[]> updates = new ArrayList<>();
+            for (final Row row : rows.values()) {
+                if (copied.contains(row.id)) {
+                    continue;
+                }
+
+                final Object[] values = row.values.clone();
+                final Object[] update = new Object[references.length + 1];
+                boolean referencing = false;
+                for (int i = 0; i < references.length; i++) {
+                    final Object reference = values[references[i]];
+                    values[references[i]] = null;
+                    // Only the references to the rows moving along are kept
+                    if (reference != null && rows.containsKey(toUuid(reference))) {
+                        update[i] = reference;
+                        referencing = true;
+                    }
+                }
+                update[references.length] = values[columns.indexOf(table.id)];
+
+                inserts.add(values);
+                if (referencing) {
+                    updates.add(update);
+                }
+            }
+
+            jdbc.batchUpdate("INSERT INTO " + table.name + " (" + String.join(", ", columns) + ") VALUES ("
+                    + placeholders(columns) + ")", inserts);
+            jdbc.batchUpdate("UPDATE " + table.name + " SET " + table.owner + " = ?, " + table.createdBy
+                    + " = ?, " + table.modifiedBy + " = ? WHERE " + table.id + " = ?", updates);
+        });
+    }
+
+    /**
+     * Get the rows already copied to a shard by a former rebalancing.
+     */
+    private static Set<UUID> existing(final ShardedTable table, final JdbcTemplate jdbc,
+            final Iterable<Row> rows) {
+        final List<Object> ids = new ArrayList<>();
+        rows.forEach(row -> ids.add(row.values[row.idIndex]));
+
+        final Set<UUID> existing = new HashSet<>();
+        for (final List<Object> chunk : Chunks.distinct(ids, Chunks.IN_CLAUSE_SIZE)) {
+            jdbc.query("SELECT " + table.id + " FROM " + table.name + " WHERE " + table.id + " IN ("
+                    + placeholders(chunk) + ")", resultSet -> {
+                        existing.add(toUuid(resultSet.getObject(1)));
+                    }, chunk.toArray());
+        }
+
+        return existing;
+    }
+
+    /**
+     * Delete the moved rows from their former shard, clearing the references to them first.
+     */
+    private void delete(final ShardedTable table, final JdbcTemplate jdbc, final String shard,
+            final Iterable<Row> rows) {
+        final List<Object> ids = new ArrayList<>();
+        rows.forEach(row -> ids.add(row.values[row.idIndex]));
+
+        new TransactionTemplate(new DataSourceTransactionManager(shards.get(shard))).executeWithoutResult(
+                status -> {
+                    final List<List<Object>> chunks = Chunks.distinct(ids, Chunks.IN_CLAUSE_SIZE);
+                    for (final String reference : Arrays.asList(table.owner, table.createdBy,
+                            table.modifiedBy)) {
+                        for (final List<Object> chunk : chunks) {
+                            jdbc.update("UPDATE " + table.name + " SET " + reference + " = NULL, "
+                                    + table.version + " = " + table.version + " + 1 WHERE " + reference
+                                    + " IN (" + placeholders(chunk) + ")", chunk.toArray());
+                        }
+                    }
+                    for (final List<Object> chunk : chunks) {
+                        jdbc.update("DELETE FROM " + table.name + " WHERE " + table.id + " IN ("
+                                + placeholders(chunk) + ")", chunk.toArray());
+                    }
+                });
+    }
+
+    private static String placeholders(final List<?> values) {
+        return String.join(", ", Collections.nCopies(values.size(), "?"));
+    }
+
+    /**
+     * Read an identifier column, stored as a UUID, as 16 bytes or as text depending on the database.
+     */
+    private static UUID toUuid(final Object value) {
+        if (value instanceof UUID) {
+            return (UUID) value;
+        }
+        if (value instanceof byte[]) {
+            final ByteBuffer bytes = ByteBuffer.wrap((byte[]) value);
+            return new UUID(bytes.getLong(), bytes.getLong());
+        }
+        return UUID.fromString(value.toString());
+    }
+
+    /**
+     * The table and the reference columns of a sharded entity.
+     */
+    private static final class ShardedTable {
+
+        /**
+         * The table name.
+         */
+        private final String name;
+
+        /**
+         * The identifier column.
+         */
+        private final String id;
+
+        /**
+         * The owner column.
+         */
+        private final String owner;
+
+        /**
+         * The creator column.
+         */
+        private final String createdBy;
+
+        /**
+         * The last modifier column.
+         */
+        private final String modifiedBy;
+
+        /**
+         * The version column.
+         */
+        private final String version;
+
+        ShardedTable(final AbstractEntityPersister persister) {
+            this.name = persister.getTableName();
+            this.id = persister.getIdentifierColumnNames()[0].toLowerCase(Locale.ROOT);
+            this.owner = column(persister, AbstractGenericEntity.OWNER_FIELD);
+            this.createdBy = column(persister, AbstractGenericEntity.CREATED_BY_FIELD);
+            this.modifiedBy = column(persister, AbstractGenericEntity.MODIFIED_BY_FIELD);
+            this.version = column(persister, AbstractGenericEntity.VERSION_FIELD);
+        }
+
+        private static String column(final AbstractEntityPersister persister, final String property) {
+            return persister.getPropertyColumnNames(property)[0].toLowerCase(Locale.ROOT);
+        }
+    }
+
+    /**
+     * A row of a sharded table.
+     */
+    private static final class Row {
+
+        /**
+         * The column values.
+         */
+        private final Object[] values;
+
+        /**
+         * The index of the identifier column.
+         */
+        private final int idIndex;
+
+        /**
+         * The row identifier.
+         */
+        private final UUID id;
+
+        /**
+         * The owner identifier, {@code null} if none.
+         */
+        private final UUID owner;
+
+        Row(final Object[] values, final List<String> columns, final ShardedTable table) {
+            this.values = values;
+            this.idIndex = columns.indexOf(table.id);
+            this.id = toUuid(values[idIndex]);
+
+            final Object ownerValue = values[columns.indexOf(table.owner)];
+            this.owner = ownerValue != null ? toUuid(ownerValue) : null;
+        }
+    }
+}
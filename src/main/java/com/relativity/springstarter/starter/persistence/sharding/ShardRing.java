@@ -0,0 +1,134 @@
+package com.relativity.springstarter.starter.persistence.sharding;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Consistent hashing of the owner identifiers to shards.
+ *
+ * <p>
+ * Every shard is placed at {@link #virtualNodes} points of a ring of 64-bit hashes, and a key
+ * belongs to the shard of the first point following its hash. Adding or removing a shard only moves
+ * the keys of the points it gains or loses, about one shard share of the keys, see
+ * {@link ShardRebalancer}. The points only depend on the shard names, so every application instance
+ * computes the same ring.
+ * </p>
+ *
+ * @author avakhobov
+ */
+public final class ShardRing {
+
+    /**
+     * The default number of points of a shard.
+     */
+    public static final int DEFAULT_VIRTUAL_NODES = 128;
+
+    /**
+     * The shard names, in configuration order.
+     */
+    private final List<String> shards;
+
+    /**
+     * The number of points of a shard.
+     */
+    private final int virtualNodes;
+
+    /**
+     * The shard names by point.
+     */
+    private final NavigableMap<Long, String> ring = new TreeMap<>();
+
+    /**
+     * Create a {@link ShardRing}.
+     *
+     * @param shards the shard names.
+     * @param virtualNodes the number of points of a shard, the more the more even the distribution.
+     *
+     * @throws IllegalArgumentException if there is no shard, a shard is listed twice, or
+     *         {@code virtualNodes} is less than one.
+     */
+    public ShardRing(final List<String> shards, final int virtualNodes) {
+        super();
+        if (shards.isEmpty()) {
+            throw new IllegalArgumentException("At least one shard is required");
+        }
+        if (virtualNodes < 1) {
+            throw new IllegalArgumentException("Virtual nodes must not be less than one");
+        }
+        this.shards = Collections.unmodifiableList(new ArrayList<>(shards));
+        this.virtualNodes = virtualNodes;
+
+        for (final String shard : shards) {
+            if (ring.containsValue(shard)) {
+                throw new IllegalArgumentException("Shard " + shard + " is listed twice");
+            }
+            for (int i = 0; i < virtualNodes; i++) {
+                final UUID point = UUID.nameUUIDFromBytes((shard + '#' + i).getBytes(StandardCharsets.UTF_8));
+                // A point colliding with another shard one is dropped, the key it would own falls to the next
+                ring.putIfAbsent(hash(point), shard);
+            }
+        }
+    }
+
+    /**
+     * Get the shard of a key.
+     *
+     * @param key the key, an owner identifier.
+     *
+     * @return the shard name.
+     */
+    public String shardOf(final UUID key) {
+        final Map.Entry<Long, String> point = ring.ceilingEntry(hash(key));
+        return point != null ? point.getValue() : ring.firstEntry().getValue();
+    }
+
+    /**
+     * Get a ring with the same number of points per shard over other shards.
+     *
+     * @param shardNames the shard names.
+     *
+     * @return the ring.
+     */
+    public ShardRing withShards(final List<String> shardNames) {
+        return new ShardRing(shardNames, virtualNodes);
+    }
+
+    /**
+     * Get the {@link #shards}.
+     *
+     * @return the {@link #shards}.
+     */
+    public List<String> getShards() {
+        return shards;
+    }
+
+    /**
+     * Get the {@link #virtualNodes}.
+     *
+     * @return the {@link #virtualNodes}.
+     */
+    public int getVirtualNodes() {
+        return virtualNodes;
+    }
+
+    /**
+     * Hash a key over 64 bits, spreading the time ordered identifiers whose high bits are close.
+     */
+    private static long hash(final UUID key) {
+        long hash = key.getMostSignificantBits() * 0x9E3779B97F4A7C15L ^ key.getLeastSignificantBits();
+        hash = (hash ^ (hash >>> 30)) * 0xBF58476D1CE4E5B9L;
+        hash = (hash ^ (hash >>> 27)) * 0x94D049BB133111EBL;
+        return hash ^ (hash >>> 31);
+    }
+
+    @Override
+    public String toString() {
+        return "ShardRing" + shards;
+    }
+}
@@ -0,0 +1,214 @@
+package com.relativity.springstarter.starter.persistence.sharding;
+
+import com.relativity.springstarter.starter.persistence.AbstractGenericEntity;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Routes the entities to their shard, and runs the queries spanning several shards.
+ *
+ * <p>
+ * The entities of an owner, and the owner itself, live on the shard of the owner identifier, so the
+ * owner scoped queries run on a single shard. The other queries are scattered to every shard, on up
+ * to {@link #executor parallelism} threads, and their results gathered, see
+ * {@link ShardingInterceptor}.
+ * </p>
+ *
+ * @author avakhobov
+ */
+public class ShardRouter {
+
+    /**
+     * The current shard ring, replaced once the entities are moved by a {@link ShardRebalancer}.
+     */
+    private volatile ShardRing ring;
+
+    /**
+     * The executor of the scattered queries.
+     */
+    private final ExecutorService executor;
+
+    /**
+     * Create a {@link ShardRouter}.
+     *
+     * @param ring the shard ring.
+     * @param parallelism the number of shards queried at the same time.
+     */
+    public ShardRouter(final ShardRing ring, final int parallelism) {
+        super();
+        this.ring = ring;
+
+        final AtomicInteger threads = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+            final Thread thread = new Thread(runnable, "shard-query-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Get the shard of an owner.
+     *
+     * @param ownerId the owner identifier.
+     *
+     * @return the shard name.
+     */
+    public String shardOf(final UUID ownerId) {
+        return ring.shardOf(ownerId);
+    }
+
+    /**
+     * Get the shard of an entity: the shard of its owner, or its own shard if it has no owner.
+     *
+     * @param entity the entity.
+     *
+     * @return the shard name.
+     */
+    public String shardOf(final AbstractGenericEntity entity) {
+        return shardOf(routingKey(entity));
+    }
+
+    /**
+     * Run an action on the shard of an owner, for example a transaction spanning several repository
+     * calls.
+     *
+     * @param <V> the result type.
+     *
+     * @param ownerId the owner identifier.
+     * @param action the action.
+     *
+     * @return the action result.
+     */
+    public <V> V callInShardOf(final UUID ownerId, final Supplier<V> action) {
+        return ShardContext.call(shardOf(ownerId), action);
+    }
+
+    /**
+     * Run a task on every shard and gather the results.
+     *
+     * @param <V> the result type.
+     *
+     * @param shards the shards to run the task on.
+     * @param task the task.
+     * @param parallel whether the shards are queried at the same time, otherwise one after the other on
+     *        the calling thread.
+     *
+     * @return the results, in the order of {@code shards}.
+     *
+     * @throws Throwable the first failure of a shard, the results of the other shards are discarded.
+     */
+    public <V> List<V> scatter(final List<String> shards, final ShardTask<V> task, final boolean parallel)
+            throws Throwable {
+        final List<V> results = new ArrayList<>(shards.size());
+        if (!parallel || shards.size() == 1) {
+            for (final String shard : shards) {
+                results.add(run(shard, task));
+            }
+            return results;
+        }
+
+        final List<Future<V>> futures = new ArrayList<>(shards.size());
+        try {
+            for (final String shard : shards) {
+                futures.add(executor.submit(() -> {
+                    try {
+                        return run(shard, task);
+                    } catch (final Exception | Error e) {
+                        throw e;
+                    } catch (final Throwable e) {
+                        throw new ExecutionException(e);
+                    }
+                }));
+            }
+            for (final Future<V> future : futures) {
+                results.add(future.get());
+            }
+        } catch (final ExecutionException e) {
+            // Unwrap the failure of the task, once more if it was not an exception nor an error
+            final Throwable cause = e.getCause();
+            throw cause instanceof ExecutionException && cause.getCause() != null ? cause.getCause() : cause;
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw e;
+        } finally {
+            for (final Future<V> future : futures) {
+                future.cancel(true);
+            }
+        }
+
+        return results;
+    }
+
+    /**
+     * Get the {@link #ring}.
+     *
+     * @return the {@link #ring}.
+     */
+    public ShardRing getRing() {
+        return ring;
+    }
+
+    /**
+     * Set the {@link #ring}.
+     *
+     * @param ring the {@link #ring} to set.
+     */
+    public void setRing(final ShardRing ring) {
+        this.ring = ring;
+    }
+
+    /**
+     * Stop the threads of the scattered queries.
+     */
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Get the key an entity is routed with: the identifier of its owner, or its own identifier.
+     *
+     * @param entity the entity.
+     *
+     * @return the routing key.
+     */
+    static UUID routingKey(final AbstractGenericEntity entity) {
+        return entity.getOwner() != null ? entity.getOwner().getId() : entity.getId();
+    }
+
+    private static <V> V run(final String shard, final ShardTask<V> task) throws Throwable {
+        final String previous = ShardContext.bind(shard);
+        try {
+            return task.run(shard);
+        } finally {
+            ShardContext.restore(previous);
+        }
+    }
+
+    /**
+     * A task run on a shard.
+     *
+     * @param <V> the result type.
+     */
+    @FunctionalInterface
+    public interface ShardTask<V> {
+
+        /**
+         * Run the task, with the shard bound to the current thread.
+         *
+         * @param shard the shard name.
+         *
+         * @return the result.
+         *
+         * @throws Throwable if the task failed.
+         */
+        V run(String shard) throws Throwable;
+    }
+}
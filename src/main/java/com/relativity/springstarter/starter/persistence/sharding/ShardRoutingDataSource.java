@@ -0,0 +1,83 @@
+package com.relativity.springstarter.starter.persistence.sharding;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+/**
+ * {@link DataSource} routing the connections to the {@link ShardContext#current() current shard},
+ * or to the default shard, the first one, when none is bound.
+ *
+ * <p>
+ * This data source owns the shard data sources and closes them with {@link #close()}.
+ * </p>
+ *
+ * @author avakhobov
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource {
+
+    /**
+     * The shard data sources, by name in configuration order.
+     */
+    private final Map<String, DataSource> shards;
+
+    /**
+     * Create a {@link ShardRoutingDataSource}.
+     *
+     * @param shards the shard data sources, by name in configuration order.
+     *
+     * @throws IllegalArgumentException if {@code shards} is empty.
+     */
+    public ShardRoutingDataSource(final Map<String, DataSource> shards) {
+        super();
+        if (shards.isEmpty()) {
+            throw new IllegalArgumentException("At least one shard is required");
+        }
+        this.shards = Collections.unmodifiableMap(new LinkedHashMap<>(shards));
+
+        setTargetDataSources(new LinkedHashMap<>(shards));
+        setDefaultTargetDataSource(shards.values().iterator().next());
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return ShardContext.current();
+    }
+
+    /**
+     * Get the {@link #shards}.
+     *
+     * @return the {@link #shards}.
+     */
+    public Map<String, DataSource> getShards() {
+        return shards;
+    }
+
+    /**
+     * Get the name of the default shard, used when no shard is bound.
+     *
+     * @return the default shard name.
+     */
+    public String getDefaultShard() {
+        return shards.keySet().iterator().next();
+    }
+
+    /**
+     * Close the shard data sources.
+     *
+     * @throws Exception if a data source cannot be closed.
+     */
+    public void close() throws Exception {
+        for (final DataSource shard : shards.values()) {
+            if (shard instanceof AutoCloseable) {
+                ((AutoCloseable) shard).close();
+            }
+        }
+    }
+}
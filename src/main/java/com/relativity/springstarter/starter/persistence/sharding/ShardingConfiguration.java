@@ -0,0 +1,207 @@
+package com.relativity.springstarter.starter.persistence.sharding;
+
+import com.relativity.springstarter.starter.persistence.GenericRepository;
+import com.relativity.springstarter.starter.persistence.HibernateIntegrators;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import org.hibernate.boot.Metadata;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+import org.hibernate.tool.schema.spi.DelayedDropAction;
+import org.hibernate.tool.schema.spi.SchemaManagementToolCoordinator;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+
+/**
+ * The sharding configuration, replacing the auto-configured data source with a
+ * {@link ShardRoutingDataSource} when the {@value #ENABLED_PROPERTY} property is {@code true}.
+ *
+ * <p>
+ * A {@link ShardingInterceptor} is added first to the {@link GenericRepository} proxies, the other
+ * repositories, such as the audit trail one, stay on the default shard as do the audit writer and
+ * the outbox relay: the outbox is only relayed from the default shard. The schema is managed on every
+ * shard as configured with {@code spring.jpa.hibernate.ddl-auto}, and the connections are released
+ * after each transaction so a persistence context spanning several transactions, as with
+ * {@code spring.jpa.open-in-view}, follows the shards. Not compatible with the replica routing.
+ * </p>
+ *
+ * <p>
+ * The uniqueness of the usernames and emails is only enforced within a shard by the database. The
+ * foreign keys are kept on every shard, so the references to a user cannot cross the shards: the
+ * entities added with a creator or modifier of another shard are rejected, see
+ * {@link ShardingInterceptor}, and the users referencing a user of another owner lose the reference
+ * when moved, see {@link ShardRebalancer}.
+ * </p>
+ *
+ * @author avakhobov
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties({ DataSourceProperties.class, ShardingProperties.class })
+@ConditionalOnProperty(name = ShardingConfiguration.ENABLED_PROPERTY, havingValue = "true")
+public class ShardingConfiguration {
+
+    /**
+     * The sharding activation property.
+     */
+    public static final String ENABLED_PROPERTY = "starter.persistence.sharding.enabled";
+
+    @Bean
+    public static ShardingPostProcessor shardingPostProcessor(final ObjectProvider<ShardRouter> router,
+            final ObjectProvider<PlatformTransactionManager> transactionManager) {
+        return new ShardingPostProcessor(router, transactionManager);
+    }
+
+    @Bean
+    public ShardRoutingDataSource shardRoutingDataSource(final DataSourceProperties primary,
+            final ShardingProperties properties) {
+        final Map<String, DataSource> shards = new LinkedHashMap<>();
+        shards.put(properties.getDefaultShard(),
+                primary.initializeDataSourceBuilder().type(HikariDataSource.class).build());
+        for (final ShardingProperties.Shard shard : properties.getShards()) {
+            if (shards.containsKey(shard.getName())) {
+                throw new IllegalArgumentException("Shard " + shard.getName() + " is listed twice");
+            }
+            shards.put(shard.getName(), DataSourceBuilder.create().type(HikariDataSource.class)
+                    .url(shard.getUrl())
+                    .username(StringUtils.hasText(shard.getUsername()) ? shard.getUsername()
+                            : primary.determineUsername())
+                    .password(shard.getPassword() != null ? shard.getPassword()
+                            : primary.determinePassword())
+                    .build());
+        }
+
+        return new ShardRoutingDataSource(shards);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(final ShardRoutingDataSource shardRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(shardRoutingDataSource);
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public ShardRouter shardRouter(final ShardRoutingDataSource shardRoutingDataSource,
+            final ShardingProperties properties) {
+        return new ShardRouter(new ShardRing(new ArrayList<>(shardRoutingDataSource.getShards().keySet()),
+                properties.getVirtualNodes()), properties.getParallelism());
+    }
+
+    @Bean
+    public ShardRebalancer shardRebalancer(final ShardRouter shardRouter,
+            final ShardRoutingDataSource shardRoutingDataSource,
+            final EntityManagerFactory entityManagerFactory) {
+        return new ShardRebalancer(shardRouter, shardRoutingDataSource, entityManagerFactory);
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer shardingCustomizer(
+            final ShardRoutingDataSource shardRoutingDataSource) {
+        final List<String> shards = new ArrayList<>(shardRoutingDataSource.getShards().keySet());
+        return properties -> {
+            properties.put(AvailableSettings.CONNECTION_HANDLING,
+                    PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+            HibernateIntegrators.add(properties, new ShardSchemaIntegrator(shards.subList(1, shards.size())));
+        };
+    }
+
+    /**
+     * Adds a {@link ShardingInterceptor} to the {@link GenericRepository} proxies.
+     */
+    static class ShardingPostProcessor implements BeanPostProcessor {
+
+        /**
+         * The router, resolved when the repositories are created.
+         */
+        private final ObjectProvider<ShardRouter> router;
+
+        /**
+         * The transaction manager, resolved when the shards are streamed.
+         */
+        private final ObjectProvider<PlatformTransactionManager> transactionManager;
+
+        ShardingPostProcessor(final ObjectProvider<ShardRouter> router,
+                final ObjectProvider<PlatformTransactionManager> transactionManager) {
+            this.router = router;
+            this.transactionManager = transactionManager;
+        }
+
+        @Override
+        public Object postProcessBeforeInitialization(final Object bean, final String beanName) {
+            if (bean instanceof RepositoryFactoryBeanSupport) {
+                ((RepositoryFactoryBeanSupport<?, ?, ?>) bean).addRepositoryFactoryCustomizer(
+                        factory -> factory.addRepositoryProxyPostProcessor((proxy, information) -> {
+                            if (GenericRepository.class.isAssignableFrom(information.getRepositoryInterface())) {
+                                // Before the transaction interceptor, to bind the shard first
+                                proxy.addAdvice(0, new ShardingInterceptor(router.getObject(),
+                                        transactionManager));
+                            }
+                        }));
+            }
+
+            return bean;
+        }
+    }
+
+    /**
+     * Manages the schema of the shards other than the default one, which Hibernate manages itself.
+     */
+    static class ShardSchemaIntegrator implements Integrator {
+
+        /**
+         * The shards other than the default one.
+         */
+        private final List<String> shards;
+
+        /**
+         * The schema drops to run on close, by shard.
+         */
+        private final Map<String, List<DelayedDropAction>> drops = new LinkedHashMap<>();
+
+        ShardSchemaIntegrator(final List<String> shards) {
+            this.shards = shards;
+        }
+
+        @Override
+        public void integrate(final Metadata metadata, final SessionFactoryImplementor sessionFactory,
+                final SessionFactoryServiceRegistry serviceRegistry) {
+            for (final String shard : shards) {
+                final List<DelayedDropAction> shardDrops = new ArrayList<>();
+                ShardContext.run(shard, () -> SchemaManagementToolCoordinator.process(metadata,
+                        serviceRegistry, sessionFactory.getProperties(), shardDrops::add));
+                drops.put(shard, shardDrops);
+            }
+        }
+
+        @Override
+        public void disintegrate(final SessionFactoryImplementor sessionFactory,
+                final SessionFactoryServiceRegistry serviceRegistry) {
+            drops.forEach((shard, shardDrops) -> ShardContext.run(shard,
+                    () -> shardDrops.forEach(drop -> drop.perform(serviceRegistry))));
+            drops.clear();
+        }
+    }
+}
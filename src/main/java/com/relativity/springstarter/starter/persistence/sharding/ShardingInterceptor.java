@@ -0,0 +1,641 @@
+package com.relativity.springstarter.starter.persistence.sharding;
+
+import com.relativity.springstarter.starter.persistence.AbstractGenericEntity;
+import com.relativity.springstarter.starter.persistence.KeysetCursor;
+import com.relativity.springstarter.starter.persistence.KeysetPage;
+import com.relativity.springstarter.starter.persistence.KeysetPageRequest;
+import com.relativity.springstarter.starter.persistence.id.IdGenerators;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.hibernate.Hibernate;
+import org.springframework.aop.ProxyMethodInvocation;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.PropertyAccessorFactory;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Routes the repository method calls to the shards of a {@link ShardRouter}.
+ *
+ * <p>
+ * Added first to the repository proxies, so the shard is bound before the transaction starts and
+ * the calls between repository methods, such as the default methods, stay on their shard:
+ * </p>
+ * <ul>
+ * <li>the owner scoped methods, named with {@code Owner}, run on the shard of the owner, their last
+ * entity argument;</li>
+ * <li>the added and saved entities go to the shard of their owner, or to their own shard if they
+ * have no owner, in which case their identifier is assigned beforehand, and the entities of a batch
+ * are grouped by shard. Their {@code owner}, {@code createdBy} and {@code modifiedBy} must live on
+ * the same shard, as the foreign keys do not cross the shards, and are otherwise rejected with an
+ * {@link InvalidDataAccessApiUsageException} before anything is written;</li>
+ * <li>the other methods are scattered to every shard and their results gathered: lists are
+ * concatenated, sorted and sliced again by the {@link Sort} or {@link Pageable} argument, except the
+ * lists of {@link Optional}s, one per looked up key, merged position by position, pages and
+ * {@link KeysetPage}s merged, counts summed, the first found entity returned. Each shard is queried
+ * with the whole requested range, {@code offset + size} entities, so deep pages cost more than on a
+ * single database. The methods taking a {@link Consumer} run on one shard after the other, on the
+ * calling thread, and the streams are concatenated, each shard being streamed in turn within its own
+ * read-only transaction, so they must be called outside of a transaction and closed once
+ * consumed.</li>
+ * </ul>
+ *
+ * <p>
+ * A scattered write, such as {@code update}, {@code deleteById} or {@code setEnabled} of several
+ * users, runs one transaction per shard and is not atomic across shards: when a shard fails, the
+ * changes of the shards already committed stay. Bind a shard to write atomically. The nulls are
+ * taken as sorted higher than any value, as on PostgreSQL, unless the order says otherwise.
+ * </p>
+ *
+ * @author avakhobov
+ */
+public class ShardingInterceptor implements MethodInterceptor {
+
+    /**
+     * The order of the {@link KeysetPage}s.
+     */
+    private static final Comparator<Object> KEYSET_ORDER = comparator(
+            Sort.by(AbstractGenericEntity.CREATED_AT_FIELD, AbstractGenericEntity.ID_PROPERTY));
+
+    /**
+     * The router of the calls.
+     */
+    private final ShardRouter router;
+
+    /**
+     * The transaction manager provider, starting the transaction of each streamed shard.
+     */
+    private final ObjectProvider<PlatformTransactionManager> transactionManager;
+
+    /**
+     * Create a {@link ShardingInterceptor}.
+     *
+     * @param router the router of the calls.
+     * @param transactionManager the transaction manager provider.
+     */
+    public ShardingInterceptor(final ShardRouter router,
+            final ObjectProvider<PlatformTransactionManager> transactionManager) {
+        super();
+        this.router = router;
+        this.transactionManager = transactionManager;
+    }
+
+    @Override
+    public Object invoke(final MethodInvocation invocation) throws Throwable {
+        final String ownerShard = ownerShard(invocation);
+        final String bound = ShardContext.current();
+
+        if (bound != null) {
+            if (ownerShard != null && !ownerShard.equals(bound)) {
+                throw new InvalidDataAccessApiUsageException("The owner of "
+                        + invocation.getMethod().getName() + " lives on shard " + ownerShard
+                        + ", not on the bound shard " + bound);
+            }
+            return invocation.proceed();
+        }
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new InvalidDataAccessApiUsageException("A sharded repository cannot be called"
+                    + " within a transaction without a shard, bind one with ShardContext or"
+                    + " ShardRouter.callInShardOf");
+        }
+
+        if (ownerShard != null) {
+            return proceed(ownerShard, invocation);
+        }
+
+        final Object[] arguments = invocation.getArguments();
+        if (arguments.length == 1 && arguments[0] instanceof AbstractGenericEntity) {
+            final AbstractGenericEntity entity = (AbstractGenericEntity) arguments[0];
+            if (isAdd(invocation)) {
+                return proceed(shardOfNew(entity), invocation);
+            }
+        }
+        if (arguments.length >= 1 && arguments[0] instanceof Iterable && isAdd(invocation)) {
+            return addAll(invocation);
+        }
+
+        return scatter(invocation);
+    }
+
+    /**
+     * Get the shard of the owner of an owner scoped call.
+     *
+     * @return the shard name, {@code null} if the call is not owner scoped.
+     */
+    private String ownerShard(final MethodInvocation invocation) {
+        if (!invocation.getMethod().getName().contains("Owner")) {
+            return null;
+        }
+
+        final Object[] arguments = invocation.getArguments();
+        for (int i = arguments.length - 1; i >= 0; i--) {
+            if (arguments[i] instanceof AbstractGenericEntity) {
+                final UUID ownerId = ((AbstractGenericEntity) arguments[i]).getId();
+                return ownerId != null ? router.shardOf(ownerId) : null;
+            }
+        }
+
+        return null;
+    }
+
+    private static boolean isAdd(final MethodInvocation invocation) {
+        final String name = invocation.getMethod().getName();
+        return name.startsWith("add") || name.startsWith("save");
+    }
+
+    /**
+     * Get the shard of an entity to add, assigning the identifier of an entity without owner.
+     *
+     * @throws InvalidDataAccessApiUsageException if the entity references a user of another shard.
+     */
+    private String shardOfNew(final AbstractGenericEntity entity) {
+        if (entity.getOwner() == null && entity.getId() == null) {
+            entity.setId(IdGenerators.generate(entity.getClass()));
+        }
+
+        final String shard = router.shardOf(entity);
+        checkReference(entity, AbstractGenericEntity.OWNER_FIELD, entity.getOwner(), shard);
+        checkReference(entity, AbstractGenericEntity.CREATED_BY_FIELD, entity.getCreatedBy(), shard);
+        checkReference(entity, AbstractGenericEntity.MODIFIED_BY_FIELD, entity.getModifiedBy(), shard);
+        return shard;
+    }
+
+    /**
+     * Reject a reference to a user of another shard, which the foreign keys of the shard cannot
+     * resolve. The uninitialized references are left to the foreign keys, their owner is unknown.
+     */
+    private void checkReference(final AbstractGenericEntity entity, final String field,
+            final AbstractGenericEntity reference, final String shard) {
+        if (reference == null || !Hibernate.isInitialized(reference)) {
+            return;
+        }
+
+        final String referenceShard = router.shardOf(reference);
+        if (!shard.equals(referenceShard)) {
+            throw new InvalidDataAccessApiUsageException("The " + field + " of "
+                    + entity.getClass().getSimpleName() + " " + entity.getId() + " lives on shard "
+                    + referenceShard + ", references cannot cross the shard " + shard);
+        }
+    }
+
+    private static Object proceed(final String shard, final MethodInvocation invocation) throws Throwable {
+        final String previous = ShardContext.bind(shard);
+        try {
+            return invocation.proceed();
+        } finally {
+            ShardContext.restore(previous);
+        }
+    }
+
+    /**
+     * Add a batch of entities, one batch per shard, and return the saved entities if any in the order
+     * of the batch.
+     */
+    private Object addAll(final MethodInvocation invocation) throws Throwable {
+        final Map<String, List<Object>> entities = new LinkedHashMap<>();
+        final Map<String, List<Integer>> positions = new LinkedHashMap<>();
+        int position = 0;
+        for (final Object entity : (Iterable<?>) invocation.getArguments()[0]) {
+            final String shard = shardOfNew((AbstractGenericEntity) entity);
+            entities.computeIfAbsent(shard, key -> new ArrayList<>()).add(entity);
+            positions.computeIfAbsent(shard, key -> new ArrayList<>()).add(position++);
+        }
+
+        final List<String> shards = new ArrayList<>(entities.keySet());
+        final List<Object> results = router.scatter(shards, shard -> {
+            final Object[] arguments = invocation.getArguments().clone();
+            arguments[0] = entities.get(shard);
+            return ((ProxyMethodInvocation) invocation).invocableClone(arguments).proceed();
+        }, true);
+
+        if (!List.class.isAssignableFrom(invocation.getMethod().getReturnType())) {
+            return null;
+        }
+        final Object[] saved = new Object[position];
+        for (int i = 0; i < shards.size(); i++) {
+            final List<?> shardSaved = (List<?>) results.get(i);
+            final List<Integer> shardPositions = positions.get(shards.get(i));
+            for (int j = 0; j < shardSaved.size(); j++) {
+                saved[shardPositions.get(j)] = shardSaved.get(j);
+            }
+        }
+        final List<Object> merged = new ArrayList<>(position);
+        for (final Object entity : saved) {
+            merged.add(entity);
+        }
+        return merged;
+    }
+
+    /**
+     * Run a call on every shard and merge the results.
+     */
+    private Object scatter(final MethodInvocation invocation) throws Throwable {
+        final Class<?> returnType = invocation.getMethod().getReturnType();
+        if (Stream.class.isAssignableFrom(returnType)) {
+            final ShardStreams streams = new ShardStreams(invocation);
+            return StreamSupport.stream(streams, false).onClose(streams::close);
+        }
+
+        final Object[] arguments = invocation.getArguments().clone();
+        boolean parallel = true;
+        Pageable pageable = null;
+        Sort sort = Sort.unsorted();
+        for (int i = 0; i < arguments.length; i++) {
+            if (arguments[i] instanceof Consumer) {
+                parallel = false;
+            } else if (arguments[i] instanceof Sort) {
+                sort = (Sort) arguments[i];
+            } else if (arguments[i] instanceof Pageable && ((Pageable) arguments[i]).isPaged()) {
+                // Every shard returns the whole range, merged and sliced afterwards
+                pageable = (Pageable) arguments[i];
+                sort = pageable.getSort();
+                arguments[i] = PageRequest.of(0, (int) pageable.getOffset() + pageable.getPageSize(), sort);
+            }
+        }
+
+        final List<Object> results = router.scatter(router.getRing().getShards(), shard -> {
+            try {
+                return ((ProxyMethodInvocation) invocation).invocableClone(arguments).proceed();
+            } catch (final EmptyResultDataAccessException e) {
+                return new Missing(e);
+            }
+        }, parallel);
+
+        final List<Object> found = new ArrayList<>(results.size());
+        for (final Object result : results) {
+            if (!(result instanceof Missing)) {
+                found.add(result);
+            }
+        }
+        if (found.isEmpty()) {
+            // Not found on any shard
+            throw ((Missing) results.get(0)).exception;
+        }
+
+        if (isPerKey(invocation.getMethod())) {
+            return mergePerKey(found);
+        }
+        return merge(returnType, found, sort, pageable, arguments);
+    }
+
+    /**
+     * Tests if a method returns a {@link List} of {@link Optional}s, one per looked up key.
+     */
+    private static boolean isPerKey(final Method method) {
+        final Type returnType = method.getGenericReturnType();
+        if (!(returnType instanceof ParameterizedType)
+                || ((ParameterizedType) returnType).getRawType() != List.class) {
+            return false;
+        }
+
+        final Type element = ((ParameterizedType) returnType).getActualTypeArguments()[0];
+        return element instanceof ParameterizedType
+                && ((ParameterizedType) element).getRawType() == Optional.class;
+    }
+
+    /**
+     * Merge the lists of {@link Optional}s of the shards, keeping at each position the value found.
+     */
+    @SuppressWarnings("unchecked")
+    private static List<Optional<?>> mergePerKey(final List<Object> results) {
+        final List<Optional<?>> merged = new ArrayList<>((List<Optional<?>>) results.get(0));
+        for (final Object result : results.subList(1, results.size())) {
+            final List<Optional<?>> values = (List<Optional<?>>) result;
+            for (int i = 0; i < values.size(); i++) {
+                if (values.get(i).isPresent()) {
+                    merged.set(i, values.get(i));
+                }
+            }
+        }
+        return merged;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Object merge(final Class<?> returnType, final List<Object> results, final Sort sort,
+            final Pageable pageable, final Object[] arguments) {
+        if (returnType == void.class) {
+            return null;
+        }
+        if (Page.class.isAssignableFrom(returnType)) {
+            final List<Object> content = new ArrayList<>();
+            long total = 0;
+            for (final Object result : results) {
+                content.addAll(((Page<Object>) result).getContent());
+                total += ((Page<?>) result).getTotalElements();
+            }
+            return pageable != null ? new PageImpl<>(slice(content, sort, pageable), pageable, total)
+                    : new PageImpl<>(sorted(content, sort), Pageable.unpaged(), total);
+        }
+        if (KeysetPage.class.isAssignableFrom(returnType)) {
+            return mergeKeyset(results, arguments);
+        }
+        if (Collection.class.isAssignableFrom(returnType) || Iterable.class == returnType) {
+            final List<Object> content = new ArrayList<>();
+            for (final Object result : results) {
+                ((Iterable<Object>) result).forEach(content::add);
+            }
+            return pageable != null ? slice(content, sort, pageable) : sorted(content, sort);
+        }
+        if (Optional.class == returnType) {
+            for (final Object result : results) {
+                if (((Optional<?>) result).isPresent()) {
+                    return result;
+                }
+            }
+            return Optional.empty();
+        }
+        if (returnType == boolean.class || returnType == Boolean.class) {
+            for (final Object result : results) {
+                if (Boolean.TRUE.equals(result)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        if (returnType == int.class || returnType == Integer.class) {
+            int sum = 0;
+            for (final Object result : results) {
+                sum += result != null ? (Integer) result : 0;
+            }
+            return sum;
+        }
+        if (returnType == long.class || returnType == Long.class) {
+            long sum = 0;
+            for (final Object result : results) {
+                sum += result != null ? (Long) result : 0;
+            }
+            return sum;
+        }
+
+        for (final Object result : results) {
+            if (result != null) {
+                return result;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Merge the keyset pages of the shards, all following the same position.
+     */
+    private static KeysetPage<Object> mergeKeyset(final List<Object> results, final Object[] arguments) {
+        KeysetPageRequest request = null;
+        for (final Object argument : arguments) {
+            if (argument instanceof KeysetPageRequest) {
+                request = (KeysetPageRequest) argument;
+            }
+        }
+
+        final List<Object> content = new ArrayList<>();
+        boolean hasNext = false;
+        Long total = 0L;
+        for (final Object result : results) {
+            final KeysetPage<?> page = (KeysetPage<?>) result;
+            content.addAll(page.getContent());
+            hasNext |= page.hasNext();
+            total = total != null && page.getTotalElements() != null ? total + page.getTotalElements() : null;
+        }
+        content.sort(KEYSET_ORDER);
+
+        final int size = request != null ? request.getSize() : content.size();
+        String nextToken = null;
+        if (content.size() > size || hasNext && !content.isEmpty()) {
+            content.subList(Math.min(size, content.size()), content.size()).clear();
+            final BeanWrapper last = PropertyAccessorFactory.forBeanPropertyAccess(
+                    content.get(content.size() - 1));
+            nextToken = KeysetCursor.of((Date) last.getPropertyValue(AbstractGenericEntity.CREATED_AT_FIELD),
+                    (UUID) last.getPropertyValue(AbstractGenericEntity.ID_PROPERTY)).encode();
+        }
+
+        return new KeysetPage<>(content, nextToken, total);
+    }
+
+    private static List<Object> slice(final List<Object> content, final Sort sort, final Pageable pageable) {
+        final List<Object> sorted = sorted(content, sort);
+        final int from = (int) Math.min(pageable.getOffset(), sorted.size());
+        final int to = Math.min(from + pageable.getPageSize(), sorted.size());
+        return new ArrayList<>(sorted.subList(from, to));
+    }
+
+    private static List<Object> sorted(final List<Object> content, final Sort sort) {
+        if (sort.isSorted()) {
+            content.sort(comparator(sort));
+        }
+        return content;
+    }
+
+    /**
+     * Build a comparator of the entities, or projections, sorting as the database does.
+     */
+    private static Comparator<Object> comparator(final Sort sort) {
+        Comparator<Object> comparator = (first, second) -> 0;
+        for (final Sort.Order order : sort) {
+            final boolean nullsFirst = order.getNullHandling() == Sort.NullHandling.NATIVE
+                    ? order.isDescending() : order.getNullHandling() == Sort.NullHandling.NULLS_FIRST;
+            comparator = comparator.thenComparing((first, second) -> {
+                final Object firstValue = value(first, order);
+                final Object secondValue = value(second, order);
+                if (firstValue == null || secondValue == null) {
+                    if (firstValue == secondValue) {
+                        return 0;
+                    }
+                    return firstValue == null == nullsFirst ? -1 : 1;
+                }
+
+                final int comparison = compare(firstValue, secondValue);
+                return order.isDescending() ? -comparison : comparison;
+            });
+        }
+        return comparator;
+    }
+
+    private static Object value(final Object entity, final Sort.Order order) {
+        final BeanWrapper wrapper = PropertyAccessorFactory.forBeanPropertyAccess(entity);
+        if (!wrapper.isReadableProperty(order.getProperty())) {
+            return null;
+        }
+
+        final Object value = wrapper.getPropertyValue(order.getProperty());
+        return order.isIgnoreCase() && value instanceof String ? ((String) value).toLowerCase(Locale.ROOT)
+                : value;
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private static int compare(final Object first, final Object second) {
+        if (first instanceof UUID && second instanceof UUID) {
+            // As the databases do, byte after byte
+            final UUID firstId = (UUID) first;
+            final UUID secondId = (UUID) second;
+            final int high = Long.compareUnsigned(firstId.getMostSignificantBits(),
+                    secondId.getMostSignificantBits());
+            return high != 0 ? high : Long.compareUnsigned(firstId.getLeastSignificantBits(),
+                    secondId.getLeastSignificantBits());
+        }
+        return ((Comparable) first).compareTo(second);
+    }
+
+    /**
+     * The streams of the shards, opened one after the other as the previous one is consumed, each
+     * within its own read-only transaction.
+     */
+    private final class ShardStreams extends Spliterators.AbstractSpliterator<Object> {
+
+        /**
+         * The shards left to stream.
+         */
+        private final Iterator<String> shards;
+
+        /**
+         * The streaming call.
+         */
+        private final MethodInvocation invocation;
+
+        /**
+         * The stream of the current shard, {@code null} if none is open.
+         */
+        private Stream<?> stream;
+
+        /**
+         * The spliterator of the {@link #stream}.
+         */
+        private Spliterator<?> spliterator;
+
+        /**
+         * The transaction of the {@link #stream}.
+         */
+        private TransactionStatus transaction;
+
+        /**
+         * The shard bound before the {@link #stream} was opened.
+         */
+        private String previous;
+
+        ShardStreams(final MethodInvocation invocation) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED);
+            this.shards = new ArrayList<>(router.getRing().getShards()).iterator();
+            this.invocation = invocation;
+        }
+
+        @Override
+        public boolean tryAdvance(final Consumer<? super Object> action) {
+            while (true) {
+                if (spliterator == null) {
+                    if (!shards.hasNext()) {
+                        return false;
+                    }
+                    open(shards.next());
+                }
+                if (spliterator.tryAdvance(action)) {
+                    return true;
+                }
+                close();
+            }
+        }
+
+        private void open(final String shard) {
+            final DefaultTransactionDefinition definition = new DefaultTransactionDefinition(
+                    TransactionDefinition.PROPAGATION_REQUIRED);
+            definition.setReadOnly(true);
+
+            previous = ShardContext.bind(shard);
+            transaction = transactionManager.getObject().getTransaction(definition);
+            try {
+                stream = (Stream<?>) ((ProxyMethodInvocation) invocation).invocableClone().proceed();
+                spliterator = stream.spliterator();
+            } catch (final RuntimeException | Error e) {
+                rollback();
+                throw e;
+            } catch (final Throwable e) {
+                rollback();
+                throw new UndeclaredThrowableException(e);
+            }
+        }
+
+        /**
+         * Close the stream of the current shard, if any, and commit its transaction.
+         */
+        void close() {
+            if (transaction == null) {
+                return;
+            }
+
+            try {
+                if (stream != null) {
+                    stream.close();
+                }
+            } catch (final RuntimeException | Error e) {
+                rollback();
+                throw e;
+            }
+            try {
+                transactionManager.getObject().commit(transaction);
+            } finally {
+                release();
+            }
+        }
+
+        private void rollback() {
+            try {
+                transactionManager.getObject().rollback(transaction);
+            } finally {
+                release();
+            }
+        }
+
+        private void release() {
+            ShardContext.restore(previous);
+            stream = null;
+            spliterator = null;
+            transaction = null;
+            previous = null;
+        }
+    }
+
+    /**
+     * The result of a shard the entity was not found on.
+     */
+    private static final class Missing {
+
+        /**
+         * The exception of the shard.
+         */
+        private final EmptyResultDataAccessException exception;
+
+        Missing(final EmptyResultDataAccessException exception) {
+            this.exception = exception;
+        }
+    }
+}
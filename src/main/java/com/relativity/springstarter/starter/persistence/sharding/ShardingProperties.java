@@ -0,0 +1,234 @@
+package com.relativity.springstarter.starter.persistence.sharding;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The sharding configuration properties.
+ *
+ * <p>
+ * The default shard is the data source configured through the usual {@code spring.datasource}
+ * properties, the other shards are listed in {@link #shards}.
+ * </p>
+ *
+ * @author avakhobov
+ */
+@ConfigurationProperties(prefix = "starter.persistence.sharding")
+public class ShardingProperties {
+
+    /**
+     * Whether the owned entities are sharded across several databases.
+     */
+    private boolean enabled = false;
+
+    /**
+     * The name of the default shard, the {@code spring.datasource} one.
+     */
+    private String defaultShard = "shard0";
+
+    /**
+     * The other shards.
+     */
+    private List<Shard> shards = new ArrayList<>();
+
+    /**
+     * The number of points of a shard on the consistent hashing ring, the more the more even the
+     * distribution of the owners.
+     */
+    private int virtualNodes = ShardRing.DEFAULT_VIRTUAL_NODES;
+
+    /**
+     * The number of shards queried at the same time by the queries spanning every shard.
+     */
+    private int parallelism = 8;
+
+    /**
+     * Get the {@link #enabled}.
+     *
+     * @return the {@link #enabled}.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Set the {@link #enabled}.
+     *
+     * @param enabled the {@link #enabled} to set.
+     */
+    public void setEnabled(final boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Get the {@link #defaultShard}.
+     *
+     * @return the {@link #defaultShard}.
+     */
+    public String getDefaultShard() {
+        return defaultShard;
+    }
+
+    /**
+     * Set the {@link #defaultShard}.
+     *
+     * @param defaultShard the {@link #defaultShard} to set.
+     */
+    public void setDefaultShard(final String defaultShard) {
+        this.defaultShard = defaultShard;
+    }
+
+    /**
+     * Get the {@link #shards}.
+     *
+     * @return the {@link #shards}.
+     */
+    public List<Shard> getShards() {
+        return shards;
+    }
+
+    /**
+     * Set the {@link #shards}.
+     *
+     * @param shards the {@link #shards} to set.
+     */
+    public void setShards(final List<Shard> shards) {
+        this.shards = shards;
+    }
+
+    /**
+     * Get the {@link #virtualNodes}.
+     *
+     * @return the {@link #virtualNodes}.
+     */
+    public int getVirtualNodes() {
+        return virtualNodes;
+    }
+
+    /**
+     * Set the {@link #virtualNodes}.
+     *
+     * @param virtualNodes the {@link #virtualNodes} to set.
+     */
+    public void setVirtualNodes(final int virtualNodes) {
+        this.virtualNodes = virtualNodes;
+    }
+
+    /**
+     * Get the {@link #parallelism}.
+     *
+     * @return the {@link #parallelism}.
+     */
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Set the {@link #parallelism}.
+     *
+     * @param parallelism the {@link #parallelism} to set.
+     */
+    public void setParallelism(final int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * The connection properties of a shard.
+     */
+    public static class Shard {
+
+        /**
+         * The shard name, placing the shard on the ring: renaming a shard moves its owners.
+         */
+        private String name;
+
+        /**
+         * The JDBC URL of the shard.
+         */
+        private String url;
+
+        /**
+         * The login username of the shard, defaults to the default shard one.
+         */
+        private String username;
+
+        /**
+         * The login password of the shard, defaults to the default shard one.
+         */
+        private String password;
+
+        /**
+         * Get the {@link #name}.
+         *
+         * @return the {@link #name}.
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Set the {@link #name}.
+         *
+         * @param name the {@link #name} to set.
+         */
+        public void setName(final String name) {
+            this.name = name;
+        }
+
+        /**
+         * Get the {@link #url}.
+         *
+         * @return the {@link #url}.
+         */
+        public String getUrl() {
+            return url;
+        }
+
+        /**
+         * Set the {@link #url}.
+         *
+         * @param url the {@link #url} to set.
+         */
+        public void setUrl(final String url) {
+            this.url = url;
+        }
+
+        /**
+         * Get the {@link #username}.
+         *
+         * @return the {@link #username}.
+         */
+        public String getUsername() {
+            return username;
+        }
+
+        /**
+         * Set the {@link #username}.
+         *
+         * @param username the {@link #username} to set.
+         */
+        public void setUsername(final String username) {
+            this.username = username;
+        }
+
+        /**
+         * Get the {@link #password}.
+         *
+         * @return the {@link #password}.
+         */
+        public String getPassword() {
+            return password;
+        }
+
+        /**
+         * Set the {@link #password}.
+         *
+         * @param password the {@link #password} to set.
+         */
+        public void setPassword(final String password) {
+            this.password = password;
+        }
+    }
+}
@@ -0,0 +1,6 @@
+/**
+ * Horizontal sharding of the entities across several databases, by owner.
+ *
+ * @author avakhobov
+ */
+package com.relativity.springstarter.starter.persistence.sharding;
@@ -0,0 +1,154 @@
+package com.relativity.springstarter.starter.persistence.user.availability;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bloom filter of strings.
+ *
+ * <p>
+ * {@link #mightContain(String)} never returns {@code false} for a value that was {@link #put(String)}
+ * in the filter, and returns {@code true} for a value that was not with a probability close to the
+ * false positive rate the filter was sized for, as long as the number of values put does not exceed
+ * the expected insertions. Values cannot be removed.
+ * </p>
+ *
+ * <p>
+ * This class is thread-safe.
+ * </p>
+ *
+ * @author avakhobov
+ */
+public final class BloomFilter {
+
+    /**
+     * The filter bits.
+     */
+    private final AtomicLongArray bits;
+
+    /**
+     * The number of filter bits.
+     */
+    private final long bitSize;
+
+    /**
+     * The number of bits set for each value.
+     */
+    private final int hashCount;
+
+    private BloomFilter(final long bitSize, final int hashCount) {
+        super();
+        this.bits = new AtomicLongArray((int) (bitSize / Long.SIZE));
+        this.bitSize = bitSize;
+        this.hashCount = hashCount;
+    }
+
+    /**
+     * Create a {@link BloomFilter} sized for a number of values and a false positive rate.
+     *
+     * @param expectedInsertions the expected number of values.
+     * @param falsePositiveRate the false positive rate, between {@code 0} and {@code 1} exclusive.
+     * @param maximumBits the maximum number of filter bits, the actual false positive rate is higher
+     *        than requested if the filter would need more bits.
+     *
+     * @return the created {@link BloomFilter}.
+     *
+     * @throws IllegalArgumentException if an argument is out of range.
+     */
+    public static BloomFilter create(final long expectedInsertions, final double falsePositiveRate,
+            final long maximumBits) {
+        if (expectedInsertions < 1) {
+            throw new IllegalArgumentException("Expected insertions must not be less than one");
+        } else if (!(falsePositiveRate > 0.0 && falsePositiveRate < 1.0)) {
+            throw new IllegalArgumentException("False positive rate must be between 0 and 1 exclusive");
+        } else if (maximumBits < Long.SIZE) {
+            throw new IllegalArgumentException("Maximum bits must not be less than " + Long.SIZE);
+        }
+
+        final double optimalBits = -expectedInsertions * Math.log(falsePositiveRate)
+                / (Math.log(2) * Math.log(2));
+        final long cappedBits = (long) Math.min(Math.ceil(optimalBits),
+                Math.min(maximumBits, (long) Integer.MAX_VALUE * Long.SIZE));
+        final long bitSize = Math.max(Long.SIZE, cappedBits / Long.SIZE * Long.SIZE);
+        final int hashCount = (int) Math.max(1,
+                Math.round((double) bitSize / expectedInsertions * Math.log(2)));
+
+        return new BloomFilter(bitSize, hashCount);
+    }
+
+    /**
+     * Put a value in the filter.
+     *
+     * @param value the value to put.
+     */
+    public void put(final String value) {
+        final long hash1 = hash(value, 0L);
+        final long hash2 = hash(value, 0x9E3779B97F4A7C15L) | 1L;
+
+        for (int i = 0; i < hashCount; i++) {
+            final long bit = Math.floorMod(hash1 + i * hash2, bitSize);
+            final int word = (int) (bit / Long.SIZE);
+            final long mask = 1L << bit;
+
+            long current = bits.get(word);
+            while ((current & mask) == 0 && !bits.compareAndSet(word, current, current | mask)) {
+                current = bits.get(word);
+            }
+        }
+    }
+
+    /**
+     * Tests if a value might have been put in the filter.
+     *
+     * @param value the value to test.
+     *
+     * @return {@code false} if the value was definitely not put in the filter, {@code true} if it
+     *         might have been.
+     */
+    public boolean mightContain(final String value) {
+        final long hash1 = hash(value, 0L);
+        final long hash2 = hash(value, 0x9E3779B97F4A7C15L) | 1L;
+
+        for (int i = 0; i < hashCount; i++) {
+            final long bit = Math.floorMod(hash1 + i * hash2, bitSize);
+
+            if ((bits.get((int) (bit / Long.SIZE)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Get the {@link #bitSize}.
+     *
+     * @return the {@link #bitSize}.
+     */
+    public long getBitSize() {
+        return bitSize;
+    }
+
+    /**
+     * Get the {@link #hashCount}.
+     *
+     * @return the {@link #hashCount}.
+     */
+    public int getHashCount() {
+        return hashCount;
+    }
+
+    /**
+     * 64-bit FNV-1a hash of the value characters, finalized with the MurmurHash3 mixer.
+     */
+    private static long hash(final String value, final long seed) {
+        long hash = 0xCBF29CE484222325L ^ seed;
+
+        for (int i = 0; i < value.length(); i++) {
+            hash = (hash ^ value.charAt(i)) * 0x100000001B3L;
+        }
+
+        hash = (hash ^ (hash >>> 33)) * 0xFF51AFD7ED558CCDL;
+        hash = (hash ^ (hash >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return hash ^ (hash >>> 33);
+    }
+}
@@ -0,0 +1,25 @@
+package com.relativity.springstarter.starter.persistence.user.availability;
+
+import com.relativity.springstarter.starter.persistence.user.dao.UserRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * The {@link UserAvailabilityFilter} configuration.
+ *
+ * @author avakhobov
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(UserAvailabilityProperties.class)
+public class UserAvailabilityConfiguration {
+
+    @Bean(destroyMethod = "shutdown")
+    public UserAvailabilityFilter userAvailabilityFilter(final UserRepository repository,
+            final UserAvailabilityProperties properties, final MeterRegistry registry) {
+        return new UserAvailabilityFilter(repository, properties, registry);
+    }
+}
@@ -0,0 +1,306 @@
+package com.relativity.springstarter.starter.persistence.user.availability;
+
+import com.relativity.springstarter.starter.concurrent.BoundedExecutor;
+import com.relativity.springstarter.starter.concurrent.ThreadKind;
+import com.relativity.springstarter.starter.persistence.user.dao.UserRepository;
+import com.relativity.springstarter.starter.persistence.user.entity.User;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Pre-check of the {@link UserRepository} existence checks through Bloom filters of the normalized
+ * usernames and emails.
+ *
+ * <p>
+ * A username or email absent from its filter definitely belongs to no user, so the check is answered
+ * without querying the repository. Otherwise the repository is queried for the values the filters
+ * might contain. The filters are built from a streaming scan of the users once the application is
+ * ready, in the background, and updated when users are saved (see {@link UserAvailabilityListener}).
+ * Deleted users are only dropped from the filters on the next {@link #rebuild()}.
+ * </p>
+ *
+ * <p>
+ * Checks are delegated to the repository while the filters are not built, when the filter is
+ * disabled, or when a user identifier is given. Users saved by other application instances are only
+ * visible once the filters are rebuilt, so the database unique constraints stay the authority when
+ * registering users.
+ * </p>
+ *
+ * <p>
+ * The checks are counted in the {@value #CHECKS_METRIC_NAME} counters, tagged by outcome:
+ * {@code avoided} without querying the repository, {@code queried} and {@code false-positive} when
+ * the queried values belong to no user. The memory of the filters is reported by the
+ * {@value #MEMORY_METRIC_NAME} gauge.
+ * </p>
+ *
+ * @author avakhobov
+ */
+public class UserAvailabilityFilter {
+
+    /**
+     * The existence checks counters name.
+     */
+    public static final String CHECKS_METRIC_NAME = "starter.user.availability.checks";
+
+    /**
+     * The filters memory gauge name.
+     */
+    public static final String MEMORY_METRIC_NAME = "starter.user.availability.memory";
+
+    /**
+     * Runs the background rebuilds, one at a time.
+     */
+    private final BoundedExecutor background = new BoundedExecutor("user-availability-rebuild",
+            ThreadKind.PLATFORM, 1, 0);
+
+    /**
+     * The {@link User} repository.
+     */
+    private final UserRepository repository;
+
+    /**
+     * The filters configuration properties.
+     */
+    private final UserAvailabilityProperties properties;
+
+    /**
+     * The filters answering the checks, {@code null} until first built.
+     */
+    private volatile Filters current = null;
+
+    /**
+     * The filters being rebuilt, {@code null} if no rebuild is in progress.
+     */
+    private volatile Filters building = null;
+
+    /**
+     * The rebuild in progress or last completed, {@code null} if none was requested.
+     */
+    private CompletableFuture<Void> rebuild = null;
+
+    /**
+     * The number of existence checks answered without querying the repository.
+     */
+    private final LongAdder avoided = new LongAdder();
+
+    /**
+     * The number of existence checks that went to the repository.
+     */
+    private final LongAdder queried = new LongAdder();
+
+    /**
+     * The number of existence checks that went to the repository and found no user.
+     */
+    private final LongAdder falsePositives = new LongAdder();
+
+    /**
+     * Create a {@link UserAvailabilityFilter}.
+     *
+     * @param repository the {@link User} repository.
+     * @param properties the filters configuration properties.
+     * @param registry the registry of the counters and gauge.
+     */
+    public UserAvailabilityFilter(final UserRepository repository,
+            final UserAvailabilityProperties properties, final MeterRegistry registry) {
+        super();
+        this.repository = repository;
+        this.properties = properties;
+
+        register(registry, "avoided", avoided, "The existence checks answered without a query");
+        register(registry, "queried", queried, "The existence checks that queried the repository");
+        register(registry, "false-positive", falsePositives,
+                "The existence checks that queried the repository and found no user");
+        Gauge.builder(MEMORY_METRIC_NAME, this, filter -> filter.getStatistics().getMemory())
+                .description("The memory used by the filters").baseUnit("bytes").register(registry);
+    }
+
+    /**
+     * Tests if an entity exists in the repository for the given primary key or the username or the
+     * email.
+     *
+     * @param userId The identifier of {@link User} to check existence.
+     * @param username The username of the {@link User} to check existence.
+     * @param email The email of the {@link User} to check existence.
+     *
+     * @return {@code true} if {@link User} exists, {@code false} otherwise.
+     *
+     * @see UserRepository#exists(UUID, String, String)
+     */
+    public boolean exists(final UUID userId, final String username, final String email) {
+        final Filters filters = current;
+
+        if (!properties.isEnabled() || filters == null || userId != null) {
+            return repository.exists(userId, username, email);
+        }
+
+        final String candidateUsername = username != null
+                && filters.usernames.mightContain(User.normalize(username)) ? username : null;
+        final String candidateEmail = email != null
+                && filters.emails.mightContain(User.normalize(email)) ? email : null;
+
+        if (candidateUsername == null && candidateEmail == null) {
+            avoided.increment();
+            return false;
+        }
+
+        queried.increment();
+        final boolean exists = repository.exists(null, candidateUsername, candidateEmail);
+        if (!exists) {
+            falsePositives.increment();
+        }
+
+        return exists;
+    }
+
+    /**
+     * Add the username and email of a saved {@link User} to the filters.
+     *
+     * @param username the user username.
+     * @param email the user email.
+     */
+    public void add(final String username, final String email) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+
+        // Read the rebuilt filters first, a rebuild completing in between publishes them as current
+        final Filters rebuilt = building;
+        final Filters filters = current;
+
+        if (rebuilt != null) {
+            rebuilt.put(username, email);
+        }
+        if (filters != null && filters != rebuilt) {
+            filters.put(username, email);
+        }
+    }
+
+    /**
+     * Tests if the filters are built.
+     *
+     * @return {@code true} if the filters answer the checks, {@code false} otherwise.
+     */
+    public boolean isReady() {
+        return current != null;
+    }
+
+    /**
+     * Rebuild the filters in the background once the application is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (properties.isEnabled()) {
+            rebuildInBackground();
+        }
+    }
+
+    /**
+     * Rebuild the filters in the background.
+     *
+     * <p>
+     * Checks keep being answered by the previous filters, if any, while rebuilding. Requesting a
+     * rebuild while one is in progress returns the rebuild in progress.
+     * </p>
+     *
+     * @return the rebuild completion.
+     */
+    public synchronized CompletableFuture<Void> rebuildInBackground() {
+        if (rebuild == null || rebuild.isDone()) {
+            rebuild = background.submit(() -> {
+                rebuild();
+                return null;
+            });
+        }
+
+        return rebuild;
+    }
+
+    /**
+     * Rebuild the filters from a streaming scan of the users.
+     *
+     * <p>
+     * Users saved while scanning are added to both the previous and the rebuilt filters.
+     * </p>
+     */
+    public void rebuild() {
+        final long insertions = Math.max(properties.getExpectedInsertions(), repository.count());
+        final long maximumBits = properties.getMaximumMemory().toBytes() * Byte.SIZE / 2;
+        final Filters rebuilt = new Filters(
+                BloomFilter.create(insertions, properties.getFalsePositiveRate(), maximumBits),
+                BloomFilter.create(insertions, properties.getFalsePositiveRate(), maximumBits));
+
+        building = rebuilt;
+        try {
+            repository.forEachIdentity(user -> rebuilt.put(user.getUsername(), user.getEmail()));
+            current = rebuilt;
+        } finally {
+            building = null;
+        }
+    }
+
+    /**
+     * Stop accepting rebuilds, the rebuild in progress still completes.
+     */
+    public void shutdown() {
+        background.shutdown();
+    }
+
+    /**
+     * Get a snapshot of the filter statistics.
+     *
+     * @return the filter statistics.
+     */
+    public UserAvailabilityStatistics getStatistics() {
+        final Filters filters = current;
+        final long memory = filters == null ? 0
+                : (filters.usernames.getBitSize() + filters.emails.getBitSize()) / Byte.SIZE;
+
+        return new UserAvailabilityStatistics(avoided.sum(), queried.sum(), falsePositives.sum(),
+                memory, filters != null);
+    }
+
+    private static void register(final MeterRegistry registry, final String outcome,
+            final LongAdder count, final String description) {
+        FunctionCounter.builder(CHECKS_METRIC_NAME, count, LongAdder::sum).description(description)
+                .tag("outcome", outcome).register(registry);
+    }
+
+    /**
+     * The username and email filters.
+     */
+    private static final class Filters {
+
+        /**
+         * The normalized usernames filter.
+         */
+        private final BloomFilter usernames;
+
+        /**
+         * The normalized emails filter.
+         */
+        private final BloomFilter emails;
+
+        Filters(final BloomFilter usernames, final BloomFilter emails) {
+            this.usernames = usernames;
+            this.emails = emails;
+        }
+
+        void put(final String username, final String email) {
+            if (username != null) {
+                usernames.put(User.normalize(username));
+            }
+            if (email != null) {
+                emails.put(User.normalize(email));
+            }
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.relativity.springstarter.starter.persistence.user.availability;
+
+import com.relativity.springstarter.starter.persistence.user.entity.User;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.PostPersist;
+import javax.persistence.PostUpdate;
+
+/**
+ * {@link User} entity listener adding the saved usernames and emails to the
+ * {@link UserAvailabilityFilter}.
+ *
+ * <p>
+ * Values are added as soon as the user is saved, and again once the surrounding transaction commits
+ * so a concurrent rebuild of the filter cannot miss them. Values of rolled back changes stay in the
+ * filter as false positives until the next rebuild. This listener does nothing when no
+ * {@link UserAvailabilityFilter} is configured.
+ * </p>
+ *
+ * @author avakhobov
+ */
+public class UserAvailabilityListener {
+
+    /**
+     * The {@link User} availability filter provider.
+     */
+    private final ObjectProvider<UserAvailabilityFilter> filter;
+
+    /**
+     * Create a {@link UserAvailabilityListener}.
+     *
+     * @param filter the {@link User} availability filter provider.
+     */
+    public UserAvailabilityListener(final ObjectProvider<UserAvailabilityFilter> filter) {
+        super();
+        this.filter = filter;
+    }
+
+    /**
+     * Add the username and email of an inserted or updated {@link User} to the filter.
+     *
+     * @param user the saved {@link User}.
+     */
+    @PostPersist
+    @PostUpdate
+    public void onSave(final User user) {
+        final UserAvailabilityFilter userFilter = filter.getIfAvailable();
+
+        if (userFilter != null) {
+            final String username = user.getUsername();
+            final String email = user.getEmail();
+
+            userFilter.add(username, email);
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        userFilter.add(username, email);
+                    }
+                });
+            }
+        }
+    }
+}
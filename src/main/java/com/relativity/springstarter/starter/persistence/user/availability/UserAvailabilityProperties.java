@@ -0,0 +1,106 @@
+package com.relativity.springstarter.starter.persistence.user.availability;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * The {@link UserAvailabilityFilter} configuration properties.
+ *
+ * @author avakhobov
+ */
+@ConfigurationProperties(prefix = "starter.persistence.user.availability")
+public class UserAvailabilityProperties {
+
+    /**
+     * Whether existence checks are filtered, otherwise they always go to the repository.
+     */
+    private boolean enabled = false;
+
+    /**
+     * The expected number of users, the filters are sized for the larger of this value and the number
+     * of users when rebuilt.
+     */
+    private long expectedInsertions = 100_000;
+
+    /**
+     * The false positive rate of each filter.
+     */
+    private double falsePositiveRate = 0.01;
+
+    /**
+     * The maximum memory used by the username and email filters together.
+     */
+    private DataSize maximumMemory = DataSize.ofMegabytes(16);
+
+    /**
+     * Get the {@link #enabled}.
+     *
+     * @return the {@link #enabled}.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Set the {@link #enabled}.
+     *
+     * @param enabled the {@link #enabled} to set.
+     */
+    public void setEnabled(final boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Get the {@link #expectedInsertions}.
+     *
+     * @return the {@link #expectedInsertions}.
+     */
+    public long getExpectedInsertions() {
+        return expectedInsertions;
+    }
+
+    /**
+     * Set the {@link #expectedInsertions}.
+     *
+     * @param expectedInsertions the {@link #expectedInsertions} to set.
+     */
+    public void setExpectedInsertions(final long expectedInsertions) {
+        this.expectedInsertions = expectedInsertions;
+    }
+
+    /**
+     * Get the {@link #falsePositiveRate}.
+     *
+     * @return the {@link #falsePositiveRate}.
+     */
+    public double getFalsePositiveRate() {
+        return falsePositiveRate;
+    }
+
+    /**
+     * Set the {@link #falsePositiveRate}.
+     *
+     * @param falsePositiveRate the {@link #falsePositiveRate} to set.
+     */
+    public void setFalsePositiveRate(final double falsePositiveRate) {
+        this.falsePositiveRate = falsePositiveRate;
+    }
+
+    /**
+     * Get the {@link #maximumMemory}.
+     *
+     * @return the {@link #maximumMemory}.
+     */
+    public DataSize getMaximumMemory() {
+        return maximumMemory;
+    }
+
+    /**
+     * Set the {@link #maximumMemory}.
+     *
+     * @param maximumMemory the {@link #maximumMemory} to set.
+     */
+    public void setMaximumMemory(final DataSize maximumMemory) {
+        this.maximumMemory = maximumMemory;
+    }
+}
@@ -0,0 +1,117 @@
+package com.relativity.springstarter.starter.persistence.user.availability;
+
+/**
+ * A snapshot of the {@link UserAvailabilityFilter} statistics.
+ *
+ * @author avakhobov
+ */
+public final class UserAvailabilityStatistics {
+
+    /**
+     * The number of existence checks answered without querying the repository.
+     */
+    private final long avoidedCount;
+
+    /**
+     * The number of existence checks that went to the repository.
+     */
+    private final long queriedCount;
+
+    /**
+     * The number of existence checks that went to the repository and found no user.
+     */
+    private final long falsePositiveCount;
+
+    /**
+     * The memory used by the filters, in bytes.
+     */
+    private final long memory;
+
+    /**
+     * Whether the filters are built.
+     */
+    private final boolean ready;
+
+    /**
+     * Create a {@link UserAvailabilityStatistics}.
+     *
+     * @param avoidedCount the number of existence checks answered without querying the repository.
+     * @param queriedCount the number of existence checks that went to the repository.
+     * @param falsePositiveCount the number of existence checks that went to the repository and found
+     *        no user.
+     * @param memory the memory used by the filters, in bytes.
+     * @param ready whether the filters are built.
+     */
+    public UserAvailabilityStatistics(final long avoidedCount, final long queriedCount,
+            final long falsePositiveCount, final long memory, final boolean ready) {
+        super();
+        this.avoidedCount = avoidedCount;
+        this.queriedCount = queriedCount;
+        this.falsePositiveCount = falsePositiveCount;
+        this.memory = memory;
+        this.ready = ready;
+    }
+
+    /**
+     * Get the {@link #avoidedCount}.
+     *
+     * @return the {@link #avoidedCount}.
+     */
+    public long getAvoidedCount() {
+        return avoidedCount;
+    }
+
+    /**
+     * Get the {@link #queriedCount}.
+     *
+     * @return the {@link #queriedCount}.
+     */
+    public long getQueriedCount() {
+        return queriedCount;
+    }
+
+    /**
+     * Get the ratio of existence checks answered without querying the repository.
+     *
+     * @return the ratio of avoided repository queries, {@code 0.0} if there was no check.
+     */
+    public double getAvoidedRate() {
+        final long checks = avoidedCount + queriedCount;
+
+        return checks == 0 ? 0.0 : (double) avoidedCount / checks;
+    }
+
+    /**
+     * Get the {@link #falsePositiveCount}.
+     *
+     * @return the {@link #falsePositiveCount}.
+     */
+    public long getFalsePositiveCount() {
+        return falsePositiveCount;
+    }
+
+    /**
+     * Get the {@link #memory}.
+     *
+     * @return the {@link #memory}.
+     */
+    public long getMemory() {
+        return memory;
+    }
+
+    /**
+     * Get the {@link #ready}.
+     *
+     * @return the {@link #ready}.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    @Override
+    public String toString() {
+        return "UserAvailabilityStatistics [avoidedCount=" + avoidedCount + ", queriedCount="
+                + queriedCount + ", falsePositiveCount=" + falsePositiveCount + ", memory=" + memory
+                + ", ready=" + ready + "]";
+    }
+}
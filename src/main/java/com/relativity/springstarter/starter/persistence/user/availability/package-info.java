@@ -0,0 +1,6 @@
+/**
+ * The <em>Users</em> username and email availability pre-check.
+ *
+ * @author avakhobov
+ */
+package com.relativity.springstarter.starter.persistence.user.availability;
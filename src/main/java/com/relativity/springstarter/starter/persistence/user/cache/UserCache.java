@@ -0,0 +1,384 @@
+package com.relativity.springstarter.starter.persistence.user.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.relativity.springstarter.starter.persistence.user.dao.UserRepository;
+import com.relativity.springstarter.starter.persistence.user.dao.UserView;
+import com.relativity.springstarter.starter.persistence.user.entity.User;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Bounded in-process cache of the {@link UserRepository} lookups.
+ *
+ * <p>
+ * Users are cached by identifier, usernames and emails (ignoring case) only resolve to the
+ * identifier so each user is cached once. Users are evicted when the cache exceeds its maximum size
+ * or once their time to live expires, and invalidated when modified or deleted through the
+ * {@link UserRepository} (see {@link UserCacheInvalidator}). Changes made by other application
+ * instances are only visible once the cached user expires.
+ * </p>
+ *
+ * <p>
+ * Lookups return a detached copy of the cached {@link User}, which can be modified safely. The
+ * lazily loaded password is not cached, so cached copies have none. The immutable {@link UserView}s
+ * are cached apart, by identifier, for the reads which do not need an entity. When the cache is
+ * disabled, lookups are delegated to the repository.
+ * </p>
+ *
+ * <p>
+ * Users loaded within a transaction are only cached once it commits, so uncommitted or rolled back
+ * changes are never cached. The statistics of the caches of users and of their username and email
+ * indexes are published as the {@value #CACHE_NAME} cache metrics, tagged by {@code index}.
+ * </p>
+ *
+ * @author avakhobov
+ */
+public class UserCache {
+
+    /**
+     * The name of the cache in the published metrics.
+     */
+    public static final String CACHE_NAME = "starter.users";
+
+    /**
+     * The {@link User} repository.
+     */
+    private final UserRepository repository;
+
+    /**
+     * Whether lookups are cached.
+     */
+    private final boolean enabled;
+
+    /**
+     * The cached users, by identifier.
+     */
+    private final Cache<UUID, User> users;
+
+    /**
+     * The cached user views, by identifier.
+     */
+    private final Cache<UUID, UserView> views;
+
+    /**
+     * The cached users identifiers, by lowercased username.
+     */
+    private final Cache<String, UUID> usernames;
+
+    /**
+     * The cached users identifiers, by lowercased email.
+     */
+    private final Cache<String, UUID> emails;
+
+    /**
+     * Incremented on each invalidation, so users loaded concurrently are not cached stale.
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private final LongAdder evictions = new LongAdder();
+
+    private final LongAdder invalidations = new LongAdder();
+
+    /**
+     * Create a {@link UserCache}.
+     *
+     * @param repository the {@link User} repository.
+     * @param properties the cache configuration properties.
+     * @param registry the registry of the cache metrics.
+     */
+    public UserCache(final UserRepository repository, final UserCacheProperties properties,
+            final MeterRegistry registry) {
+        super();
+        this.repository = repository;
+        this.enabled = properties.isEnabled();
+        this.users = Caffeine.newBuilder().maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getTimeToLive()).executor(Runnable::run).recordStats()
+                .removalListener((UUID id, User user, RemovalCause cause) -> {
+                    if (cause.wasEvicted()) {
+                        evictions.increment();
+                    }
+                }).build();
+        this.views = Caffeine.newBuilder().maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getTimeToLive()).recordStats().build();
+        this.usernames = Caffeine.newBuilder().maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getTimeToLive()).recordStats().build();
+        this.emails = Caffeine.newBuilder().maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getTimeToLive()).recordStats().build();
+
+        if (enabled) {
+            CaffeineCacheMetrics.monitor(registry, users, CACHE_NAME, "index", "id");
+            CaffeineCacheMetrics.monitor(registry, views, CACHE_NAME, "index", "view");
+            CaffeineCacheMetrics.monitor(registry, usernames, CACHE_NAME, "index", "username");
+            CaffeineCacheMetrics.monitor(registry, emails, CACHE_NAME, "index", "email");
+        }
+    }
+
+    /**
+     * Find a {@link User} through its identifier.
+     *
+     * @param userId the user identifier.
+     *
+     * @return the {@link User} matching the identifier, or {@link Optional#empty()} if none matches.
+     *
+     * @see UserRepository#findById(UUID)
+     */
+    public Optional<User> findById(final UUID userId) {
+        if (!enabled || userId == null) {
+            return repository.findById(userId);
+        }
+
+        final User cached = users.getIfPresent(userId);
+        if (cached != null) {
+            hits.increment();
+            return Optional.of(new User(cached));
+        }
+
+        misses.increment();
+        final long loadGeneration = generation.get();
+        final Optional<User> user = repository.findById(userId);
+        user.ifPresent(found -> cache(found, loadGeneration));
+
+        return user;
+    }
+
+    /**
+     * Find the {@link UserView} of a {@link User} through its identifier.
+     *
+     * @param userId the user identifier.
+     *
+     * @return the view of the user matching the identifier, or {@link Optional#empty()} if none
+     *         matches.
+     *
+     * @see UserRepository#findViewById(UUID)
+     */
+    public Optional<UserView> findViewById(final UUID userId) {
+        if (!enabled || userId == null) {
+            return repository.findViewById(userId);
+        }
+
+        final UserView cached = views.getIfPresent(userId);
+        if (cached != null) {
+            hits.increment();
+            return Optional.of(cached);
+        }
+
+        misses.increment();
+        final long loadGeneration = generation.get();
+        final Optional<UserView> view = repository.findViewById(userId);
+        view.ifPresent(found -> afterCommit(() -> {
+            if (generation.get() == loadGeneration) {
+                views.put(userId, found);
+                // An invalidation may have happened while caching
+                if (generation.get() != loadGeneration) {
+                    views.invalidate(userId);
+                }
+            }
+        }));
+
+        return view;
+    }
+
+    /**
+     * Find a {@link User} through its username while ignoring case.
+     *
+     * @param username the username to search.
+     *
+     * @return The {@link User} matching the username.
+     *
+     * @see UserRepository#findByUsernameIgnoreCase(String)
+     */
+    public User findByUsernameIgnoreCase(final String username) {
+        if (!enabled || username == null) {
+            return repository.findByUsernameIgnoreCase(username);
+        }
+
+        User user = lookup(usernames, User.normalize(username), User::getUsername);
+        if (user == null) {
+            misses.increment();
+            final long loadGeneration = generation.get();
+            user = repository.findByUsernameIgnoreCase(username);
+            cache(user, loadGeneration);
+        }
+
+        return user;
+    }
+
+    /**
+     * Find a {@link User} through its email while ignoring case.
+     *
+     * @param email the email to search.
+     *
+     * @return The {@link User} matching the email.
+     *
+     * @see UserRepository#findByEmailIgnoreCase(String)
+     */
+    public User findByEmailIgnoreCase(final String email) {
+        if (!enabled || email == null) {
+            return repository.findByEmailIgnoreCase(email);
+        }
+
+        User user = lookup(emails, User.normalize(email), User::getEmail);
+        if (user == null) {
+            misses.increment();
+            final long loadGeneration = generation.get();
+            user = repository.findByEmailIgnoreCase(email);
+            cache(user, loadGeneration);
+        }
+
+        return user;
+    }
+
+    /**
+     * Find a {@link User} through its username or email.
+     *
+     * <p>
+     * A cached user is returned when its username or its email matches while ignoring case, as the
+     * repository lookup does. The repository lookup fails if the username and the email match
+     * different users, the cache returns the first match found instead.
+     * </p>
+     *
+     * @param username The username to search.
+     * @param email The email to search.
+     *
+     * @return The {@link User} matching the username or email.
+     *
+     * @see UserRepository#findByUsernameOrEmailIgnoreCase(String, String)
+     */
+    public User findByUsernameOrEmailIgnoreCase(final String username, final String email) {
+        if (!enabled || username == null || email == null) {
+            return repository.findByUsernameOrEmailIgnoreCase(username, email);
+        }
+
+        User user = lookup(usernames, User.normalize(username), User::getUsername);
+        if (user == null) {
+            user = lookup(emails, User.normalize(email), User::getEmail);
+        }
+        if (user == null) {
+            misses.increment();
+            final long loadGeneration = generation.get();
+            user = repository.findByUsernameOrEmailIgnoreCase(username, email);
+            cache(user, loadGeneration);
+        }
+
+        return user;
+    }
+
+    /**
+     * Invalidate cached users.
+     *
+     * @param userIds the identifiers of the users to invalidate.
+     */
+    public void invalidate(final Collection<UUID> userIds) {
+        if (enabled && !userIds.isEmpty()) {
+            generation.incrementAndGet();
+            users.invalidateAll(userIds);
+            views.invalidateAll(userIds);
+            invalidations.add(userIds.size());
+        }
+    }
+
+    /**
+     * Invalidate all the cached users.
+     */
+    public void invalidateAll() {
+        if (enabled) {
+            generation.incrementAndGet();
+            invalidations.add(users.estimatedSize());
+            users.invalidateAll();
+            views.invalidateAll();
+            usernames.invalidateAll();
+            emails.invalidateAll();
+        }
+    }
+
+    /**
+     * Tests if lookups are cached.
+     *
+     * @return {@code true} if lookups are cached, {@code false} if they go to the repository.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Get a snapshot of the cache statistics.
+     *
+     * @return the cache statistics.
+     */
+    public UserCacheStatistics getStatistics() {
+        return new UserCacheStatistics(hits.sum(), misses.sum(), evictions.sum(), invalidations.sum(),
+                users.estimatedSize());
+    }
+
+    private User lookup(final Cache<String, UUID> index, final String key,
+            final Function<User, String> property) {
+        final UUID userId = index.getIfPresent(key);
+        final User cached = userId == null ? null : users.getIfPresent(userId);
+
+        // The index entry is stale if the user was invalidated or its property changed
+        if (cached != null && key.equals(User.normalize(property.apply(cached)))) {
+            hits.increment();
+            return new User(cached);
+        }
+
+        return null;
+    }
+
+    private void cache(final User user, final long loadGeneration) {
+        if (user == null || generation.get() != loadGeneration) {
+            return;
+        }
+
+        afterCommit(() -> put(user, loadGeneration));
+    }
+
+    private static void afterCommit(final Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // The user may still change or be rolled back, its changes bump the generation
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private void put(final User user, final long loadGeneration) {
+        if (generation.get() != loadGeneration) {
+            return;
+        }
+
+        users.put(user.getId(), new User(user));
+        if (user.getUsername() != null) {
+            usernames.put(User.normalize(user.getUsername()), user.getId());
+        }
+        if (user.getEmail() != null) {
+            emails.put(User.normalize(user.getEmail()), user.getId());
+        }
+
+        // An invalidation may have happened while caching
+        if (generation.get() != loadGeneration) {
+            users.invalidate(user.getId());
+        }
+    }
+}
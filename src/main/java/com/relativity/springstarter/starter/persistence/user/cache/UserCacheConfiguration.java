@@ -0,0 +1,33 @@
+package com.relativity.springstarter.starter.persistence.user.cache;
+
+import com.relativity.springstarter.starter.persistence.user.dao.UserRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * The {@link UserCache} configuration.
+ *
+ * @author avakhobov
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(UserCacheProperties.class)
+public class UserCacheConfiguration {
+
+    @Bean
+    public UserCache userCache(final UserRepository repository, final UserCacheProperties properties,
+            final MeterRegistry registry) {
+        return new UserCache(repository, properties, registry);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "starter.persistence.user.cache", name = "enabled",
+            havingValue = "true")
+    public UserCacheInvalidator userCacheInvalidator(final UserCache cache) {
+        return new UserCacheInvalidator(cache);
+    }
+}
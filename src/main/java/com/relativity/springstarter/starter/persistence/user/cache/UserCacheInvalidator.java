@@ -0,0 +1,105 @@
+package com.relativity.springstarter.starter.persistence.user.cache;
+
+import com.relativity.springstarter.starter.persistence.AbstractGenericEntity;
+import com.relativity.springstarter.starter.persistence.user.dao.UserRepository;
+
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.annotation.AfterReturning;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Invalidates the {@link UserCache} when users are modified or deleted through the
+ * {@link UserRepository}.
+ *
+ * <p>
+ * Every user identifier or entity passed to a {@code save}, {@code update} or {@code set}
+ * repository method is invalidated, all the users are invalidated when no user is passed. All the
+ * users are invalidated by {@code delete} methods, as deleting a user releases the references other
+ * users hold to it. Invalidation happens when the method returns and again when the surrounding transaction
+ * commits, so users loaded in between are not cached stale.
+ * </p>
+ *
+ * @author avakhobov
+ */
+@Aspect
+public class UserCacheInvalidator {
+
+    /**
+     * The users cache.
+     */
+    private final UserCache cache;
+
+    /**
+     * Create a {@link UserCacheInvalidator}.
+     *
+     * @param cache the users cache.
+     */
+    public UserCacheInvalidator(final UserCache cache) {
+        super();
+        this.cache = cache;
+    }
+
+    /**
+     * Invalidate the users modified or deleted by a repository method.
+     *
+     * @param joinPoint the repository method call.
+     */
+    @AfterReturning("target(com.relativity.springstarter.starter.persistence.user.dao.UserRepository) "
+            + "&& (execution(* save*(..)) || execution(* update*(..)) || execution(* set*(..)) "
+            + "|| execution(* delete*(..)))")
+    public void invalidate(final JoinPoint joinPoint) {
+        final Set<UUID> userIds = new HashSet<>();
+        boolean all = joinPoint.getSignature().getName().startsWith("delete");
+
+        boolean found = false;
+        for (final Object arg : joinPoint.getArgs()) {
+            found |= collect(arg, userIds);
+        }
+        all |= !found;
+
+        final Runnable invalidation;
+        if (all) {
+            invalidation = cache::invalidateAll;
+        } else {
+            invalidation = () -> cache.invalidate(userIds);
+        }
+
+        invalidation.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidation.run();
+                }
+            });
+        }
+    }
+
+    private static boolean collect(final Object arg, final Set<UUID> userIds) {
+        boolean found = false;
+
+        if (arg instanceof UUID) {
+            userIds.add((UUID) arg);
+            found = true;
+        } else if (arg instanceof AbstractGenericEntity) {
+            final UUID id = ((AbstractGenericEntity) arg).getId();
+            if (id != null) {
+                userIds.add(id);
+            }
+            found = true;
+        } else if (arg instanceof Iterable) {
+            for (final Object element : (Iterable<?>) arg) {
+                collect(element, userIds);
+            }
+            found = true;
+        }
+
+        return found;
+    }
+}
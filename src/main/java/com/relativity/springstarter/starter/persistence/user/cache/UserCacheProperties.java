@@ -0,0 +1,83 @@
+package com.relativity.springstarter.starter.persistence.user.cache;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * The {@link UserCache} configuration properties.
+ *
+ * @author avakhobov
+ */
+@ConfigurationProperties(prefix = "starter.persistence.user.cache")
+public class UserCacheProperties {
+
+    /**
+     * Whether lookups are cached, otherwise they always go to the repository.
+     */
+    private boolean enabled = false;
+
+    /**
+     * The maximum number of cached users.
+     */
+    private long maximumSize = 10_000;
+
+    /**
+     * How long a user stays cached after being loaded.
+     */
+    private Duration timeToLive = Duration.ofSeconds(30);
+
+    /**
+     * Get the {@link #enabled}.
+     *
+     * @return the {@link #enabled}.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Set the {@link #enabled}.
+     *
+     * @param enabled the {@link #enabled} to set.
+     */
+    public void setEnabled(final boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Get the {@link #maximumSize}.
+     *
+     * @return the {@link #maximumSize}.
+     */
+    public long getMaximumSize() {
+        return maximumSize;
+    }
+
+    /**
+     * Set the {@link #maximumSize}.
+     *
+     * @param maximumSize the {@link #maximumSize} to set.
+     */
+    public void setMaximumSize(final long maximumSize) {
+        this.maximumSize = maximumSize;
+    }
+
+    /**
+     * Get the {@link #timeToLive}.
+     *
+     * @return the {@link #timeToLive}.
+     */
+    public Duration getTimeToLive() {
+        return timeToLive;
+    }
+
+    /**
+     * Set the {@link #timeToLive}.
+     *
+     * @param timeToLive the {@link #timeToLive} to set.
+     */
+    public void setTimeToLive(final Duration timeToLive) {
+        this.timeToLive = timeToLive;
+    }
+}
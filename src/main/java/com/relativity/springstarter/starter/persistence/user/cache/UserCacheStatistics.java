@@ -0,0 +1,116 @@
+package com.relativity.springstarter.starter.persistence.user.cache;
+
+/**
+ * A snapshot of the {@link UserCache} statistics.
+ *
+ * @author avakhobov
+ */
+public final class UserCacheStatistics {
+
+    /**
+     * The number of lookups served from the cache.
+     */
+    private final long hitCount;
+
+    /**
+     * The number of lookups that went to the repository.
+     */
+    private final long missCount;
+
+    /**
+     * The number of users evicted because of the size or time to live limits.
+     */
+    private final long evictionCount;
+
+    /**
+     * The number of users invalidated because they were modified or deleted.
+     */
+    private final long invalidationCount;
+
+    /**
+     * The approximate number of cached users.
+     */
+    private final long size;
+
+    /**
+     * Create a {@link UserCacheStatistics}.
+     *
+     * @param hitCount the number of lookups served from the cache.
+     * @param missCount the number of lookups that went to the repository.
+     * @param evictionCount the number of users evicted because of the size or time to live limits.
+     * @param invalidationCount the number of users invalidated because they were modified or deleted.
+     * @param size the approximate number of cached users.
+     */
+    public UserCacheStatistics(final long hitCount, final long missCount, final long evictionCount,
+            final long invalidationCount, final long size) {
+        super();
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.evictionCount = evictionCount;
+        this.invalidationCount = invalidationCount;
+        this.size = size;
+    }
+
+    /**
+     * Get the {@link #hitCount}.
+     *
+     * @return the {@link #hitCount}.
+     */
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * Get the {@link #missCount}.
+     *
+     * @return the {@link #missCount}.
+     */
+    public long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * Get the ratio of lookups served from the cache.
+     *
+     * @return the ratio of lookups served from the cache, {@code 1.0} if there was no lookup.
+     */
+    public double getHitRate() {
+        final long requests = hitCount + missCount;
+
+        return requests == 0 ? 1.0 : (double) hitCount / requests;
+    }
+
+    /**
+     * Get the {@link #evictionCount}.
+     *
+     * @return the {@link #evictionCount}.
+     */
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * Get the {@link #invalidationCount}.
+     *
+     * @return the {@link #invalidationCount}.
+     */
+    public long getInvalidationCount() {
+        return invalidationCount;
+    }
+
+    /**
+     * Get the {@link #size}.
+     *
+     * @return the {@link #size}.
+     */
+    public long getSize() {
+        return size;
+    }
+
+    @Override
+    public String toString() {
+        return "UserCacheStatistics [hitCount=" + hitCount + ", missCount=" + missCount
+                + ", evictionCount=" + evictionCount + ", invalidationCount=" + invalidationCount
+                + ", size=" + size + "]";
+    }
+}
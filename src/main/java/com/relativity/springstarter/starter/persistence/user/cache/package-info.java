@@ -0,0 +1,6 @@
+/**
+ * The <em>Users</em> lookups cache.
+ *
+ * @author avakhobov
+ */
+package com.relativity.springstarter.starter.persistence.user.cache;
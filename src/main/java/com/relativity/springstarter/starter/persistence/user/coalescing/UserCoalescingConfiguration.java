@@ -0,0 +1,80 @@
+package com.relativity.springstarter.starter.persistence.user.coalescing;
+
+import com.relativity.springstarter.starter.persistence.user.dao.UserRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+
+/**
+ * The {@link UserLookupCoalescer} configuration, enabled when the {@value #ENABLED_PROPERTY}
+ * property is {@code true}.
+ *
+ * <p>
+ * The coalescer is added first to the {@link UserRepository} proxy, so the waiting callers neither
+ * start a transaction nor hold a connection, and the default methods are coalesced as well.
+ * </p>
+ *
+ * @author avakhobov
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(UserCoalescingProperties.class)
+@ConditionalOnProperty(name = UserCoalescingConfiguration.ENABLED_PROPERTY, havingValue = "true")
+public class UserCoalescingConfiguration {
+
+    /**
+     * The lookups coalescing activation property.
+     */
+    public static final String ENABLED_PROPERTY = "starter.persistence.user.coalescing.enabled";
+
+    @Bean
+    public static UserCoalescingPostProcessor userCoalescingPostProcessor(
+            final ObjectProvider<MeterRegistry> registry,
+            final ObjectProvider<UserCoalescingProperties> properties) {
+        return new UserCoalescingPostProcessor(registry, properties);
+    }
+
+    /**
+     * Adds a {@link UserLookupCoalescer} to the {@link UserRepository} proxy.
+     */
+    static class UserCoalescingPostProcessor implements BeanPostProcessor {
+
+        /**
+         * The registry of the counters, resolved when the repository is created.
+         */
+        private final ObjectProvider<MeterRegistry> registry;
+
+        /**
+         * The coalescing properties, resolved when the repository is created.
+         */
+        private final ObjectProvider<UserCoalescingProperties> properties;
+
+        UserCoalescingPostProcessor(final ObjectProvider<MeterRegistry> registry,
+                final ObjectProvider<UserCoalescingProperties> properties) {
+            this.registry = registry;
+            this.properties = properties;
+        }
+
+        @Override
+        public Object postProcessBeforeInitialization(final Object bean, final String beanName) {
+            if (bean instanceof RepositoryFactoryBeanSupport) {
+                ((RepositoryFactoryBeanSupport<?, ?, ?>) bean).addRepositoryFactoryCustomizer(
+                        factory -> factory.addRepositoryProxyPostProcessor((proxy, information) -> {
+                            if (UserRepository.class.isAssignableFrom(information.getRepositoryInterface())) {
+                                final UserCoalescingProperties coalescing = properties.getObject();
+                                proxy.addAdvice(0, new UserLookupCoalescer(registry.getObject(),
+                                        coalescing.getMethods(), coalescing.getTimeout()));
+                            }
+                        }));
+            }
+
+            return bean;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.relativity.springstarter.starter.persistence.user.coalescing;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * The {@link UserLookupCoalescer} configuration properties.
+ *
+ * @author avakhobov
+ */
+@ConfigurationProperties(prefix = "starter.persistence.user.coalescing")
+public class UserCoalescingProperties {
+
+    /**
+     * Whether the concurrent identical lookups share one query.
+     */
+    private boolean enabled = false;
+
+    /**
+     * How long the callers wait for a shared query, from its start. Callers arriving later start a
+     * new query.
+     */
+    private Duration timeout = Duration.ofSeconds(5);
+
+    /**
+     * The coalesced {@code UserRepository} methods.
+     */
+    private Set<String> methods = new LinkedHashSet<>(Arrays.asList("findById",
+            "findByUsernameIgnoreCase", "findByEmailIgnoreCase", "findByUsernameOrEmailIgnoreCase",
+            "findViewById", "exists"));
+
+    /**
+     * Get the {@link #enabled}.
+     *
+     * @return the {@link #enabled}.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Set the {@link #enabled}.
+     *
+     * @param enabled the {@link #enabled} to set.
+     */
+    public void setEnabled(final boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Get the {@link #timeout}.
+     *
+     * @return the {@link #timeout}.
+     */
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    /**
+     * Set the {@link #timeout}.
+     *
+     * @param timeout the {@link #timeout} to set.
+     */
+    public void setTimeout(final Duration timeout) {
+        this.timeout = timeout;
+    }
+
+    /**
+     * Get the {@link #methods}.
+     *
+     * @return the {@link #methods}.
+     */
+    public Set<String> getMethods() {
+        return methods;
+    }
+
+    /**
+     * Set the {@link #methods}.
+     *
+     * @param methods the {@link #methods} to set.
+     */
+    public void setMethods(final Set<String> methods) {
+        this.methods = methods;
+    }
+}
@@ -0,0 +1,285 @@
+package com.relativity.springstarter.starter.persistence.user.coalescing;
+
+import com.relativity.springstarter.starter.persistence.user.entity.User;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Shares one query between the concurrent identical {@code UserRepository} lookups, for example when
+ * many clients sign in to the same account at once.
+ *
+ * <p>
+ * The first caller of a lookup runs the query, the callers asking for the same arguments while it
+ * runs wait for its result, or its exception which is rethrown to all of them. The usernames and
+ * emails of the {@code IgnoreCase} lookups are compared normalized. The waiting callers get a copy
+ * of the found {@link User}, so the callers can modify their user safely. The queries in flight are
+ * tracked in a {@link ConcurrentHashMap}, without lock on the lookup path.
+ * </p>
+ *
+ * <p>
+ * The callers wait at most the timeout from the start of the shared query, then fail with a
+ * {@link QueryTimeoutException}, and the callers arriving later start a new query. A caller does
+ * not join a query started before the last write through the repository returned, so it reads its
+ * own writes. The lookups within a transaction are not coalesced, as they must see its changes.
+ * </p>
+ *
+ * @author avakhobov
+ */
+public class UserLookupCoalescer implements MethodInterceptor {
+
+    /**
+     * The coalesced lookups counters name.
+     */
+    public static final String COALESCED_METRIC_NAME = "starter.user.lookups.coalesced";
+
+    /**
+     * The timed out waits counter name.
+     */
+    public static final String TIMEOUTS_METRIC_NAME = "starter.user.lookups.coalescing.timeouts";
+
+    /**
+     * The registry of the counters.
+     */
+    private final MeterRegistry registry;
+
+    /**
+     * The coalesced methods names.
+     */
+    private final Set<String> methods;
+
+    /**
+     * How long the callers wait for a shared query, from its start.
+     */
+    private final long timeoutNanos;
+
+    /**
+     * The queries in flight, by lookup.
+     */
+    private final ConcurrentMap<Lookup, Flight> flights = new ConcurrentHashMap<>();
+
+    /**
+     * Incremented after each write, so the callers do not join a query started before.
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * The coalesced lookups counters, by method.
+     */
+    private final ConcurrentMap<Method, Counter> coalesced = new ConcurrentHashMap<>();
+
+    /**
+     * The timed out waits counter.
+     */
+    private final Counter timeouts;
+
+    /**
+     * Create a {@link UserLookupCoalescer}.
+     *
+     * @param registry the registry of the counters.
+     * @param methods the coalesced methods names.
+     * @param timeout how long the callers wait for a shared query, from its start.
+     */
+    public UserLookupCoalescer(final MeterRegistry registry, final Collection<String> methods,
+            final Duration timeout) {
+        super();
+        this.registry = registry;
+        this.methods = new HashSet<>(methods);
+        this.timeoutNanos = timeout.toNanos();
+        this.timeouts = Counter.builder(TIMEOUTS_METRIC_NAME)
+                .description("The lookups which timed out waiting for a shared query").register(registry);
+    }
+
+    @Override
+    public Object invoke(final MethodInvocation invocation) throws Throwable {
+        final Method method = invocation.getMethod();
+        if (!methods.contains(method.getName())
+                || TransactionSynchronizationManager.isActualTransactionActive()) {
+            if (isWrite(method)) {
+                try {
+                    return invocation.proceed();
+                } finally {
+                    generation.incrementAndGet();
+                }
+            }
+            return invocation.proceed();
+        }
+
+        final Lookup lookup = new Lookup(method, invocation.getArguments());
+        final Flight flight = new Flight(System.nanoTime(), generation.get());
+        while (true) {
+            final Flight current = flights.putIfAbsent(lookup, flight);
+            if (current == null) {
+                return lead(invocation, lookup, flight);
+            }
+            if (current.generation == flight.generation && flight.start - current.start < timeoutNanos) {
+                return follow(method, current);
+            }
+            // Started before a write or too long ago, the new query replaces it
+            if (flights.replace(lookup, current, flight)) {
+                return lead(invocation, lookup, flight);
+            }
+        }
+    }
+
+    private Object lead(final MethodInvocation invocation, final Lookup lookup, final Flight flight)
+            throws Throwable {
+        try {
+            final Object result = invocation.proceed();
+            flight.result.complete(result);
+            return result;
+        } catch (final Throwable e) {
+            flight.result.completeExceptionally(e);
+            throw e;
+        } finally {
+            flights.remove(lookup, flight);
+        }
+    }
+
+    private Object follow(final Method method, final Flight flight) throws Throwable {
+        coalesced.computeIfAbsent(method, key -> Counter.builder(COALESCED_METRIC_NAME)
+                .description("The lookups answered by the query of a concurrent identical lookup")
+                .tag("method", key.getName()).register(registry)).increment();
+
+        try {
+            return copy(flight.result.get(flight.start + timeoutNanos - System.nanoTime(),
+                    TimeUnit.NANOSECONDS));
+        } catch (final ExecutionException e) {
+            throw e.getCause();
+        } catch (final TimeoutException e) {
+            timeouts.increment();
+            throw new QueryTimeoutException("Timed out waiting for the shared " + method.getName()
+                    + " query", e);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DataAccessResourceFailureException("Interrupted waiting for the shared "
+                    + method.getName() + " query", e);
+        }
+    }
+
+    /**
+     * Copy the users of a shared result, the other results are immutable.
+     */
+    private static Object copy(final Object result) {
+        if (result instanceof User) {
+            return new User((User) result);
+        }
+        if (result instanceof Optional && ((Optional<?>) result).orElse(null) instanceof User) {
+            return Optional.of(new User((User) ((Optional<?>) result).get()));
+        }
+        if (result instanceof List) {
+            final List<Object> users = new ArrayList<>(((List<?>) result).size());
+            for (final Object user : (List<?>) result) {
+                users.add(copy(user));
+            }
+            return users;
+        }
+
+        return result;
+    }
+
+    private static boolean isWrite(final Method method) {
+        final String name = method.getName();
+        return !(name.startsWith("find") || name.startsWith("exists") || name.startsWith("count")
+                || name.startsWith("stream") || name.startsWith("forEach")
+                || name.startsWith("authenticate") || method.getDeclaringClass() == Object.class);
+    }
+
+    /**
+     * A lookup, a method and its arguments.
+     */
+    private static final class Lookup {
+
+        /**
+         * The looked up method.
+         */
+        private final Method method;
+
+        /**
+         * The arguments, normalized if the lookup ignores case.
+         */
+        private final Object[] arguments;
+
+        /**
+         * The hash code, computed once.
+         */
+        private final int hash;
+
+        Lookup(final Method method, final Object[] arguments) {
+            this.method = method;
+            this.arguments = arguments.clone();
+            if (method.getName().endsWith("IgnoreCase")) {
+                for (int i = 0; i < this.arguments.length; i++) {
+                    if (this.arguments[i] instanceof String) {
+                        this.arguments[i] = User.normalize((String) this.arguments[i]);
+                    }
+                }
+            }
+            this.hash = 31 * method.hashCode() + Arrays.deepHashCode(this.arguments);
+        }
+
+        @Override
+        public boolean equals(final Object other) {
+            if (!(other instanceof Lookup)) {
+                return false;
+            }
+
+            final Lookup lookup = (Lookup) other;
+            return method.equals(lookup.method) && Arrays.deepEquals(arguments, lookup.arguments);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /**
+     * A query in flight.
+     */
+    private static final class Flight {
+
+        /**
+         * When the query started, in {@link System#nanoTime()}.
+         */
+        private final long start;
+
+        /**
+         * The write generation the query started in.
+         */
+        private final long generation;
+
+        /**
+         * The query result.
+         */
+        private final CompletableFuture<Object> result = new CompletableFuture<>();
+
+        Flight(final long start, final long generation) {
+            this.start = start;
+            this.generation = generation;
+        }
+    }
+}
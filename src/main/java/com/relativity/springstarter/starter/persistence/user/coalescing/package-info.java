@@ -0,0 +1,6 @@
+/**
+ * The coalescing of the concurrent identical <em>Users</em> lookups.
+ *
+ * @author avakhobov
+ */
+package com.relativity.springstarter.starter.persistence.user.coalescing;
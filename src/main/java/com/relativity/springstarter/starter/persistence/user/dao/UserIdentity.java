@@ -0,0 +1,39 @@
+package com.relativity.springstarter.starter.persistence.user.dao;
+
+import com.relativity.springstarter.starter.persistence.user.entity.User;
+
+import java.util.UUID;
+
+/**
+ * A read-only projection of the identifying properties of a {@link User}.
+ *
+ * <p>
+ * Used when only the identifier, username and email of the users are needed, for instance to build
+ * in-memory indexes, without loading managed {@link User} entities.
+ * </p>
+ *
+ * @author avakhobov
+ */
+public interface UserIdentity {
+
+    /**
+     * Get the {@link User} identifier.
+     *
+     * @return the {@link User} identifier.
+     */
+    UUID getId();
+
+    /**
+     * Get the {@link User} username.
+     *
+     * @return the {@link User} username.
+     */
+    String getUsername();
+
+    /**
+     * Get the {@link User} email.
+     *
+     * @return the {@link User} email.
+     */
+    String getEmail();
+}
@@ -1,22 +1,50 @@
 package com.relativity.springstarter.starter.persistence.user.dao;
 
+import com.relativity.springstarter.starter.persistence.BaseGenericRepository;
+import com.relativity.springstarter.starter.persistence.Chunks;
 import com.relativity.springstarter.starter.persistence.GenericRepository;
+import com.relativity.springstarter.starter.persistence.KeysetCursor;
+import com.relativity.springstarter.starter.persistence.KeysetPage;
+import com.relativity.springstarter.starter.persistence.KeysetPageRequest;
 import com.relativity.springstarter.starter.persistence.user.entity.User;
+import com.relativity.springstarter.starter.security.PasswordHasher;
+import com.relativity.springstarter.starter.security.PasswordHashers;
+import com.relativity.springstarter.starter.security.PasswordVerification;
 
+import org.springframework.dao.IncorrectResultSizeDataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
-import javax.persistence.NoResultException;
-import javax.persistence.NonUniqueResultException;
+import javax.persistence.QueryHint;
 
 /**
  * The {@link User} Data Access Object (DAO) interface.
  *
+ * <p>
+ * The <em>"containing"</em> searches always run their JPQL query, which scans the users, and keep
+ * their sort and page semantics. Search through the
+ * {@link com.relativity.springstarter.starter.persistence.user.search.UserSearchEngine} to have
+ * them served by an index when one is configured, the engine falling back to these queries.
+ * </p>
+ *
  * @author avakhobov
  */
 @Repository
@@ -33,6 +61,20 @@ public interface UserRepository extends GenericRepository<User> {
     @Query("FROM User AS u WHERE LOWER(u.username) LIKE concat('%', LOWER(:username), '%')")
     List<User> findAllContainingUsernameIgnoreCase(@Param("username") final String username);
 
+    /**
+     * Find {@link User} entities from the repository containing the username while ignoring case,
+     * restricted to the given page.
+     *
+     * @param username the username content to search.
+     * @param pageable paging conditions, used to limit the number of results.
+     *
+     * @return The list of the {@link User} entities matching the search in the requested page.
+     */
+    @Transactional(readOnly = true)
+    @Query("FROM User AS u WHERE LOWER(u.username) LIKE concat('%', LOWER(:username), '%')")
+    List<User> findAllContainingUsernameIgnoreCase(@Param("username") final String username,
+            final Pageable pageable);
+
     /**
      * Find all {@link User} entities from the repository containing the email while ignoring case.
      *
@@ -44,6 +86,20 @@ public interface UserRepository extends GenericRepository<User> {
     @Query("FROM User AS u WHERE LOWER(u.email) LIKE concat('%', LOWER(:email), '%')")
     List<User> findAllContainingEmailIgnoreCase(@Param("email") final String email);
 
+    /**
+     * Find {@link User} entities from the repository containing the email while ignoring case,
+     * restricted to the given page.
+     *
+     * @param email the email content to search.
+     * @param pageable paging conditions, used to limit the number of results.
+     *
+     * @return The list of the {@link User} entities matching the search in the requested page.
+     */
+    @Transactional(readOnly = true)
+    @Query("FROM User AS u WHERE LOWER(u.email) LIKE concat('%', LOWER(:email), '%')")
+    List<User> findAllContainingEmailIgnoreCase(@Param("email") final String email,
+            final Pageable pageable);
+
     /**
      * Find all {@link User} entities from the repository containing the username or email while ignoring case.
      *
@@ -58,64 +114,632 @@ public interface UserRepository extends GenericRepository<User> {
     List<User> findAllContainingUsernameOrEmailIgnoreCase(@Param("username") final String username,
             @Param("email") final String email);
 
+    /**
+     * Find {@link User} entities from the repository containing the username or email while ignoring
+     * case, restricted to the given page.
+     *
+     * @param username The username content to search.
+     * @param email The email content to search.
+     * @param pageable paging conditions, used to limit the number of results.
+     *
+     * @return The list of the {@link User} entities matching the search in the requested page.
+     */
+    @Transactional(readOnly = true)
+    @Query("FROM User AS u WHERE LOWER(u.username) LIKE concat('%', LOWER(:username), '%') "
+            + "OR LOWER(u.email) LIKE concat('%', LOWER(:email), '%')")
+    List<User> findAllContainingUsernameOrEmailIgnoreCase(@Param("username") final String username,
+            @Param("email") final String email, final Pageable pageable);
+
+    /**
+     * Find the identifying properties of all {@link User} entities from the repository.
+     *
+     * @return The list of the {@link UserIdentity} of all the {@link User} entities.
+     */
+    @Transactional(readOnly = true)
+    @Query("SELECT u.id AS id, u.username AS username, u.email AS email FROM User AS u")
+    List<UserIdentity> findAllIdentities();
+
+    /**
+     * The projection query selecting {@link UserView}s, to be completed with the conditions and
+     * ordering.
+     *
+     * <p>
+     * The {@code createdBy}, {@code modifiedBy} and {@code owner} identifiers are read from the
+     * foreign key columns, without joining the referenced users.
+     * </p>
+     */
+    String VIEW_QUERY = "SELECT new "
+            + "com.relativity.springstarter.starter.persistence.user.dao.UserView(u.id, u.username, "
+            + "u.email, u.firstname, u.lastname, u.enabled, u.verified, u.createdAt, u.modifiedAt, "
+            + "u.owner.id, u.createdBy.id, u.modifiedBy.id, u.version) FROM User AS u";
+
+    /**
+     * Retrieves the {@link UserView} of a {@link User} by its identifier.
+     *
+     * @param userId The identifier of the {@link User}.
+     *
+     * @return The {@link UserView} of the {@link User}, empty if none found.
+     */
+    @Transactional(readOnly = true)
+    @Query(VIEW_QUERY + " WHERE u.id = :userId")
+    Optional<UserView> findViewById(@Param("userId") final UUID userId);
+
+    /**
+     * Returns a {@link KeysetPage} of {@link UserView}s, in the same order and with the same
+     * continuation tokens as {@link #findAll(KeysetPageRequest)}.
+     *
+     * @param request the page request.
+     *
+     * @return the page of {@link UserView}s.
+     *
+     * @throws IllegalArgumentException if the continuation token is invalid.
+     */
+    @Transactional(readOnly = true)
+    default KeysetPage<UserView> findAllViews(final KeysetPageRequest request) {
+        // Fetch one more view than requested to know if there is a next page
+        final Pageable limit = PageRequest.of(0, request.getSize() + 1);
+        final List<UserView> content;
+
+        if (request.getToken() == null) {
+            content = new ArrayList<>(this.findViews(limit));
+        } else {
+            final KeysetCursor cursor = KeysetCursor.decode(request.getToken());
+            content = new ArrayList<>(
+                    this.findViewsAfter(cursor.getCreatedAt(), cursor.getId(), limit));
+        }
+
+        String nextToken = null;
+        if (content.size() > request.getSize()) {
+            content.remove(content.size() - 1);
+            final UserView last = content.get(content.size() - 1);
+            nextToken = KeysetCursor.of(last.getCreatedAt(), last.getId()).encode();
+        }
+
+        return new KeysetPage<>(content, nextToken, request.isCountTotal() ? this.count() : null);
+    }
+
+    /**
+     * Retrieves the first {@link UserView}s in keyset order.
+     *
+     * @param pageable the number of views to retrieve.
+     *
+     * @return The {@link UserView}s.
+     *
+     * @see #findAllViews(KeysetPageRequest)
+     */
+    @Transactional(readOnly = true)
+    @Query(VIEW_QUERY + " ORDER BY u.createdAt, u.id")
+    List<UserView> findViews(final Pageable pageable);
+
+    /**
+     * Retrieves the {@link UserView}s following a position in keyset order.
+     *
+     * @param createdAt the creation date of the last retrieved user.
+     * @param userId the identifier of the last retrieved user.
+     * @param pageable the number of views to retrieve.
+     *
+     * @return The {@link UserView}s.
+     *
+     * @see #findAllViews(KeysetPageRequest)
+     */
+    @Transactional(readOnly = true)
+    @Query(VIEW_QUERY + " WHERE u.createdAt >= :createdAt"
+            + " AND (u.createdAt > :createdAt OR u.id > :userId) ORDER BY u.createdAt, u.id")
+    List<UserView> findViewsAfter(@Param("createdAt") final Date createdAt,
+            @Param("userId") final UUID userId, final Pageable pageable);
+
+    /**
+     * Find the {@link UserView}s of several identifiers.
+     *
+     * <p>
+     * The identifiers are looked up in chunks as described in {@link #findEachById(List)}.
+     * </p>
+     *
+     * @param userIds The identifiers of {@link User}.
+     *
+     * @return The {@link UserView} of each identifier, in the order of the identifiers, empty if none
+     *         found.
+     */
+    @Transactional(readOnly = true)
+    default List<Optional<UserView>> findEachViewById(final List<UUID> userIds) {
+        return Chunks.lookup(userIds, Chunks.IN_CLAUSE_SIZE, this::findViewsByIdIn, UserView::getId);
+    }
+
+    /**
+     * Retrieves the {@link UserView}s of several identifiers.
+     *
+     * <p>
+     * Prefer {@link #findEachViewById(List)} which splits large collections.
+     * </p>
+     *
+     * @param userIds The identifiers of {@link User}.
+     *
+     * @return The {@link UserView}s found, in any order.
+     */
+    @Transactional(readOnly = true)
+    @Query(VIEW_QUERY + " WHERE u.id IN :userIds")
+    List<UserView> findViewsByIdIn(@Param("userIds") final Collection<UUID> userIds);
+
+    /**
+     * Retrieves the {@link UserView}s containing the username or email while ignoring case,
+     * restricted to the given page.
+     *
+     * @param username The username content to search.
+     * @param email The email content to search.
+     * @param pageable paging conditions, used to limit the number of results.
+     *
+     * @return The {@link UserView}s matching the search in the requested page.
+     *
+     * @see #findAllContainingUsernameOrEmailIgnoreCase(String, String, Pageable)
+     */
+    @Transactional(readOnly = true)
+    @Query(VIEW_QUERY + " WHERE LOWER(u.username) LIKE concat('%', LOWER(:username), '%') "
+            + "OR LOWER(u.email) LIKE concat('%', LOWER(:email), '%')")
+    List<UserView> findViewsContainingUsernameOrEmailIgnoreCase(@Param("username") final String username,
+            @Param("email") final String email, final Pageable pageable);
+
+    /**
+     * Stream the identifying properties of all {@link User} entities from the repository.
+     *
+     * <p>
+     * Rows are fetched from the database in chunks of {@link BaseGenericRepository#STREAM_FETCH_SIZE},
+     * so memory usage does not grow with the number of users. Must be called within a transaction and
+     * the stream must be closed once consumed.
+     * </p>
+     *
+     * @return The stream of the {@link UserIdentity} of all the {@link User} entities.
+     *
+     * @throws org.springframework.transaction.IllegalTransactionStateException if there is no
+     *         surrounding transaction.
+     */
+    @Transactional(readOnly = true, propagation = Propagation.MANDATORY)
+    @QueryHints(@QueryHint(name = org.hibernate.annotations.QueryHints.FETCH_SIZE,
+            value = "" + BaseGenericRepository.STREAM_FETCH_SIZE))
+    @Query("SELECT u.id AS id, u.username AS username, u.email AS email FROM User AS u")
+    Stream<UserIdentity> streamAllIdentities();
+
+    /**
+     * Perform an action for the identifying properties of each {@link User} entity from the
+     * repository.
+     *
+     * <p>
+     * Identities are streamed as described in {@link #streamAllIdentities()} within a read-only
+     * transaction.
+     * </p>
+     *
+     * @param action the action to perform on each {@link UserIdentity}.
+     */
+    @Transactional(readOnly = true)
+    default void forEachIdentity(final Consumer<? super UserIdentity> action) {
+        try (Stream<UserIdentity> identities = this.streamAllIdentities()) {
+            identities.forEach(action);
+        }
+    }
+
     /**
      * Find a {@link User} through its username while ignoring case.
      *
-     * @param username the username to search.
+     * <p>
+     * Compares the normalized username column, so the lookup uses its unique index.
+     * </p>
      *
-     * @return The {@link User} matching the username.
+     * @param username the username to search.
      *
-     * @throws NoResultException if no user matches the username in the repository.
-     * @throws NonUniqueResultException if several users match the username in the repository.
+     * @return The {@link User} matching the username, {@code null} if no user matches the username in
+     *         the repository.
      */
     @Transactional(readOnly = true)
-    User findByUsernameIgnoreCase(final String username);
+    default User findByUsernameIgnoreCase(final String username) {
+        return this.findByNormalizedUsername(User.normalize(username));
+    }
 
     /**
      * Find a {@link User} through its email while ignoring case.
      *
-     * @param email The email to search.
+     * <p>
+     * Compares the normalized email column, so the lookup uses its unique index.
+     * </p>
      *
-     * @return The {@link User} matching the email.
+     * @param email The email to search.
      *
-     * @throws NoResultException if no user matches the email in the repository.
-     * @throws NonUniqueResultException if several users match the email in the repository.
+     * @return The {@link User} matching the email, {@code null} if no user matches the email in the
+     *         repository.
      */
     @Transactional(readOnly = true)
-    User findByEmailIgnoreCase(final String email);
+    default User findByEmailIgnoreCase(final String email) {
+        return this.findByNormalizedEmail(User.normalize(email));
+    }
 
     /**
      * Find a user account through its username or email while ignoring case.
      *
+     * <p>
+     * Runs a lookup on each of the normalized username and email columns rather than a single query
+     * combining both, so each lookup uses its unique index.
+     * </p>
+     *
      * @param username The username to search.
      * @param email The email to search.
      *
-     * @return The {@link User} matching the username or email.
+     * @return The {@link User} matching the username or email, {@code null} if no user matches the
+     *         username or email in the repository.
      *
-     * @throws NoResultException if no user matches the username or email in the repository.
-     * @throws NonUniqueResultException if several users match the username or email in the repository.
+     * @throws IncorrectResultSizeDataAccessException if the username and the email match different
+     *         users in the repository.
      */
     @Transactional(readOnly = true)
-    User findByUsernameOrEmailIgnoreCase(final String username, final String email);
+    default User findByUsernameOrEmailIgnoreCase(final String username, final String email) {
+        final User byUsername = this.findByNormalizedUsername(User.normalize(username));
+        final User byEmail = this.findByNormalizedEmail(User.normalize(email));
+
+        // Compared by identifier, the lookups may return distinct instances of the same user
+        if (byUsername != null && byEmail != null && !byUsername.getId().equals(byEmail.getId())) {
+            throw new IncorrectResultSizeDataAccessException(1, 2);
+        }
+
+        return byUsername != null ? byUsername : byEmail;
+    }
+
+    /**
+     * Authenticate a user account through its username, ignoring case, and clear password.
+     *
+     * <p>
+     * Missing users take as long to authenticate as existing ones. The user and its password hash
+     * are read with short read-only calls and the password is verified outside of any transaction,
+     * so no connection is held while hashing. The password hash is upgraded with a separate
+     * {@code UPDATE} statement when it was made with another cost than the current one, see
+     * {@link PasswordHasher#verify(String, char...)}.
+     * </p>
+     *
+     * @param username the username.
+     * @param password the clear password, zeroed once verified.
+     *
+     * @return the authenticated {@link User}, {@code null} if no user matches the username or the
+     *         password does not match.
+     */
+    default User authenticate(final String username, final char... password) {
+        final User user = this.findByNormalizedUsername(User.normalize(username));
+        final String hash = user != null ? this.findPasswordById(user.getId()) : null;
+        if (hash == null) {
+            PasswordHashers.getDefault().verify(null, password);
+            return null;
+        }
+
+        if (password == null) {
+            return null;
+        }
+
+        final PasswordVerification verification = PasswordHashers.getDefault().verify(hash, password);
+        if (!verification.isMatched()) {
+            return null;
+        }
+
+        if (verification.getRehash() != null) {
+            this.updatePassword(user.getId(), hash, verification.getRehash());
+            user.setPassword(verification.getRehash());
+        } else {
+            user.setPassword(hash);
+        }
+
+        return user;
+    }
+
+    /**
+     * Find the password hash of a {@link User}.
+     *
+     * @param userId The identifier of {@link User}.
+     *
+     * @return The password hash, {@code null} if the user has none or is not found.
+     */
+    @Transactional(readOnly = true)
+    @Query("SELECT u.password FROM User AS u WHERE u.id = :userId")
+    String findPasswordById(@Param("userId") final UUID userId);
+
+    /**
+     * Replace the password hash of a {@link User} with a single statement, if it did not change
+     * meanwhile.
+     *
+     * <p>
+     * The modification date is kept, as the password itself does not change.
+     * </p>
+     *
+     * @param userId The identifier of {@link User}.
+     * @param hash The expected current password hash.
+     * @param rehash The password hash to set.
+     *
+     * @return The number of updated user accounts, {@code 0} if the user is not found or its
+     *         password changed.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE User AS u SET u.password = :rehash WHERE u.id = :userId AND u.password = :hash")
+    int updatePassword(@Param("userId") final UUID userId, @Param("hash") final String hash,
+            @Param("rehash") final String rehash);
+
+    /**
+     * Find a {@link User} through its normalized username.
+     *
+     * @param normalizedUsername the {@link User#normalize(String) normalized} username to search.
+     *
+     * @return The {@link User} matching the normalized username, {@code null} if none matches.
+     */
+    @Transactional(readOnly = true)
+    User findByNormalizedUsername(final String normalizedUsername);
+
+    /**
+     * Find a {@link User} through its normalized email.
+     *
+     * @param normalizedEmail the {@link User#normalize(String) normalized} email to search.
+     *
+     * @return The {@link User} matching the normalized email, {@code null} if none matches.
+     */
+    @Transactional(readOnly = true)
+    User findByNormalizedEmail(final String normalizedEmail);
+
+    /**
+     * Tests if a {@link User} exists with the normalized username.
+     *
+     * @param normalizedUsername the {@link User#normalize(String) normalized} username to check.
+     *
+     * @return {@code true} if a {@link User} exists with the normalized username, {@code false}
+     *         otherwise.
+     */
+    @Transactional(readOnly = true)
+    boolean existsByNormalizedUsername(final String normalizedUsername);
+
+    /**
+     * Tests if a {@link User} exists with the normalized email.
+     *
+     * @param normalizedEmail the {@link User#normalize(String) normalized} email to check.
+     *
+     * @return {@code true} if a {@link User} exists with the normalized email, {@code false}
+     *         otherwise.
+     */
+    @Transactional(readOnly = true)
+    boolean existsByNormalizedEmail(final String normalizedEmail);
+
+    /**
+     * Find the {@link User}s of several identifiers.
+     *
+     * <p>
+     * The identifiers are split in chunks of {@link Chunks#IN_CLAUSE_SIZE}, each chunk being looked
+     * up with a single {@code SELECT} statement within the same transaction, rather than one statement
+     * per identifier. The chunks run in parallel with
+     * {@link com.relativity.springstarter.starter.persistence.async.AsyncUserRepository#findEachById(List)}.
+     * </p>
+     *
+     * @param userIds The identifiers of {@link User}.
+     *
+     * @return The {@link User} of each identifier, in the order of the identifiers, empty if none
+     *         found.
+     */
+    @Transactional(readOnly = true)
+    default List<Optional<User>> findEachById(final List<UUID> userIds) {
+        return Chunks.lookup(userIds, Chunks.IN_CLAUSE_SIZE, this::findAllById, User::getId);
+    }
+
+    /**
+     * Find the {@link User}s of several identifiers.
+     *
+     * <p>
+     * Secure method to ensure you only read if you own the data by providing the authenticated user
+     * as owner. {@link #findEachById(List)} should be used instead if authenticated user has
+     * administration permissions.
+     * </p>
+     *
+     * @param userIds The identifiers of {@link User}.
+     * @param owner The entity owner.
+     *
+     * @return The {@link User} of each identifier, in the order of the identifiers, empty if none
+     *         found or not owned by the owner.
+     */
+    @Transactional(readOnly = true)
+    default List<Optional<User>> findEachByIdAndOwner(final List<UUID> userIds, final User owner) {
+        return Chunks.lookup(userIds, Chunks.IN_CLAUSE_SIZE,
+                chunk -> this.findAllByIdInAndOwner(chunk, owner), User::getId);
+    }
+
+    /**
+     * Find the {@link User}s of several usernames while ignoring case.
+     *
+     * <p>
+     * The usernames are looked up in chunks as described in {@link #findEachById(List)}, comparing
+     * the normalized username column.
+     * </p>
+     *
+     * @param usernames The usernames to search.
+     *
+     * @return The {@link User} of each username, in the order of the usernames, empty if none found.
+     */
+    @Transactional(readOnly = true)
+    default List<Optional<User>> findEachByUsernameIgnoreCase(final List<String> usernames) {
+        return Chunks.lookup(normalize(usernames), Chunks.IN_CLAUSE_SIZE,
+                this::findAllByNormalizedUsernameIn, user -> User.normalize(user.getUsername()));
+    }
+
+    /**
+     * Find the {@link User}s of several usernames while ignoring case.
+     *
+     * <p>
+     * Secure method to ensure you only read if you own the data by providing the authenticated user
+     * as owner. {@link #findEachByUsernameIgnoreCase(List)} should be used instead if authenticated
+     * user has administration permissions.
+     * </p>
+     *
+     * @param usernames The usernames to search.
+     * @param owner The entity owner.
+     *
+     * @return The {@link User} of each username, in the order of the usernames, empty if none found
+     *         or not owned by the owner.
+     */
+    @Transactional(readOnly = true)
+    default List<Optional<User>> findEachByUsernameIgnoreCaseAndOwner(final List<String> usernames,
+            final User owner) {
+        return Chunks.lookup(normalize(usernames), Chunks.IN_CLAUSE_SIZE,
+                chunk -> this.findAllByNormalizedUsernameInAndOwner(chunk, owner),
+                user -> User.normalize(user.getUsername()));
+    }
+
+    /**
+     * Find the {@link User}s of several emails while ignoring case.
+     *
+     * <p>
+     * The emails are looked up in chunks as described in {@link #findEachById(List)}, comparing the
+     * normalized email column.
+     * </p>
+     *
+     * @param emails The emails to search.
+     *
+     * @return The {@link User} of each email, in the order of the emails, empty if none found.
+     */
+    @Transactional(readOnly = true)
+    default List<Optional<User>> findEachByEmailIgnoreCase(final List<String> emails) {
+        return Chunks.lookup(normalize(emails), Chunks.IN_CLAUSE_SIZE,
+                this::findAllByNormalizedEmailIn, user -> User.normalize(user.getEmail()));
+    }
+
+    /**
+     * Find the {@link User}s of several emails while ignoring case.
+     *
+     * <p>
+     * Secure method to ensure you only read if you own the data by providing the authenticated user
+     * as owner. {@link #findEachByEmailIgnoreCase(List)} should be used instead if authenticated user
+     * has administration permissions.
+     * </p>
+     *
+     * @param emails The emails to search.
+     * @param owner The entity owner.
+     *
+     * @return The {@link User} of each email, in the order of the emails, empty if none found or not
+     *         owned by the owner.
+     */
+    @Transactional(readOnly = true)
+    default List<Optional<User>> findEachByEmailIgnoreCaseAndOwner(final List<String> emails,
+            final User owner) {
+        return Chunks.lookup(normalize(emails), Chunks.IN_CLAUSE_SIZE,
+                chunk -> this.findAllByNormalizedEmailInAndOwner(chunk, owner),
+                user -> User.normalize(user.getEmail()));
+    }
+
+    /**
+     * Find the {@link User}s of identifiers owned by user with a single statement.
+     *
+     * <p>
+     * Prefer {@link #findEachByIdAndOwner(List, User)} which splits large collections.
+     * </p>
+     *
+     * @param userIds The identifiers of {@link User}.
+     * @param owner The entity owner.
+     *
+     * @return The found {@link User}s, in no particular order.
+     */
+    @Transactional(readOnly = true)
+    List<User> findAllByIdInAndOwner(final Collection<UUID> userIds, final User owner);
+
+    /**
+     * Find the {@link User}s of normalized usernames with a single statement.
+     *
+     * <p>
+     * Prefer {@link #findEachByUsernameIgnoreCase(List)} which splits large collections.
+     * </p>
+     *
+     * @param normalizedUsernames the {@link User#normalize(String) normalized} usernames to search.
+     *
+     * @return The found {@link User}s, in no particular order.
+     */
+    @Transactional(readOnly = true)
+    List<User> findAllByNormalizedUsernameIn(final Collection<String> normalizedUsernames);
+
+    /**
+     * Find the {@link User}s of normalized usernames owned by user with a single statement.
+     *
+     * <p>
+     * Prefer {@link #findEachByUsernameIgnoreCaseAndOwner(List, User)} which splits large
+     * collections.
+     * </p>
+     *
+     * @param normalizedUsernames the {@link User#normalize(String) normalized} usernames to search.
+     * @param owner The entity owner.
+     *
+     * @return The found {@link User}s, in no particular order.
+     */
+    @Transactional(readOnly = true)
+    List<User> findAllByNormalizedUsernameInAndOwner(final Collection<String> normalizedUsernames,
+            final User owner);
+
+    /**
+     * Find the {@link User}s of normalized emails with a single statement.
+     *
+     * <p>
+     * Prefer {@link #findEachByEmailIgnoreCase(List)} which splits large collections.
+     * </p>
+     *
+     * @param normalizedEmails the {@link User#normalize(String) normalized} emails to search.
+     *
+     * @return The found {@link User}s, in no particular order.
+     */
+    @Transactional(readOnly = true)
+    List<User> findAllByNormalizedEmailIn(final Collection<String> normalizedEmails);
+
+    /**
+     * Find the {@link User}s of normalized emails owned by user with a single statement.
+     *
+     * <p>
+     * Prefer {@link #findEachByEmailIgnoreCaseAndOwner(List, User)} which splits large collections.
+     * </p>
+     *
+     * @param normalizedEmails the {@link User#normalize(String) normalized} emails to search.
+     * @param owner The entity owner.
+     *
+     * @return The found {@link User}s, in no particular order.
+     */
+    @Transactional(readOnly = true)
+    List<User> findAllByNormalizedEmailInAndOwner(final Collection<String> normalizedEmails,
+            final User owner);
 
     /**
      * Set the active status of a user account.
      *
+     * <p>
+     * The status is updated with a single {@code UPDATE} statement, without loading the user account,
+     * and the modification date is set to the database current timestamp. The persistence context is
+     * cleared afterwards, detaching the entities it managed.
+     * </p>
+     *
      * @param userId The user account identifier.
      * @param enabled The enabled status to set.
      *
-     * @return The updated {@link User}, {@code null} if user account was not found in persistence layer.
+     * @return The number of updated user accounts, {@code 0} if user account was not found in
+     *         persistence layer.
      */
-    default User setEnabled(final UUID userId, final boolean enabled) {
-        User updateEntity = this.findById(userId).orElse(null);
+    @Transactional
+    default int setEnabled(final UUID userId, final boolean enabled) {
+        return this.updateEnabled(Collections.singleton(userId), enabled);
+    }
 
-        if (updateEntity != null) {
-            updateEntity.setEnabled(enabled);
+    /**
+     * Set the active status of several user accounts.
+     *
+     * <p>
+     * The identifiers are split in chunks of {@link Chunks#IN_CLAUSE_SIZE}, each chunk being updated
+     * with a single {@code UPDATE} statement within the same transaction. The persistence context is
+     * cleared after each statement, detaching the entities it managed.
+     * </p>
+     *
+     * @param userIds The user account identifiers.
+     * @param enabled The enabled status to set.
+     *
+     * @return The number of updated user accounts.
+     */
+    @Transactional
+    default int setEnabled(final Collection<UUID> userIds, final boolean enabled) {
+        int updated = 0;
 
-            updateEntity = this.save(updateEntity);
+        for (final List<UUID> chunk : Chunks.distinct(userIds, Chunks.IN_CLAUSE_SIZE)) {
+            updated += this.updateEnabled(chunk, enabled);
         }
 
-        return updateEntity;
+        return updated;
     }
 
     /**
@@ -129,40 +753,86 @@ public interface UserRepository extends GenericRepository<User> {
      *
      * @param userId The user account identifier.
      * @param enabled The enabled status to set.
-     * @param owner The entity owner.
+     * @param owner The entity owner, {@code null} for the unowned users.
      *
-     * @return the updated {@link User}, {@code null} if user account was not found in persistence layer.
+     * @return The number of updated user accounts, {@code 0} if user account was not found in
+     *         persistence layer.
      */
-    default User setEnabledByOwner(final UUID userId, final boolean enabled, final User owner) {
-        User updateEntity = this.findByIdAndOwner(userId, owner);
+    @Transactional
+    default int setEnabledByOwner(final UUID userId, final boolean enabled, final User owner) {
+        return this.updateEnabledByOwner(Collections.singleton(userId), enabled, owner);
+    }
 
-        if (updateEntity != null) {
-            updateEntity.setEnabled(enabled);
+    /**
+     * Set the active status of several user accounts.
+     *
+     * <p>
+     * Secure method to ensure you only update if you own the data by providing the authenticated user
+     * as owner. {@link #setEnabled(Collection, boolean)} should be used instead if authenticated user
+     * has administration permissions.
+     * </p>
+     *
+     * @param userIds The user account identifiers.
+     * @param enabled The enabled status to set.
+     * @param owner The entity owner, {@code null} for the unowned users.
+     *
+     * @return The number of updated user accounts.
+     */
+    @Transactional
+    default int setEnabledByOwner(final Collection<UUID> userIds, final boolean enabled,
+            final User owner) {
+        int updated = 0;
 
-            updateEntity = this.save(updateEntity);
+        for (final List<UUID> chunk : Chunks.distinct(userIds, Chunks.IN_CLAUSE_SIZE)) {
+            updated += this.updateEnabledByOwner(chunk, enabled, owner);
         }
 
-        return updateEntity;
+        return updated;
     }
 
     /**
      * Set the verified status of a user account.
      *
+     * <p>
+     * The status is updated with a single {@code UPDATE} statement, without loading the user account,
+     * and the modification date is set to the database current timestamp. The persistence context is
+     * cleared afterwards, detaching the entities it managed.
+     * </p>
+     *
      * @param userId The identifier of {@link User}.
      * @param verified The verified status to set.
      *
-     * @return The updated {@link User}, {@code null} if user account was not found in persistence layer.
+     * @return The number of updated user accounts, {@code 0} if user account was not found in
+     *         persistence layer.
      */
-    default User setVerified(final UUID userId, final boolean verified) {
-        User updateEntity = this.findById(userId).orElse(null);
+    @Transactional
+    default int setVerified(final UUID userId, final boolean verified) {
+        return this.updateVerified(Collections.singleton(userId), verified);
+    }
 
-        if (updateEntity != null) {
-            updateEntity.setVerified(verified);
+    /**
+     * Set the verified status of several user accounts.
+     *
+     * <p>
+     * The identifiers are split in chunks of {@link Chunks#IN_CLAUSE_SIZE}, each chunk being updated
+     * with a single {@code UPDATE} statement within the same transaction. The persistence context is
+     * cleared after each statement, detaching the entities it managed.
+     * </p>
+     *
+     * @param userIds The identifiers of {@link User}.
+     * @param verified The verified status to set.
+     *
+     * @return The number of updated user accounts.
+     */
+    @Transactional
+    default int setVerified(final Collection<UUID> userIds, final boolean verified) {
+        int updated = 0;
 
-            updateEntity = this.save(updateEntity);
+        for (final List<UUID> chunk : Chunks.distinct(userIds, Chunks.IN_CLAUSE_SIZE)) {
+            updated += this.updateVerified(chunk, verified);
         }
 
-        return updateEntity;
+        return updated;
     }
 
     /**
@@ -176,26 +846,140 @@ public interface UserRepository extends GenericRepository<User> {
      *
      * @param userId The identifier of {@link User}.
      * @param verified the verified status to set.
-     * @param owner The {@link User} entity as owner.
+     * @param owner The {@link User} entity as owner, {@code null} for the unowned users.
      *
-     * @return The updated {@link User}, {@code null} if user account was not found in persistence layer.
+     * @return The number of updated user accounts, {@code 0} if user account was not found in
+     *         persistence layer.
      */
-    default User setVerifiedByOwner(final UUID userId, final boolean verified, final User owner) {
-        User updateEntity = this.findByIdAndOwner(userId, owner);
+    @Transactional
+    default int setVerifiedByOwner(final UUID userId, final boolean verified, final User owner) {
+        return this.updateVerifiedByOwner(Collections.singleton(userId), verified, owner);
+    }
 
-        if (updateEntity != null) {
-            updateEntity.setVerified(verified);
+    /**
+     * Set the verified status of several user accounts.
+     *
+     * <p>
+     * Secure method to ensure you only update if you own the data by providing the authenticated user
+     * as owner. {@link #setVerified(Collection, boolean)} should be used instead if authenticated user
+     * has administration permissions.
+     * </p>
+     *
+     * @param userIds The identifiers of {@link User}.
+     * @param verified the verified status to set.
+     * @param owner The {@link User} entity as owner, {@code null} for the unowned users.
+     *
+     * @return The number of updated user accounts.
+     */
+    @Transactional
+    default int setVerifiedByOwner(final Collection<UUID> userIds, final boolean verified,
+            final User owner) {
+        int updated = 0;
 
-            updateEntity = this.save(updateEntity);
+        for (final List<UUID> chunk : Chunks.distinct(userIds, Chunks.IN_CLAUSE_SIZE)) {
+            updated += this.updateVerifiedByOwner(chunk, verified, owner);
         }
 
-        return updateEntity;
+        return updated;
     }
 
+    /**
+     * Update the active status of user accounts with a single statement.
+     *
+     * <p>
+     * The persistence context is flushed before and cleared after the update, so every entity it
+     * managed is detached, not only the updated users. Prefer
+     * {@link #setEnabled(Collection, boolean)} which splits large collections.
+     * </p>
+     *
+     * @param userIds The user account identifiers.
+     * @param enabled The enabled status to set.
+     *
+     * @return The number of updated user accounts.
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE User AS u SET u.enabled = :enabled, u.modifiedAt = CURRENT_TIMESTAMP, "
+            + "u.version = u.version + 1 WHERE u.id IN :userIds")
+    int updateEnabled(@Param("userIds") final Collection<UUID> userIds,
+            @Param("enabled") final boolean enabled);
+
+    /**
+     * Update the active status of user accounts owned by user with a single statement.
+     *
+     * <p>
+     * The persistence context is flushed before and cleared after the update, so every entity it
+     * managed is detached, not only the updated users. Prefer
+     * {@link #setEnabledByOwner(Collection, boolean, User)} which splits large collections.
+     * </p>
+     *
+     * @param userIds The user account identifiers.
+     * @param enabled The enabled status to set.
+     * @param owner The entity owner, {@code null} for the unowned users.
+     *
+     * @return The number of updated user accounts.
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE User AS u SET u.enabled = :enabled, u.modifiedAt = CURRENT_TIMESTAMP, "
+            + "u.version = u.version + 1 WHERE u.id IN :userIds AND "
+            + "(:owner IS NULL AND u.owner IS NULL OR u.owner = :owner)")
+    int updateEnabledByOwner(@Param("userIds") final Collection<UUID> userIds,
+            @Param("enabled") final boolean enabled, @Param("owner") final User owner);
+
+    /**
+     * Update the verified status of user accounts with a single statement.
+     *
+     * <p>
+     * The persistence context is flushed before and cleared after the update, so every entity it
+     * managed is detached, not only the updated users. Prefer
+     * {@link #setVerified(Collection, boolean)} which splits large collections.
+     * </p>
+     *
+     * @param userIds The identifiers of {@link User}.
+     * @param verified The verified status to set.
+     *
+     * @return The number of updated user accounts.
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE User AS u SET u.verified = :verified, u.modifiedAt = CURRENT_TIMESTAMP, "
+            + "u.version = u.version + 1 WHERE u.id IN :userIds")
+    int updateVerified(@Param("userIds") final Collection<UUID> userIds,
+            @Param("verified") final boolean verified);
+
+    /**
+     * Update the verified status of user accounts owned by user with a single statement.
+     *
+     * <p>
+     * The persistence context is flushed before and cleared after the update, so every entity it
+     * managed is detached, not only the updated users. Prefer
+     * {@link #setVerifiedByOwner(Collection, boolean, User)} which splits large collections.
+     * </p>
+     *
+     * @param userIds The identifiers of {@link User}.
+     * @param verified The verified status to set.
+     * @param owner The {@link User} entity as owner, {@code null} for the unowned users.
+     *
+     * @return The number of updated user accounts.
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE User AS u SET u.verified = :verified, u.modifiedAt = CURRENT_TIMESTAMP, "
+            + "u.version = u.version + 1 WHERE u.id IN :userIds AND "
+            + "(:owner IS NULL AND u.owner IS NULL OR u.owner = :owner)")
+    int updateVerifiedByOwner(@Param("userIds") final Collection<UUID> userIds,
+            @Param("verified") final boolean verified, @Param("owner") final User owner);
+
     /**
      * Tests if an entity exists in the repository for the given primary key or the username or the
      * email.
      *
+     * <p>
+     * Runs an existence check on each of the primary key, normalized username and normalized email
+     * columns, stopping at the first match, so each check uses its unique index.
+     * </p>
+     *
      * @param userId The identifier of {@link User} to check existence.
      * @param username The username of the {@link User} to check existence.
      * @param email The email of the {@link User} to check existence.
@@ -203,8 +987,20 @@ public interface UserRepository extends GenericRepository<User> {
      * @return {@code true} if {@link User} exists, {@code false} otherwise.
      */
     @Transactional(readOnly = true)
-    @Query("SELECT count(u) > 0 FROM User AS u WHERE u.id = :userId "
-            + "OR LOWER(u.username) = LOWER(:username) OR LOWER(u.email) = LOWER(:email)")
-    boolean exists(@Param("userId") final UUID userId, @Param("username") final String username,
-            @Param("email") final String email);
+    default boolean exists(final UUID userId, final String username, final String email) {
+        return userId != null && this.existsById(userId)
+                || username != null && this.existsByNormalizedUsername(User.normalize(username))
+                || email != null && this.existsByNormalizedEmail(User.normalize(email));
+    }
+
+    /**
+     * {@link User#normalize(String) Normalize} usernames or emails.
+     *
+     * @param values the usernames or emails.
+     *
+     * @return the normalized values, in the same order.
+     */
+    private static List<String> normalize(final List<String> values) {
+        return values.stream().map(User::normalize).collect(Collectors.toList());
+    }
 }
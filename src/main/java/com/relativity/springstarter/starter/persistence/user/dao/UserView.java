@@ -0,0 +1,260 @@
+package com.relativity.springstarter.starter.persistence.user.dao;
+
+import com.relativity.springstarter.starter.persistence.AbstractGenericEntity;
+import com.relativity.springstarter.starter.persistence.user.entity.User;
+
+import java.util.Date;
+import java.util.UUID;
+
+/**
+ * A read-only, constructor-based projection of the public properties of a {@link User}.
+ *
+ * <p>
+ * Built by the repository projection queries straight from the selected columns, so reading users
+ * through views neither instantiates managed {@link User} entities nor initializes their
+ * {@code createdBy}, {@code modifiedBy} and {@code owner} proxies, which are only exposed by
+ * identifier. The password is never part of a view.
+ * </p>
+ *
+ * @author avakhobov
+ */
+public final class UserView {
+
+    /**
+     * The {@link User} identifier.
+     */
+    private final UUID id;
+
+    /**
+     * The {@link User} username.
+     */
+    private final String username;
+
+    /**
+     * The {@link User} email.
+     */
+    private final String email;
+
+    /**
+     * The {@link User} firstname.
+     */
+    private final String firstname;
+
+    /**
+     * The {@link User} lastname.
+     */
+    private final String lastname;
+
+    /**
+     * Is the {@link User} account active.
+     */
+    private final boolean enabled;
+
+    /**
+     * Is the {@link User} account verified.
+     */
+    private final boolean verified;
+
+    /**
+     * The {@link User} creation date.
+     */
+    private final Date createdAt;
+
+    /**
+     * The {@link User} last modification date, {@code null} if never modified.
+     */
+    private final Date modifiedAt;
+
+    /**
+     * The identifier of the {@link User} owner, {@code null} if not owned.
+     */
+    private final UUID ownerId;
+
+    /**
+     * The identifier of the {@link User} creator, {@code null} if unknown.
+     */
+    private final UUID createdById;
+
+    /**
+     * The identifier of the {@link User} last modifier, {@code null} if unknown.
+     */
+    private final UUID modifiedById;
+
+    /**
+     * The {@link User} version, incremented on each change.
+     */
+    private final long version;
+
+    /**
+     * Create a {@link UserView}.
+     *
+     * @param id the {@link User} identifier.
+     * @param username the {@link User} username.
+     * @param email the {@link User} email.
+     * @param firstname the {@link User} firstname.
+     * @param lastname the {@link User} lastname.
+     * @param enabled is the {@link User} account active.
+     * @param verified is the {@link User} account verified.
+     * @param createdAt the {@link User} creation date.
+     * @param modifiedAt the {@link User} last modification date.
+     * @param ownerId the identifier of the {@link User} owner.
+     * @param createdById the identifier of the {@link User} creator.
+     * @param modifiedById the identifier of the {@link User} last modifier.
+     * @param version the {@link User} version.
+     */
+    public UserView(final UUID id, final String username, final String email,
+            final String firstname, final String lastname, final boolean enabled,
+            final boolean verified, final Date createdAt, final Date modifiedAt, final UUID ownerId,
+            final UUID createdById, final UUID modifiedById, final long version) {
+        super();
+        this.id = id;
+        this.username = username;
+        this.email = email;
+        this.firstname = firstname;
+        this.lastname = lastname;
+        this.enabled = enabled;
+        this.verified = verified;
+        this.createdAt = createdAt;
+        this.modifiedAt = modifiedAt;
+        this.ownerId = ownerId;
+        this.createdById = createdById;
+        this.modifiedById = modifiedById;
+        this.version = version;
+    }
+
+    /**
+     * Create the view of an already loaded {@link User}.
+     *
+     * @param user the user.
+     *
+     * @return the view of the user.
+     */
+    public static UserView of(final User user) {
+        return new UserView(user.getId(), user.getUsername(), user.getEmail(), user.getFirstname(),
+                user.getLastname(), user.isEnabled(), user.isVerified(), user.getCreatedAt(),
+                user.getModifiedAt(), idOf(user.getOwner()), idOf(user.getCreatedBy()),
+                idOf(user.getModifiedBy()), user.getVersion());
+    }
+
+    /**
+     * Get the {@link #id}.
+     *
+     * @return the {@link #id}.
+     */
+    public UUID getId() {
+        return id;
+    }
+
+    /**
+     * Get the {@link #username}.
+     *
+     * @return the {@link #username}.
+     */
+    public String getUsername() {
+        return username;
+    }
+
+    /**
+     * Get the {@link #email}.
+     *
+     * @return the {@link #email}.
+     */
+    public String getEmail() {
+        return email;
+    }
+
+    /**
+     * Get the {@link #firstname}.
+     *
+     * @return the {@link #firstname}.
+     */
+    public String getFirstname() {
+        return firstname;
+    }
+
+    /**
+     * Get the {@link #lastname}.
+     *
+     * @return the {@link #lastname}.
+     */
+    public String getLastname() {
+        return lastname;
+    }
+
+    /**
+     * Get the {@link #enabled}.
+     *
+     * @return the {@link #enabled}.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Get the {@link #verified}.
+     *
+     * @return the {@link #verified}.
+     */
+    public boolean isVerified() {
+        return verified;
+    }
+
+    /**
+     * Get the {@link #createdAt}.
+     *
+     * @return the {@link #createdAt}.
+     */
+    public Date getCreatedAt() {
+        return createdAt;
+    }
+
+    /**
+     * Get the {@link #modifiedAt}.
+     *
+     * @return the {@link #modifiedAt}.
+     */
+    public Date getModifiedAt() {
+        return modifiedAt;
+    }
+
+    /**
+     * Get the {@link #ownerId}.
+     *
+     * @return the {@link #ownerId}.
+     */
+    public UUID getOwnerId() {
+        return ownerId;
+    }
+
+    /**
+     * Get the {@link #createdById}.
+     *
+     * @return the {@link #createdById}.
+     */
+    public UUID getCreatedById() {
+        return createdById;
+    }
+
+    /**
+     * Get the {@link #modifiedById}.
+     *
+     * @return the {@link #modifiedById}.
+     */
+    public UUID getModifiedById() {
+        return modifiedById;
+    }
+
+    /**
+     * Get the {@link #version}.
+     *
+     * @return the {@link #version}.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    private static UUID idOf(final AbstractGenericEntity entity) {
+        // The identifier of an uninitialized proxy is read without initializing it
+        return entity == null ? null : entity.getId();
+    }
+}
@@ -1,22 +1,48 @@
 package com.relativity.springstarter.starter.persistence.user.entity;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import com.relativity.springstarter.starter.persistence.AbstractGenericEntity;
+import com.relativity.springstarter.starter.persistence.user.availability.UserAvailabilityListener;
+import com.relativity.springstarter.starter.persistence.user.search.UserSearchIndexListener;
+import com.relativity.springstarter.starter.security.PasswordHasher;
+import com.relativity.springstarter.starter.security.PasswordHashers;
+import com.relativity.springstarter.starter.security.PasswordVerification;
+
+import org.hibernate.Hibernate;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.LazyGroup;
 
-import java.util.Collection;
 import java.util.HashSet;
+import java.util.Locale;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.RejectedExecutionException;
 
+import javax.persistence.Basic;
 import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.EntityListeners;
 import javax.persistence.FetchType;
+import javax.persistence.Index;
 import javax.persistence.OneToMany;
-import javax.persistence.PreRemove;
 import javax.persistence.Table;
 
 @Entity
-@Table(name = "users")
+@DynamicUpdate
+@EntityListeners({ UserSearchIndexListener.class, UserAvailabilityListener.class })
+// The owner index also serves the releases of the owner references, see BaseGenericRepository
+@Table(name = "users", indexes = {
+        @Index(name = "users_created_at_id_idx",
+                columnList = AbstractGenericEntity.CREATED_AT_PROPERTY + ", "
+                        + AbstractGenericEntity.ID_PROPERTY),
+        @Index(name = "users_owner_created_at_id_idx",
+                columnList = AbstractGenericEntity.OWNER_PROPERTY + ", "
+                        + AbstractGenericEntity.CREATED_AT_PROPERTY + ", "
+                        + AbstractGenericEntity.ID_PROPERTY),
+        @Index(name = "users_created_by_idx", columnList = AbstractGenericEntity.CREATED_BY_PROPERTY),
+        @Index(name = "users_modified_by_idx",
+                columnList = AbstractGenericEntity.MODIFIED_BY_PROPERTY) })
 public class User extends AbstractGenericEntity {
 
     /**
@@ -39,6 +65,13 @@ public class User extends AbstractGenericEntity {
      */
     public static final int MAX_LENGTH_PASSWORD = 512;
 
+    /**
+     * User <em>password</em> field.
+     *
+     * @see User#password
+     */
+    public static final String PASSWORD_FIELD = "password";
+
     /**
      * The user's firstname name.
      */
@@ -63,9 +96,39 @@ public class User extends AbstractGenericEntity {
     @Column(name = "email", unique = true, nullable = false, length = MAX_LENGTH_EMAIL)
     private String email = null;
 
+    /**
+     * The user's account name, case-folded, kept in sync with {@link #username}.
+     *
+     * <p>
+     * Case-insensitive lookups compare this column so they can use its unique index.
+     * </p>
+     */
+    @JsonIgnore
+    @Column(name = "username_normalized", unique = true, nullable = false,
+            length = MAX_LENGTH_USERNAME)
+    private String normalizedUsername = null;
+
+    /**
+     * The user's account email, case-folded, kept in sync with {@link #email}.
+     *
+     * <p>
+     * Case-insensitive lookups compare this column so they can use its unique index.
+     * </p>
+     */
+    @JsonIgnore
+    @Column(name = "email_normalized", unique = true, nullable = false, length = MAX_LENGTH_EMAIL)
+    private String normalizedEmail = null;
+
     /**
      * The user's account hashed password.
+     *
+     * <p>
+     * Loaded on first access rather than with the user, as few reads need it.
+     * </p>
      */
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
+    @Basic(fetch = FetchType.LAZY)
+    @LazyGroup(PASSWORD_FIELD)
     @Column(name = "password", length = MAX_LENGTH_PASSWORD, updatable = true)
     private String password = null;
 
@@ -120,6 +183,7 @@ public class User extends AbstractGenericEntity {
     public User(final String username) {
         super();
         this.username = username;
+        this.normalizedUsername = normalize(username);
     }
 
     /**
@@ -131,12 +195,18 @@ public class User extends AbstractGenericEntity {
     public User(final String username, final String email) {
         super();
         this.username = username;
+        this.normalizedUsername = normalize(username);
         this.email = email;
+        this.normalizedEmail = normalize(email);
     }
 
     /**
      * Create a copy of a {@link User}.
      *
+     * <p>
+     * The {@link #password} is left {@code null} if it was not loaded in the other entity.
+     * </p>
+     *
      * @param other the other entity to copy.
      *
      * @throws NullPointerException if the {@code other} entity is @{code null}.
@@ -145,11 +215,52 @@ public class User extends AbstractGenericEntity {
         super(other);
 
         this.username = other.getUsername();
+        this.normalizedUsername = normalize(other.getUsername());
         this.email = other.getEmail();
-        this.password = other.getPassword();
+        this.normalizedEmail = normalize(other.getEmail());
+        if (Hibernate.isPropertyInitialized(other, PASSWORD_FIELD)) {
+            this.password = other.getPassword();
+        }
         this.enabled = other.isEnabled();
         this.verified = other.isVerified();
-        this.username = other.getUsername();
+        this.firstname = other.getFirstname();
+        this.lastname = other.getLastname();
+    }
+
+    /**
+     * Get the {@link #firstname}.
+     *
+     * @return the {@link #firstname}.
+     */
+    public String getFirstname() {
+        return firstname;
+    }
+
+    /**
+     * Set the {@link #firstname}.
+     *
+     * @param firstname the {@link #firstname} to set.
+     */
+    public void setFirstname(final String firstname) {
+        this.firstname = firstname;
+    }
+
+    /**
+     * Get the {@link #lastname}.
+     *
+     * @return the {@link #lastname}.
+     */
+    public String getLastname() {
+        return lastname;
+    }
+
+    /**
+     * Set the {@link #lastname}.
+     *
+     * @param lastname the {@link #lastname} to set.
+     */
+    public void setLastname(final String lastname) {
+        this.lastname = lastname;
     }
 
     /**
@@ -164,10 +275,15 @@ public class User extends AbstractGenericEntity {
     /**
      * Set the {@link #username}.
      *
+     * <p>
+     * Also sets the {@link #normalizedUsername}.
+     * </p>
+     *
      * @param username the {@link #username} to set.
      */
     public void setUsername(final String username) {
         this.username = username;
+        this.normalizedUsername = normalize(username);
     }
 
     /**
@@ -183,7 +299,8 @@ public class User extends AbstractGenericEntity {
      * Set the {@link #email}.
      *
      * <p>
-     * Note that changing the email will set the user as unverified.
+     * Note that changing the email will set the user as unverified. Also sets the
+     * {@link #normalizedEmail}.
      * </p>
      *
      * @param email the {@link #email} to set.
@@ -191,6 +308,7 @@ public class User extends AbstractGenericEntity {
     public void setEmail(final String email) {
         if (!Objects.equals(this.email, email)) {
             this.email = email;
+            this.normalizedEmail = normalize(email);
             this.setVerified(false);
         }
     }
@@ -207,16 +325,54 @@ public class User extends AbstractGenericEntity {
     /**
      * Set the {@link #password}.
      *
+     * <p>
+     * The password is hashed by the {@link PasswordHashers#getDefault() default hasher}, on its
+     * worker threads, and zeroed once hashed.
+     * </p>
+     *
      * @param password the clear {@link #password} to hash and set.
+     *
+     * @throws IllegalArgumentException if the password is longer than
+     *         {@value PasswordHasher#MAX_PASSWORD_BYTES} bytes.
+     * @throws RejectedExecutionException if too many passwords are waiting to be hashed.
      */
     public final void setPassword(final char... password) {
         if (password == null) {
             this.password = null;
         } else {
-            this.password = null; // TODO: need to implement hash generator for password
+            this.password = PasswordHashers.getDefault().hash(password);
         }
     }
 
+    /**
+     * Tests if a clear password matches the {@link #password}.
+     *
+     * <p>
+     * When the password matches a hash made with another cost than the one of the
+     * {@link PasswordHashers#getDefault() default hasher}, the {@link #password} is replaced by a
+     * hash made with the current cost, so it is upgraded when this user is saved.
+     * </p>
+     *
+     * @param password the clear password, zeroed once verified.
+     *
+     * @return {@code true} if the password matches, {@code false} otherwise.
+     *
+     * @throws RejectedExecutionException if too many passwords are waiting to be hashed.
+     */
+    public boolean checkPassword(final char... password) {
+        if (password == null) {
+            return false;
+        }
+
+        final PasswordVerification verification = PasswordHashers.getDefault()
+                .verify(this.password, password);
+        if (verification.getRehash() != null) {
+            this.password = verification.getRehash();
+        }
+
+        return verification.isMatched();
+    }
+
     /**
      * Set the {@link #password}.
      *
@@ -262,6 +418,17 @@ public class User extends AbstractGenericEntity {
         this.verified = verified;
     }
 
+    /**
+     * Case-fold a username or email, as stored in the normalized columns.
+     *
+     * @param value the username or email.
+     *
+     * @return the case-folded value, {@code null} if {@code value} is {@code null}.
+     */
+    public static String normalize(final String value) {
+        return value == null ? null : value.toLowerCase(Locale.ROOT);
+    }
+
     @Override
     public <T extends AbstractGenericEntity> void update(T entity) {
         super.update(entity);
@@ -271,7 +438,7 @@ public class User extends AbstractGenericEntity {
 
             this.setUsername(user.getUsername());
             this.setEmail(user.getEmail());
-            if (user.getPassword() != null) {
+            if (Hibernate.isPropertyInitialized(user, PASSWORD_FIELD) && user.getPassword() != null) {
                 this.setPassword(user.getPassword());
             }
         }
@@ -307,36 +474,4 @@ public class User extends AbstractGenericEntity {
 
         return equals;
     }
-
-    @PreRemove
-    protected void preRemove() {
-        // Set to null references to this user
-        resetRelationships(createdUsers, modifiedUsers, ownedUsers);
-    }
-
-    /**
-     * Set usual relationships to {@code null}.
-     *
-     * @see #preRemove()
-     *
-     * @param created entities whose <em>"created by"</em> relation must be set to {@code null}
-     * @param modified entities whose <em>"modified by"</em> relation must be set to {@code null}
-     * @param owned entities whose <em>"owned by"</em> relation must be set to {@code null}
-     *
-     * @throws NullPointerException if any of the collection is {@code null} or contains {@code null}
-     *         values
-     */
-    protected static void resetRelationships(Collection<? extends AbstractGenericEntity> created,
-            Collection<? extends AbstractGenericEntity> modified,
-            Collection<? extends AbstractGenericEntity> owned) {
-        for (final AbstractGenericEntity entity : created) {
-            entity.setCreatedBy(null);
-        }
-        for (final AbstractGenericEntity entity : modified) {
-            entity.setModifiedBy(null);
-        }
-        for (final AbstractGenericEntity entity : owned) {
-            entity.setOwner(null);
-        }
-    }
 }
@@ -0,0 +1,193 @@
+package com.relativity.springstarter.starter.persistence.user.search;
+
+import com.relativity.springstarter.starter.concurrent.BoundedExecutor;
+import com.relativity.springstarter.starter.concurrent.ThreadKind;
+import com.relativity.springstarter.starter.persistence.Chunks;
+import com.relativity.springstarter.starter.persistence.user.dao.UserRepository;
+import com.relativity.springstarter.starter.persistence.user.dao.UserView;
+import com.relativity.springstarter.starter.persistence.user.entity.User;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * {@link UserSearchEngine} resolving the searches through a {@link UserSearchIndex}.
+ *
+ * <p>
+ * Searches fall back to the {@link SqlUserSearchEngine} while the index is not ready or when the
+ * search terms contain {@code LIKE} wildcards. The index is rebuilt in the background once the
+ * application is ready, from a streaming scan of the users.
+ * </p>
+ *
+ * @author avakhobov
+ */
+public class NGramUserSearchEngine implements UserSearchEngine {
+
+    /**
+     * The {@link User} repository.
+     */
+    private final UserRepository repository;
+
+    /**
+     * The {@link User} search index.
+     */
+    private final UserSearchIndex index;
+
+    /**
+     * The engine used when the index cannot serve a search.
+     */
+    private final UserSearchEngine fallback;
+
+    /**
+     * Runs the background rebuilds, one at a time.
+     */
+    private final BoundedExecutor background = new BoundedExecutor("user-search-rebuild",
+            ThreadKind.PLATFORM, 1, 0);
+
+    /**
+     * The rebuild in progress or last completed, {@code null} if none was requested.
+     */
+    private CompletableFuture<Void> rebuild = null;
+
+    /**
+     * Create a {@link NGramUserSearchEngine}.
+     *
+     * @param repository the {@link User} repository.
+     * @param index the {@link User} search index.
+     */
+    public NGramUserSearchEngine(final UserRepository repository, final UserSearchIndex index) {
+        super();
+        this.repository = repository;
+        this.index = index;
+        this.fallback = new SqlUserSearchEngine(repository);
+    }
+
+    /**
+     * Rebuild the search index in the background once the application is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuildInBackground();
+    }
+
+    /**
+     * Rebuild the search index in the background.
+     *
+     * <p>
+     * Searches fall back to the {@link SqlUserSearchEngine} while rebuilding. Requesting a rebuild
+     * while one is in progress returns the rebuild in progress.
+     * </p>
+     *
+     * @return the rebuild completion.
+     */
+    public synchronized CompletableFuture<Void> rebuildInBackground() {
+        if (rebuild == null || rebuild.isDone()) {
+            rebuild = background.submit(() -> {
+                rebuild();
+                return null;
+            });
+        }
+
+        return rebuild;
+    }
+
+    /**
+     * Rebuild the search index from a streaming scan of the repository content.
+     */
+    public void rebuild() {
+        index.rebuild(repository::forEachIdentity);
+    }
+
+    /**
+     * Stop accepting rebuilds, the rebuild in progress still completes.
+     */
+    public void shutdown() {
+        background.shutdown();
+    }
+
+    @Override
+    public List<User> findAllContainingUsernameIgnoreCase(final String username, final int limit) {
+        final List<User> users;
+
+        if (canServe(username)) {
+            users = load(index.searchUsername(username, limit), limit, repository::findEachById);
+        } else {
+            users = fallback.findAllContainingUsernameIgnoreCase(username, limit);
+        }
+
+        return users;
+    }
+
+    @Override
+    public List<User> findAllContainingEmailIgnoreCase(final String email, final int limit) {
+        final List<User> users;
+
+        if (canServe(email)) {
+            users = load(index.searchEmail(email, limit), limit, repository::findEachById);
+        } else {
+            users = fallback.findAllContainingEmailIgnoreCase(email, limit);
+        }
+
+        return users;
+    }
+
+    @Override
+    public List<User> findAllContainingUsernameOrEmailIgnoreCase(final String username,
+            final String email, final int limit) {
+        final List<User> users;
+
+        if (canServe(username) && UserSearchIndex.isLiteral(email)) {
+            users = load(index.searchUsernameOrEmail(username, email, limit), limit, repository::findEachById);
+        } else {
+            users = fallback.findAllContainingUsernameOrEmailIgnoreCase(username, email, limit);
+        }
+
+        return users;
+    }
+
+    @Override
+    public List<UserView> findViewsContainingUsernameOrEmailIgnoreCase(final String username,
+            final String email, final int limit) {
+        final List<UserView> views;
+
+        if (canServe(username) && UserSearchIndex.isLiteral(email)) {
+            views = load(index.searchUsernameOrEmail(username, email, limit), limit,
+                    repository::findEachViewById);
+        } else {
+            views = fallback.findViewsContainingUsernameOrEmailIgnoreCase(username, email, limit);
+        }
+
+        return views;
+    }
+
+    private boolean canServe(final String term) {
+        return index.isReady() && UserSearchIndex.isLiteral(term);
+    }
+
+    /**
+     * Load the users, or their views, of the first {@code limit} identifiers, in chunks of
+     * {@link Chunks#IN_CLAUSE_SIZE}, skipping the users deleted since they were indexed.
+     */
+    private static <T> List<T> load(final List<UUID> ids, final int limit,
+            final Function<List<UUID>, List<Optional<T>>> lookup) {
+        if (ids.isEmpty() || limit < 1) {
+            return Collections.emptyList();
+        }
+
+        final List<UUID> limited = ids.size() > limit ? ids.subList(0, limit) : ids;
+        final List<T> users = new ArrayList<>(limited.size());
+        for (final Optional<T> user : lookup.apply(limited)) {
+            user.ifPresent(users::add);
+        }
+
+        return users;
+    }
+}
@@ -0,0 +1,56 @@
+package com.relativity.springstarter.starter.persistence.user.search;
+
+import com.relativity.springstarter.starter.persistence.user.dao.UserRepository;
+import com.relativity.springstarter.starter.persistence.user.dao.UserView;
+import com.relativity.springstarter.starter.persistence.user.entity.User;
+
+import org.springframework.data.domain.PageRequest;
+
+import java.util.List;
+
+/**
+ * {@link UserSearchEngine} delegating to the {@link UserRepository} JPQL queries.
+ *
+ * @author avakhobov
+ */
+public class SqlUserSearchEngine implements UserSearchEngine {
+
+    /**
+     * The {@link User} repository.
+     */
+    private final UserRepository repository;
+
+    /**
+     * Create a {@link SqlUserSearchEngine}.
+     *
+     * @param repository the {@link User} repository.
+     */
+    public SqlUserSearchEngine(final UserRepository repository) {
+        super();
+        this.repository = repository;
+    }
+
+    @Override
+    public List<User> findAllContainingUsernameIgnoreCase(final String username, final int limit) {
+        return repository.findAllContainingUsernameIgnoreCase(username, PageRequest.of(0, limit));
+    }
+
+    @Override
+    public List<User> findAllContainingEmailIgnoreCase(final String email, final int limit) {
+        return repository.findAllContainingEmailIgnoreCase(email, PageRequest.of(0, limit));
+    }
+
+    @Override
+    public List<User> findAllContainingUsernameOrEmailIgnoreCase(final String username,
+            final String email, final int limit) {
+        return repository.findAllContainingUsernameOrEmailIgnoreCase(username, email,
+                PageRequest.of(0, limit));
+    }
+
+    @Override
+    public List<UserView> findViewsContainingUsernameOrEmailIgnoreCase(final String username,
+            final String email, final int limit) {
+        return repository.findViewsContainingUsernameOrEmailIgnoreCase(username, email,
+                PageRequest.of(0, limit));
+    }
+}
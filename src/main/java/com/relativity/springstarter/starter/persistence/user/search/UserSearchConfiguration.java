@@ -0,0 +1,56 @@
+package com.relativity.springstarter.starter.persistence.user.search;
+
+import com.relativity.springstarter.starter.persistence.user.dao.UserRepository;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * The {@link UserSearchEngine} configuration.
+ *
+ * <p>
+ * The engine is selected with the {@value #ENGINE_PROPERTY} property: {@value #ENGINE_SQL} (default)
+ * runs the JPQL queries, {@value #ENGINE_NGRAM} serves them from an in-memory
+ * {@link UserSearchIndex}.
+ * </p>
+ *
+ * @author avakhobov
+ */
+@Configuration(proxyBeanMethods = false)
+public class UserSearchConfiguration {
+
+    /**
+     * The search engine selection property.
+     */
+    public static final String ENGINE_PROPERTY = "starter.persistence.user.search.engine";
+
+    /**
+     * The JPQL search engine name.
+     */
+    public static final String ENGINE_SQL = "sql";
+
+    /**
+     * The n-gram index search engine name.
+     */
+    public static final String ENGINE_NGRAM = "ngram";
+
+    @Bean
+    @ConditionalOnProperty(name = ENGINE_PROPERTY, havingValue = ENGINE_SQL, matchIfMissing = true)
+    public UserSearchEngine sqlUserSearchEngine(final UserRepository repository) {
+        return new SqlUserSearchEngine(repository);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = ENGINE_PROPERTY, havingValue = ENGINE_NGRAM)
+    public UserSearchIndex userSearchIndex() {
+        return new UserSearchIndex();
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    @ConditionalOnProperty(name = ENGINE_PROPERTY, havingValue = ENGINE_NGRAM)
+    public UserSearchEngine nGramUserSearchEngine(final UserRepository repository,
+            final UserSearchIndex index) {
+        return new NGramUserSearchEngine(repository, index);
+    }
+}
@@ -0,0 +1,109 @@
+package com.relativity.springstarter.starter.persistence.user.search;
+
+import com.relativity.springstarter.starter.persistence.user.dao.UserView;
+import com.relativity.springstarter.starter.persistence.user.entity.User;
+
+import java.util.List;
+
+/**
+ * Search engine for the {@link User} <em>"containing"</em> searches.
+ *
+ * <p>
+ * Implementations must return the same results as the corresponding
+ * {@link com.relativity.springstarter.starter.persistence.user.dao.UserRepository} queries. Results
+ * are not ordered.
+ * </p>
+ *
+ * @author avakhobov
+ */
+public interface UserSearchEngine {
+
+    /**
+     * Find all {@link User} entities containing the username while ignoring case.
+     *
+     * @param username the username content to search.
+     *
+     * @return The list of all the {@link User} entities matching the search.
+     */
+    default List<User> findAllContainingUsernameIgnoreCase(final String username) {
+        return findAllContainingUsernameIgnoreCase(username, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Find at most {@code limit} {@link User} entities containing the username while ignoring case.
+     *
+     * @param username the username content to search.
+     * @param limit the maximum number of results.
+     *
+     * @return The list of the {@link User} entities matching the search.
+     *
+     * @throws IllegalArgumentException if {@code limit} is less than one.
+     */
+    List<User> findAllContainingUsernameIgnoreCase(final String username, final int limit);
+
+    /**
+     * Find all {@link User} entities containing the email while ignoring case.
+     *
+     * @param email the email content to search.
+     *
+     * @return The list of all the {@link User} entities matching the search.
+     */
+    default List<User> findAllContainingEmailIgnoreCase(final String email) {
+        return findAllContainingEmailIgnoreCase(email, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Find at most {@code limit} {@link User} entities containing the email while ignoring case.
+     *
+     * @param email the email content to search.
+     * @param limit the maximum number of results.
+     *
+     * @return The list of the {@link User} entities matching the search.
+     *
+     * @throws IllegalArgumentException if {@code limit} is less than one.
+     */
+    List<User> findAllContainingEmailIgnoreCase(final String email, final int limit);
+
+    /**
+     * Find all {@link User} entities containing the username or email while ignoring case.
+     *
+     * @param username The username content to search.
+     * @param email The email content to search.
+     *
+     * @return The list of all the {@link User} entities matching the search.
+     */
+    default List<User> findAllContainingUsernameOrEmailIgnoreCase(final String username,
+            final String email) {
+        return findAllContainingUsernameOrEmailIgnoreCase(username, email, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Find at most {@code limit} {@link User} entities containing the username or email while
+     * ignoring case.
+     *
+     * @param username The username content to search.
+     * @param email The email content to search.
+     * @param limit the maximum number of results.
+     *
+     * @return The list of the {@link User} entities matching the search.
+     *
+     * @throws IllegalArgumentException if {@code limit} is less than one.
+     */
+    List<User> findAllContainingUsernameOrEmailIgnoreCase(final String username, final String email,
+            final int limit);
+
+    /**
+     * Find the {@link UserView}s of at most {@code limit} {@link User} entities containing the
+     * username or email while ignoring case, without loading the entities.
+     *
+     * @param username The username content to search.
+     * @param email The email content to search.
+     * @param limit the maximum number of results.
+     *
+     * @return The list of the {@link UserView}s matching the search.
+     *
+     * @throws IllegalArgumentException if {@code limit} is less than one.
+     */
+    List<UserView> findViewsContainingUsernameOrEmailIgnoreCase(final String username,
+            final String email, final int limit);
+}
@@ -0,0 +1,379 @@
+package com.relativity.springstarter.starter.persistence.user.search;
+
+import com.relativity.springstarter.starter.persistence.user.dao.UserIdentity;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * In-memory n-gram index over the lowercased usernames and emails of the users.
+ *
+ * <p>
+ * Every indexed value is split into overlapping grams of {@link #GRAM_LENGTH} characters, each
+ * gram referencing the identifiers of the users whose value contains it. A search term is resolved
+ * through the smallest posting list of its grams and each candidate is then verified with a plain
+ * {@link String#contains(CharSequence)}, so results are exact. Terms shorter than a gram are
+ * verified against every indexed user.
+ * </p>
+ *
+ * <p>
+ * This class is thread-safe.
+ * </p>
+ *
+ * @author avakhobov
+ */
+public class UserSearchIndex {
+
+    /**
+     * The length of the indexed grams.
+     */
+    public static final int GRAM_LENGTH = 3;
+
+    /**
+     * The indexed values, by user identifier.
+     */
+    private final Map<UUID, Entry> entries = new HashMap<>();
+
+    /**
+     * The username posting lists, by gram.
+     */
+    private final Map<String, Set<UUID>> usernameGrams = new HashMap<>();
+
+    /**
+     * The email posting lists, by gram.
+     */
+    private final Map<String, Set<UUID>> emailGrams = new HashMap<>();
+
+    /**
+     * The lock guarding the index structures.
+     */
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * The identifiers modified while a rebuild is in progress, {@code null} if no rebuild is in
+     * progress.
+     */
+    private Set<UUID> rebuildTouched = null;
+
+    /**
+     * Whether the last rebuild of the index completed.
+     */
+    private volatile boolean ready = false;
+
+    /**
+     * Tests if a search term can be served by the index.
+     *
+     * <p>
+     * Terms containing {@code LIKE} wildcards or escape characters have a different meaning in the
+     * JPQL queries and cannot be served by the index.
+     * </p>
+     *
+     * @param term the search term.
+     *
+     * @return {@code true} if the term can be served by the index, {@code false} otherwise.
+     */
+    public static boolean isLiteral(final String term) {
+        return term == null
+                || term.indexOf('%') < 0 && term.indexOf('_') < 0 && term.indexOf('\\') < 0;
+    }
+
+    /**
+     * Tests if the last rebuild of the index completed.
+     *
+     * @return {@code true} if the index can serve searches, {@code false} otherwise.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Get the number of indexed users.
+     *
+     * @return the number of indexed users.
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Add or replace a user in the index.
+     *
+     * @param id the user identifier.
+     * @param username the user username.
+     * @param email the user email.
+     *
+     * @throws NullPointerException if {@code id} is {@code null}.
+     */
+    public void put(final UUID id, final String username, final String email) {
+        Objects.requireNonNull(id, "id");
+        final Entry entry = new Entry(normalize(username), normalize(email));
+
+        lock.writeLock().lock();
+        try {
+            if (rebuildTouched != null) {
+                rebuildTouched.add(id);
+            }
+            doPut(id, entry);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove a user from the index.
+     *
+     * @param id the user identifier.
+     *
+     * @throws NullPointerException if {@code id} is {@code null}.
+     */
+    public void remove(final UUID id) {
+        Objects.requireNonNull(id, "id");
+
+        lock.writeLock().lock();
+        try {
+            if (rebuildTouched != null) {
+                rebuildTouched.add(id);
+            }
+            doRemove(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Rebuild the whole index from a scan of the users.
+     *
+     * <p>
+     * The users are indexed as they are scanned, without being collected first, the index lock being
+     * held for one user at a time. Changes applied through {@link #put} and {@link #remove} while
+     * scanning take precedence over the scanned content. The index is not {@link #isReady() ready}
+     * until the rebuild completes.
+     * </p>
+     *
+     * @param scan the scan of the users, performing the given action for each user.
+     */
+    public void rebuild(final Consumer<Consumer<? super UserIdentity>> scan) {
+        lock.writeLock().lock();
+        try {
+            ready = false;
+            entries.clear();
+            usernameGrams.clear();
+            emailGrams.clear();
+            rebuildTouched = new HashSet<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        try {
+            scan.accept(user -> {
+                lock.writeLock().lock();
+                try {
+                    if (!rebuildTouched.contains(user.getId())) {
+                        doPut(user.getId(),
+                                new Entry(normalize(user.getUsername()), normalize(user.getEmail())));
+                    }
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            });
+        } finally {
+            lock.writeLock().lock();
+            try {
+                rebuildTouched = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        ready = true;
+    }
+
+    /**
+     * Find the identifiers of the users containing the username while ignoring case.
+     *
+     * @param username the username content to search.
+     * @param limit the maximum number of results.
+     *
+     * @return the identifiers of the matching users.
+     */
+    public List<UUID> searchUsername(final String username, final int limit) {
+        return search(username, null, limit);
+    }
+
+    /**
+     * Find the identifiers of the users containing the email while ignoring case.
+     *
+     * @param email the email content to search.
+     * @param limit the maximum number of results.
+     *
+     * @return the identifiers of the matching users.
+     */
+    public List<UUID> searchEmail(final String email, final int limit) {
+        return search(null, email, limit);
+    }
+
+    /**
+     * Find the identifiers of the users containing the username or email while ignoring case.
+     *
+     * @param username the username content to search.
+     * @param email the email content to search.
+     * @param limit the maximum number of results.
+     *
+     * @return the identifiers of the matching users.
+     */
+    public List<UUID> searchUsernameOrEmail(final String username, final String email,
+            final int limit) {
+        return search(username, email, limit);
+    }
+
+    private List<UUID> search(final String username, final String email, final int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Limit must not be less than one");
+        }
+
+        final Set<UUID> result = new LinkedHashSet<>();
+
+        lock.readLock().lock();
+        try {
+            collect(usernameGrams, Entry::getUsername, normalize(username), limit, result);
+            collect(emailGrams, Entry::getEmail, normalize(email), limit, result);
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        return new ArrayList<>(result);
+    }
+
+    private void collect(final Map<String, Set<UUID>> grams, final Function<Entry, String> field,
+            final String term, final int limit, final Set<UUID> result) {
+        if (term == null) {
+            return;
+        }
+
+        for (final UUID id : candidates(grams, term)) {
+            if (result.size() >= limit) {
+                break;
+            }
+
+            final String value = field.apply(entries.get(id));
+            if (value != null && value.contains(term)) {
+                result.add(id);
+            }
+        }
+    }
+
+    private Collection<UUID> candidates(final Map<String, Set<UUID>> grams, final String term) {
+        if (term.length() < GRAM_LENGTH) {
+            return entries.keySet();
+        }
+
+        Set<UUID> smallest = null;
+        for (int i = 0; i + GRAM_LENGTH <= term.length(); i++) {
+            final Set<UUID> posting = grams.get(term.substring(i, i + GRAM_LENGTH));
+
+            if (posting == null) {
+                return Collections.emptySet();
+            } else if (smallest == null || posting.size() < smallest.size()) {
+                smallest = posting;
+            }
+        }
+
+        return smallest;
+    }
+
+    private void doPut(final UUID id, final Entry entry) {
+        final Entry previous = entries.put(id, entry);
+
+        if (previous != null) {
+            unindex(usernameGrams, id, previous.getUsername());
+            unindex(emailGrams, id, previous.getEmail());
+        }
+        index(usernameGrams, id, entry.getUsername());
+        index(emailGrams, id, entry.getEmail());
+    }
+
+    private void doRemove(final UUID id) {
+        final Entry previous = entries.remove(id);
+
+        if (previous != null) {
+            unindex(usernameGrams, id, previous.getUsername());
+            unindex(emailGrams, id, previous.getEmail());
+        }
+    }
+
+    private static void index(final Map<String, Set<UUID>> grams, final UUID id,
+            final String value) {
+        if (value != null) {
+            for (int i = 0; i + GRAM_LENGTH <= value.length(); i++) {
+                grams.computeIfAbsent(value.substring(i, i + GRAM_LENGTH), gram -> new HashSet<>())
+                        .add(id);
+            }
+        }
+    }
+
+    private static void unindex(final Map<String, Set<UUID>> grams, final UUID id,
+            final String value) {
+        if (value != null) {
+            for (int i = 0; i + GRAM_LENGTH <= value.length(); i++) {
+                final String gram = value.substring(i, i + GRAM_LENGTH);
+                final Set<UUID> posting = grams.get(gram);
+
+                if (posting != null && posting.remove(id) && posting.isEmpty()) {
+                    grams.remove(gram);
+                }
+            }
+        }
+    }
+
+    private static String normalize(final String value) {
+        return value == null ? null : value.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * The indexed values of a user.
+     */
+    private static final class Entry {
+
+        /**
+         * The lowercased username.
+         */
+        private final String username;
+
+        /**
+         * The lowercased email.
+         */
+        private final String email;
+
+        Entry(final String username, final String email) {
+            this.username = username;
+            this.email = email;
+        }
+
+        String getUsername() {
+            return username;
+        }
+
+        String getEmail() {
+            return email;
+        }
+    }
+}
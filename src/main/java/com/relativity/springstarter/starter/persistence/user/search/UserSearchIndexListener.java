@@ -0,0 +1,89 @@
+package com.relativity.springstarter.starter.persistence.user.search;
+
+import com.relativity.springstarter.starter.persistence.user.entity.User;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.UUID;
+
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+
+/**
+ * {@link User} entity listener keeping the {@link UserSearchIndex} up to date.
+ *
+ * <p>
+ * Changes are applied to the index once the surrounding transaction commits, so rolled back changes
+ * never reach the index. This listener does nothing when no {@link UserSearchIndex} is configured.
+ * </p>
+ *
+ * @author avakhobov
+ */
+public class UserSearchIndexListener {
+
+    /**
+     * The {@link User} search index provider.
+     */
+    private final ObjectProvider<UserSearchIndex> index;
+
+    /**
+     * Create a {@link UserSearchIndexListener}.
+     *
+     * @param index the {@link User} search index provider.
+     */
+    public UserSearchIndexListener(final ObjectProvider<UserSearchIndex> index) {
+        super();
+        this.index = index;
+    }
+
+    /**
+     * Index an inserted or updated {@link User}.
+     *
+     * @param user the saved {@link User}.
+     */
+    @PostPersist
+    @PostUpdate
+    public void onSave(final User user) {
+        final UserSearchIndex userIndex = index.getIfAvailable();
+
+        if (userIndex != null) {
+            final UUID id = user.getId();
+            final String username = user.getUsername();
+            final String email = user.getEmail();
+
+            afterCommit(() -> userIndex.put(id, username, email));
+        }
+    }
+
+    /**
+     * Remove a deleted {@link User} from the index.
+     *
+     * @param user the deleted {@link User}.
+     */
+    @PostRemove
+    public void onRemove(final User user) {
+        final UserSearchIndex userIndex = index.getIfAvailable();
+
+        if (userIndex != null) {
+            final UUID id = user.getId();
+
+            afterCommit(() -> userIndex.remove(id));
+        }
+    }
+
+    private static void afterCommit(final Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,6 @@
+/**
+ * The <em>Users</em> search engines.
+ *
+ * @author avakhobov
+ */
+package com.relativity.springstarter.starter.persistence.user.search;
@@ -0,0 +1,350 @@
+package com.relativity.springstarter.starter.security;
+
+import com.relativity.springstarter.starter.concurrent.BoundedExecutor;
+import com.relativity.springstarter.starter.concurrent.ThreadKind;
+
+import org.springframework.security.crypto.bcrypt.BCrypt;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Hashes and verifies the passwords with bcrypt, on a bounded pool of worker threads.
+ *
+ * <p>
+ * The {@code cost} is the base two logarithm of the bcrypt rounds, each increment doubling the
+ * hashing time. Hashes made with another cost match their password but
+ * {@link #needsRehash(String) need a rehash}, which {@link #verify(String, char...)} computes
+ * along with the verification, so raising the cost upgrades the hashes as users log in.
+ * </p>
+ *
+ * <p>
+ * At most {@code concurrency} passwords are hashed at once, which should leave processors to the
+ * request threads, and at most {@code queueCapacity} further passwords wait to be hashed, further
+ * passwords are rejected with a {@link RejectedExecutionException}. The synchronous methods wait
+ * for the worker threads rather than hashing on the calling thread, so a burst of logins queues up
+ * instead of taking every processor.
+ * </p>
+ *
+ * <p>
+ * The clear passwords are zeroed once hashed or verified, or rejected. Passwords are encoded in
+ * UTF-8 and bcrypt only reads their first {@value #MAX_PASSWORD_BYTES} bytes, so longer passwords
+ * are rejected rather than silently truncated.
+ * </p>
+ *
+ * @author avakhobov
+ */
+public class PasswordHasher {
+
+    /**
+     * The minimum cost.
+     */
+    public static final int MIN_COST = 4;
+
+    /**
+     * The maximum cost.
+     */
+    public static final int MAX_COST = 31;
+
+    /**
+     * The default cost.
+     */
+    public static final int DEFAULT_COST = 10;
+
+    /**
+     * The default maximum number of passwords waiting to be hashed.
+     */
+    public static final int DEFAULT_QUEUE_CAPACITY = 1000;
+
+    /**
+     * The maximum number of UTF-8 bytes of a password.
+     */
+    public static final int MAX_PASSWORD_BYTES = 72;
+
+    /**
+     * The pattern of the bcrypt hashes, capturing their cost.
+     */
+    private static final Pattern HASH_PATTERN = Pattern
+            .compile("\\A\\$2[aby]?\\$(\\d\\d)\\$[./0-9A-Za-z]{53}\\z");
+
+    /**
+     * The base two logarithm of the bcrypt rounds.
+     */
+    private final int cost;
+
+    /**
+     * The executor hashing the passwords.
+     */
+    private final BoundedExecutor executor;
+
+    /**
+     * The salts generator.
+     */
+    private final SecureRandom random = new SecureRandom();
+
+    /**
+     * The hash verified against when there is no hash to verify, so missing users take as long to
+     * verify as existing ones, lazily computed.
+     */
+    private volatile String dummyHash = null;
+
+    /**
+     * Create a {@link PasswordHasher}.
+     *
+     * @param cost the base two logarithm of the bcrypt rounds.
+     * @param concurrency the maximum number of passwords hashed at once.
+     * @param queueCapacity the maximum number of passwords waiting to be hashed.
+     *
+     * @throws IllegalArgumentException if {@code cost} is not between {@value #MIN_COST} and
+     *         {@value #MAX_COST}, {@code concurrency} is less than one or {@code queueCapacity} is
+     *         negative.
+     */
+    public PasswordHasher(final int cost, final int concurrency, final int queueCapacity) {
+        super();
+        if (cost < MIN_COST || cost > MAX_COST) {
+            throw new IllegalArgumentException(
+                    "Cost must be between " + MIN_COST + " and " + MAX_COST);
+        }
+
+        this.cost = cost;
+        this.executor = new BoundedExecutor("password-hasher", ThreadKind.PLATFORM, concurrency,
+                queueCapacity);
+    }
+
+    /**
+     * Get the default maximum number of passwords hashed at once.
+     *
+     * @return the number of available processors less one, at least one.
+     */
+    public static int defaultConcurrency() {
+        return Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+    }
+
+    /**
+     * Hash a password.
+     *
+     * @param password the clear password, zeroed once hashed.
+     *
+     * @return the hash.
+     *
+     * @throws NullPointerException if {@code password} is {@code null}.
+     * @throws IllegalArgumentException if {@code password} is longer than
+     *         {@value #MAX_PASSWORD_BYTES} bytes.
+     * @throws RejectedExecutionException if too many passwords are waiting to be hashed.
+     */
+    public String hash(final char... password) {
+        return join(hashAsync(password));
+    }
+
+    /**
+     * Hash a password asynchronously.
+     *
+     * @param password the clear password, zeroed once hashed.
+     *
+     * @return the hash, completed exceptionally with an {@link IllegalArgumentException} if
+     *         {@code password} is longer than {@value #MAX_PASSWORD_BYTES} bytes, or with a
+     *         {@link RejectedExecutionException} if too many passwords are waiting to be hashed.
+     *
+     * @throws NullPointerException if {@code password} is {@code null}.
+     */
+    public CompletableFuture<String> hashAsync(final char... password) {
+        Objects.requireNonNull(password, "password");
+
+        return submit(password, () -> {
+            final byte[] bytes = encode(password);
+            try {
+                if (bytes.length > MAX_PASSWORD_BYTES) {
+                    throw new IllegalArgumentException(
+                            "Password must not be longer than " + MAX_PASSWORD_BYTES + " bytes");
+                }
+                return BCrypt.hashpw(bytes, BCrypt.gensalt(cost, random));
+            } finally {
+                Arrays.fill(bytes, (byte) 0);
+            }
+        });
+    }
+
+    /**
+     * Verify a password against its hash.
+     *
+     * @param hash the hash, {@code null} if there is none, which takes as long to verify as a hash
+     *        made with the current cost.
+     * @param password the clear password, zeroed once verified.
+     *
+     * @return the verification, with the hash made with the current cost if the password matches a
+     *         hash made with another cost.
+     *
+     * @throws NullPointerException if {@code password} is {@code null}.
+     * @throws RejectedExecutionException if too many passwords are waiting to be hashed.
+     */
+    public PasswordVerification verify(final String hash, final char... password) {
+        return join(verifyAsync(hash, password));
+    }
+
+    /**
+     * Verify a password against its hash asynchronously.
+     *
+     * @param hash the hash, {@code null} if there is none, which takes as long to verify as a hash
+     *        made with the current cost.
+     * @param password the clear password, zeroed once verified.
+     *
+     * @return the verification, with the hash made with the current cost if the password matches a
+     *         hash made with another cost, completed exceptionally with a
+     *         {@link RejectedExecutionException} if too many passwords are waiting to be hashed.
+     *
+     * @throws NullPointerException if {@code password} is {@code null}.
+     */
+    public CompletableFuture<PasswordVerification> verifyAsync(final String hash,
+            final char... password) {
+        Objects.requireNonNull(password, "password");
+        final boolean valid = hash != null && HASH_PATTERN.matcher(hash).matches();
+
+        return submit(password, () -> {
+            final byte[] bytes = encode(password);
+            try {
+                if (!valid) {
+                    BCrypt.checkpw(bytes, dummyHash());
+                    return PasswordVerification.mismatch();
+                } else if (bytes.length > MAX_PASSWORD_BYTES || !BCrypt.checkpw(bytes, hash)) {
+                    return PasswordVerification.mismatch();
+                }
+
+                return PasswordVerification.matched(
+                        needsRehash(hash) ? BCrypt.hashpw(bytes, BCrypt.gensalt(cost, random))
+                                : null);
+            } finally {
+                Arrays.fill(bytes, (byte) 0);
+            }
+        });
+    }
+
+    /**
+     * Tests if a hash was made with another cost than the current one.
+     *
+     * @param hash the hash.
+     *
+     * @return {@code true} if the hash is a bcrypt hash made with another cost, {@code false}
+     *         otherwise.
+     */
+    public boolean needsRehash(final String hash) {
+        if (hash == null) {
+            return false;
+        }
+
+        final Matcher matcher = HASH_PATTERN.matcher(hash);
+        return matcher.matches() && Integer.parseInt(matcher.group(1)) != cost;
+    }
+
+    /**
+     * Get the {@link #cost}.
+     *
+     * @return the {@link #cost}.
+     */
+    public int getCost() {
+        return cost;
+    }
+
+    /**
+     * Get the maximum number of passwords hashed at once.
+     *
+     * @return the maximum number of passwords hashed at once.
+     */
+    public int getConcurrency() {
+        return executor.getConcurrency();
+    }
+
+    /**
+     * Get the number of passwords hashed or waiting to be hashed.
+     *
+     * @return the number of pending passwords.
+     */
+    public int getPending() {
+        return executor.getPending();
+    }
+
+    /**
+     * Stop accepting passwords, the pending passwords are still hashed.
+     */
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private <V> CompletableFuture<V> submit(final char[] password, final Supplier<V> task) {
+        final CompletableFuture<V> result = executor.submit(() -> {
+            try {
+                return task.get();
+            } finally {
+                Arrays.fill(password, '\0');
+            }
+        });
+        if (result.isCompletedExceptionally()) {
+            // Rejected without running
+            Arrays.fill(password, '\0');
+        }
+
+        return result;
+    }
+
+    private String dummyHash() {
+        String hash = dummyHash;
+        if (hash == null) {
+            hash = BCrypt.hashpw(new byte[0], BCrypt.gensalt(cost, random));
+            dummyHash = hash;
+        }
+
+        return hash;
+    }
+
+    private static <V> V join(final CompletableFuture<V> result) {
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    return result.get();
+                } catch (final InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        } catch (final ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new CompletionException(cause);
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static byte[] encode(final char[] password) {
+        final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        final ByteBuffer buffer = ByteBuffer
+                .allocate((int) (encoder.maxBytesPerChar() * password.length));
+        try {
+            encoder.encode(CharBuffer.wrap(password), buffer, true);
+            encoder.flush(buffer);
+            return Arrays.copyOf(buffer.array(), buffer.position());
+        } finally {
+            Arrays.fill(buffer.array(), (byte) 0);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.relativity.springstarter.starter.security;
+
+import java.util.Objects;
+
+/**
+ * Holds the {@link PasswordHasher} of the user accounts.
+ *
+ * <p>
+ * Passwords are hashed by the entities themselves, outside of the application context, hence the
+ * static registry. Until the application context configures it, the default hasher uses the
+ * {@link PasswordHasher#DEFAULT_COST default cost}.
+ * </p>
+ *
+ * @author avakhobov
+ */
+public final class PasswordHashers {
+
+    /**
+     * The hasher of the user accounts passwords.
+     */
+    private static volatile PasswordHasher defaultHasher = new PasswordHasher(
+            PasswordHasher.DEFAULT_COST, PasswordHasher.defaultConcurrency(),
+            PasswordHasher.DEFAULT_QUEUE_CAPACITY);
+
+    private PasswordHashers() {
+        super();
+    }
+
+    /**
+     * Get the {@link #defaultHasher}.
+     *
+     * @return the {@link #defaultHasher}.
+     */
+    public static PasswordHasher getDefault() {
+        return defaultHasher;
+    }
+
+    /**
+     * Set the {@link #defaultHasher}.
+     *
+     * @param hasher the {@link #defaultHasher} to set.
+     *
+     * @throws NullPointerException if {@code hasher} is {@code null}.
+     */
+    public static void setDefault(final PasswordHasher hasher) {
+        defaultHasher = Objects.requireNonNull(hasher, "hasher");
+    }
+}
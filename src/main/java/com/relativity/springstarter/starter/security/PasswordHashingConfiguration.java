@@ -0,0 +1,55 @@
+package com.relativity.springstarter.starter.security;
+
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * The password hashing configuration.
+ *
+ * <p>
+ * The configured {@link PasswordHasher} becomes the {@link PasswordHashers#getDefault() default}
+ * one before the entity manager factory is created. It is not shut down with the application
+ * context, as entities may still hash passwords through the registry, its idle threads time out.
+ * </p>
+ *
+ * @author avakhobov
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(PasswordHashingProperties.class)
+public class PasswordHashingConfiguration {
+
+    /**
+     * The password hasher bean name.
+     */
+    public static final String PASSWORD_HASHER_BEAN = "passwordHasher";
+
+    @Bean(name = PASSWORD_HASHER_BEAN, destroyMethod = "")
+    public PasswordHasher passwordHasher(final PasswordHashingProperties properties) {
+        final PasswordHasher hasher = new PasswordHasher(properties.getCost(),
+                properties.getConcurrency() != null ? properties.getConcurrency()
+                        : PasswordHasher.defaultConcurrency(),
+                properties.getQueueCapacity());
+
+        PasswordHashers.setDefault(hasher);
+
+        return hasher;
+    }
+
+    @Bean
+    public static EntityManagerFactoryDependsOnPostProcessor entityManagerFactoryDependsOnPasswordHasher() {
+        return new EntityManagerFactoryDependsOnPasswordHasher();
+    }
+
+    /**
+     * Makes the entity manager factory depend on the password hasher.
+     */
+    static class EntityManagerFactoryDependsOnPasswordHasher
+            extends EntityManagerFactoryDependsOnPostProcessor {
+
+        EntityManagerFactoryDependsOnPasswordHasher() {
+            super(PASSWORD_HASHER_BEAN);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.relativity.springstarter.starter.security;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * The {@link PasswordHasher} configuration properties.
+ *
+ * @author avakhobov
+ */
+@ConfigurationProperties(prefix = "starter.security.password")
+public class PasswordHashingProperties {
+
+    /**
+     * The base two logarithm of the bcrypt rounds, see {@code PasswordHashingBenchmark} to pick it.
+     */
+    private int cost = PasswordHasher.DEFAULT_COST;
+
+    /**
+     * The maximum number of passwords hashed at once, defaults to the number of available
+     * processors less one.
+     */
+    private Integer concurrency = null;
+
+    /**
+     * The maximum number of passwords waiting to be hashed, further passwords are rejected.
+     */
+    private int queueCapacity = PasswordHasher.DEFAULT_QUEUE_CAPACITY;
+
+    /**
+     * Get the {@link #cost}.
+     *
+     * @return the {@link #cost}.
+     */
+    public int getCost() {
+        return cost;
+    }
+
+    /**
+     * Set the {@link #cost}.
+     *
+     * @param cost the {@link #cost} to set.
+     */
+    public void setCost(final int cost) {
+        this.cost = cost;
+    }
+
+    /**
+     * Get the {@link #concurrency}.
+     *
+     * @return the {@link #concurrency}.
+     */
+    public Integer getConcurrency() {
+        return concurrency;
+    }
+
+    /**
+     * Set the {@link #concurrency}.
+     *
+     * @param concurrency the {@link #concurrency} to set.
+     */
+    public void setConcurrency(final Integer concurrency) {
+        this.concurrency = concurrency;
+    }
+
+    /**
+     * Get the {@link #queueCapacity}.
+     *
+     * @return the {@link #queueCapacity}.
+     */
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    /**
+     * Set the {@link #queueCapacity}.
+     *
+     * @param queueCapacity the {@link #queueCapacity} to set.
+     */
+    public void setQueueCapacity(final int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+}
@@ -0,0 +1,69 @@
+package com.relativity.springstarter.starter.security;
+
+/**
+ * The result of the verification of a password against its hash.
+ *
+ * @author avakhobov
+ */
+public final class PasswordVerification {
+
+    /**
+     * The verification of a password not matching its hash.
+     */
+    private static final PasswordVerification MISMATCH = new PasswordVerification(false, null);
+
+    /**
+     * Whether the password matches the hash.
+     */
+    private final boolean matched;
+
+    /**
+     * The new hash of the password, {@code null} if the hash does not need to be upgraded.
+     */
+    private final String rehash;
+
+    private PasswordVerification(final boolean matched, final String rehash) {
+        super();
+        this.matched = matched;
+        this.rehash = rehash;
+    }
+
+    /**
+     * Get the verification of a password matching its hash.
+     *
+     * @param rehash the new hash of the password, {@code null} if the hash does not need to be
+     *        upgraded.
+     *
+     * @return the verification.
+     */
+    public static PasswordVerification matched(final String rehash) {
+        return new PasswordVerification(true, rehash);
+    }
+
+    /**
+     * Get the verification of a password not matching its hash.
+     *
+     * @return the verification.
+     */
+    public static PasswordVerification mismatch() {
+        return MISMATCH;
+    }
+
+    /**
+     * Get the {@link #matched}.
+     *
+     * @return the {@link #matched}.
+     */
+    public boolean isMatched() {
+        return matched;
+    }
+
+    /**
+     * Get the {@link #rehash}.
+     *
+     * @return the {@link #rehash}.
+     */
+    public String getRehash() {
+        return rehash;
+    }
+}
@@ -0,0 +1,6 @@
+/**
+ * The password hashing of the user accounts.
+ *
+ * @author avakhobov
+ */
+package com.relativity.springstarter.starter.security;
@@ -0,0 +1,50 @@
+package com.relativity.springstarter.starter.startup;
+
+import com.relativity.springstarter.starter.persistence.async.AsyncRepositoryExecutor;
+import com.relativity.springstarter.starter.persistence.audit.AuditWriter;
+import com.relativity.springstarter.starter.persistence.outbox.OutboxRelay;
+import com.relativity.springstarter.starter.persistence.id.IdGenerator;
+import com.relativity.springstarter.starter.security.PasswordHasher;
+import com.relativity.springstarter.starter.web.server.RequestExecutor;
+
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * The startup optimised mode configuration.
+ *
+ * <p>
+ * The {@code startup} profile initializes the beans lazily and bootstraps the JPA repositories in
+ * the background, see {@code application-startup.properties}. The beans validating their
+ * configuration are kept eager, so a misconfiguration still fails the startup rather than the
+ * first request using them, and so are the {@link AuditWriter} and {@link OutboxRelay} whose
+ * threads must write and publish the events from the first change on.
+ * </p>
+ *
+ * @author avakhobov
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(StartupProperties.class)
+public class StartupConfiguration {
+
+    /**
+     * Keep the beans validating their configuration and the event writers eager when the beans are
+     * initialized lazily.
+     *
+     * @return the lazy initialization exclusions.
+     */
+    @Bean
+    public static LazyInitializationExcludeFilter eagerlyValidatedBeans() {
+        return LazyInitializationExcludeFilter.forBeanTypes(IdGenerator.class, PasswordHasher.class,
+                AsyncRepositoryExecutor.class, RequestExecutor.class, AuditWriter.class, OutboxRelay.class);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "starter.startup.training", havingValue = "true")
+    public StartupTrainingRun startupTrainingRun(final StartupProperties properties) {
+        return new StartupTrainingRun(properties.getTrainingPath());
+    }
+}
@@ -0,0 +1,59 @@
+package com.relativity.springstarter.starter.startup;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * The startup optimised mode configuration properties.
+ *
+ * @author avakhobov
+ */
+@ConfigurationProperties(prefix = "starter.startup")
+public class StartupProperties {
+
+    /**
+     * Whether the application is a training run, exiting once it answered its first request, to
+     * record the classes loaded by the startup in a class data sharing archive.
+     */
+    private boolean training = false;
+
+    /**
+     * The path of the first request of the training runs.
+     */
+    private String trainingPath = "/api/users?size=1";
+
+    /**
+     * Get the {@link #training}.
+     *
+     * @return the {@link #training}.
+     */
+    public boolean isTraining() {
+        return training;
+    }
+
+    /**
+     * Set the {@link #training}.
+     *
+     * @param training the {@link #training} to set.
+     */
+    public void setTraining(final boolean training) {
+        this.training = training;
+    }
+
+    /**
+     * Get the {@link #trainingPath}.
+     *
+     * @return the {@link #trainingPath}.
+     */
+    public String getTrainingPath() {
+        return trainingPath;
+    }
+
+    /**
+     * Set the {@link #trainingPath}.
+     *
+     * @param trainingPath the {@link #trainingPath} to set.
+     */
+    public void setTrainingPath(final String trainingPath) {
+        this.trainingPath = trainingPath;
+    }
+}
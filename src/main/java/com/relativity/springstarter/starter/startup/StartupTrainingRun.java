@@ -0,0 +1,73 @@
+package com.relativity.springstarter.starter.startup;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+
+/**
+ * Sends the first request of a training run once the application is ready, then exits, so the JVM
+ * records the classes loaded to serve it in its class data sharing archive.
+ *
+ * @author avakhobov
+ */
+public class StartupTrainingRun implements ApplicationListener<ApplicationReadyEvent> {
+
+    /**
+     * The training runs log.
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger(StartupTrainingRun.class);
+
+    /**
+     * The path of the first request.
+     */
+    private final String path;
+
+    /**
+     * Create a {@link StartupTrainingRun}.
+     *
+     * @param path the path of the first request.
+     */
+    public StartupTrainingRun(final String path) {
+        super();
+        this.path = path;
+    }
+
+    @Override
+    public void onApplicationEvent(final ApplicationReadyEvent event) {
+        final ConfigurableApplicationContext context = event.getApplicationContext();
+        if (context instanceof WebServerApplicationContext) {
+            final int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            LOGGER.info("Training request answered with status {}", request(port));
+        }
+
+        System.exit(SpringApplication.exit(context));
+    }
+
+    private int request(final int port) {
+        try {
+            final HttpURLConnection connection = (HttpURLConnection) new URL("http", "localhost",
+                    port, path).openConnection();
+            try (InputStream body = connection.getResponseCode() < 400
+                    ? connection.getInputStream() : connection.getErrorStream()) {
+                if (body != null) {
+                    body.readAllBytes();
+                }
+                return connection.getResponseCode();
+            } finally {
+                connection.disconnect();
+            }
+        } catch (final IOException e) {
+            throw new UncheckedIOException("Training request failed", e);
+        }
+    }
+}
@@ -0,0 +1,6 @@
+/**
+ * The startup optimised mode, enabled with the {@code startup} profile.
+ *
+ * @author avakhobov
+ */
+package com.relativity.springstarter.starter.startup;
@@ -0,0 +1,6 @@
+/**
+ * The web layer of the starter application.
+ *
+ * @author avakhobov
+ */
+package com.relativity.springstarter.starter.web;
@@ -0,0 +1,61 @@
+package com.relativity.springstarter.starter.web.server;
+
+import org.apache.coyote.ProtocolHandler;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * The request execution configuration, handling the requests on virtual threads when the
+ * {@code starter.web.request.threads} property asks for them.
+ *
+ * @author avakhobov
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@EnableConfigurationProperties(RequestExecutionProperties.class)
+public class RequestExecutionConfiguration {
+
+    @Bean(destroyMethod = "shutdown")
+    public RequestExecutor requestExecutor(final RequestExecutionProperties properties) {
+        return new RequestExecutor(properties.getThreads());
+    }
+
+    /**
+     * Hand the Tomcat connectors the virtual thread per request executor.
+     *
+     * @param requestExecutor the executor handling the requests.
+     *
+     * @return the Tomcat protocol handlers customizer.
+     */
+    @Bean
+    public TomcatProtocolHandlerCustomizer<ProtocolHandler> requestExecutorCustomizer(
+            final RequestExecutor requestExecutor) {
+        return protocolHandler -> requestExecutor.getVirtualExecutor()
+                .ifPresent(protocolHandler::setExecutor);
+    }
+
+    /**
+     * Run the asynchronous requests processing, such as the streamed responses, on virtual threads
+     * too.
+     *
+     * @param requestExecutor the executor handling the requests.
+     *
+     * @return the Spring MVC configurer.
+     */
+    @Bean
+    public WebMvcConfigurer requestExecutorMvcConfigurer(final RequestExecutor requestExecutor) {
+        return new WebMvcConfigurer() {
+            @Override
+            public void configureAsyncSupport(final AsyncSupportConfigurer configurer) {
+                requestExecutor.getVirtualExecutor().ifPresent(
+                        executor -> configurer.setTaskExecutor(new TaskExecutorAdapter(executor)));
+            }
+        };
+    }
+}
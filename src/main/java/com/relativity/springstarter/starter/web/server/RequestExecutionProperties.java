@@ -0,0 +1,37 @@
+package com.relativity.springstarter.starter.web.server;
+
+import com.relativity.springstarter.starter.concurrent.ThreadKind;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * The {@link RequestExecutor} configuration properties.
+ *
+ * @author avakhobov
+ */
+@ConfigurationProperties(prefix = "starter.web.request")
+public class RequestExecutionProperties {
+
+    /**
+     * The kind of threads handling the requests.
+     */
+    private ThreadKind threads = ThreadKind.PLATFORM;
+
+    /**
+     * Get the {@link #threads}.
+     *
+     * @return the {@link #threads}.
+     */
+    public ThreadKind getThreads() {
+        return threads;
+    }
+
+    /**
+     * Set the {@link #threads}.
+     *
+     * @param threads the {@link #threads} to set.
+     */
+    public void setThreads(final ThreadKind threads) {
+        this.threads = threads;
+    }
+}
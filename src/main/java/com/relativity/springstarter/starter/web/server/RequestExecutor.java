@@ -0,0 +1,69 @@
+package com.relativity.springstarter.starter.web.server;
+
+import com.relativity.springstarter.starter.concurrent.ThreadKind;
+import com.relativity.springstarter.starter.concurrent.VirtualThreads;
+
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * The executor handling the web requests.
+ *
+ * <p>
+ * In the platform threads mode the embedded web server keeps its own bounded thread pool, sized by
+ * {@code server.tomcat.threads.max}. In the virtual threads mode each request, including the
+ * {@code @Transactional} repository work it runs, is handled on its own virtual thread, so a
+ * request waiting on JDBC no longer holds a scarce platform thread. The number of requests using
+ * the database at once is then only bounded by the connection pool, the other requests waiting for
+ * a connection up to {@code spring.datasource.hikari.connection-timeout}.
+ * </p>
+ *
+ * @author avakhobov
+ */
+public class RequestExecutor {
+
+    /**
+     * The virtual thread per request executor, {@code null} in the platform threads mode.
+     */
+    private final ExecutorService virtualExecutor;
+
+    /**
+     * Create a {@link RequestExecutor}.
+     *
+     * @param threads the kind of threads handling the requests.
+     *
+     * @throws IllegalStateException if virtual threads are requested and the JDK does not provide
+     *         them.
+     */
+    public RequestExecutor(final ThreadKind threads) {
+        super();
+        this.virtualExecutor = VirtualThreads.newVirtualThreadPerTaskExecutor(threads).orElse(null);
+    }
+
+    /**
+     * Get the executor handling the requests on virtual threads.
+     *
+     * @return the virtual thread per request executor, empty in the platform threads mode.
+     */
+    public Optional<ExecutorService> getVirtualExecutor() {
+        return Optional.ofNullable(virtualExecutor);
+    }
+
+    /**
+     * Tests if the requests are handled on virtual threads.
+     *
+     * @return {@code true} if the requests are handled on virtual threads, {@code false} otherwise.
+     */
+    public boolean isVirtual() {
+        return virtualExecutor != null;
+    }
+
+    /**
+     * Stop accepting requests, the requests in progress still complete.
+     */
+    public void shutdown() {
+        if (virtualExecutor != null) {
+            virtualExecutor.shutdown();
+        }
+    }
+}
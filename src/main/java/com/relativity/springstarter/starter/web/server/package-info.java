@@ -0,0 +1,6 @@
+/**
+ * The embedded web server configuration.
+ *
+ * @author avakhobov
+ */
+package com.relativity.springstarter.starter.web.server;
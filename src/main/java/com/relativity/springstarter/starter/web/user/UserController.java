@@ -0,0 +1,415 @@
+package com.relativity.springstarter.starter.web.user;
+
+import com.relativity.springstarter.starter.persistence.KeysetPage;
+import com.relativity.springstarter.starter.persistence.KeysetPageRequest;
+import com.relativity.springstarter.starter.persistence.sharding.ShardRouter;
+import com.relativity.springstarter.starter.persistence.user.availability.UserAvailabilityFilter;
+import com.relativity.springstarter.starter.persistence.user.cache.UserCache;
+import com.relativity.springstarter.starter.persistence.user.dao.UserRepository;
+import com.relativity.springstarter.starter.persistence.user.dao.UserView;
+import com.relativity.springstarter.starter.persistence.user.entity.User;
+import com.relativity.springstarter.starter.persistence.user.search.UserSearchEngine;
+import com.relativity.springstarter.starter.security.PasswordHashers;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * The CRUD and search endpoints of the {@link User} entities.
+ *
+ * <p>
+ * Users are read as {@link UserView} projections rather than managed entities and written by the
+ * precomputed serializers of {@link UserRepresentation} and {@link UserPageRepresentation}, so
+ * reads neither track entities nor introspect them. The {@code fields} parameter restricts the
+ * written fields (see {@link UserField}). When the {@link UserCache} is enabled, single users are
+ * read from it, so they may be stale for its time to live when changed by another instance.
+ * </p>
+ *
+ * <p>
+ * Responses carry an {@code ETag}, strong for a single user as derived from its version and weak
+ * for a page, the GET requests with a matching {@code If-None-Match} header are answered
+ * {@code 304 Not Modified} without writing the body, and the replace requests with an
+ * {@code If-Match} header not strongly matching the full representation of the user fail with
+ * {@code 412 Precondition Failed}. As the version of the user is checked when writing it, a replace
+ * racing with another change fails with {@code 412 Precondition Failed} when conditional and
+ * {@code 409 Conflict} otherwise. Large responses are compressed when the embedded server
+ * compression is enabled.
+ * </p>
+ *
+ * <p>
+ * Passwords are hashed before the transactions, so no connection is held while hashing, and the
+ * requests are answered {@code 503 Service Unavailable} when too many passwords are waiting to be
+ * hashed. The creations of a username or email already used are answered {@code 409 Conflict}
+ * before hashing, the {@link UserAvailabilityFilter} answering most of the other ones without
+ * querying the database. When the persistence is sharded, the user is located before the replace
+ * transaction, which runs on its shard.
+ * </p>
+ *
+ * @author avakhobov
+ */
+@RestController
+@RequestMapping("/api/users")
+public class UserController {
+
+    /**
+     * The default number of users of a page.
+     */
+    public static final int DEFAULT_PAGE_SIZE = 50;
+
+    /**
+     * The maximum number of users of a page or of search results.
+     */
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    /**
+     * The default maximum number of search results.
+     */
+    public static final int DEFAULT_SEARCH_LIMIT = 20;
+
+    /**
+     * The {@link User} repository.
+     */
+    private final UserRepository repository;
+
+    /**
+     * The {@link User} search engine.
+     */
+    private final UserSearchEngine searchEngine;
+
+    /**
+     * The {@link User} username and email availability filter.
+     */
+    private final UserAvailabilityFilter availabilityFilter;
+
+    /**
+     * The {@link User} cache.
+     */
+    private final UserCache cache;
+
+    /**
+     * The template of the replace transactions.
+     */
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * The shard router, {@code null} if the persistence is not sharded.
+     */
+    private final ShardRouter shardRouter;
+
+    /**
+     * Create a {@link UserController}.
+     *
+     * @param repository the {@link User} repository.
+     * @param searchEngine the {@link User} search engine.
+     * @param availabilityFilter the {@link User} username and email availability filter.
+     * @param cache the {@link User} cache.
+     * @param transactionManager the transaction manager.
+     * @param shardRouter the shard router provider, available when the persistence is sharded.
+     */
+    public UserController(final UserRepository repository, final UserSearchEngine searchEngine,
+            final UserAvailabilityFilter availabilityFilter, final UserCache cache,
+            final PlatformTransactionManager transactionManager,
+            final ObjectProvider<ShardRouter> shardRouter) {
+        super();
+        this.repository = repository;
+        this.searchEngine = searchEngine;
+        this.availabilityFilter = availabilityFilter;
+        this.cache = cache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.shardRouter = shardRouter.getIfAvailable();
+    }
+
+    /**
+     * List the users in keyset order.
+     *
+     * @param size the number of users of the page.
+     * @param token the continuation token of the page, {@code null} for the first page.
+     * @param total whether to count the users.
+     * @param fields the comma-separated written fields, {@code null} for all the fields.
+     *
+     * @return the page of users.
+     */
+    @GetMapping
+    public ResponseEntity<UserPageRepresentation> list(
+            @RequestParam(name = "size", defaultValue = "" + DEFAULT_PAGE_SIZE) final int size,
+            @RequestParam(name = "token", required = false) final String token,
+            @RequestParam(name = "total", defaultValue = "false") final boolean total,
+            @RequestParam(name = "fields", required = false) final String fields) {
+        final Set<UserField> selected = parseFields(fields);
+        checkSize(size);
+
+        KeysetPageRequest request = KeysetPageRequest.of(size, token);
+        if (total) {
+            request = request.withTotal();
+        }
+
+        final KeysetPage<UserView> page;
+        try {
+            page = repository.findAllViews(request);
+        } catch (final IllegalArgumentException | InvalidDataAccessApiUsageException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid continuation token",
+                    e);
+        }
+
+        return ok(new UserPageRepresentation(page.getContent(), page.getNextToken(),
+                page.getTotalElements(), selected));
+    }
+
+    /**
+     * Get a user.
+     *
+     * @param userId the user identifier.
+     * @param fields the comma-separated written fields, {@code null} for all the fields.
+     *
+     * @return the user, {@code 404 Not Found} if there is no such user.
+     */
+    @GetMapping("/{userId}")
+    public ResponseEntity<UserRepresentation> get(@PathVariable("userId") final UUID userId,
+            @RequestParam(name = "fields", required = false) final String fields) {
+        final Set<UserField> selected = parseFields(fields);
+
+        final Optional<UserView> found = cache.findViewById(userId);
+
+        return found.map(view -> ok(new UserRepresentation(view, selected)))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Search the users whose username or email contains a term, ignoring case.
+     *
+     * @param term the searched term.
+     * @param limit the maximum number of users.
+     * @param fields the comma-separated written fields, {@code null} for all the fields.
+     *
+     * @return the found users.
+     */
+    @GetMapping("/search")
+    public ResponseEntity<UserPageRepresentation> search(@RequestParam("q") final String term,
+            @RequestParam(name = "limit", defaultValue = "" + DEFAULT_SEARCH_LIMIT) final int limit,
+            @RequestParam(name = "fields", required = false) final String fields) {
+        final Set<UserField> selected = parseFields(fields);
+        checkSize(limit);
+
+        final List<UserView> views = searchEngine.findViewsContainingUsernameOrEmailIgnoreCase(term,
+                term, limit);
+
+        return ok(new UserPageRepresentation(views, null, null, selected));
+    }
+
+    /**
+     * Create a user.
+     *
+     * @param body the user properties.
+     *
+     * @return the created user, {@code 400 Bad Request} if a property is missing, or
+     *         {@code 409 Conflict} if the username or email is already used.
+     */
+    @PostMapping
+    public ResponseEntity<UserRepresentation> create(@RequestBody final UserRequest body) {
+        checkComplete(body);
+        if (availabilityFilter.isReady()
+                && availabilityFilter.exists(null, body.getUsername(), body.getEmail())) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+
+        final String password = hashPassword(body);
+
+        final User user = new User();
+        body.applyTo(user);
+        user.setPassword(password);
+        repository.add(user);
+
+        final URI location = ServletUriComponentsBuilder.fromCurrentRequest().path("/{userId}")
+                .buildAndExpand(user.getId()).toUri();
+        final UserRepresentation representation = new UserRepresentation(UserView.of(user),
+                UserField.ALL);
+
+        return ResponseEntity.created(location).eTag(representation.getETag()).body(representation);
+    }
+
+    /**
+     * Replace the properties of a user.
+     *
+     * @param userId the user identifier.
+     * @param ifMatch the entity tags the full representation of the user must match, {@code null}
+     *        to replace unconditionally.
+     * @param body the user properties.
+     *
+     * @return the replaced user, {@code 404 Not Found} if there is no such user,
+     *         {@code 412 Precondition Failed} if the user does not match the entity tags or was
+     *         changed concurrently, or {@code 409 Conflict} if the username or email is already used
+     *         or if the user was changed concurrently while replaced unconditionally.
+     */
+    @PutMapping("/{userId}")
+    public ResponseEntity<UserRepresentation> replace(@PathVariable("userId") final UUID userId,
+            @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) final String ifMatch,
+            @RequestBody final UserRequest body) {
+        checkComplete(body);
+        final String password = hashPassword(body);
+
+        final UserView replaced;
+        try {
+            replaced = inShardOf(userId, status -> {
+                final User user = repository.findById(userId).orElse(null);
+                if (user == null) {
+                    return null;
+                }
+
+                // The version checked here is the one the update is conditioned on
+                if (ifMatch != null && !UserETags.matches(ifMatch,
+                        new UserRepresentation(UserView.of(user), UserField.ALL).getETag())) {
+                    throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED);
+                }
+
+                body.applyTo(user);
+                if (password != null) {
+                    user.setPassword(password);
+                }
+                // Through update, so the outbox publishes the change
+                final User updated = repository.update(user);
+                repository.flush();
+                return UserView.of(updated);
+            });
+        } catch (final OptimisticLockingFailureException e) {
+            throw new ResponseStatusException(
+                    ifMatch != null ? HttpStatus.PRECONDITION_FAILED : HttpStatus.CONFLICT, null, e);
+        }
+
+        return replaced == null ? ResponseEntity.notFound().build()
+                : ok(new UserRepresentation(replaced, UserField.ALL));
+    }
+
+    /**
+     * Delete a user.
+     *
+     * @param userId the user identifier.
+     *
+     * @return {@code 204 No Content}, {@code 404 Not Found} if there is no such user.
+     */
+    @DeleteMapping("/{userId}")
+    public ResponseEntity<Void> delete(@PathVariable("userId") final UUID userId) {
+        try {
+            repository.deleteById(userId);
+        } catch (final EmptyResultDataAccessException e) {
+            return ResponseEntity.notFound().build();
+        }
+
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Answer {@code 409 Conflict} when a unique constraint is violated.
+     *
+     * @param e the violation.
+     *
+     * @return the error response.
+     */
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<Void> onDataIntegrityViolation(final DataIntegrityViolationException e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).build();
+    }
+
+    /**
+     * Answer {@code 503 Service Unavailable} when too many passwords are waiting to be hashed.
+     *
+     * @param e the rejection.
+     *
+     * @return the error response.
+     */
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<Void> onRejectedExecution(final RejectedExecutionException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+    }
+
+    /**
+     * Run a transaction on the shard of a user, if the persistence is sharded.
+     *
+     * @return the transaction result, {@code null} if sharded and there is no such user.
+     */
+    private <V> V inShardOf(final UUID userId, final TransactionCallback<V> action) {
+        if (shardRouter == null) {
+            return transactionTemplate.execute(action);
+        }
+
+        // Scattered outside of the transaction, the user living on the shard of its owner
+        final UserView located = repository.findViewById(userId).orElse(null);
+        if (located == null) {
+            return null;
+        }
+
+        return shardRouter.callInShardOf(located.getOwnerId() != null ? located.getOwnerId() : userId,
+                () -> transactionTemplate.execute(action));
+    }
+
+    private static ResponseEntity<UserRepresentation> ok(final UserRepresentation representation) {
+        return ResponseEntity.ok().eTag(representation.getETag()).body(representation);
+    }
+
+    private static ResponseEntity<UserPageRepresentation> ok(
+            final UserPageRepresentation representation) {
+        return ResponseEntity.ok().eTag(representation.getETag()).body(representation);
+    }
+
+    private static Set<UserField> parseFields(final String fields) {
+        try {
+            return UserField.parse(fields);
+        } catch (final IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+
+    private static void checkSize(final int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+    }
+
+    private static String hashPassword(final UserRequest body) {
+        if (body.getPassword() == null) {
+            return null;
+        }
+
+        try {
+            return PasswordHashers.getDefault().hash(body.getPassword());
+        } catch (final IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+
+    private static void checkComplete(final UserRequest body) {
+        if (!body.isComplete()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "The username, email, firstname and lastname are mandatory");
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.relativity.springstarter.starter.web.user;
+
+import com.relativity.springstarter.starter.persistence.user.dao.UserView;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Computes the entity tags of the user representations.
+ *
+ * <p>
+ * The entity tag of a user is strong and derived from its version, which is incremented on each
+ * change, so it can be compared by the {@code If-Match} preconditions. A single user is written
+ * below the compression threshold, so Tomcat not compressing the responses carrying a strong entity
+ * tag costs nothing. The entity tag of a page is weak, its responses being compressed, and digests
+ * the identifiers and versions of its users.
+ * </p>
+ *
+ * @author avakhobov
+ */
+final class UserETags {
+
+    /**
+     * The number of digest bytes of a page entity tag.
+     */
+    private static final int PAGE_DIGEST_LENGTH = 16;
+
+    private UserETags() {
+        super();
+    }
+
+    /**
+     * Get the strong entity tag of a user.
+     *
+     * @param view the user.
+     * @param fields the written fields.
+     *
+     * @return the strong entity tag.
+     */
+    static String of(final UserView view, final Set<UserField> fields) {
+        return "\"" + Long.toHexString(view.getVersion()) + "-" + mask(fields) + "\"";
+    }
+
+    /**
+     * Get the weak entity tag of a page of users.
+     *
+     * @param views the users.
+     * @param next the continuation token of the next page, {@code null} if there is no next page.
+     * @param total the total number of users, {@code null} if not counted.
+     * @param fields the written fields of each user.
+     *
+     * @return the weak entity tag.
+     */
+    static String of(final List<UserView> views, final String next, final Long total,
+            final Set<UserField> fields) {
+        final MessageDigest digest = sha256();
+        digest.update(Objects.toString(next, "").getBytes(StandardCharsets.UTF_8));
+        digest.update(Objects.toString(total, "").getBytes(StandardCharsets.UTF_8));
+
+        final ByteBuffer buffer = ByteBuffer.allocate(3 * Long.BYTES);
+        for (final UserView view : views) {
+            final UUID id = view.getId();
+            buffer.clear();
+            buffer.putLong(id.getMostSignificantBits()).putLong(id.getLeastSignificantBits())
+                    .putLong(view.getVersion());
+            digest.update(buffer.array());
+        }
+
+        final byte[] hash = digest.digest();
+        final StringBuilder tag = new StringBuilder("W/\"");
+        for (int i = 0; i < PAGE_DIGEST_LENGTH; i++) {
+            tag.append(Character.forDigit((hash[i] >> 4) & 0xF, 16))
+                    .append(Character.forDigit(hash[i] & 0xF, 16));
+        }
+
+        return tag.append('-').append(mask(fields)).append('"').toString();
+    }
+
+    /**
+     * Tests if an {@code If-Match} header strongly matches a current entity tag.
+     *
+     * <p>
+     * As required for {@code If-Match}, weak entity tags never match.
+     * </p>
+     *
+     * @param header the {@code If-Match} header value.
+     * @param eTag the current strong entity tag.
+     *
+     * @return {@code true} if the header is {@code *} or lists the entity tag, {@code false}
+     *         otherwise.
+     */
+    static boolean matches(final String header, final String eTag) {
+        for (final String candidate : header.split(",")) {
+            final String trimmed = candidate.trim();
+            if ("*".equals(trimmed) || trimmed.equals(eTag)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static String mask(final Set<UserField> fields) {
+        int mask = 0;
+        for (final UserField field : fields) {
+            mask |= 1 << field.ordinal();
+        }
+
+        return Integer.toHexString(mask);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (final NoSuchAlgorithmException e) {
+            // Every Java platform supports SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+}
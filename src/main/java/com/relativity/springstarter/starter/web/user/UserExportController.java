@@ -0,0 +1,105 @@
+package com.relativity.springstarter.starter.web.user;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.relativity.springstarter.starter.persistence.user.dao.UserRepository;
+import com.relativity.springstarter.starter.persistence.user.entity.User;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Exports the {@link User} entities as newline delimited JSON.
+ *
+ * <p>
+ * Users are streamed from the repository and written to the response while they are read, so the
+ * export does not hold the whole table in memory.
+ * </p>
+ *
+ * @author avakhobov
+ */
+@RestController
+@RequestMapping("/api/users")
+public class UserExportController {
+
+    /**
+     * The number of exported users after which the response is flushed.
+     */
+    private static final int FLUSH_INTERVAL = 1000;
+
+    /**
+     * The {@link User} repository.
+     */
+    private final UserRepository repository;
+
+    /**
+     * The {@link User} JSON writer.
+     */
+    private final ObjectWriter writer;
+
+    /**
+     * Create a {@link UserExportController}.
+     *
+     * @param repository the {@link User} repository.
+     * @param mapper the JSON object mapper.
+     */
+    public UserExportController(final UserRepository repository, final ObjectMapper mapper) {
+        super();
+        this.repository = repository;
+        this.writer = mapper.writerFor(User.class);
+    }
+
+    /**
+     * Export all the users, or the users owned by a user.
+     *
+     * @param ownerId the identifier of the users owner, {@code null} to export all the users.
+     *
+     * @return the users as newline delimited JSON.
+     */
+    @GetMapping(path = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> export(
+            @RequestParam(name = "owner", required = false) final UUID ownerId) {
+        final StreamingResponseBody body = output -> {
+            try (JsonGenerator generator = writer.getFactory().createGenerator(output)) {
+                final Consumer<User> action = new Consumer<User>() {
+                    private int count = 0;
+
+                    @Override
+                    public void accept(final User user) {
+                        try {
+                            writer.writeValue(generator, user);
+                            generator.writeRaw('\n');
+
+                            if (++count % FLUSH_INTERVAL == 0) {
+                                generator.flush();
+                            }
+                        } catch (final IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    }
+                };
+
+                if (ownerId == null) {
+                    repository.forEachEntity(action);
+                } else {
+                    repository.forEachEntityByOwner(repository.getReferenceById(ownerId), action);
+                }
+            } catch (final UncheckedIOException e) {
+                throw e.getCause();
+            }
+        };
+
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+}
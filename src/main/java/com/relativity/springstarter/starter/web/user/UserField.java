@@ -0,0 +1,143 @@
+package com.relativity.springstarter.starter.web.user;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.relativity.springstarter.starter.persistence.user.dao.UserView;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Date;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * The fields of the {@link UserView} JSON representations, which clients can select.
+ *
+ * <p>
+ * Each field holds its name pre-encoded as a {@link SerializedString}, so writing a field neither
+ * looks its name up nor escapes it again, and reads its value without reflection.
+ * </p>
+ *
+ * @author avakhobov
+ */
+public enum UserField {
+
+    ID("id", UserView::getId),
+    USERNAME("username", UserView::getUsername),
+    EMAIL("email", UserView::getEmail),
+    FIRSTNAME("firstname", UserView::getFirstname),
+    LASTNAME("lastname", UserView::getLastname),
+    ENABLED("enabled", UserView::isEnabled),
+    VERIFIED("verified", UserView::isVerified),
+    CREATED_AT("createdAt", UserView::getCreatedAt),
+    MODIFIED_AT("modifiedAt", UserView::getModifiedAt),
+    OWNER("owner", UserView::getOwnerId),
+    CREATED_BY("createdBy", UserView::getCreatedById),
+    MODIFIED_BY("modifiedBy", UserView::getModifiedById);
+
+    /**
+     * All the fields, written when no field is selected.
+     */
+    public static final Set<UserField> ALL = Collections
+            .unmodifiableSet(EnumSet.allOf(UserField.class));
+
+    /**
+     * The fields by JSON name.
+     */
+    private static final Map<String, UserField> BY_NAME = new HashMap<>();
+
+    static {
+        for (final UserField field : values()) {
+            BY_NAME.put(field.getName(), field);
+        }
+    }
+
+    /**
+     * The pre-encoded JSON name.
+     */
+    private final SerializedString name;
+
+    /**
+     * The field value accessor.
+     */
+    private final Function<UserView, Object> accessor;
+
+    UserField(final String name, final Function<UserView, Object> accessor) {
+        this.name = new SerializedString(name);
+        this.accessor = accessor;
+    }
+
+    /**
+     * Get the JSON name.
+     *
+     * @return the JSON name.
+     */
+    public String getName() {
+        return name.getValue();
+    }
+
+    /**
+     * Get the value of this field in a view.
+     *
+     * @param view the user view.
+     *
+     * @return the field value, may be {@code null}.
+     */
+    public Object valueOf(final UserView view) {
+        return accessor.apply(view);
+    }
+
+    /**
+     * Write this field, name and value, of a view.
+     *
+     * @param generator the JSON generator, positioned in an object.
+     * @param view the user view.
+     *
+     * @throws IOException if the field cannot be written.
+     */
+    public void write(final JsonGenerator generator, final UserView view) throws IOException {
+        generator.writeFieldName(name);
+
+        final Object value = valueOf(view);
+        if (value == null) {
+            generator.writeNull();
+        } else if (value instanceof String) {
+            generator.writeString((String) value);
+        } else if (value instanceof Boolean) {
+            generator.writeBoolean((Boolean) value);
+        } else if (value instanceof Date) {
+            generator.writeString(((Date) value).toInstant().toString());
+        } else {
+            generator.writeString(value.toString());
+        }
+    }
+
+    /**
+     * Parse a comma-separated list of field names.
+     *
+     * @param names the field names, {@code null} or blank to select all the fields.
+     *
+     * @return the selected fields, in declaration order.
+     *
+     * @throws IllegalArgumentException if a field name is unknown.
+     */
+    public static Set<UserField> parse(final String names) {
+        if (names == null || names.isBlank()) {
+            return ALL;
+        }
+
+        final Set<UserField> fields = EnumSet.noneOf(UserField.class);
+        for (final String name : names.split(",")) {
+            final UserField field = BY_NAME.get(name.trim());
+            if (field == null) {
+                throw new IllegalArgumentException("Unknown user field: " + name.trim());
+            }
+            fields.add(field);
+        }
+
+        return fields;
+    }
+}
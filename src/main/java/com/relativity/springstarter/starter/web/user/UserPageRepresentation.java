@@ -0,0 +1,137 @@
+package com.relativity.springstarter.starter.web.user;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.relativity.springstarter.starter.persistence.user.dao.UserView;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The JSON representation of a list of {@link UserView}s, restricted to the selected fields, with
+ * the continuation token of the next page and the total number of users when known.
+ *
+ * @author avakhobov
+ */
+@JsonSerialize(using = UserPageRepresentation.Serializer.class)
+public final class UserPageRepresentation {
+
+    private static final SerializedString CONTENT = new SerializedString("content");
+
+    private static final SerializedString NEXT = new SerializedString("next");
+
+    private static final SerializedString TOTAL = new SerializedString("total");
+
+    /**
+     * The represented users.
+     */
+    private final List<UserView> content;
+
+    /**
+     * The continuation token of the next page, {@code null} if there is no next page.
+     */
+    private final String next;
+
+    /**
+     * The total number of users, {@code null} if not counted.
+     */
+    private final Long total;
+
+    /**
+     * The written fields of each user.
+     */
+    private final Set<UserField> fields;
+
+    /**
+     * Create a {@link UserPageRepresentation}.
+     *
+     * @param content the represented users.
+     * @param next the continuation token of the next page, {@code null} if there is no next page.
+     * @param total the total number of users, {@code null} if not counted.
+     * @param fields the written fields of each user.
+     */
+    public UserPageRepresentation(final List<UserView> content, final String next, final Long total,
+            final Set<UserField> fields) {
+        super();
+        this.content = content;
+        this.next = next;
+        this.total = total;
+        this.fields = fields;
+    }
+
+    /**
+     * Get the {@link #content}.
+     *
+     * @return the {@link #content}.
+     */
+    public List<UserView> getContent() {
+        return content;
+    }
+
+    /**
+     * Get the {@link #next}.
+     *
+     * @return the {@link #next}.
+     */
+    public String getNext() {
+        return next;
+    }
+
+    /**
+     * Get the {@link #total}.
+     *
+     * @return the {@link #total}.
+     */
+    public Long getTotal() {
+        return total;
+    }
+
+    /**
+     * Get the weak entity tag of this representation.
+     *
+     * @return the entity tag.
+     */
+    public String getETag() {
+        return UserETags.of(content, next, total, fields);
+    }
+
+    /**
+     * Writes {@link UserPageRepresentation}s without introspecting them.
+     */
+    public static final class Serializer extends StdSerializer<UserPageRepresentation> {
+
+        private static final long serialVersionUID = 1L;
+
+        public Serializer() {
+            super(UserPageRepresentation.class);
+        }
+
+        @Override
+        public void serialize(final UserPageRepresentation value, final JsonGenerator generator,
+                final SerializerProvider provider) throws IOException {
+            generator.writeStartObject();
+
+            generator.writeFieldName(CONTENT);
+            generator.writeStartArray();
+            for (final UserView view : value.content) {
+                UserRepresentation.write(generator, view, value.fields);
+            }
+            generator.writeEndArray();
+
+            if (value.next != null) {
+                generator.writeFieldName(NEXT);
+                generator.writeString(value.next);
+            }
+            if (value.total != null) {
+                generator.writeFieldName(TOTAL);
+                generator.writeNumber(value.total);
+            }
+
+            generator.writeEndObject();
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.relativity.springstarter.starter.web.user;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.relativity.springstarter.starter.persistence.user.dao.UserView;
+
+import java.io.IOException;
+import java.util.Set;
+
+/**
+ * The JSON representation of a {@link UserView}, restricted to the selected fields.
+ *
+ * @author avakhobov
+ */
+@JsonSerialize(using = UserRepresentation.Serializer.class)
+public final class UserRepresentation {
+
+    /**
+     * The represented user.
+     */
+    private final UserView view;
+
+    /**
+     * The written fields.
+     */
+    private final Set<UserField> fields;
+
+    /**
+     * Create a {@link UserRepresentation}.
+     *
+     * @param view the represented user.
+     * @param fields the written fields.
+     */
+    public UserRepresentation(final UserView view, final Set<UserField> fields) {
+        super();
+        this.view = view;
+        this.fields = fields;
+    }
+
+    /**
+     * Get the {@link #view}.
+     *
+     * @return the {@link #view}.
+     */
+    public UserView getView() {
+        return view;
+    }
+
+    /**
+     * Get the {@link #fields}.
+     *
+     * @return the {@link #fields}.
+     */
+    public Set<UserField> getFields() {
+        return fields;
+    }
+
+    /**
+     * Get the strong entity tag of this representation.
+     *
+     * @return the entity tag.
+     */
+    public String getETag() {
+        return UserETags.of(view, fields);
+    }
+
+    /**
+     * Write a user as a JSON object of the selected fields.
+     *
+     * @param generator the JSON generator.
+     * @param view the user.
+     * @param fields the written fields.
+     *
+     * @throws IOException if the user cannot be written.
+     */
+    static void write(final JsonGenerator generator, final UserView view,
+            final Set<UserField> fields) throws IOException {
+        generator.writeStartObject();
+        for (final UserField field : fields) {
+            field.write(generator, view);
+        }
+        generator.writeEndObject();
+    }
+
+    /**
+     * Writes {@link UserRepresentation}s without introspecting them.
+     */
+    public static final class Serializer extends StdSerializer<UserRepresentation> {
+
+        private static final long serialVersionUID = 1L;
+
+        public Serializer() {
+            super(UserRepresentation.class);
+        }
+
+        @Override
+        public void serialize(final UserRepresentation value, final JsonGenerator generator,
+                final SerializerProvider provider) throws IOException {
+            write(generator, value.view, value.fields);
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.relativity.springstarter.starter.web.user;
+
+import com.relativity.springstarter.starter.persistence.user.entity.User;
+
+/**
+ * The JSON body of the requests creating or replacing a {@link User}.
+ *
+ * @author avakhobov
+ */
+public class UserRequest {
+
+    /**
+     * The user's account name.
+     */
+    private String username;
+
+    /**
+     * The user's account email.
+     */
+    private String email;
+
+    /**
+     * The user's firstname.
+     */
+    private String firstname;
+
+    /**
+     * The user's lastname.
+     */
+    private String lastname;
+
+    /**
+     * Is the user's account active, {@code null} to keep the current or default status.
+     */
+    private Boolean enabled;
+
+    /**
+     * The user's clear password, {@code null} to keep the current password.
+     */
+    private char[] password;
+
+    /**
+     * Get the {@link #username}.
+     *
+     * @return the {@link #username}.
+     */
+    public String getUsername() {
+        return username;
+    }
+
+    /**
+     * Set the {@link #username}.
+     *
+     * @param username the {@link #username} to set.
+     */
+    public void setUsername(final String username) {
+        this.username = username;
+    }
+
+    /**
+     * Get the {@link #email}.
+     *
+     * @return the {@link #email}.
+     */
+    public String getEmail() {
+        return email;
+    }
+
+    /**
+     * Set the {@link #email}.
+     *
+     * @param email the {@link #email} to set.
+     */
+    public void setEmail(final String email) {
+        this.email = email;
+    }
+
+    /**
+     * Get the {@link #firstname}.
+     *
+     * @return the {@link #firstname}.
+     */
+    public String getFirstname() {
+        return firstname;
+    }
+
+    /**
+     * Set the {@link #firstname}.
+     *
+     * @param firstname the {@link #firstname} to set.
+     */
+    public void setFirstname(final String firstname) {
+        this.firstname = firstname;
+    }
+
+    /**
+     * Get the {@link #lastname}.
+     *
+     * @return the {@link #lastname}.
+     */
+    public String getLastname() {
+        return lastname;
+    }
+
+    /**
+     * Set the {@link #lastname}.
+     *
+     * @param lastname the {@link #lastname} to set.
+     */
+    public void setLastname(final String lastname) {
+        this.lastname = lastname;
+    }
+
+    /**
+     * Get the {@link #enabled}.
+     *
+     * @return the {@link #enabled}.
+     */
+    public Boolean getEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Set the {@link #enabled}.
+     *
+     * @param enabled the {@link #enabled} to set.
+     */
+    public void setEnabled(final Boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Get the {@link #password}.
+     *
+     * @return the {@link #password}.
+     */
+    public char[] getPassword() {
+        return password;
+    }
+
+    /**
+     * Set the {@link #password}.
+     *
+     * @param password the {@link #password} to set.
+     */
+    public void setPassword(final char... password) {
+        this.password = password;
+    }
+
+    /**
+     * Tests if the mandatory properties are set.
+     *
+     * @return {@code true} if the username, email, firstname and lastname are not blank,
+     *         {@code false} otherwise.
+     */
+    public boolean isComplete() {
+        return hasText(username) && hasText(email) && hasText(firstname) && hasText(lastname);
+    }
+
+    /**
+     * Copy the properties of this request to a {@link User}, except the {@link #password} which
+     * is hashed apart.
+     *
+     * @param user the created or replaced user.
+     */
+    public void applyTo(final User user) {
+        user.setUsername(username);
+        user.setEmail(email);
+        user.setFirstname(firstname);
+        user.setLastname(lastname);
+        if (enabled != null) {
+            user.setEnabled(enabled);
+        }
+    }
+
+    private static boolean hasText(final String value) {
+        return value != null && !value.isBlank();
+    }
+}
@@ -0,0 +1,6 @@
+/**
+ * The <em>Users</em> web endpoints.
+ *
+ * @author avakhobov
+ */
+package com.relativity.springstarter.starter.web.user;
@@ -0,0 +1,101 @@
+package com.relativity.springstarter.starter.persistence;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import com.relativity.springstarter.starter.persistence.user.dao.UserRepository;
+import com.relativity.springstarter.starter.persistence.user.entity.TestUsers;
+import com.relativity.springstarter.starter.persistence.user.entity.User;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.data.domain.Sort;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+@SpringBootTest
+class KeysetPagingTests {
+
+	@Autowired
+	private UserRepository repository;
+
+	private User owner;
+
+	@BeforeEach
+	void setUp() {
+		owner = user("owner", new Date(0));
+		repository.add(owner);
+
+		// Several users share the same creation date to exercise the identifier tie-breaker
+		for (int i = 0; i < 23; i++) {
+			final User user = user("user" + i, new Date(1000L * (i / 4)));
+			user.setOwner(i % 2 == 0 ? owner : null);
+			repository.add(user);
+		}
+	}
+
+	@AfterEach
+	void tearDown() {
+		repository.deleteAll();
+	}
+
+	@Test
+	void pagesThroughAllEntitiesInOrder() {
+		final List<UUID> expected = ids(
+				repository.findAll(Sort.by(AbstractGenericEntity.CREATED_AT_FIELD, AbstractGenericEntity.ID_PROPERTY)));
+
+		final List<UUID> visited = new ArrayList<>();
+		KeysetPage<User> page = repository.findAll(KeysetPageRequest.first(5).withTotal());
+		assertThat(page.getTotalElements()).isEqualTo(24L);
+		visited.addAll(ids(page.getContent()));
+
+		while (page.hasNext()) {
+			page = repository.findAll(page.nextRequest(5));
+			assertThat(page.getContent()).isNotEmpty();
+			assertThat(page.getTotalElements()).isNull();
+			visited.addAll(ids(page.getContent()));
+		}
+
+		assertThat(visited).containsExactlyElementsOf(expected);
+	}
+
+	@Test
+	void pagesThroughOwnedEntities() {
+		final List<UUID> visited = new ArrayList<>();
+		KeysetPageRequest request = KeysetPageRequest.first(4).withTotal();
+
+		do {
+			final KeysetPage<User> page = repository.findAllByOwner(request, owner);
+			visited.addAll(ids(page.getContent()));
+			request = page.nextRequest(4);
+		} while (request != null);
+
+		assertThat(visited).hasSize(12).doesNotHaveDuplicates()
+				.containsExactlyInAnyOrderElementsOf(ids(repository.findAllByOwner(owner)));
+	}
+
+	@Test
+	void rejectsInvalidToken() {
+		assertThatExceptionOfType(InvalidDataAccessApiUsageException.class)
+				.isThrownBy(() -> repository.findAll(KeysetPageRequest.of(5, "invalid")));
+	}
+
+	private static List<UUID> ids(final List<User> users) {
+		return users.stream().map(AbstractGenericEntity::getId).collect(Collectors.toList());
+	}
+
+	private static User user(final String username, final Date createdAt) {
+		final User user = TestUsers.user(username);
+		user.setCreatedAt(createdAt);
+		return user;
+	}
+
+}
@@ -0,0 +1,124 @@
+package com.relativity.springstarter.starter.persistence.async;
+
+import static com.relativity.springstarter.starter.persistence.user.entity.TestUsers.user;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.relativity.springstarter.starter.persistence.Chunks;
+import com.relativity.springstarter.starter.persistence.user.dao.UserRepository;
+import com.relativity.springstarter.starter.persistence.user.entity.User;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+
+@SpringBootTest(properties = { "starter.persistence.async.concurrency=2",
+		"starter.persistence.async.queue-capacity=2" })
+class AsyncUserRepositoryTests {
+
+	@Autowired
+	private UserRepository repository;
+
+	@Autowired
+	private AsyncUserRepository asyncRepository;
+
+	@Autowired
+	private AsyncRepositoryExecutor executor;
+
+	private User alice;
+
+	@BeforeEach
+	void setUp() {
+		alice = user("alice");
+		repository.add(alice);
+	}
+
+	@AfterEach
+	void tearDown() {
+		repository.deleteAll();
+	}
+
+	@Test
+	void fansOutLookups() {
+		final CompletableFuture<User> byUsername = asyncRepository.findByUsernameIgnoreCase("ALICE");
+		final CompletableFuture<User> byEmail = asyncRepository.findByEmailIgnoreCase("alice@example.org");
+		final CompletableFuture<Boolean> exists = asyncRepository.exists(null, "bob", null);
+
+		CompletableFuture.allOf(byUsername, byEmail, exists).join();
+
+		assertThat(byUsername.join().getId()).isEqualTo(alice.getId());
+		assertThat(byEmail.join().getId()).isEqualTo(alice.getId());
+		assertThat(exists.join()).isFalse();
+	}
+
+	@Test
+	void findsEachInParallelChunks() {
+		final List<String> usernames = new ArrayList<>();
+		for (int i = 0; i < Chunks.IN_CLAUSE_SIZE * 2; i++) {
+			usernames.add("missing" + i);
+		}
+		usernames.add("ALICE");
+		usernames.add(1, "alice");
+
+		final List<Optional<User>> found = asyncRepository.findEachByUsernameIgnoreCase(usernames).join();
+
+		assertThat(found).hasSize(usernames.size());
+		assertThat(found.get(1).orElseThrow().getId()).isEqualTo(alice.getId());
+		assertThat(found.get(found.size() - 1).orElseThrow().getId()).isEqualTo(alice.getId());
+		assertThat(found.stream().filter(Optional::isPresent)).hasSize(2);
+		assertThat(asyncRepository.findEachById(Arrays.asList(UUID.randomUUID(), alice.getId())).join())
+				.extracting(user -> user.map(User::getId).orElse(null)).containsExactly(null, alice.getId());
+	}
+
+	@Test
+	void rollsBackFailedTransaction() {
+		final CompletableFuture<Object> failed = asyncRepository.inTransaction(r -> {
+			r.add(user("bob"));
+			throw new IllegalStateException("rollback");
+		});
+
+		assertThatThrownBy(failed::join).isInstanceOf(CompletionException.class)
+				.hasCauseInstanceOf(IllegalStateException.class);
+		assertThat(repository.findByUsernameIgnoreCase("bob")).isNull();
+	}
+
+	@Test
+	void rejectsCallsWhenSaturated() throws Exception {
+		final CountDownLatch release = new CountDownLatch(1);
+		final List<CompletableFuture<Long>> blocked = new ArrayList<>();
+		for (int i = 0; i < 4; i++) {
+			blocked.add(asyncRepository.supply(r -> {
+				await(release);
+				return r.count();
+			}));
+		}
+
+		assertThatThrownBy(asyncRepository.count()::join).hasCauseInstanceOf(RejectedExecutionException.class);
+
+		release.countDown();
+		assertThat(blocked).allSatisfy(future -> assertThat(future.join()).isEqualTo(1L));
+		assertThat(executor.getPending()).isZero();
+		assertThat(asyncRepository.count().join()).isEqualTo(1L);
+	}
+
+	private static void await(final CountDownLatch latch) {
+		try {
+			latch.await();
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException(e);
+		}
+	}
+}
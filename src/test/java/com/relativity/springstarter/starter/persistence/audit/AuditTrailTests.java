@@ -0,0 +1,301 @@
+package com.relativity.springstarter.starter.persistence.audit;
+
+import static com.relativity.springstarter.starter.persistence.user.entity.TestUsers.user;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.relativity.springstarter.starter.persistence.user.dao.UserRepository;
+import com.relativity.springstarter.starter.persistence.user.entity.User;
+import com.relativity.springstarter.starter.security.PasswordHasher;
+import com.relativity.springstarter.starter.security.PasswordHashers;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+import javax.sql.DataSource;
+
+@SpringBootTest
+class AuditTrailTests {
+
+	private static final AtomicReference<UUID> CURRENT_AUDITOR = new AtomicReference<>();
+
+	@Autowired
+	private UserRepository repository;
+
+	@Autowired
+	private AuditTrail trail;
+
+	@Autowired
+	private AuditQueue queue;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	private DataSource dataSource;
+
+	private User owner;
+
+	private User user;
+
+	@BeforeEach
+	void setUp() {
+		owner = user("auditowner");
+		repository.add(owner);
+		user = user("audited");
+		user.setOwner(owner);
+		repository.add(user);
+	}
+
+	@AfterEach
+	void tearDown() {
+		repository.deleteAll();
+	}
+
+	@Test
+	void recordsCreationUpdatesAndDeletionWithChangedFields() {
+		final User changes = new User(user);
+		changes.setEmail("changed@example.org");
+		repository.update(changes);
+		repository.deleteById(user.getId());
+
+		final List<AuditEvent> events = trail.findByEntityId(user.getId());
+		assertThat(events).extracting(AuditEvent::getAction).containsExactly(AuditAction.CREATE,
+				AuditAction.UPDATE, AuditAction.DELETE);
+		assertThat(events).allSatisfy(event -> {
+			assertThat(event.getEntityType()).isEqualTo(User.class.getName());
+			assertThat(event.getEntityId()).isEqualTo(user.getId());
+		});
+
+		assertThat(events.get(0).getChanges().get("username")).isEqualTo(new AuditChange(null, "audited"));
+		assertThat(events.get(0).getChanges().get("owner")).isEqualTo(new AuditChange(null, owner.getId().toString()));
+		assertThat(events.get(0).getChanges()).doesNotContainKey("version");
+		assertThat(events.get(1).getChanges())
+				.containsEntry("email", new AuditChange("audited@example.org", "changed@example.org"))
+				.doesNotContainKeys("username", "firstname", "version");
+		assertThat(events.get(2).getChanges().get("email")).isEqualTo(new AuditChange("changed@example.org", null));
+	}
+
+	@Test
+	void recordsTheCurrentAuditor() {
+		CURRENT_AUDITOR.set(owner.getId());
+		try {
+			final User created = user("createdbyowner");
+			repository.add(created);
+			final User changes = new User(user);
+			changes.setEmail("changed@example.org");
+			repository.update(changes);
+
+			assertThat(repository.findViewById(created.getId()).orElseThrow().getCreatedById())
+					.isEqualTo(owner.getId());
+			assertThat(repository.findViewById(user.getId()).orElseThrow().getModifiedById())
+					.isEqualTo(owner.getId());
+			assertThat(trail.findByEntityId(created.getId())).extracting(AuditEvent::getActorId)
+					.containsExactly(owner.getId());
+		} finally {
+			CURRENT_AUDITOR.set(null);
+		}
+	}
+
+	@Test
+	void redactsPasswords() {
+		final PasswordHasher hasher = PasswordHashers.getDefault();
+		PasswordHashers.setDefault(new PasswordHasher(PasswordHasher.MIN_COST, 1, 0));
+		try {
+			user.setPassword("secret".toCharArray());
+			repository.update(user);
+		} finally {
+			PasswordHashers.setDefault(hasher);
+		}
+
+		final List<AuditEvent> events = trail.findByEntityId(user.getId());
+		assertThat(events.get(events.size() - 1).getChanges()).containsEntry("password",
+				new AuditChange(null, AuditEventListener.REDACTED));
+	}
+
+	@Test
+	void recordsBulkUpdatesOfTheUpdatedUsers() {
+		repository.setEnabled(user.getId(), false);
+		repository.setVerified(Arrays.asList(user.getId(), owner.getId()), true);
+		// Not owned, nothing updated
+		assertThat(repository.setEnabledByOwner(owner.getId(), false, user)).isZero();
+
+		assertThat(changes(updates(user))).containsExactly("{enabled=null -> false}", "{verified=null -> true}");
+		assertThat(changes(updates(owner))).containsExactly("{verified=null -> true}");
+	}
+
+	@Test
+	void recordsOnlyTheUsersABulkUpdateChanged() {
+		final UUID missing = UUID.randomUUID();
+		assertThat(repository.setEnabledByOwner(Arrays.asList(user.getId(), owner.getId(), missing), false, owner))
+				.isEqualTo(1);
+		assertThat(repository.setVerified(Arrays.asList(owner.getId(), missing), true)).isEqualTo(1);
+		assertThat(repository.setVerifiedByOwner(Arrays.asList(user.getId(), owner.getId()), false, null))
+				.isEqualTo(1);
+
+		assertThat(changes(updates(user))).containsExactly("{enabled=null -> false}");
+		assertThat(changes(updates(owner))).containsExactly("{verified=null -> true}", "{verified=null -> false}");
+		assertThat(trail.findByEntityId(missing)).isEmpty();
+		assertThat(queue.getPending()).isZero();
+	}
+
+	@Test
+	void recordsTheReferencesReleasedByDeletions() {
+		// Not owned, nothing deleted nor released
+		assertThat(repository.deleteByIdAndOwner(owner.getId(), user)).isZero();
+		assertThat(updates(user)).isEmpty();
+
+		repository.deleteById(owner.getId());
+
+		assertThat(changes(updates(user))).containsExactly("{owner=" + owner.getId() + " -> null}");
+		assertThat(repository.findById(user.getId())).hasValueSatisfying(found -> assertThat(found.getOwner()).isNull());
+		assertThat(queue.getPending()).isZero();
+	}
+
+	@Test
+	void skipsRolledBackChanges() {
+		final User rolledBack = user("rolledback");
+		final TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+		transaction.executeWithoutResult(status -> {
+			repository.add(rolledBack);
+			repository.setEnabled(user.getId(), false);
+			status.setRollbackOnly();
+		});
+
+		assertThat(trail.findByEntityId(rolledBack.getId())).isEmpty();
+		assertThat(trail.findByEntityId(user.getId())).extracting(AuditEvent::getAction)
+				.containsExactly(AuditAction.CREATE);
+		assertThat(queue.getPending()).isZero();
+	}
+
+	@Test
+	void recordsTheChangesOfInnerTransactionsApart() {
+		final User rolledBack = user("rolledback");
+		final TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+		final TransactionTemplate inner = new TransactionTemplate(transactionManager);
+		inner.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+		transaction.executeWithoutResult(status -> {
+			repository.add(rolledBack);
+			inner.executeWithoutResult(innerStatus -> repository.setEnabled(user.getId(), false));
+			status.setRollbackOnly();
+		});
+
+		assertThat(trail.findByEntityId(rolledBack.getId())).isEmpty();
+		assertThat(changes(updates(user))).containsExactly("{enabled=null -> false}");
+		assertThat(queue.getPending()).isZero();
+	}
+
+	@Test
+	void rejectsEventsBeyondTheQueueCapacity() {
+		final AuditQueue bounded = new AuditQueue(2);
+		bounded.reserve(2);
+		assertThatThrownBy(() -> bounded.reserve(1)).isInstanceOf(RejectedExecutionException.class);
+
+		bounded.release(1);
+		bounded.reserve(1);
+		assertThat(bounded.getPending()).isEqualTo(2);
+	}
+
+	@Test
+	void rejectsChangesWhenTheQueueIsFull() {
+		final int free = queue.getCapacity() - queue.getPending();
+		queue.reserve(free);
+		try {
+			assertThatThrownBy(() -> repository.add(user("rejected"))).satisfies(e -> assertThat(
+					NestedExceptionUtils.getMostSpecificCause(e)).isInstanceOf(RejectedExecutionException.class));
+			assertThatThrownBy(() -> repository.setEnabled(user.getId(), false)).isInstanceOf(
+					RejectedExecutionException.class);
+		} finally {
+			queue.release(free);
+		}
+
+		assertThat(repository.findByUsernameIgnoreCase("rejected")).isNull();
+		assertThat(repository.findById(user.getId())).hasValueSatisfying(found -> assertThat(found.isEnabled()).isTrue());
+	}
+
+	@Test
+	void writesTheQueuedEventsOnShutdown() {
+		final AuditQueue pending = new AuditQueue(10);
+		final AuditWriter writer = new AuditWriter(pending, dataSource, 2, Duration.ofHours(1), Duration.ofSeconds(10));
+		writer.start();
+		final UUID entityId = UUID.randomUUID();
+		pending.reserve(3);
+		for (int i = 0; i < 3; i++) {
+			pending.add(new AuditEvent(User.class, entityId, AuditAction.UPDATE,
+					Collections.singletonMap("firstname", new AuditChange(null, "first" + i)), null));
+		}
+		writer.shutdown();
+
+		assertThat(writer.getWritten()).isEqualTo(3);
+		assertThat(pending.getPending()).isZero();
+		assertThat(changes(trail.findByEntityId(entityId))).containsExactly("{firstname=null -> first0}",
+				"{firstname=null -> first1}", "{firstname=null -> first2}");
+	}
+
+	@Test
+	void deadLettersTheRejectedEvents() {
+		final DataSource narrow = new DriverManagerDataSource("jdbc:h2:mem:deadletters;DB_CLOSE_DELAY=-1");
+		final JdbcTemplate jdbc = new JdbcTemplate(narrow);
+		// Too narrow for the user entity type
+		jdbc.execute("CREATE TABLE " + AuditEvent.TABLE + " (id VARCHAR(36) PRIMARY KEY, entity_type VARCHAR(20), "
+				+ "entity_id VARCHAR(36), action VARCHAR(16), changes TEXT, actor_id VARCHAR(36), occurred_at TIMESTAMP)");
+		try {
+			final AuditQueue pending = new AuditQueue(10);
+			final AuditWriter writer = new AuditWriter(pending, narrow, 3, Duration.ofHours(1), Duration.ofSeconds(10));
+			writer.start();
+			pending.reserve(3);
+			for (final Class<?> entityType : Arrays.asList(String.class, User.class, String.class)) {
+				pending.add(new AuditEvent(entityType, UUID.randomUUID(), AuditAction.CREATE, Collections.emptyMap(),
+						null));
+			}
+			writer.shutdown();
+
+			assertThat(writer.getWritten()).isEqualTo(3);
+			assertThat(writer.getDeadLettered()).isEqualTo(1);
+			assertThat(pending.getPending()).isZero();
+			assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM " + AuditEvent.TABLE, Integer.class)).isEqualTo(2);
+		} finally {
+			jdbc.execute("DROP TABLE " + AuditEvent.TABLE);
+		}
+	}
+
+	private List<AuditEvent> updates(final User audited) {
+		return trail.findByEntityId(audited.getId()).stream().filter(event -> event.getAction() == AuditAction.UPDATE)
+				.collect(Collectors.toList());
+	}
+
+	private static List<String> changes(final List<AuditEvent> events) {
+		return events.stream().map(event -> event.getChanges().toString()).collect(Collectors.toList());
+	}
+
+	@TestConfiguration
+	static class AuditorConfiguration {
+
+		@Bean
+		AuditorAware<UUID> auditorAware() {
+			return () -> Optional.ofNullable(CURRENT_AUDITOR.get());
+		}
+	}
+}
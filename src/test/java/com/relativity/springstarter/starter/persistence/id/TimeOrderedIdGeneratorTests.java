@@ -0,0 +1,75 @@
+package com.relativity.springstarter.starter.persistence.id;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+class TimeOrderedIdGeneratorTests {
+
+	@Test
+	void generatesVersion7Identifiers() {
+		final long now = System.currentTimeMillis();
+		final UUID id = new TimeOrderedIdGenerator(() -> now).generate();
+
+		assertThat(id.version()).isEqualTo(7);
+		assertThat(id.variant()).isEqualTo(2);
+		assertThat(id.getMostSignificantBits() >>> 16).isEqualTo(now);
+	}
+
+	@Test
+	void generatesIncreasingIdentifiersWithinTheSameMillisecond() {
+		final TimeOrderedIdGenerator generator = new TimeOrderedIdGenerator(() -> 1_000L);
+
+		UUID previous = generator.generate();
+		for (int i = 0; i < 10_000; i++) {
+			final UUID next = generator.generate();
+			assertThat(Long.compareUnsigned(next.getMostSignificantBits(), previous.getMostSignificantBits()))
+					.isPositive();
+			previous = next;
+		}
+	}
+
+	@Test
+	void generatesUniqueIdentifiersConcurrently() throws Exception {
+		final TimeOrderedIdGenerator generator = new TimeOrderedIdGenerator();
+		final Set<UUID> ids = ConcurrentHashMap.newKeySet();
+		final ExecutorService executor = Executors.newFixedThreadPool(8);
+
+		try {
+			final List<Future<?>> futures = new ArrayList<>();
+			for (int t = 0; t < 8; t++) {
+				futures.add(executor.submit(() -> {
+					for (int i = 0; i < 50_000; i++) {
+						ids.add(generator.generate());
+					}
+				}));
+			}
+			for (final Future<?> future : futures) {
+				future.get();
+			}
+		} finally {
+			executor.shutdown();
+		}
+
+		assertThat(ids).hasSize(8 * 50_000);
+	}
+
+	@Test
+	void resolvesAnnotatedStrategy() {
+		assertThat(IdGenerators.generate(RandomEntity.class).version()).isEqualTo(4);
+	}
+
+	@IdGeneration(IdStrategy.RANDOM)
+	private static class RandomEntity {
+	}
+
+}
@@ -0,0 +1,82 @@
+package com.relativity.springstarter.starter.persistence.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.assertj.core.api.ThrowableAssert.ThrowingCallable;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * The SQL statements executed by a repository call or a request, to assert on their number and
+ * detect N+1 selects.
+ *
+ * <p>
+ * The statements are those of the instrumented data source, executed by the calling thread, so the
+ * repository metrics must be enabled and the work handed to other threads is not counted.
+ * </p>
+ *
+ * <pre>
+ * QueryCount.of(() -&gt; repository.findAll()).hasAtMost(1).hasNoRepeatedSelects();
+ * </pre>
+ */
+public final class QueryCount {
+
+	private final List<String> statements;
+
+	private QueryCount(final List<String> statements) {
+		this.statements = statements;
+	}
+
+	/**
+	 * Count the statements executed by a call.
+	 *
+	 * @param call the counted call, rethrowing its exceptions wrapped in an {@link AssertionError}.
+	 *
+	 * @return the statements executed by the call.
+	 */
+	public static QueryCount of(final ThrowingCallable call) {
+		final RequestStatistics statistics = RequestStatistics.start(true);
+		try {
+			call.call();
+		} catch (final Throwable e) {
+			throw new AssertionError("Counted call failed", e);
+		} finally {
+			RequestStatistics.stop();
+		}
+		return new QueryCount(statistics.getExecutedStatements());
+	}
+
+	public List<String> getStatements() {
+		return statements;
+	}
+
+	public QueryCount hasCount(final int expected) {
+		assertThat(statements).as("executed statements").hasSize(expected);
+		return this;
+	}
+
+	public QueryCount hasAtMost(final int maximum) {
+		assertThat(statements).as("executed statements").hasSizeLessThanOrEqualTo(maximum);
+		return this;
+	}
+
+	/**
+	 * Assert that no select is executed more than once, the mark of an N+1 selects loading an
+	 * association for each of the entities a first select returned.
+	 *
+	 * @return this {@link QueryCount}.
+	 */
+	public QueryCount hasNoRepeatedSelects() {
+		final Map<String, Long> repeated = statements.stream()
+				.filter(sql -> sql.trim().toLowerCase(Locale.ROOT).startsWith("select"))
+				.collect(Collectors.groupingBy(sql -> sql, LinkedHashMap::new, Collectors.counting()));
+		repeated.values().removeIf(count -> count < 2);
+
+		assertThat(repeated).as("N+1 selects, by number of executions").isEmpty();
+		return this;
+	}
+}
@@ -0,0 +1,109 @@
+package com.relativity.springstarter.starter.persistence.metrics;
+
+import static com.relativity.springstarter.starter.persistence.user.entity.TestUsers.user;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.relativity.springstarter.starter.persistence.user.dao.UserRepository;
+import com.relativity.springstarter.starter.persistence.user.entity.User;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.test.web.servlet.MockMvc;
+
+@SpringBootTest(properties = "starter.persistence.metrics.slow-query-threshold=0ms")
+@AutoConfigureMockMvc
+@ExtendWith(OutputCaptureExtension.class)
+class RepositoryMetricsTests {
+
+	@Autowired
+	private UserRepository repository;
+
+	@Autowired
+	private MeterRegistry registry;
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	private User user;
+
+	@BeforeEach
+	void setUp() {
+		user = user("metered");
+		repository.add(user);
+	}
+
+	@AfterEach
+	void tearDown() {
+		repository.deleteAll();
+	}
+
+	@Test
+	void timesRepositoryMethodsIncludingDefaultMethods() {
+		final long found = count("findById", RepositoryMetricsInterceptor.SUCCESS);
+		final long enabled = count("setEnabled", RepositoryMetricsInterceptor.SUCCESS);
+
+		repository.findById(user.getId());
+		repository.setEnabled(user.getId(), false);
+		assertThatThrownBy(() -> repository.findById(null)).isInstanceOf(RuntimeException.class);
+
+		assertThat(count("add", RepositoryMetricsInterceptor.SUCCESS)).isPositive();
+		assertThat(count("findById", RepositoryMetricsInterceptor.SUCCESS)).isEqualTo(found + 1);
+		assertThat(count("setEnabled", RepositoryMetricsInterceptor.SUCCESS)).isEqualTo(enabled + 1);
+		assertThat(count("findById", RepositoryMetricsInterceptor.ERROR)).isPositive();
+		assertThat(registry.get(RepositoryMetricsInterceptor.METRIC_NAME).tag("method", "findById").timer()
+				.takeSnapshot().percentileValues()).hasSize(3);
+	}
+
+	@Test
+	void logsSlowQueriesWithParameterShapes(final CapturedOutput output) {
+		repository.findByUsernameIgnoreCase("Secret-Name");
+
+		assertThat(output).contains("Slow query took").contains("username_normalized").contains("[String]")
+				.doesNotContain("secret-name");
+	}
+
+	@Test
+	void countsStatementsAndEntitiesPerRequest() throws Exception {
+		final RequestStatistics statistics = RequestStatistics.start();
+		try {
+			repository.findAll();
+		} finally {
+			RequestStatistics.stop();
+		}
+		assertThat(statistics.getStatements()).isEqualTo(1);
+		assertThat(statistics.getEntities()).isEqualTo(1);
+
+		final DistributionSummary statements = registry.get(RequestStatisticsFilter.STATEMENTS_METRIC_NAME)
+				.summary();
+		final DistributionSummary entities = registry.get(RequestStatisticsFilter.ENTITIES_METRIC_NAME).summary();
+		final long requests = statements.count();
+		final double loaded = entities.totalAmount();
+
+		mockMvc.perform(get("/api/users/" + user.getId())).andExpect(status().isOk());
+
+		assertThat(statements.count()).isEqualTo(requests + 1);
+		assertThat(statements.max()).isPositive();
+		assertThat(entities.totalAmount()).isEqualTo(loaded);
+	}
+
+	private long count(final String method, final String outcome) {
+		final Timer timer = registry.find(RepositoryMetricsInterceptor.METRIC_NAME)
+				.tags("repository", UserRepository.class.getSimpleName(), "method", method, "outcome", outcome)
+				.timer();
+		return timer != null ? timer.count() : 0;
+	}
+}
@@ -0,0 +1,246 @@
+package com.relativity.springstarter.starter.persistence.outbox;
+
+import static com.relativity.springstarter.starter.persistence.user.entity.TestUsers.user;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.relativity.springstarter.starter.persistence.user.dao.UserRepository;
+import com.relativity.springstarter.starter.persistence.user.entity.User;
+import com.relativity.springstarter.starter.web.user.UserController;
+import com.relativity.springstarter.starter.web.user.UserRequest;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+
+import javax.sql.DataSource;
+
+@SpringBootTest(properties = { "starter.persistence.outbox.enabled=true",
+		"starter.persistence.outbox.poll-interval=50ms", "starter.persistence.outbox.batch-size=20" })
+class OutboxTests {
+
+	@Autowired
+	private UserRepository repository;
+
+	@Autowired
+	private InMemoryOutboxSink sink;
+
+	@Autowired
+	private UserController controller;
+
+	@Autowired
+	private MeterRegistry registry;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	private DataSource dataSource;
+
+	private User owner;
+
+	@BeforeEach
+	void setUp() {
+		owner = user("outboxowner");
+		repository.add(owner);
+	}
+
+	@AfterEach
+	void tearDown() {
+		repository.deleteAll();
+		sink.clear();
+	}
+
+	@Test
+	void publishesUserChangesInOrder() {
+		final User user = user("published");
+		user.setOwner(owner);
+		repository.add(user);
+		final User changes = new User(user);
+		changes.setEmail("changed@example.org");
+		repository.update(changes);
+		repository.setEnabled(user.getId(), false);
+		repository.setVerified(Arrays.asList(user.getId(), UUID.randomUUID()), true);
+
+		final List<OutboxMessage> messages = awaitMessages(user.getId(), 4);
+		assertThat(messages).extracting(OutboxMessage::getType).containsExactly(OutboxEventType.CREATED,
+				OutboxEventType.UPDATED, OutboxEventType.ENABLED, OutboxEventType.VERIFIED);
+		assertThat(messages).extracting(OutboxMessage::getAggregateType).containsOnly(User.class.getName());
+		assertThat(messages.get(0).getPayload()).contains("\"username\":\"published\"")
+				.contains("\"ownerId\":\"" + owner.getId() + "\"").doesNotContain("password");
+		assertThat(messages.get(1).getPayload()).contains("\"email\":\"changed@example.org\"");
+		assertThat(messages.get(2).getPayload()).isEqualTo("{\"id\":\"" + user.getId() + "\",\"enabled\":false}");
+		assertThat(messages.get(3).getPayload()).isEqualTo("{\"id\":\"" + user.getId() + "\",\"verified\":true}");
+	}
+
+	@Test
+	void publishesOnlyTheUsersUpdatedByOwner() {
+		final User owned = user("owned");
+		owned.setOwner(owner);
+		final User other = user("other");
+		repository.addAll(Arrays.asList(owned, other));
+
+		assertThat(repository.setEnabledByOwner(Arrays.asList(owned.getId(), other.getId()), false, owner))
+				.isEqualTo(1);
+		repository.setVerified(other.getId(), true);
+
+		assertThat(awaitMessages(other.getId(), 2)).extracting(OutboxMessage::getType)
+				.containsExactly(OutboxEventType.CREATED, OutboxEventType.VERIFIED);
+		assertThat(messages(owned.getId())).extracting(OutboxMessage::getType)
+				.containsExactly(OutboxEventType.CREATED, OutboxEventType.ENABLED);
+	}
+
+	@Test
+	void publishesTheUsersAddedInChunks() {
+		final List<User> added = new ArrayList<>();
+		for (int i = 0; i < 5; i++) {
+			added.add(user("chunked" + i));
+		}
+		repository.addAll(added, 2);
+
+		for (final User user : added) {
+			assertThat(awaitMessages(user.getId(), 1)).extracting(OutboxMessage::getType)
+					.containsExactly(OutboxEventType.CREATED);
+		}
+	}
+
+	@Test
+	void publishesTheUsersReplacedThroughTheController() {
+		final User user = user("replaced");
+		repository.add(user);
+		final UserRequest body = new UserRequest();
+		body.setUsername("replaced");
+		body.setEmail("replacement@example.org");
+		body.setFirstname("replaced");
+		body.setLastname("replaced");
+		controller.replace(user.getId(), null, body);
+
+		final List<OutboxMessage> messages = awaitMessages(user.getId(), 2);
+		assertThat(messages).extracting(OutboxMessage::getType).containsExactly(OutboxEventType.CREATED,
+				OutboxEventType.UPDATED);
+		assertThat(messages.get(1).getPayload()).contains("\"email\":\"replacement@example.org\"");
+	}
+
+	@Test
+	void publishesNothingForRolledBackChanges() {
+		final User rolledBack = user("rolledback");
+		new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+			repository.add(rolledBack);
+			status.setRollbackOnly();
+		});
+		final User committed = user("committed");
+		repository.add(committed);
+
+		awaitMessages(committed.getId(), 1);
+		assertThat(messages(rolledBack.getId())).isEmpty();
+	}
+
+	@Test
+	void sharesTheOutboxBetweenRelaysWithoutDuplicates() {
+		final InMemoryOutboxSink otherSink = new InMemoryOutboxSink();
+		final OutboxRelay otherRelay = new OutboxRelay(dataSource, otherSink, new SimpleMeterRegistry(), 20,
+				Duration.ofMillis(10));
+		otherRelay.start();
+		try {
+			final List<User> users = new ArrayList<>();
+			for (int i = 0; i < 300; i++) {
+				users.add(user("shared" + i));
+			}
+			repository.addAll(users);
+
+			final Set<UUID> ids = users.stream().map(User::getId).collect(Collectors.toSet());
+			await(() -> published(sink, ids).size() + published(otherSink, ids).size() >= ids.size());
+
+			final List<OutboxMessage> all = new ArrayList<>(published(sink, ids));
+			all.addAll(published(otherSink, ids));
+			assertThat(all).hasSize(ids.size());
+			assertThat(all.stream().map(OutboxMessage::getAggregateId).collect(Collectors.toSet())).isEqualTo(ids);
+			assertThat(published(otherSink, ids)).extracting(OutboxMessage::getId).isSorted();
+		} finally {
+			otherRelay.shutdown();
+		}
+	}
+
+	@Test
+	void measuresThroughputAndLag() {
+		final double published = registry.get(OutboxRelay.PUBLISHED_METRIC_NAME).counter().count();
+		final User user = user("measured");
+		repository.add(user);
+
+		awaitMessages(user.getId(), 1);
+		await(() -> registry.get(OutboxRelay.PUBLISHED_METRIC_NAME).counter().count() > published);
+		assertThat(registry.get(OutboxRelay.LAG_METRIC_NAME).timer().count()).isPositive();
+	}
+
+	@Test
+	void appendsJsonLinesToTheFileSink(@TempDir final Path directory) throws Exception {
+		final FileOutboxSink fileSink = new FileOutboxSink(directory.resolve("outbox.jsonl"));
+		final UUID id = UUID.randomUUID();
+		fileSink.publish(Collections.singletonList(new OutboxMessage(1, User.class.getName(), id,
+				OutboxEventType.ENABLED, "{\"id\":\"" + id + "\",\"enabled\":true}", Instant.EPOCH)));
+		fileSink.publish(Collections.singletonList(new OutboxMessage(2, User.class.getName(), id,
+				OutboxEventType.VERIFIED, "{\"id\":\"" + id + "\",\"verified\":true}", Instant.EPOCH)));
+
+		final List<String> lines = Files.readAllLines(fileSink.getFile(), StandardCharsets.UTF_8);
+		assertThat(lines).hasSize(2);
+		assertThat(lines.get(0)).isEqualTo("{\"id\":1,\"aggregateType\":\"" + User.class.getName()
+				+ "\",\"aggregateId\":\"" + id + "\",\"type\":\"ENABLED\",\"payload\":{\"id\":\"" + id
+				+ "\",\"enabled\":true},\"createdAt\":\"1970-01-01T00:00:00Z\"}");
+		assertThat(lines.get(1)).contains("\"type\":\"VERIFIED\"");
+	}
+
+	@Test
+	void claimsWithSkipLockedOnPostgreSql() {
+		assertThat(OutboxRelay.claimQuery("PostgreSQL", 10)).endsWith("FETCH FIRST 10 ROWS ONLY FOR UPDATE SKIP LOCKED");
+		assertThat(OutboxRelay.claimQuery("H2", 10)).endsWith("FETCH FIRST 10 ROWS ONLY FOR UPDATE");
+	}
+
+	private List<OutboxMessage> awaitMessages(final UUID aggregateId, final int count) {
+		await(() -> messages(aggregateId).size() >= count);
+		return messages(aggregateId);
+	}
+
+	private List<OutboxMessage> messages(final UUID aggregateId) {
+		return sink.getMessages().stream().filter(message -> message.getAggregateId().equals(aggregateId))
+				.collect(Collectors.toList());
+	}
+
+	private static List<OutboxMessage> published(final InMemoryOutboxSink sink, final Set<UUID> ids) {
+		return sink.getMessages().stream().filter(message -> ids.contains(message.getAggregateId()))
+				.collect(Collectors.toList());
+	}
+
+	private static void await(final BooleanSupplier condition) {
+		final long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+		while (!condition.getAsBoolean()) {
+			assertThat(System.nanoTime()).as("Timed out waiting for the outbox events").isLessThan(deadline);
+			try {
+				Thread.sleep(10);
+			} catch (final InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new AssertionError(e);
+			}
+		}
+	}
+}
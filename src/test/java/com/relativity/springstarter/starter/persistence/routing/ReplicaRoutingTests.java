@@ -0,0 +1,95 @@
+package com.relativity.springstarter.starter.persistence.routing;
+
+import static com.relativity.springstarter.starter.persistence.user.entity.TestUsers.user;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.relativity.springstarter.starter.persistence.user.dao.UserRepository;
+import com.relativity.springstarter.starter.persistence.user.entity.User;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Optional;
+
+@SpringBootTest(properties = { "starter.persistence.routing.enabled=true",
+		"spring.datasource.url=jdbc:h2:mem:primary;DB_CLOSE_DELAY=-1",
+		"starter.persistence.routing.replicas[0].url=" + ReplicaRoutingTests.REPLICA_URL,
+		"starter.persistence.routing.balancing=least-loaded", "spring.datasource.hikari.maximum-pool-size=7",
+		"spring.datasource.hikari.pool-name=routed" })
+class ReplicaRoutingTests {
+
+	static final String REPLICA_URL = "jdbc:h2:mem:replica;DB_CLOSE_DELAY=-1";
+
+	@Autowired
+	private UserRepository repository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private ReplicaRoutingDataSource routingDataSource;
+
+	@BeforeEach
+	void setUp() {
+		// The embedded replica does not replicate, copy the schema only
+		final JdbcTemplate replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+		replica.execute("DROP ALL OBJECTS");
+		for (final String statement : jdbcTemplate.queryForList("SCRIPT NODATA", String.class)) {
+			replica.execute(statement);
+		}
+		ReadYourWrites.clear();
+	}
+
+	@AfterEach
+	void tearDown() {
+		repository.deleteAll();
+		ReadYourWrites.clear();
+	}
+
+	@Test
+	void routesReadOnlyTransactionsToReplica() {
+		final User user = user("alice");
+		repository.add(user);
+		ReadYourWrites.clear();
+
+		assertThat(repository.findById(user.getId())).isEmpty();
+		final Optional<User> primary = transactionTemplate.execute(status -> repository.findById(user.getId()));
+		assertThat(primary).isPresent();
+		assertThat(routingDataSource.getReplicaActiveConnections()).containsExactly(0);
+	}
+
+	@Test
+	void configuresPoolsWithHikariProperties() {
+		final HikariDataSource primary = (HikariDataSource) routingDataSource.getResolvedDataSources()
+				.get(ReplicaRoutingDataSource.PRIMARY);
+		final HikariDataSource replica = (HikariDataSource) ((DelegatingDataSource) routingDataSource
+				.getResolvedDataSources().get(ReplicaRoutingDataSource.REPLICA_PREFIX + 0)).getTargetDataSource();
+
+		assertThat(primary.getMaximumPoolSize()).isEqualTo(7);
+		assertThat(primary.getPoolName()).isEqualTo("routed");
+		assertThat(replica.getMaximumPoolSize()).isEqualTo(7);
+		assertThat(replica.getPoolName()).isEqualTo("routed-replica-0");
+		assertThat(replica.getJdbcUrl()).isEqualTo(REPLICA_URL);
+	}
+
+	@Test
+	void pinsReadsToPrimaryAfterWrite() {
+		final User user = user("bob");
+		repository.add(user);
+
+		assertThat(repository.findById(user.getId())).isPresent();
+		assertThat(repository.findByUsernameIgnoreCase("BOB")).isNotNull();
+	}
+}
@@ -0,0 +1,316 @@
+package com.relativity.springstarter.starter.persistence.sharding;
+
+import static com.relativity.springstarter.starter.persistence.user.entity.TestUsers.user;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.relativity.springstarter.starter.persistence.KeysetPage;
+import com.relativity.springstarter.starter.persistence.KeysetPageRequest;
+import com.relativity.springstarter.starter.persistence.async.AsyncUserRepository;
+import com.relativity.springstarter.starter.persistence.user.dao.UserIdentity;
+import com.relativity.springstarter.starter.persistence.user.dao.UserRepository;
+import com.relativity.springstarter.starter.persistence.user.entity.User;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+@SpringBootTest(properties = { "starter.persistence.sharding.enabled=true",
+		"spring.datasource.url=jdbc:h2:mem:shardingtests0;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+		"starter.persistence.sharding.shards[0].name=shard1",
+		"starter.persistence.sharding.shards[0].url=jdbc:h2:mem:shardingtests1;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+		"starter.persistence.sharding.shards[1].name=shard2",
+		"starter.persistence.sharding.shards[1].url=jdbc:h2:mem:shardingtests2;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+		"spring.jpa.hibernate.ddl-auto=create-drop" })
+class ShardingTests {
+
+	private static final List<String> SHARDS = Arrays.asList("shard0", "shard1", "shard2");
+
+	@Autowired
+	private UserRepository repository;
+
+	@Autowired
+	private ShardRouter router;
+
+	@Autowired
+	private ShardRebalancer rebalancer;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	private AsyncUserRepository asyncRepository;
+
+	private final List<User> owners = new ArrayList<>();
+
+	private final List<User> users = new ArrayList<>();
+
+	@BeforeEach
+	void setUp() {
+		for (int i = 0; i < 12; i++) {
+			final User owner = user("owner" + i);
+			repository.add(owner);
+			owners.add(owner);
+			users.add(owner);
+
+			final List<User> owned = new ArrayList<>();
+			for (int j = 0; j < 2; j++) {
+				final User user = user("owned" + i + "x" + j);
+				user.setOwner(owner);
+				user.setCreatedBy(owner);
+				owned.add(user);
+			}
+			repository.addAll(owned);
+			users.addAll(owned);
+		}
+	}
+
+	@AfterEach
+	void tearDown() {
+		router.setRing(new ShardRing(SHARDS, ShardRing.DEFAULT_VIRTUAL_NODES));
+		repository.deleteAll();
+	}
+
+	@Test
+	void placesTheEntitiesOnTheShardOfTheirOwner() {
+		assertPlacement();
+		assertThat(SHARDS).allSatisfy(shard -> assertThat(count(shard)).isPositive());
+	}
+
+	@Test
+	void runsOwnerScopedCallsOnTheShardOfTheOwner() {
+		final User owner = owners.get(0);
+		final User owned = users.get(1);
+
+		assertThat(repository.findAllByOwner(owner)).extracting(User::getOwner).extracting(User::getId)
+				.containsOnly(owner.getId()).hasSize(2);
+		assertThat(repository.findByIdAndOwner(owned.getId(), owner).getUsername()).isEqualTo("owned0x0");
+		assertThat(repository.findEachByUsernameIgnoreCaseAndOwner(Arrays.asList("OWNED0X1", "owned1x0"), owner))
+				.extracting(found -> found.map(User::getUsername).orElse(null)).containsExactly("owned0x1", null);
+		assertThat(repository.setEnabledByOwner(owned.getId(), false, owner)).isEqualTo(1);
+		assertThat(repository.findById(owned.getId()).get().isEnabled()).isFalse();
+
+		final User changes = new User(owned);
+		changes.setEmail("changed@example.org");
+		assertThat(repository.updateByOwner(changes, owner).getEmail()).isEqualTo("changed@example.org");
+	}
+
+	@Test
+	void gathersTheResultsOfEveryShard() {
+		final List<String> usernames = users.stream().map(User::getUsername).sorted().collect(Collectors.toList());
+
+		assertThat(repository.count()).isEqualTo(users.size());
+		assertThat(repository.findAll()).hasSize(users.size());
+		assertThat(repository.findAll(Sort.by("username"))).extracting(User::getUsername).isEqualTo(usernames);
+		assertThat(repository.findAll(Sort.by(Sort.Direction.DESC, "username"))).extracting(User::getUsername)
+				.first().isEqualTo(usernames.get(usernames.size() - 1));
+
+		final Page<User> page = repository.findAll(PageRequest.of(2, 5, Sort.by("username")));
+		assertThat(page.getTotalElements()).isEqualTo(users.size());
+		assertThat(page.getContent()).extracting(User::getUsername).isEqualTo(usernames.subList(10, 15));
+		assertThat(repository.findAllContainingUsernameIgnoreCase("OWNED1", PageRequest.of(0, 3, Sort.by("username"))))
+				.extracting(User::getUsername).containsExactly("owned10x0", "owned10x1", "owned11x0");
+
+		for (final User user : users) {
+			assertThat(repository.findById(user.getId())).isPresent();
+			assertThat(repository.findByUsernameIgnoreCase(user.getUsername()).getId()).isEqualTo(user.getId());
+		}
+		assertThat(repository.findById(UUID.randomUUID())).isEmpty();
+		assertThat(repository.exists(users.get(5).getId())).isTrue();
+
+		final List<UUID> ids = users.stream().map(User::getId).collect(Collectors.toList());
+		ids.add(1, UUID.randomUUID());
+		assertThat(repository.findEachById(ids)).extracting(found -> found.map(User::getId).orElse(null))
+				.isEqualTo(ids.stream().map(id -> id == ids.get(1) ? null : id).collect(Collectors.toList()));
+	}
+
+	@Test
+	void mergesKeysetPagesOfEveryShard() {
+		final List<User> visited = new ArrayList<>();
+		KeysetPage<User> page = repository.findAll(KeysetPageRequest.first(7).withTotal());
+		assertThat(page.getTotalElements()).isEqualTo(users.size());
+		visited.addAll(page.getContent());
+		while (page.hasNext()) {
+			page = repository.findAll(page.nextRequest(7));
+			visited.addAll(page.getContent());
+		}
+
+		assertThat(visited).extracting(User::getId)
+				.containsExactlyInAnyOrderElementsOf(users.stream().map(User::getId).collect(Collectors.toList()));
+		assertThat(visited).extracting(User::getCreatedAt).isSortedAccordingTo(Comparator.naturalOrder());
+		assertThat(repository.findAllViews(KeysetPageRequest.first(users.size())).getContent()).hasSize(users.size());
+	}
+
+	@Test
+	void scattersWritesToEveryShard() {
+		final List<UUID> ids = users.stream().map(User::getId).collect(Collectors.toList());
+		ids.add(UUID.randomUUID());
+
+		assertThat(repository.setEnabled(ids, false)).isEqualTo(users.size());
+		assertThat(repository.findAll()).noneMatch(User::isEnabled);
+
+		final User owned = users.get(1);
+		repository.deleteById(owned.getId());
+		assertThat(repository.findById(owned.getId())).isEmpty();
+		assertThatThrownBy(() -> repository.deleteById(owned.getId()))
+				.isInstanceOf(EmptyResultDataAccessException.class);
+	}
+
+	@Test
+	void streamsEveryShardInTurn() {
+		final List<String> streamed = new ArrayList<>();
+		try (Stream<User> entities = repository.streamAll()) {
+			entities.forEach(user -> {
+				assertThat(ShardContext.current()).isEqualTo(router.shardOf(user));
+				assertThat(TransactionSynchronizationManager.isCurrentTransactionReadOnly()).isTrue();
+				streamed.add(user.getUsername());
+			});
+		}
+		assertThat(streamed).containsExactlyInAnyOrderElementsOf(
+				users.stream().map(User::getUsername).collect(Collectors.toList()));
+		assertThat(ShardContext.current()).isNull();
+		assertThat(TransactionSynchronizationManager.isActualTransactionActive()).isFalse();
+
+		try (Stream<UserIdentity> identities = repository.streamAllIdentities()) {
+			assertThat(identities.limit(3)).hasSize(3);
+		}
+		assertThat(ShardContext.current()).isNull();
+		assertThat(TransactionSynchronizationManager.isActualTransactionActive()).isFalse();
+
+		final List<UserIdentity> visited = new ArrayList<>();
+		repository.forEachIdentity(visited::add);
+		assertThat(visited).hasSize(users.size());
+	}
+
+	@Test
+	void rejectsCreatorsOfAnotherShard() {
+		final User owner = owners.get(0);
+		final User sameShard = users.get(1);
+		final User otherShard = owners.stream().filter(other -> !router.shardOf(other).equals(router.shardOf(owner)))
+				.findFirst().get();
+
+		final User created = user("created");
+		created.setOwner(owner);
+		created.setCreatedBy(sameShard);
+		repository.add(created);
+		assertThat(repository.findById(created.getId())).hasValueSatisfying(found -> assertThat(found.getCreatedBy().getId()).isEqualTo(sameShard.getId()));
+
+		final User rejected = user("rejected");
+		rejected.setOwner(owner);
+		rejected.setCreatedBy(otherShard);
+		final User batched = user("batched");
+		assertThatThrownBy(() -> repository.addAll(Arrays.asList(batched, rejected)))
+				.isInstanceOf(InvalidDataAccessApiUsageException.class).hasMessageContaining("createdBy");
+		rejected.setCreatedBy(null);
+		rejected.setModifiedBy(otherShard);
+		assertThatThrownBy(() -> repository.add(rejected)).isInstanceOf(InvalidDataAccessApiUsageException.class)
+				.hasMessageContaining("modifiedBy");
+		assertThat(repository.findByUsernameIgnoreCase("batched")).isNull();
+		assertThat(repository.findByUsernameIgnoreCase("rejected")).isNull();
+	}
+
+	@Test
+	void requiresAShardWithinTransactions() {
+		final TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+		final User owner = owners.get(3);
+
+		assertThatThrownBy(() -> transaction.executeWithoutResult(status -> repository.findAll()))
+				.isInstanceOf(InvalidDataAccessApiUsageException.class);
+		final List<User> owned = router.callInShardOf(owner.getId(),
+				() -> transaction.execute(status -> repository.findAllByOwner(owner)));
+		assertThat(owned).hasSize(2);
+		assertThatThrownBy(() -> ShardContext.run(otherShard(owner), () -> repository.findAllByOwner(owner)))
+				.isInstanceOf(InvalidDataAccessApiUsageException.class);
+
+		assertThat(asyncRepository.inTransaction(owner.getId(), r -> r.findAllByOwner(owner)).join()).hasSize(2);
+		assertThat(ShardContext.call(router.shardOf(owner.getId()),
+				() -> asyncRepository.inTransaction(r -> r.findAllByOwner(owner))).join()).hasSize(2);
+		assertThatThrownBy(() -> asyncRepository.inTransaction(r -> r.findAll()).join())
+				.hasCauseInstanceOf(InvalidDataAccessApiUsageException.class);
+	}
+
+	@Test
+	void rebalancesTheEntitiesWhenShardsAreRemovedAndAdded() {
+		final int moved = rebalancer.rebalance(Arrays.asList("shard0", "shard1"));
+
+		assertThat(moved).isPositive();
+		assertThat(count("shard2")).isZero();
+		assertThat(repository.count()).isEqualTo(users.size());
+		assertPlacement();
+		for (final User owner : owners) {
+			assertThat(repository.findAllByOwner(owner)).hasSize(2);
+		}
+
+		assertThat(rebalancer.rebalance(SHARDS)).isEqualTo(moved);
+		assertThat(count("shard2")).isPositive();
+		assertPlacement();
+		// The users created by their owner keep the reference
+		assertThat(repository.findById(users.get(1).getId()).get().getCreatedBy()).isNotNull();
+	}
+
+	@Test
+	void movesAboutOneShareOfTheKeysWhenAShardIsAdded() {
+		final ShardRing ring = new ShardRing(SHARDS, ShardRing.DEFAULT_VIRTUAL_NODES);
+		final ShardRing grown = ring.withShards(Arrays.asList("shard0", "shard1", "shard2", "shard3"));
+		final int keys = 40_000;
+
+		final Map<String, Integer> counts = new HashMap<>();
+		int moved = 0;
+		for (int i = 0; i < keys; i++) {
+			final UUID key = UUID.randomUUID();
+			counts.merge(ring.shardOf(key), 1, Integer::sum);
+			final String shard = grown.shardOf(key);
+			if (!shard.equals(ring.shardOf(key))) {
+				// Only to the new shard
+				assertThat(shard).isEqualTo("shard3");
+				moved++;
+			}
+		}
+
+		assertThat(counts.values()).allSatisfy(count -> assertThat(count).isBetween(keys / 3 * 8 / 10, keys / 3 * 12 / 10));
+		assertThat(moved).isBetween(keys / 4 * 7 / 10, keys / 4 * 13 / 10);
+	}
+
+	private void assertPlacement() {
+		final Set<UUID> placed = new HashSet<>();
+		for (final String shard : router.getRing().getShards()) {
+			for (final User user : ShardContext.call(shard, repository::findAll)) {
+				final UUID ownerId = user.getOwner() != null ? user.getOwner().getId() : user.getId();
+				assertThat(router.shardOf(ownerId)).isEqualTo(shard);
+				assertThat(placed.add(user.getId())).isTrue();
+			}
+		}
+		assertThat(placed).hasSize(users.size());
+	}
+
+	private long count(final String shard) {
+		return ShardContext.call(shard, repository::count);
+	}
+
+	private String otherShard(final User owner) {
+		final String shard = router.shardOf(owner.getId());
+		return SHARDS.stream().filter(other -> !other.equals(shard)).findFirst().get();
+	}
+}
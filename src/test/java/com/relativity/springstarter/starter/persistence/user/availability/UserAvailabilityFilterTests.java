@@ -0,0 +1,88 @@
+package com.relativity.springstarter.starter.persistence.user.availability;
+
+import static com.relativity.springstarter.starter.persistence.user.entity.TestUsers.user;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.relativity.springstarter.starter.persistence.user.dao.UserRepository;
+import com.relativity.springstarter.starter.persistence.user.entity.User;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.concurrent.TimeUnit;
+
+@SpringBootTest(properties = { "starter.persistence.user.availability.enabled=true",
+		"starter.persistence.user.availability.expected-insertions=1000" })
+class UserAvailabilityFilterTests {
+
+	@Autowired
+	private UserRepository repository;
+
+	@Autowired
+	private UserAvailabilityFilter filter;
+
+	@Autowired
+	private MeterRegistry registry;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		repository.add(user("Alice"));
+		filter.rebuildInBackground().get(10, TimeUnit.SECONDS);
+	}
+
+	@AfterEach
+	void tearDown() {
+		repository.deleteAll();
+	}
+
+	@Test
+	void answersAbsentValuesWithoutQuerying() {
+		final long avoided = filter.getStatistics().getAvoidedCount();
+
+		assertThat(filter.isReady()).isTrue();
+		assertThat(filter.exists(null, "ALICE", null)).isTrue();
+		assertThat(filter.exists(null, null, "alice@example.org")).isTrue();
+		for (int i = 0; i < 100; i++) {
+			assertThat(filter.exists(null, "bob" + i, "bob" + i + "@example.org")).isFalse();
+		}
+
+		final UserAvailabilityStatistics statistics = filter.getStatistics();
+		assertThat(statistics.getAvoidedCount() - avoided).isGreaterThanOrEqualTo(90);
+		assertThat(statistics.getMemory()).isPositive();
+		assertThat(registry.get(UserAvailabilityFilter.CHECKS_METRIC_NAME).tag("outcome", "avoided")
+				.functionCounter().count()).isEqualTo(statistics.getAvoidedCount());
+	}
+
+	@Test
+	void addsSavedUsers() {
+		final User user = user("Bob");
+		repository.add(user);
+		assertThat(filter.exists(null, "bob", null)).isTrue();
+
+		user.setEmail("robert@example.org");
+		repository.update(user);
+		assertThat(filter.exists(null, null, "ROBERT@example.org")).isTrue();
+	}
+
+	@Test
+	void bloomFilterHasNoFalseNegatives() {
+		final BloomFilter bloomFilter = BloomFilter.create(10_000, 0.01, Long.MAX_VALUE);
+		for (int i = 0; i < 10_000; i++) {
+			bloomFilter.put("user" + i);
+		}
+
+		int falsePositives = 0;
+		for (int i = 0; i < 10_000; i++) {
+			assertThat(bloomFilter.mightContain("user" + i)).isTrue();
+			if (bloomFilter.mightContain("other" + i)) {
+				falsePositives++;
+			}
+		}
+		assertThat(falsePositives).isLessThan(300);
+	}
+}
@@ -0,0 +1,128 @@
+package com.relativity.springstarter.starter.persistence.user.cache;
+
+import static com.relativity.springstarter.starter.persistence.user.entity.TestUsers.user;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.relativity.springstarter.starter.persistence.user.dao.UserRepository;
+import com.relativity.springstarter.starter.persistence.user.dao.UserView;
+import com.relativity.springstarter.starter.persistence.user.entity.User;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@SpringBootTest(properties = { "starter.persistence.user.cache.enabled=true",
+		"starter.persistence.user.cache.maximum-size=100" })
+class UserCacheTests {
+
+	@Autowired
+	private UserRepository repository;
+
+	@Autowired
+	private UserCache cache;
+
+	@Autowired
+	private MeterRegistry registry;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	private User user;
+
+	@BeforeEach
+	void setUp() {
+		cache.invalidateAll();
+		user = user("Alice");
+		repository.add(user);
+	}
+
+	@AfterEach
+	void tearDown() {
+		repository.deleteAll();
+	}
+
+	@Test
+	void resolvesSecondaryKeysToCachedUser() {
+		final long misses = cache.getStatistics().getMissCount();
+
+		assertThat(cache.findByUsernameIgnoreCase("alice").getId()).isEqualTo(user.getId());
+		assertThat(cache.findByEmailIgnoreCase("ALICE@example.org").getId()).isEqualTo(user.getId());
+		assertThat(cache.findById(user.getId())).isPresent();
+		assertThat(cache.findByUsernameOrEmailIgnoreCase("Alice", "Alice").getId()).isEqualTo(user.getId());
+
+		final UserCacheStatistics statistics = cache.getStatistics();
+		assertThat(statistics.getMissCount() - misses).isEqualTo(1);
+		assertThat(statistics.getHitCount()).isGreaterThanOrEqualTo(3);
+	}
+
+	@Test
+	void returnsCopies() {
+		cache.findById(user.getId()).orElseThrow().setUsername("mallory");
+
+		assertThat(cache.findById(user.getId()).orElseThrow().getUsername()).isEqualTo("Alice");
+	}
+
+	@Test
+	void cachesViewsUntilModified() {
+		final long version = cache.findViewById(user.getId()).orElseThrow().getVersion();
+		final long misses = cache.getStatistics().getMissCount();
+		assertThat(cache.findViewById(user.getId()).orElseThrow().isEnabled()).isTrue();
+		assertThat(cache.getStatistics().getMissCount()).isEqualTo(misses);
+
+		repository.setEnabled(user.getId(), false);
+		final UserView view = cache.findViewById(user.getId()).orElseThrow();
+		assertThat(view.isEnabled()).isFalse();
+		assertThat(view.getVersion()).isGreaterThan(version);
+	}
+
+	@Test
+	void invalidatesModifiedUsers() {
+		assertThat(cache.findById(user.getId()).orElseThrow().isEnabled()).isTrue();
+		repository.setEnabled(user.getId(), false);
+		assertThat(cache.findById(user.getId()).orElseThrow().isEnabled()).isFalse();
+
+		final User update = new User(cache.findById(user.getId()).orElseThrow());
+		update.setUsername("Alicia");
+		repository.update(update);
+		assertThat(cache.findByUsernameIgnoreCase("alice")).isNull();
+		assertThat(cache.findByUsernameIgnoreCase("alicia").getId()).isEqualTo(user.getId());
+
+		repository.deleteById(user.getId());
+		assertThat(cache.findById(user.getId())).isEmpty();
+		assertThat(cache.getStatistics().getInvalidationCount()).isGreaterThanOrEqualTo(3);
+	}
+
+	@Test
+	void cachesUsersOnceCommitted() {
+		final TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+		final long misses = cache.getStatistics().getMissCount();
+
+		transactionTemplate.executeWithoutResult(status -> {
+			assertThat(cache.findById(user.getId())).isPresent();
+			status.setRollbackOnly();
+		});
+		transactionTemplate.executeWithoutResult(status -> assertThat(cache.findById(user.getId())).isPresent());
+		assertThat(cache.findById(user.getId())).isPresent();
+
+		assertThat(cache.getStatistics().getMissCount() - misses).isEqualTo(2);
+	}
+
+	@Test
+	void publishesTheCacheMetrics() {
+		final double hits = registry.get("cache.gets").tag("cache", UserCache.CACHE_NAME).tag("index", "id")
+				.tag("result", "hit").functionCounter().count();
+
+		cache.findById(user.getId());
+		cache.findById(user.getId());
+
+		assertThat(registry.get("cache.gets").tag("cache", UserCache.CACHE_NAME).tag("index", "id")
+				.tag("result", "hit").functionCounter().count() - hits).isEqualTo(1);
+	}
+
+}
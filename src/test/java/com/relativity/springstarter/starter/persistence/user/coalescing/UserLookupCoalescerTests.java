@@ -0,0 +1,243 @@
+package com.relativity.springstarter.starter.persistence.user.coalescing;
+
+import static com.relativity.springstarter.starter.persistence.user.entity.TestUsers.user;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.relativity.springstarter.starter.persistence.user.dao.UserRepository;
+import com.relativity.springstarter.starter.persistence.user.entity.User;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.aopalliance.intercept.MethodInvocation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@SpringBootTest(properties = "starter.persistence.user.coalescing.enabled=true")
+class UserLookupCoalescerTests {
+
+	@Autowired
+	private UserRepository repository;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+	private final UserLookupCoalescer coalescer = new UserLookupCoalescer(registry,
+			Arrays.asList("findById", "findByUsernameIgnoreCase"), Duration.ofMillis(500));
+
+	private final CountDownLatch release = new CountDownLatch(1);
+
+	private final AtomicInteger queries = new AtomicInteger();
+
+	private final ExecutorService executor = Executors.newCachedThreadPool();
+
+	private User user;
+
+	@BeforeEach
+	void setUp() {
+		user = user("Alice");
+		repository.add(user);
+	}
+
+	@AfterEach
+	void tearDown() {
+		release.countDown();
+		executor.shutdownNow();
+		repository.deleteAll();
+	}
+
+	@Test
+	void sharesOneQueryBetweenConcurrentIdenticalLookups() throws Exception {
+		final Method findById = UserRepository.class.getMethod("findById", UUID.class);
+		final List<Future<Object>> lookups = new ArrayList<>();
+		for (int i = 0; i < 8; i++) {
+			lookups.add(submit(findById, Optional.of(user), user.getId()));
+		}
+
+		awaitCoalesced("findById", 7);
+		release.countDown();
+
+		for (final Future<Object> lookup : lookups) {
+			final Optional<?> found = (Optional<?>) lookup.get(5, TimeUnit.SECONDS);
+			assertThat(((User) found.get()).getId()).isEqualTo(user.getId());
+		}
+		assertThat(queries).hasValue(1);
+		// The waiting callers get their own copy
+		assertThat(lookups.stream().map(this::get).filter(found -> ((Optional<?>) found).get() == user)).hasSize(1);
+	}
+
+	@Test
+	void comparesTheIgnoredCaseArgumentsNormalized() throws Exception {
+		final Method findByUsername = UserRepository.class.getMethod("findByUsernameIgnoreCase", String.class);
+		final Future<Object> alice = submit(findByUsername, user, "Alice");
+		final Future<Object> upper = submit(findByUsername, user, "ALICE");
+		awaitCoalesced("findByUsernameIgnoreCase", 1);
+		final Future<Object> other = submit(findByUsername, null, "Bob");
+		awaitQueries(2);
+		release.countDown();
+
+		assertThat(((User) alice.get(5, TimeUnit.SECONDS)).getId()).isEqualTo(user.getId());
+		assertThat(((User) upper.get(5, TimeUnit.SECONDS)).getId()).isEqualTo(user.getId());
+		assertThat(other.get(5, TimeUnit.SECONDS)).isNull();
+		assertThat(queries).hasValue(2);
+	}
+
+	@Test
+	void rethrowsTheFailureToEveryWaitingCaller() throws Exception {
+		final Method findById = UserRepository.class.getMethod("findById", UUID.class);
+		final DataAccessResourceFailureException failure = new DataAccessResourceFailureException("down");
+		final List<Future<Object>> lookups = new ArrayList<>();
+		for (int i = 0; i < 4; i++) {
+			lookups.add(submit(findById, failure, user.getId()));
+		}
+
+		awaitCoalesced("findById", 3);
+		release.countDown();
+
+		for (final Future<Object> lookup : lookups) {
+			assertThatThrownBy(() -> lookup.get(5, TimeUnit.SECONDS)).hasCause(failure);
+		}
+		assertThat(queries).hasValue(1);
+	}
+
+	@Test
+	void timesOutWaitingCallersAndStartsANewQuery() throws Exception {
+		final Method findById = UserRepository.class.getMethod("findById", UUID.class);
+		final Future<Object> leader = submit(findById, Optional.of(user), user.getId());
+		awaitQueries(1);
+
+		assertThatThrownBy(() -> call(findById, Optional.of(user), user.getId()))
+				.isInstanceOf(QueryTimeoutException.class);
+		assertThat(registry.get(UserLookupCoalescer.TIMEOUTS_METRIC_NAME).counter().count()).isEqualTo(1);
+
+		// The shared query is too old to join
+		final Future<Object> late = submit(findById, Optional.of(user), user.getId());
+		awaitQueries(2);
+		release.countDown();
+		assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo(Optional.of(user));
+		assertThat(late.get(5, TimeUnit.SECONDS)).isEqualTo(Optional.of(user));
+	}
+
+	@Test
+	void doesNotShareAQueryStartedBeforeAWrite() throws Throwable {
+		final Method findById = UserRepository.class.getMethod("findById", UUID.class);
+		final Method setEnabled = UserRepository.class.getMethod("setEnabled", Collection.class, boolean.class);
+		final Future<Object> before = submit(findById, Optional.of(user), user.getId());
+		awaitQueries(1);
+
+		final MethodInvocation write = mock(MethodInvocation.class);
+		when(write.getMethod()).thenReturn(setEnabled);
+		when(write.proceed()).thenReturn(1);
+		coalescer.invoke(write);
+
+		final Future<Object> after = submit(findById, Optional.of(user), user.getId());
+		awaitQueries(2);
+		release.countDown();
+		before.get(5, TimeUnit.SECONDS);
+		after.get(5, TimeUnit.SECONDS);
+	}
+
+	@Test
+	void coalescesTheRepositoryLookups() throws Exception {
+		final CyclicBarrier start = new CyclicBarrier(16);
+		final List<Future<User>> lookups = new ArrayList<>();
+		for (int i = 0; i < 16; i++) {
+			final String username = i % 2 == 0 ? "alice" : "ALICE";
+			lookups.add(executor.submit(() -> {
+				start.await();
+				return repository.findByUsernameIgnoreCase(username);
+			}));
+		}
+
+		for (final Future<User> lookup : lookups) {
+			assertThat(lookup.get(5, TimeUnit.SECONDS).getId()).isEqualTo(user.getId());
+		}
+		assertThat(meterRegistry.find(UserLookupCoalescer.TIMEOUTS_METRIC_NAME).counter()).isNotNull();
+	}
+
+	private Future<Object> submit(final Method method, final Object result, final Object... arguments) {
+		return executor.submit(() -> call(method, result, arguments));
+	}
+
+	private Object call(final Method method, final Object result, final Object... arguments) throws Exception {
+		try {
+			return coalescer.invoke(lookup(method, result, arguments));
+		} catch (final Exception | Error e) {
+			throw e;
+		} catch (final Throwable e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * A lookup returning a result, or throwing it, once released.
+	 */
+	private MethodInvocation lookup(final Method method, final Object result, final Object... arguments)
+			throws Throwable {
+		final MethodInvocation invocation = mock(MethodInvocation.class);
+		when(invocation.getMethod()).thenReturn(method);
+		when(invocation.getArguments()).thenReturn(arguments);
+		when(invocation.proceed()).thenAnswer(answer -> {
+			queries.incrementAndGet();
+			release.await();
+			if (result instanceof RuntimeException) {
+				throw (RuntimeException) result;
+			}
+			return result;
+		});
+		return invocation;
+	}
+
+	private Object get(final Future<Object> lookup) {
+		try {
+			return lookup.get();
+		} catch (final Exception e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private void awaitCoalesced(final String method, final int count) throws InterruptedException {
+		for (int i = 0; i < 500; i++) {
+			if (registry.find(UserLookupCoalescer.COALESCED_METRIC_NAME).tag("method", method).counter() != null
+					&& registry.get(UserLookupCoalescer.COALESCED_METRIC_NAME).tag("method", method).counter()
+							.count() >= count) {
+				return;
+			}
+			Thread.sleep(10);
+		}
+		throw new AssertionError("Not coalesced");
+	}
+
+	private void awaitQueries(final int count) throws InterruptedException {
+		for (int i = 0; i < 500 && queries.get() < count; i++) {
+			Thread.sleep(10);
+		}
+		assertThat(queries).hasValue(count);
+	}
+}
@@ -0,0 +1,119 @@
+package com.relativity.springstarter.starter.persistence.user.dao;
+
+import static com.relativity.springstarter.starter.persistence.user.entity.TestUsers.user;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.relativity.springstarter.starter.persistence.user.entity.User;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+		+ "com.relativity.springstarter.starter.persistence.user.dao.UserQueryPlanTests$Statements")
+class UserQueryPlanTests {
+
+	private static final Pattern INDEX_LOOKUP = Pattern.compile("/\\* PUBLIC\\.\\w+: [^*]+\\*/");
+
+	@Autowired
+	private UserRepository repository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private User user;
+
+	@BeforeEach
+	void setUp() {
+		user = user("Alice", "Alice@Example.com");
+		repository.add(user);
+		Statements.clear();
+	}
+
+	@AfterEach
+	void tearDown() {
+		repository.deleteAll();
+	}
+
+	@Test
+	void findsByUsernameThroughIndex() {
+		assertThat(repository.findByUsernameIgnoreCase("ALICE").getId()).isEqualTo(user.getId());
+
+		assertIndexed("alice");
+	}
+
+	@Test
+	void findsByEmailThroughIndex() {
+		assertThat(repository.findByEmailIgnoreCase("alice@EXAMPLE.com").getId()).isEqualTo(user.getId());
+
+		assertIndexed("alice@example.com");
+	}
+
+	@Test
+	void findsByUsernameOrEmailThroughIndex() {
+		assertThat(repository.findByUsernameOrEmailIgnoreCase("bob", "ALICE@example.com").getId())
+				.isEqualTo(user.getId());
+
+		assertIndexed("bob");
+	}
+
+	@Test
+	void checksExistenceThroughIndex() {
+		assertThat(repository.exists(null, "aLiCe", null)).isTrue();
+		assertThat(repository.exists(UUID.randomUUID(), "bob", "bob@example.com")).isFalse();
+
+		assertIndexed("bob");
+	}
+
+	private void assertIndexed(final String parameter) {
+		final List<String> statements = Statements.get();
+		assertThat(statements).isNotEmpty();
+
+		for (final String statement : statements) {
+			final Object[] parameters = Collections
+					.nCopies((int) statement.chars().filter(c -> c == '?').count(), parameter).toArray();
+			final String plan = jdbcTemplate.queryForObject("EXPLAIN " + statement, String.class, parameters);
+
+			// H2 prints the key condition of an index lookup, a full index or table scan has none
+			assertThat(plan).as(statement).doesNotContain("tableScan").containsPattern(INDEX_LOOKUP);
+		}
+	}
+
+	/**
+	 * Collects the SQL statements prepared by Hibernate that read the users table.
+	 */
+	public static class Statements implements StatementInspector {
+
+		private static final long serialVersionUID = 1L;
+
+		private static final List<String> STATEMENTS = Collections.synchronizedList(new ArrayList<>());
+
+		static void clear() {
+			STATEMENTS.clear();
+		}
+
+		static List<String> get() {
+			synchronized (STATEMENTS) {
+				return new ArrayList<>(STATEMENTS);
+			}
+		}
+
+		@Override
+		public String inspect(final String sql) {
+			if (sql.startsWith("select") && sql.contains(" from users ")) {
+				STATEMENTS.add(sql);
+			}
+			return sql;
+		}
+	}
+}
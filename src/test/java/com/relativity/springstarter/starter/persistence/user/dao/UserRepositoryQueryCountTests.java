@@ -0,0 +1,255 @@
+package com.relativity.springstarter.starter.persistence.user.dao;
+
+import static com.relativity.springstarter.starter.persistence.user.entity.TestUsers.user;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.relativity.springstarter.starter.persistence.Chunks;
+import com.relativity.springstarter.starter.persistence.KeysetPageRequest;
+import com.relativity.springstarter.starter.persistence.metrics.QueryCount;
+import com.relativity.springstarter.starter.persistence.user.entity.User;
+import com.relativity.springstarter.starter.security.PasswordHasher;
+import com.relativity.springstarter.starter.security.PasswordHashers;
+
+import org.assertj.core.api.ThrowableAssert.ThrowingCallable;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+@SpringBootTest
+class UserRepositoryQueryCountTests {
+
+	@Autowired
+	private UserRepository repository;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	private User owner;
+
+	private User owned;
+
+	private User other;
+
+	@BeforeEach
+	void setUp() {
+		owner = user("owner");
+		repository.add(owner);
+		owned = user("owned");
+		owned.setOwner(owner);
+		owned.setCreatedBy(owner);
+		repository.add(owned);
+		other = user("other");
+		other.setCreatedBy(owned);
+		repository.add(other);
+	}
+
+	@AfterEach
+	void tearDown() {
+		repository.deleteAll();
+	}
+
+	@Test
+	void findsWithOneSelect() {
+		final Sort sort = Sort.by("username");
+
+		single(() -> repository.findAll());
+		single(() -> repository.findAll(sort));
+		single(() -> repository.findAll(KeysetPageRequest.first(2)));
+		single(() -> repository.findAllByOwner(owner));
+		single(() -> repository.findAllByOwner(sort, owner));
+		single(() -> repository.findAllByOwner(PageRequest.of(0, 2), owner));
+		single(() -> repository.findAllByOwner(KeysetPageRequest.first(2), owner));
+		single(() -> repository.forEachEntity(User::getUsername));
+		single(() -> repository.forEachEntityByOwner(owner, User::getUsername));
+		single(() -> repository.findById(owned.getId()));
+		single(() -> repository.findByIdAndOwner(owned.getId(), owner));
+		single(() -> repository.exists(owned.getId()));
+		single(() -> repository.count());
+		single(() -> repository.findAllContainingUsernameIgnoreCase("OWN"));
+		single(() -> repository.findAllContainingUsernameIgnoreCase("OWN", PageRequest.of(0, 1)));
+		single(() -> repository.findAllContainingEmailIgnoreCase("EXAMPLE"));
+		single(() -> repository.findAllContainingEmailIgnoreCase("EXAMPLE", PageRequest.of(0, 1)));
+		single(() -> repository.findAllContainingUsernameOrEmailIgnoreCase("OWN", "OTHER"));
+		single(() -> repository.findAllContainingUsernameOrEmailIgnoreCase("OWN", "OTHER", PageRequest.of(0, 1)));
+		single(() -> repository.findAllIdentities());
+		single(() -> repository.forEachIdentity(UserIdentity::getUsername));
+		single(() -> repository.findViewById(owned.getId()));
+		single(() -> repository.findAllViews(KeysetPageRequest.first(2)));
+		single(() -> repository.findByUsernameIgnoreCase("OWNED"));
+		single(() -> repository.findByEmailIgnoreCase("OWNED@example.org"));
+		single(() -> repository.exists(owned.getId(), "owned", "owned@example.org"));
+	}
+
+	@Test
+	void streamsWithOneSelect() {
+		final TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+		single(() -> transaction.executeWithoutResult(status -> repository.streamAll().close()));
+		single(() -> transaction.executeWithoutResult(status -> repository.streamAllByOwner(owner).close()));
+		single(() -> transaction.executeWithoutResult(status -> repository.streamAllIdentities().close()));
+	}
+
+	@Test
+	void countsTotalsWithOneMoreSelect() {
+		QueryCount.of(() -> repository.findAll(PageRequest.of(0, 2))).hasCount(2).hasNoRepeatedSelects();
+		QueryCount.of(() -> repository.findAll(KeysetPageRequest.first(2).withTotal())).hasCount(2);
+		QueryCount.of(() -> repository.findAllViews(KeysetPageRequest.first(2).withTotal())).hasCount(2);
+	}
+
+	@Test
+	void findsByUsernameOrEmailWithOneSelectEach() {
+		QueryCount.of(() -> repository.findByUsernameOrEmailIgnoreCase("OWNED", "owned@example.org"))
+				.hasCount(2).hasNoRepeatedSelects();
+		QueryCount.of(() -> repository.exists(UUID.randomUUID(), "missing", "missing@example.org"))
+				.hasCount(3).hasNoRepeatedSelects();
+	}
+
+	@Test
+	void findsEachWithOneSelectPerChunk() {
+		final List<UUID> ids = new ArrayList<>();
+		for (int i = 0; i < Chunks.IN_CLAUSE_SIZE * 2 + 1; i++) {
+			ids.add(UUID.randomUUID());
+		}
+		ids.add(owned.getId());
+
+		QueryCount.of(() -> repository.findEachById(ids)).hasCount(3);
+		single(() -> repository.findEachById(Arrays.asList(owner.getId(), owned.getId(), other.getId())));
+		single(() -> repository.findEachByIdAndOwner(Arrays.asList(owned.getId(), other.getId()), owner));
+		single(() -> repository.findEachByUsernameIgnoreCase(Arrays.asList("OWNER", "owned", "missing")));
+		single(() -> repository.findEachByEmailIgnoreCase(Arrays.asList("owner@example.org", "OTHER@example.org")));
+	}
+
+	@Test
+	void addsWithOneInsert() {
+		QueryCount.of(() -> repository.add(user("added"))).hasCount(1);
+
+		final List<User> users = new ArrayList<>();
+		for (int i = 0; i < 25; i++) {
+			users.add(user("user" + i));
+		}
+		// One batch of inserts for each chunk
+		QueryCount.of(() -> repository.addAll(users, 10)).hasCount(3);
+	}
+
+	@Test
+	void updatesWithOneSelectAndOneUpdate() {
+		final User changes = new User(owned);
+		changes.setFirstname("Changed");
+		QueryCount.of(() -> repository.update(changes)).hasCount(2);
+
+		changes.setFirstname("Changed again");
+		QueryCount.of(() -> repository.updateByOwner(changes, owner)).hasCount(2);
+	}
+
+	@Test
+	void setsFlagsWithOneUpdatePerChunk() {
+		final List<UUID> ids = new ArrayList<>();
+		for (int i = 0; i < Chunks.IN_CLAUSE_SIZE; i++) {
+			ids.add(UUID.randomUUID());
+		}
+		ids.add(owned.getId());
+
+		single(() -> repository.setEnabled(owned.getId(), false));
+		single(() -> repository.setVerified(owned.getId(), true));
+		single(() -> repository.setEnabledByOwner(owned.getId(), true, owner));
+		single(() -> repository.setVerifiedByOwner(owned.getId(), false, owner));
+		QueryCount.of(() -> repository.setEnabled(ids, false)).hasCount(2);
+		QueryCount.of(() -> repository.setVerified(ids, true)).hasCount(2);
+		QueryCount.of(() -> repository.setEnabledByOwner(ids, true, owner)).hasCount(2);
+		QueryCount.of(() -> repository.setVerifiedByOwner(Arrays.asList(owned.getId()), false, owner)).hasCount(1);
+	}
+
+	@Test
+	void authenticatesWithOneSelect() {
+		final PasswordHasher hasher = PasswordHashers.getDefault();
+		PasswordHashers.setDefault(new PasswordHasher(PasswordHasher.MIN_COST, 1, 0));
+		try {
+			other.setPassword("secret".toCharArray());
+			repository.update(other);
+
+			// The lazy password is read with a second select
+			QueryCount.of(() -> repository.authenticate("OTHER", "secret".toCharArray())).hasCount(2)
+					.hasNoRepeatedSelects();
+			single(() -> repository.authenticate("missing", "secret".toCharArray()));
+		} finally {
+			PasswordHashers.setDefault(hasher);
+		}
+	}
+
+	@Test
+	void deletesWithoutLoadingReferencingUsers() {
+		QueryCount.of(() -> repository.deleteByIdAndOwner(owned.getId(), owner)).hasAtMost(6)
+				.hasNoRepeatedSelects();
+		QueryCount.of(() -> repository.deleteById(owner.getId())).hasAtMost(6).hasNoRepeatedSelects();
+		// Nothing released when there is no such user
+		final QueryCount missing = QueryCount.of(() -> assertThatThrownBy(() -> repository.deleteById(owner.getId()))
+				.isInstanceOf(EmptyResultDataAccessException.class));
+		assertThat(missing.getStatements()).noneMatch(statement -> statement.startsWith("update"));
+	}
+
+	@Test
+	void detachesOnlyTheEntitiesReferencingDeletedUsers() {
+		final TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+		transaction.executeWithoutResult(status -> {
+			final User referencing = repository.findById(owned.getId()).orElseThrow();
+			final User unrelated = repository.findById(other.getId()).orElseThrow();
+
+			repository.deleteById(owner.getId());
+
+			assertThat(entityManager.contains(referencing)).isFalse();
+			assertThat(entityManager.contains(unrelated)).isTrue();
+		});
+
+		assertThat(repository.findById(owned.getId())).hasValueSatisfying(found -> {
+			assertThat(found.getOwner()).isNull();
+			assertThat(found.getModifiedAt()).isNotNull();
+		});
+	}
+
+	@Test
+	void detectsLazyLoadingInLoops() {
+		for (int i = 0; i < 3; i++) {
+			final User creator = user("creator" + i);
+			repository.add(creator);
+			final User created = user("created" + i);
+			created.setOwner(owner);
+			created.setCreatedBy(creator);
+			repository.add(created);
+		}
+
+		final TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+		final QueryCount count = QueryCount.of(() -> transaction.executeWithoutResult(status -> {
+			for (final User user : repository.findAllByOwner(owner)) {
+				user.getCreatedBy().getUsername();
+			}
+		}));
+
+		// One select of the owned users, then one select of each creator
+		assertThat(count.getStatements()).hasSize(5);
+		assertThatThrownBy(count::hasNoRepeatedSelects).isInstanceOf(AssertionError.class)
+				.hasMessageContaining("N+1");
+	}
+
+	private static void single(final ThrowingCallable call) {
+		QueryCount.of(call).hasCount(1);
+	}
+}
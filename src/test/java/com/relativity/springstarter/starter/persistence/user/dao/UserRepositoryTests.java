@@ -0,0 +1,248 @@
+package com.relativity.springstarter.starter.persistence.user.dao;
+
+import static com.relativity.springstarter.starter.persistence.user.entity.TestUsers.user;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.relativity.springstarter.starter.persistence.Chunks;
+import com.relativity.springstarter.starter.persistence.user.entity.User;
+import com.relativity.springstarter.starter.security.PasswordHasher;
+import com.relativity.springstarter.starter.security.PasswordHashers;
+
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import javax.persistence.EntityManagerFactory;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class UserRepositoryTests {
+
+	@Autowired
+	private UserRepository repository;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	private User owner;
+
+	private User owned;
+
+	private User other;
+
+	@BeforeEach
+	void setUp() {
+		owner = user("owner");
+		repository.add(owner);
+		owned = user("owned");
+		owned.setOwner(owner);
+		repository.add(owned);
+		other = user("other");
+		repository.add(other);
+	}
+
+	@AfterEach
+	void tearDown() {
+		repository.deleteAll();
+	}
+
+	@Test
+	void setsFlagsWithoutLoading() {
+		assertThat(repository.setEnabled(other.getId(), false)).isEqualTo(1);
+		assertThat(repository.setVerified(other.getId(), true)).isEqualTo(1);
+		assertThat(repository.setEnabled(UUID.randomUUID(), false)).isZero();
+
+		final User updated = repository.findById(other.getId()).orElseThrow();
+		assertThat(updated.isEnabled()).isFalse();
+		assertThat(updated.isVerified()).isTrue();
+		assertThat(updated.getModifiedAt()).isNotNull();
+	}
+
+	@Test
+	void setsFlagsOnlyForOwnedUsers() {
+		assertThat(repository.setEnabledByOwner(other.getId(), false, owner)).isZero();
+		assertThat(repository.setEnabledByOwner(owned.getId(), false, owner)).isEqualTo(1);
+		assertThat(repository.setVerifiedByOwner(Arrays.asList(owned.getId(), other.getId()), true, owner))
+				.isEqualTo(1);
+
+		assertThat(repository.findById(other.getId()).orElseThrow().isEnabled()).isTrue();
+		assertThat(repository.findById(owned.getId()).orElseThrow().isEnabled()).isFalse();
+		assertThat(repository.findById(owned.getId()).orElseThrow().isVerified()).isTrue();
+
+		// Without owner, only the unowned users
+		assertThat(repository.setEnabledByOwner(Arrays.asList(owned.getId(), other.getId()), false, null))
+				.isEqualTo(1);
+		assertThat(repository.setVerifiedByOwner(owned.getId(), false, null)).isZero();
+		assertThat(repository.findById(other.getId()).orElseThrow().isEnabled()).isFalse();
+		assertThat(repository.findById(owned.getId()).orElseThrow().isVerified()).isTrue();
+	}
+
+	@Test
+	void setsFlagsInChunks() {
+		final List<UUID> ids = new ArrayList<>();
+		for (int i = 0; i < Chunks.IN_CLAUSE_SIZE * 2; i++) {
+			ids.add(UUID.randomUUID());
+		}
+		ids.add(owner.getId());
+		ids.add(other.getId());
+		ids.add(other.getId());
+
+		assertThat(repository.setVerified(ids, true)).isEqualTo(2);
+		assertThat(repository.findById(owner.getId()).orElseThrow().isVerified()).isTrue();
+		assertThat(repository.findById(owned.getId()).orElseThrow().isVerified()).isFalse();
+	}
+
+	@Test
+	void findsEachInTheOrderOfTheKeys() {
+		final UUID missing = UUID.randomUUID();
+
+		assertThat(repository.findEachById(Arrays.asList(other.getId(), missing, null, owner.getId(), other.getId())))
+				.extracting(found -> found.map(User::getId).orElse(null))
+				.containsExactly(other.getId(), null, null, owner.getId(), other.getId());
+		assertThat(repository.findEachByUsernameIgnoreCase(Arrays.asList("OTHER", "missing", "Owner")))
+				.extracting(found -> found.map(User::getId).orElse(null))
+				.containsExactly(other.getId(), null, owner.getId());
+		assertThat(repository.findEachByEmailIgnoreCase(Arrays.asList("OWNED@example.org", null)))
+				.extracting(found -> found.map(User::getId).orElse(null))
+				.containsExactly(owned.getId(), null);
+		assertThat(repository.findEachById(new ArrayList<>())).isEmpty();
+	}
+
+	@Test
+	void findsEachOnlyOwnedUsers() {
+		assertThat(repository.findEachByIdAndOwner(Arrays.asList(other.getId(), owned.getId()), owner))
+				.extracting(found -> found.map(User::getId).orElse(null))
+				.containsExactly(null, owned.getId());
+		assertThat(repository.findEachByUsernameIgnoreCaseAndOwner(Arrays.asList("OWNED", "other"), owner))
+				.extracting(found -> found.map(User::getId).orElse(null))
+				.containsExactly(owned.getId(), null);
+		assertThat(repository.findEachByEmailIgnoreCaseAndOwner(Arrays.asList("owner@example.org",
+				"Owned@Example.org"), owner)).extracting(found -> found.map(User::getId).orElse(null))
+				.containsExactly(null, owned.getId());
+	}
+
+	@Test
+	void findsEachInChunks() {
+		final List<String> usernames = new ArrayList<>();
+		for (int i = 0; i < Chunks.IN_CLAUSE_SIZE * 2; i++) {
+			usernames.add("missing" + i);
+		}
+		usernames.add(0, "OWNER");
+		usernames.add("other");
+
+		final List<Optional<User>> found = repository.findEachByUsernameIgnoreCase(usernames);
+
+		assertThat(found).hasSize(usernames.size());
+		assertThat(found.get(0).orElseThrow().getId()).isEqualTo(owner.getId());
+		assertThat(found.get(found.size() - 1).orElseThrow().getId()).isEqualTo(other.getId());
+		assertThat(found.subList(1, found.size() - 1)).allMatch(Optional::isEmpty);
+	}
+
+	@Test
+	void addsAllInChunks() {
+		final List<User> users = new ArrayList<>();
+		for (int i = 0; i < 25; i++) {
+			users.add(user("user" + i));
+		}
+
+		repository.addAll(users, 10);
+
+		assertThat(repository.count()).isEqualTo(28);
+		assertThat(users).allSatisfy(user -> assertThat(user.getId().version()).isEqualTo(7));
+		assertThat(repository.findByUsernameIgnoreCase("USER24").getCreatedAt()).isNotNull();
+	}
+
+	@Test
+	void loadsPasswordLazily() {
+		other.setPassword("hash");
+		repository.update(other);
+
+		final User loaded = repository.findById(other.getId()).orElseThrow();
+		assertThat(Hibernate.isPropertyInitialized(loaded, User.PASSWORD_FIELD)).isFalse();
+		assertThat(new User(loaded).getPassword()).isNull();
+
+		final User reference = user("renamed");
+		reference.setId(other.getId());
+		repository.update(reference);
+
+		final String password = new TransactionTemplate(transactionManager)
+				.execute(status -> repository.findById(other.getId()).orElseThrow().getPassword());
+		assertThat(password).isEqualTo("hash");
+		assertThat(repository.findByUsernameIgnoreCase("RENAMED").getId()).isEqualTo(other.getId());
+	}
+
+	@Test
+	void authenticatesAndUpgradesPasswordHashes() {
+		final PasswordHasher hasher = PasswordHashers.getDefault();
+		PasswordHashers.setDefault(new PasswordHasher(PasswordHasher.MIN_COST, 1, 0));
+		try {
+			other.setPassword("secret".toCharArray());
+			repository.update(other);
+		} finally {
+			PasswordHashers.setDefault(hasher);
+		}
+
+		assertThat(repository.authenticate("OTHER", "wrong".toCharArray())).isNull();
+		assertThat(repository.authenticate("missing", "secret".toCharArray())).isNull();
+		assertThat(repository.authenticate("OTHER", "secret".toCharArray())).isNotNull();
+
+		final String hash = new TransactionTemplate(transactionManager)
+				.execute(status -> repository.findById(other.getId()).orElseThrow().getPassword());
+		assertThat(hasher.needsRehash(hash)).isFalse();
+		assertThat(hasher.verify(hash, "secret".toCharArray()).isMatched()).isTrue();
+	}
+
+	@Test
+	void deletesWithoutLoadingReferencingUsers() {
+		final List<User> users = new ArrayList<>();
+		for (int i = 0; i < 200; i++) {
+			final User user = user("user" + i);
+			user.setCreatedBy(owner);
+			user.setModifiedBy(owner);
+			user.setOwner(owner);
+			users.add(user);
+		}
+		repository.addAll(users);
+
+		final Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+		repository.deleteById(owner.getId());
+
+		assertThat(statistics.getEntityLoadCount()).isLessThanOrEqualTo(2);
+		assertThat(statistics.getEntityUpdateCount()).isZero();
+		assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(6);
+		assertThat(repository.existsById(owner.getId())).isFalse();
+		assertThat(repository.findAllByOwner(null)).hasSize(202);
+		assertThat(repository.findByUsernameIgnoreCase("user0").getCreatedBy()).isNull();
+		assertThat(repository.findByUsernameIgnoreCase("user0").getModifiedAt()).isNotNull();
+	}
+
+	@Test
+	void deletesOnlyOwnedUsers() {
+		final User nested = user("nested");
+		nested.setOwner(owned);
+		repository.add(nested);
+
+		assertThat(repository.deleteByIdAndOwner(other.getId(), owner)).isZero();
+		assertThat(repository.deleteByIdAndOwner(owned.getId(), owner)).isEqualTo(1);
+
+		assertThat(repository.existsById(other.getId())).isTrue();
+		assertThat(repository.existsById(owned.getId())).isFalse();
+		assertThat(repository.findById(nested.getId()).orElseThrow().getOwner()).isNull();
+	}
+}
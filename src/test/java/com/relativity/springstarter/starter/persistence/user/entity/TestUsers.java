@@ -0,0 +1,41 @@
+package com.relativity.springstarter.starter.persistence.user.entity;
+
+/**
+ * The transient {@link User}s of the tests, named after their username.
+ *
+ * <pre>
+ * repository.add(TestUsers.user("alice"));
+ * </pre>
+ */
+public final class TestUsers {
+
+	private TestUsers() {
+		super();
+	}
+
+	/**
+	 * Create a user with an {@code <username>@example.org} email.
+	 *
+	 * @param username the username, also the first and last names.
+	 *
+	 * @return the transient user.
+	 */
+	public static User user(final String username) {
+		return user(username, username + "@example.org");
+	}
+
+	/**
+	 * Create a user.
+	 *
+	 * @param username the username, also the first and last names.
+	 * @param email the email.
+	 *
+	 * @return the transient user.
+	 */
+	public static User user(final String username, final String email) {
+		final User user = new User(username, email);
+		user.setFirstname(username);
+		user.setLastname(username);
+		return user;
+	}
+}
@@ -0,0 +1,106 @@
+package com.relativity.springstarter.starter.persistence.user.search;
+
+import static com.relativity.springstarter.starter.persistence.user.entity.TestUsers.user;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.relativity.springstarter.starter.persistence.AbstractGenericEntity;
+import com.relativity.springstarter.starter.persistence.user.dao.UserRepository;
+import com.relativity.springstarter.starter.persistence.user.dao.UserView;
+import com.relativity.springstarter.starter.persistence.user.entity.User;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+@SpringBootTest(properties = UserSearchConfiguration.ENGINE_PROPERTY + "=" + UserSearchConfiguration.ENGINE_NGRAM)
+class NGramUserSearchEngineTests {
+
+	private static final String[] TERMS = { "", "a", "AL", "ali", "Alice", "ob", "example", "@example.org", "e.c",
+			"bob@", "zzz", "al_", "%ce" };
+
+	@Autowired
+	private UserRepository repository;
+
+	@Autowired
+	private UserSearchEngine engine;
+
+	@Autowired
+	private UserSearchIndex index;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		repository.add(user("Alice", "alice@example.org"));
+		repository.add(user("bob", "Bob@Example.com"));
+		repository.add(user("alicia_b", "ab@test.org"));
+		repository.add(user("carol", "carol@example.org"));
+		((NGramUserSearchEngine) engine).rebuildInBackground().get(10, TimeUnit.SECONDS);
+	}
+
+	@AfterEach
+	void tearDown() {
+		repository.deleteAll();
+	}
+
+	@Test
+	void matchesJpqlQueries() {
+		assertThat(engine).isInstanceOf(NGramUserSearchEngine.class);
+		assertSameResults();
+	}
+
+	@Test
+	void followsRepositoryChanges() {
+		final User bob = repository.findByUsernameIgnoreCase("bob");
+		bob.setUsername("robert");
+		repository.update(bob);
+		repository.deleteById(repository.findByUsernameIgnoreCase("carol").getId());
+
+		assertThat(index.size()).isEqualTo(3);
+		assertThat(ids(engine.findAllContainingUsernameIgnoreCase("bob"))).isEmpty();
+		assertThat(ids(engine.findAllContainingUsernameIgnoreCase("ober"))).containsExactly(bob.getId());
+		assertSameResults();
+	}
+
+	@Test
+	void rebuildsTheIndexFromAScanOfTheUsers() throws Exception {
+		index.rebuild(action -> { });
+		assertThat(index.size()).isZero();
+
+		((NGramUserSearchEngine) engine).rebuildInBackground().get(10, TimeUnit.SECONDS);
+		assertThat(index.isReady()).isTrue();
+		assertThat(index.size()).isEqualTo(4);
+		assertSameResults();
+	}
+
+	@Test
+	void limitsResults() {
+		assertThat(engine.findAllContainingEmailIgnoreCase("example", 2)).hasSize(2);
+		assertThat(engine.findAllContainingUsernameOrEmailIgnoreCase("ali", "test", 1)).hasSize(1);
+		assertThat(engine.findViewsContainingUsernameOrEmailIgnoreCase("ali", "test", 1)).hasSize(1);
+	}
+
+	private void assertSameResults() {
+		for (final String term : TERMS) {
+			assertThat(ids(engine.findAllContainingUsernameIgnoreCase(term)))
+					.containsExactlyInAnyOrderElementsOf(ids(repository.findAllContainingUsernameIgnoreCase(term)));
+			assertThat(ids(engine.findAllContainingEmailIgnoreCase(term)))
+					.containsExactlyInAnyOrderElementsOf(ids(repository.findAllContainingEmailIgnoreCase(term)));
+			assertThat(ids(engine.findAllContainingUsernameOrEmailIgnoreCase(term, "org")))
+					.containsExactlyInAnyOrderElementsOf(
+							ids(repository.findAllContainingUsernameOrEmailIgnoreCase(term, "org")));
+			assertThat(engine.findViewsContainingUsernameOrEmailIgnoreCase(term, "org", Integer.MAX_VALUE).stream()
+					.map(UserView::getId)).containsExactlyInAnyOrderElementsOf(
+							ids(repository.findAllContainingUsernameOrEmailIgnoreCase(term, "org")));
+		}
+	}
+
+	private static List<UUID> ids(final List<User> users) {
+		return users.stream().map(AbstractGenericEntity::getId).collect(Collectors.toList());
+	}
+}
@@ -0,0 +1,76 @@
+package com.relativity.springstarter.starter.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+
+class PasswordHasherTests {
+
+	private final PasswordHasher hasher = new PasswordHasher(PasswordHasher.MIN_COST, 1, 10);
+
+	@Test
+	void hashesAndVerifiesPasswords() {
+		final char[] password = "secret".toCharArray();
+		final String hash = hasher.hash(password);
+
+		assertThat(hash).startsWith("$2a$04$");
+		assertThat(password).containsOnly('\0');
+
+		final PasswordVerification verification = hasher.verify(hash, "secret".toCharArray());
+		assertThat(verification.isMatched()).isTrue();
+		assertThat(verification.getRehash()).isNull();
+
+		final char[] wrong = "wrong".toCharArray();
+		assertThat(hasher.verify(hash, wrong).isMatched()).isFalse();
+		assertThat(wrong).containsOnly('\0');
+		assertThat(hasher.verify(null, "secret".toCharArray()).isMatched()).isFalse();
+		assertThat(hasher.verify("not a hash", "secret".toCharArray()).isMatched()).isFalse();
+	}
+
+	@Test
+	void rehashesPasswordsHashedWithAnotherCost() {
+		final PasswordHasher stronger = new PasswordHasher(PasswordHasher.MIN_COST + 1, 1, 10);
+		final String hash = hasher.hash("secret".toCharArray());
+
+		assertThat(stronger.needsRehash(hash)).isTrue();
+		assertThat(hasher.needsRehash(hash)).isFalse();
+
+		final PasswordVerification verification = stronger.verify(hash, "secret".toCharArray());
+		assertThat(verification.isMatched()).isTrue();
+		assertThat(verification.getRehash()).startsWith("$2a$05$");
+		assertThat(stronger.verify(verification.getRehash(), "secret".toCharArray()).isMatched()).isTrue();
+		assertThat(stronger.verify(hash, "wrong".toCharArray()).getRehash()).isNull();
+	}
+
+	@Test
+	void rejectsPasswordsLongerThanBcryptReads() {
+		final char[] password = new char[PasswordHasher.MAX_PASSWORD_BYTES + 1];
+		Arrays.fill(password, 'a');
+
+		assertThatThrownBy(() -> hasher.hash(password)).isInstanceOf(IllegalArgumentException.class);
+		assertThat(password).containsOnly('\0');
+	}
+
+	@Test
+	void rejectsPasswordsBeyondQueueCapacity() throws Exception {
+		final PasswordHasher bounded = new PasswordHasher(PasswordHasher.DEFAULT_COST, 1, 1);
+
+		final CompletableFuture<String> running = bounded.hashAsync("first".toCharArray());
+		final CompletableFuture<String> waiting = bounded.hashAsync("second".toCharArray());
+		final char[] rejected = "third".toCharArray();
+		final CompletableFuture<String> third = bounded.hashAsync(rejected);
+
+		assertThatThrownBy(third::get).isInstanceOf(ExecutionException.class)
+				.hasCauseInstanceOf(RejectedExecutionException.class);
+		assertThat(rejected).containsOnly('\0');
+		assertThat(running.get()).isNotNull();
+		assertThat(waiting.get()).isNotNull();
+		assertThat(bounded.getPending()).isZero();
+	}
+}
@@ -0,0 +1,53 @@
+package com.relativity.springstarter.starter.startup;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.relativity.springstarter.starter.persistence.user.dao.UserRepository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("startup")
+class StartupModeTests {
+
+	@LocalServerPort
+	private int port;
+
+	@Autowired
+	private ConfigurableListableBeanFactory beanFactory;
+
+	@Autowired
+	private UserRepository repository;
+
+	@Test
+	void createsBeansOnFirstUseExceptValidatingOnes() {
+		assertThat(beanFactory.getBeanDefinition("userExportController").isLazyInit()).isTrue();
+		assertThat(beanFactory.containsSingleton("userExportController")).isFalse();
+
+		assertThat(beanFactory.containsSingleton("passwordHasher")).isTrue();
+		assertThat(beanFactory.containsSingleton("defaultIdGenerator")).isTrue();
+		assertThat(beanFactory.containsSingleton("asyncRepositoryExecutor")).isTrue();
+		assertThat(beanFactory.containsSingleton("requestExecutor")).isTrue();
+		assertThat(beanFactory.containsBean("startupTrainingRun")).isFalse();
+	}
+
+	@Test
+	void answersRequestsWithDeferredRepositories() throws Exception {
+		assertThat(repository.count()).isNotNegative();
+
+		final HttpResponse<String> response = HttpClient.newHttpClient().send(HttpRequest
+				.newBuilder(URI.create("http://localhost:" + port + "/api/users?size=1")).build(),
+				HttpResponse.BodyHandlers.ofString());
+		assertThat(response.statusCode()).isEqualTo(200);
+	}
+}
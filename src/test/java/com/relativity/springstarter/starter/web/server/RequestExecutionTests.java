@@ -0,0 +1,159 @@
+package com.relativity.springstarter.starter.web.server;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+
+import com.relativity.springstarter.starter.concurrent.ThreadKind;
+import com.relativity.springstarter.starter.concurrent.VirtualThreads;
+import com.relativity.springstarter.starter.persistence.user.dao.UserRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Bean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+		"starter.web.request.threads=auto", "spring.datasource.hikari.maximum-pool-size=4" })
+class RequestExecutionTests {
+
+	private static final int POOL_SIZE = 4;
+
+	@LocalServerPort
+	private int port;
+
+	@Autowired
+	private RequestExecutor requestExecutor;
+
+	@Autowired
+	private ProbeController probe;
+
+	private final HttpClient client = HttpClient.newHttpClient();
+
+	@BeforeEach
+	void setUp() {
+		probe.reset();
+	}
+
+	@Test
+	void handlesRequestsOnVirtualThreadsWhenAvailable() throws Exception {
+		final HttpResponse<String> response = get("/test/request/thread").get(10, TimeUnit.SECONDS);
+
+		assertThat(requestExecutor.isVirtual()).isEqualTo(VirtualThreads.isAvailable());
+		assertThat(response.statusCode()).isEqualTo(200);
+		assertThat(response.body()).isEqualTo(Boolean.toString(requestExecutor.isVirtual()));
+	}
+
+	@Test
+	void connectionPoolBoundsConcurrentTransactions() throws Exception {
+		final List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>();
+		for (int i = 0; i < 10 * POOL_SIZE; i++) {
+			responses.add(get("/test/request/transaction"));
+		}
+
+		for (final CompletableFuture<HttpResponse<String>> response : responses) {
+			assertThat(response.get(30, TimeUnit.SECONDS).statusCode()).isEqualTo(200);
+		}
+		assertThat(probe.maximumActiveConnections.get()).isLessThanOrEqualTo(POOL_SIZE);
+		assertThat(probe.maximumTransactions.get()).isEqualTo(POOL_SIZE);
+	}
+
+	@Test
+	void failsWithoutVirtualThreads() {
+		assumeFalse(VirtualThreads.isAvailable());
+
+		assertThatIllegalStateException().isThrownBy(() -> new RequestExecutor(ThreadKind.VIRTUAL));
+		assertThat(new RequestExecutor(ThreadKind.AUTO).isVirtual()).isFalse();
+	}
+
+	private CompletableFuture<HttpResponse<String>> get(final String path) {
+		return client.sendAsync(HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).build(),
+				HttpResponse.BodyHandlers.ofString());
+	}
+
+	@TestConfiguration(proxyBeanMethods = false)
+	static class ProbeConfiguration {
+
+		@Bean
+		ProbeController probeController(final UserRepository repository,
+				final PlatformTransactionManager transactionManager, final DataSource dataSource)
+				throws Exception {
+			return new ProbeController(repository, new TransactionTemplate(transactionManager),
+					dataSource.unwrap(HikariDataSource.class).getHikariPoolMXBean());
+		}
+	}
+
+	@ResponseBody
+	@RequestMapping("/test/request")
+	static class ProbeController {
+
+		private final UserRepository repository;
+
+		private final TransactionTemplate transactionTemplate;
+
+		private final HikariPoolMXBean pool;
+
+		private final AtomicInteger transactions = new AtomicInteger();
+
+		private final AtomicInteger maximumTransactions = new AtomicInteger();
+
+		private final AtomicInteger maximumActiveConnections = new AtomicInteger();
+
+		ProbeController(final UserRepository repository, final TransactionTemplate transactionTemplate,
+				final HikariPoolMXBean pool) {
+			this.repository = repository;
+			this.transactionTemplate = transactionTemplate;
+			this.pool = pool;
+		}
+
+		@GetMapping("/thread")
+		String thread() {
+			return Boolean.toString(VirtualThreads.isVirtual(Thread.currentThread()));
+		}
+
+		@GetMapping("/transaction")
+		String transaction() {
+			return transactionTemplate.execute(status -> {
+				repository.count();
+				maximumTransactions.accumulateAndGet(transactions.incrementAndGet(), Math::max);
+				maximumActiveConnections.accumulateAndGet(pool.getActiveConnections(), Math::max);
+				try {
+					// Hold the connection as a slow query would
+					Thread.sleep(50);
+				} catch (final InterruptedException e) {
+					Thread.currentThread().interrupt();
+				} finally {
+					transactions.decrementAndGet();
+				}
+				return "done";
+			});
+		}
+
+		void reset() {
+			maximumTransactions.set(0);
+			maximumActiveConnections.set(0);
+		}
+	}
+}
@@ -0,0 +1,112 @@
+package com.relativity.springstarter.starter.web.user;
+
+import static com.relativity.springstarter.starter.persistence.user.entity.TestUsers.user;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.relativity.springstarter.starter.persistence.sharding.ShardContext;
+import com.relativity.springstarter.starter.persistence.sharding.ShardRouter;
+import com.relativity.springstarter.starter.persistence.user.dao.UserRepository;
+import com.relativity.springstarter.starter.persistence.user.entity.User;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+		properties = { "starter.persistence.sharding.enabled=true",
+				"spring.datasource.url=jdbc:h2:mem:shardedcontroller0;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+				"starter.persistence.sharding.shards[0].name=shard1",
+				"starter.persistence.sharding.shards[0].url=jdbc:h2:mem:shardedcontroller1;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+				"starter.persistence.sharding.shards[1].name=shard2",
+				"starter.persistence.sharding.shards[1].url=jdbc:h2:mem:shardedcontroller2;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+				"spring.jpa.hibernate.ddl-auto=create-drop" })
+class ShardedUserControllerTests {
+
+	@LocalServerPort
+	private int port;
+
+	@Autowired
+	private UserRepository repository;
+
+	@Autowired
+	private ShardRouter router;
+
+	@Autowired
+	private ObjectMapper mapper;
+
+	private final HttpClient client = HttpClient.newHttpClient();
+
+	private final List<User> users = new ArrayList<>();
+
+	@BeforeEach
+	void setUp() {
+		for (int i = 0; i < 6; i++) {
+			final User owner = user("owner" + i);
+			repository.add(owner);
+			users.add(owner);
+
+			final User owned = user("owned" + i);
+			owned.setOwner(owner);
+			repository.add(owned);
+			users.add(owned);
+		}
+	}
+
+	@AfterEach
+	void tearDown() {
+		repository.deleteAll();
+	}
+
+	@Test
+	void replacesUsersOnTheirShard() throws Exception {
+		for (final User user : users) {
+			final String location = "/api/users/" + user.getId();
+			final String eTag = send(get(location)).headers().firstValue("ETag").orElseThrow();
+			final String body = "{\"username\":\"" + user.getUsername() + "x\",\"email\":\"" + user.getEmail()
+					+ "\",\"firstname\":\"Replaced\",\"lastname\":\"User\"}";
+
+			final HttpResponse<byte[]> replaced = send(request(location, "PUT", body).header("If-Match", eTag));
+			assertThat(replaced.statusCode()).isEqualTo(200);
+			assertThat(mapper.readTree(replaced.body()).get("username").asText()).isEqualTo(user.getUsername() + "x");
+			assertThat(send(request(location, "PUT", body).header("If-Match", eTag)).statusCode()).isEqualTo(412);
+
+			final UUID routingKey = user.getOwner() != null ? user.getOwner().getId() : user.getId();
+			assertThat(ShardContext.call(router.shardOf(routingKey), () -> repository.findById(user.getId())))
+					.hasValueSatisfying(found -> assertThat(found.getFirstname()).isEqualTo("Replaced"));
+		}
+
+		final String body = "{\"username\":\"missing\",\"email\":\"missing@example.org\",\"firstname\":\"Missing\","
+				+ "\"lastname\":\"User\"}";
+		assertThat(send(request("/api/users/" + UUID.randomUUID(), "PUT", body)).statusCode()).isEqualTo(404);
+	}
+
+	private HttpRequest.Builder get(final String path) {
+		return HttpRequest.newBuilder(uri(path));
+	}
+
+	private HttpRequest.Builder request(final String path, final String method, final String body) {
+		return HttpRequest.newBuilder(uri(path)).header("Content-Type", "application/json").method(method,
+				HttpRequest.BodyPublishers.ofString(body));
+	}
+
+	private URI uri(final String path) {
+		return URI.create("http://localhost:" + port + path);
+	}
+
+	private HttpResponse<byte[]> send(final HttpRequest.Builder request) throws IOException, InterruptedException {
+		return client.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+	}
+}
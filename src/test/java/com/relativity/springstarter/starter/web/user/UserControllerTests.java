@@ -0,0 +1,184 @@
+package com.relativity.springstarter.starter.web.user;
+
+import static com.relativity.springstarter.starter.persistence.user.entity.TestUsers.user;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.relativity.springstarter.starter.persistence.user.dao.UserRepository;
+import com.relativity.springstarter.starter.persistence.user.entity.User;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import javax.persistence.EntityManagerFactory;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+		properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class UserControllerTests {
+
+	@LocalServerPort
+	private int port;
+
+	@Autowired
+	private UserRepository repository;
+
+	@Autowired
+	private ObjectMapper mapper;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private final HttpClient client = HttpClient.newHttpClient();
+
+	private User owner;
+
+	@BeforeEach
+	void setUp() {
+		owner = user("owner");
+		repository.add(owner);
+
+		final List<User> users = new ArrayList<>();
+		for (int i = 0; i < 30; i++) {
+			final User user = user("user" + i);
+			user.setOwner(i < 3 ? owner : null);
+			users.add(user);
+		}
+		repository.addAll(users);
+	}
+
+	@AfterEach
+	void tearDown() {
+		repository.deleteAll();
+	}
+
+	@Test
+	void listsUsersWithoutLoadingEntities() throws Exception {
+		final Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+
+		final JsonNode first = json(send(get("/api/users?size=20&total=true")));
+		assertThat(first.get("content")).hasSize(20);
+		assertThat(first.get("total").asLong()).isEqualTo(31);
+		assertThat(first.get("content").get(0).get("username").asText()).isEqualTo("owner");
+		assertThat(first.get("content").get(1).get("owner").asText()).isEqualTo(owner.getId().toString());
+		assertThat(first.get("content").get(10).get("owner").isNull()).isTrue();
+
+		final JsonNode second = json(send(get("/api/users?size=20&token=" + first.get("next").asText())));
+		assertThat(second.get("content")).hasSize(11);
+		assertThat(second.has("next")).isFalse();
+
+		assertThat(statistics.getEntityLoadCount()).isZero();
+	}
+
+	@Test
+	void answersNotModifiedForMatchingETag() throws Exception {
+		final HttpResponse<byte[]> response = send(get("/api/users/" + owner.getId()));
+		final String eTag = response.headers().firstValue("ETag").orElseThrow();
+		assertThat(eTag).startsWith("\"");
+		assertThat(send(get("/api/users")).headers().firstValue("ETag").orElseThrow()).startsWith("W/\"");
+
+		final HttpResponse<byte[]> notModified = send(
+				get("/api/users/" + owner.getId()).header("If-None-Match", eTag));
+		assertThat(notModified.statusCode()).isEqualTo(304);
+		assertThat(notModified.body()).isEmpty();
+
+		final HttpResponse<byte[]> selected = send(get("/api/users/" + owner.getId() + "?fields=id")
+				.header("If-None-Match", eTag));
+		assertThat(selected.statusCode()).isEqualTo(200);
+	}
+
+	@Test
+	void writesSelectedFields() throws Exception {
+		final JsonNode user = json(send(get("/api/users/" + owner.getId() + "?fields=id,username")));
+		assertThat(user.size()).isEqualTo(2);
+		assertThat(user.get("id").asText()).isEqualTo(owner.getId().toString());
+		assertThat(user.get("username").asText()).isEqualTo("owner");
+
+		assertThat(send(get("/api/users?fields=password")).statusCode()).isEqualTo(400);
+	}
+
+	@Test
+	void compressesLargeLists() throws Exception {
+		final HttpResponse<byte[]> response = send(get("/api/users?size=31").header("Accept-Encoding", "gzip"));
+
+		assertThat(response.headers().firstValue("Content-Encoding")).hasValue("gzip");
+		try (GZIPInputStream input = new GZIPInputStream(new ByteArrayInputStream(response.body()))) {
+			assertThat(mapper.readTree(input).get("content")).hasSize(31);
+		}
+	}
+
+	@Test
+	void searchesUsers() throws Exception {
+		final JsonNode found = json(send(get("/api/users/search?q=USER1&fields=username")));
+
+		assertThat(found.get("content")).hasSizeGreaterThanOrEqualTo(11);
+		assertThat(found.get("content").get(0).get("username").asText()).startsWith("user1");
+	}
+
+	@Test
+	void createsReplacesAndDeletesUsers() throws Exception {
+		final String body = "{\"username\":\"Bob\",\"email\":\"bob@example.org\",\"firstname\":\"Bob\","
+				+ "\"lastname\":\"Builder\",\"password\":\"secret\"}";
+
+		final HttpResponse<byte[]> created = send(request("/api/users", "POST", body));
+		assertThat(created.statusCode()).isEqualTo(201);
+		final String location = created.headers().firstValue("Location").orElseThrow();
+		final String eTag = created.headers().firstValue("ETag").orElseThrow();
+		assertThat(send(request("/api/users", "POST", body)).statusCode()).isEqualTo(409);
+		assertThat(repository.authenticate("bob", "secret".toCharArray())).isNotNull();
+
+		final String replacement = body.replace("\"Bob\",\"email\"", "\"Robert\",\"email\"");
+		assertThat(send(request(location, "PUT", replacement).header("If-Match", "W/\"0-0\"")).statusCode())
+				.isEqualTo(412);
+		assertThat(send(request(location, "PUT", replacement).header("If-Match", "W/" + eTag)).statusCode())
+				.isEqualTo(412);
+		final HttpResponse<byte[]> replaced = send(request(location, "PUT", replacement).header("If-Match", eTag));
+		assertThat(replaced.statusCode()).isEqualTo(200);
+		assertThat(json(replaced).get("username").asText()).isEqualTo("Robert");
+		assertThat(replaced.headers().firstValue("ETag").orElseThrow()).isNotEqualTo(eTag);
+		assertThat(send(request(location, "PUT", body).header("If-Match", eTag)).statusCode()).isEqualTo(412);
+
+		assertThat(send(request(location, "DELETE", null)).statusCode()).isEqualTo(204);
+		assertThat(send(get(location)).statusCode()).isEqualTo(404);
+		assertThat(send(request(location, "DELETE", null)).statusCode()).isEqualTo(404);
+	}
+
+	private HttpRequest.Builder get(final String path) {
+		return HttpRequest.newBuilder(uri(path));
+	}
+
+	private HttpRequest.Builder request(final String path, final String method, final String body) {
+		return HttpRequest.newBuilder(uri(path)).header("Content-Type", "application/json").method(method,
+				body == null ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofString(body));
+	}
+
+	private URI uri(final String path) {
+		return path.startsWith("http") ? URI.create(path) : URI.create("http://localhost:" + port + path);
+	}
+
+	private HttpResponse<byte[]> send(final HttpRequest.Builder request) throws IOException, InterruptedException {
+		return client.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+	}
+
+	private JsonNode json(final HttpResponse<byte[]> response) throws IOException {
+		assertThat(response.statusCode()).isEqualTo(200);
+		return mapper.readTree(response.body());
+	}
+}
@@ -0,0 +1,99 @@
+package com.relativity.springstarter.starter.web.user;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.relativity.springstarter.starter.persistence.user.dao.UserRepository;
+import com.relativity.springstarter.starter.persistence.user.entity.TestUsers;
+import com.relativity.springstarter.starter.persistence.user.entity.User;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class UserExportControllerTests {
+
+	@Autowired
+	private MockMvc mvc;
+
+	@Autowired
+	private UserRepository repository;
+
+	@Autowired
+	private ObjectMapper mapper;
+
+	private User owner;
+
+	@BeforeEach
+	void setUp() {
+		owner = user("owner");
+		repository.add(owner);
+
+		for (int i = 0; i < 10; i++) {
+			final User user = user("user" + i);
+			user.setOwner(i < 3 ? owner : null);
+			repository.add(user);
+		}
+	}
+
+	@AfterEach
+	void tearDown() {
+		repository.deleteAll();
+	}
+
+	@Test
+	void exportsAllUsers() throws Exception {
+		final List<JsonNode> users = export("/api/users/export");
+
+		assertThat(users).hasSize(11);
+		assertThat(users).allSatisfy(user -> assertThat(user.has("password")).isFalse());
+	}
+
+	@Test
+	void exportsOwnedUsers() throws Exception {
+		final List<JsonNode> users = export("/api/users/export?owner=" + owner.getId());
+
+		assertThat(users).hasSize(3).allSatisfy(
+				user -> assertThat(user.get("owner").asText()).isEqualTo(owner.getId().toString()));
+	}
+
+	private List<JsonNode> export(final String path) throws Exception {
+		final MvcResult result = mvc.perform(get(path)).andExpect(request().asyncStarted()).andReturn();
+		final String body = mvc.perform(asyncDispatch(result)).andExpect(status().isOk())
+				.andExpect(content().contentType(MediaType.APPLICATION_NDJSON)).andReturn().getResponse()
+				.getContentAsString();
+
+		final List<JsonNode> users = new ArrayList<>();
+		try (Stream<String> lines = body.lines()) {
+			for (final String line : (Iterable<String>) lines::iterator) {
+				users.add(mapper.readTree(line));
+			}
+		}
+		return users;
+	}
+
+	private static User user(final String username) {
+		final User user = TestUsers.user(username);
+		user.setPassword("hash");
+		return user;
+	}
+
+}